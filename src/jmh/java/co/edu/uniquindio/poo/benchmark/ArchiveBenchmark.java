@@ -0,0 +1,60 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+
+/**
+ * Costo de una recolección completa con {@code size} citas vivas en el heap
+ * o archivadas por columnas. La memoria ocupada tras recolectar se registra
+ * al prepararlo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ArchiveBenchmark {
+    private static final Logger LOG = Logger.getLogger(ArchiveBenchmark.class.getName());
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"heap", "columns"})
+    public String storage;
+
+    private ClinicDataStore store;
+
+    @Setup
+    public void create() {
+        store = Fixtures.store(10_000, 1_000, size);
+        if (storage.equals("columns")) {
+            store.archiveBefore(LocalDateTime.MAX);
+        }
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        LOG.info(String.format("%d citas (%s): %d MB ocupados, archivo %s", size, storage,
+                (runtime.totalMemory() - runtime.freeMemory()) >> 20, store.getArchive()));
+    }
+
+    @Benchmark
+    public int fullGc() {
+        System.gc();
+        return store.getArchive().size();
+    }
+}
@@ -0,0 +1,171 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+import co.edu.uniquindio.poo.api.BookingServer;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.Workers;
+
+/**
+ * Prueba de carga del servicio de reservas: {@code clients} clientes
+ * concurrentes contra un servidor en el mismo proceso, cada uno con su
+ * conexión persistente. Ocho de cada diez peticiones son lecturas (agenda de
+ * un médico, búsqueda y ficha de paciente) y el resto reservas en horas al
+ * azar, de las que una parte choca con citas existentes y responde 409.
+ * <p>
+ * No es un benchmark JMH: mide el servicio completo, con HTTP y JSON, y
+ * descarta los primeros segundos como calentamiento. Imprime peticiones por
+ * segundo y latencias p50/p99/máxima. Se ejecuta con:
+ * <pre>
+ * mvn -P benchmark -DskipTests test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=co.edu.uniquindio.poo.benchmark.BookingLoadTest -Dexec.args="2000 30"
+ * </pre>
+ * Argumentos: clientes (2000) y segundos de medición (30).
+ */
+public final class BookingLoadTest {
+    private static final int PATIENTS = 10_000;
+    private static final int DOCTORS = 200;
+    private static final int APPOINTMENTS = 20_000;
+    private static final int WARMUP_SECONDS = 5;
+
+    private BookingLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        // Sin esto HttpURLConnection solo reutiliza cinco conexiones por servidor
+        System.setProperty("http.maxConnections", String.valueOf(clients));
+        // y el servidor cierra las conexiones inactivas por encima de 200
+        System.setProperty("sun.net.httpserver.maxIdleConnections", String.valueOf(clients));
+
+        ClinicDataStore store = Fixtures.store(PATIENTS, DOCTORS, APPOINTMENTS);
+        ExecutorService pool = Workers.newWorker();
+        try (BookingServer server = BookingServer.start(store, new InetSocketAddress("localhost", 0))) {
+            String base = "http://localhost:" + server.getPort();
+            long measureFrom = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+            long deadline = measureFrom + seconds * 1_000_000_000L;
+            LongAdder errors = new LongAdder();
+            LongAdder conflicts = new LongAdder();
+
+            List<Future<long[]>> results = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                results.add(pool.submit(() -> runClient(base, measureFrom, deadline, errors, conflicts)));
+            }
+            long[] latencies = merge(results);
+            Arrays.sort(latencies);
+
+            System.out.printf("%d clientes, %d s: %d peticiones, %.0f peticiones/s%n", clients, seconds,
+                    latencies.length, latencies.length / (double) seconds);
+            if (latencies.length > 0) {
+                System.out.printf("Latencia p50 %.2f ms, p99 %.2f ms, máxima %.2f ms%n", percentile(latencies, 0.50),
+                        percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+            }
+            System.out.printf("Reservas rechazadas por solape: %d, errores: %d, citas al final: %d%n",
+                    conflicts.sum(), errors.sum(), store.scanAppointments().size());
+            System.out.println("Caché de agendas: " + store.getAgendaStats());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /** Latencias en nanosegundos de las peticiones terminadas dentro de la ventana de medición. */
+    private static long[] runClient(String base, long measureFrom, long deadline, LongAdder errors,
+            LongAdder conflicts) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] latencies = new long[1024];
+        int count = 0;
+        long now;
+        while ((now = System.nanoTime()) < deadline) {
+            int status;
+            try {
+                int pick = random.nextInt(10);
+                if (pick < 4) {
+                    // Días completos, como los pide la vista de agenda: salen de la caché de agendas
+                    LocalDateTime day = Fixtures.BASE.toLocalDate().plusDays(random.nextInt(60)).atStartOfDay();
+                    status = request(base + "/doctors/D" + random.nextInt(DOCTORS) + "/agenda?from=" + day + "&to="
+                            + day.plusDays(1), null);
+                } else if (pick < 6) {
+                    status = request(base + "/patients?limit=20&q=p" + random.nextInt(PATIENTS / 10), null);
+                } else if (pick < 8) {
+                    status = request(base + "/patients/P" + random.nextInt(PATIENTS), null);
+                } else {
+                    String body = "{\"patientId\":\"P" + random.nextInt(PATIENTS) + "\",\"doctorId\":\"D"
+                            + random.nextInt(DOCTORS) + "\",\"dateTime\":\""
+                            + Fixtures.BASE.plusMinutes(30L * random.nextInt(4000)) + "\",\"basePrice\":\"50\"}";
+                    status = request(base + "/appointments", body);
+                }
+            } catch (IOException e) {
+                errors.increment();
+                continue;
+            }
+            if (status == 409) {
+                conflicts.increment();
+            } else if (status >= 400) {
+                errors.increment();
+            }
+            long end = System.nanoTime();
+            if (now >= measureFrom && end < deadline) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = end - now;
+            }
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static int request(String url, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        if (body != null) {
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        // Leer la respuesta entera devuelve la conexión al pool para la siguiente petición
+        try (InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+            if (in != null) {
+                in.readAllBytes();
+            }
+        }
+        return status;
+    }
+
+    private static long[] merge(List<Future<long[]>> results) throws Exception {
+        List<long[]> parts = new ArrayList<>(results.size());
+        int total = 0;
+        for (Future<long[]> result : results) {
+            long[] part = result.get();
+            parts.add(part);
+            total += part.length;
+        }
+        long[] all = new long[total];
+        int offset = 0;
+        for (long[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        return all;
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        return sorted[(int) Math.min(sorted.length - 1, Math.floor(p * sorted.length))] / 1e6;
+    }
+}
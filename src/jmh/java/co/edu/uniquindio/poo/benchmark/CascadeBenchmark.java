@@ -0,0 +1,63 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.StandardPriceStrategy;
+
+/**
+ * Baja en cascada de un médico con {@code appointments} citas, dentro de un
+ * almacén con otras 100.000 citas que no deben recorrerse.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 50)
+@Measurement(iterations = 200)
+@Fork(1)
+public class CascadeBenchmark {
+
+    @Param({"10", "1000"})
+    public int appointments;
+
+    private ClinicDataStore store;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        store = Fixtures.store(10_000, 100, 100_000);
+    }
+
+    @Setup(Level.Iteration)
+    public void bookDoctor() {
+        Doctor doctor = Fixtures.doctor("X");
+        store.addDoctor(doctor);
+        store.batch(() -> {
+            for (int i = 0; i < appointments; i++) {
+                Patient patient = store.findPatient("P" + i).orElseThrow();
+                store.addAppointment(new Appointment(patient, doctor, Fixtures.BASE.plusMinutes(30L * i), 50.0,
+                        new StandardPriceStrategy()));
+            }
+        });
+    }
+
+    @Benchmark
+    public void removeDoctor() {
+        store.removeDoctor("X");
+    }
+}
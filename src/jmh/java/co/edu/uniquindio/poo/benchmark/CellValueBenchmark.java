@@ -0,0 +1,79 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import co.edu.uniquindio.poo.controllers.CellValues;
+import co.edu.uniquindio.poo.model.Patient;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableColumn.CellDataFeatures;
+import javafx.scene.control.cell.PropertyValueFactory;
+
+/**
+ * Costo de refrescar todas las celdas de una tabla de pacientes de
+ * {@code rows} filas: fábricas por reflexión frente a getters directos.
+ * No necesita la interfaz, solo las columnas y sus fábricas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CellValueBenchmark {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"reflective", "accessor"})
+    public String factory;
+
+    private List<Patient> patients;
+    private List<TableColumn<Patient, String>> columns;
+
+    @Setup
+    public void create() {
+        patients = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            patients.add(Fixtures.patient("P" + i));
+        }
+        columns = List.of(column("id", Patient::getId), column("name", Patient::getName),
+                column("phone", Patient::getPhone), column("historyNumber", Patient::getHistoryNumber),
+                column("address", Patient::getAddress));
+    }
+
+    private TableColumn<Patient, String> column(String property, Function<Patient, String> getter) {
+        TableColumn<Patient, String> column = new TableColumn<>();
+        if (factory.equals("reflective")) {
+            column.setCellValueFactory(new PropertyValueFactory<>(property));
+        } else {
+            column.setCellValueFactory(CellValues.of(getter));
+        }
+        return column;
+    }
+
+    @Benchmark
+    public void refreshAll(Blackhole blackhole) {
+        for (Patient patient : patients) {
+            for (TableColumn<Patient, String> column : columns) {
+                blackhole.consume(column.getCellValueFactory()
+                        .call(new CellDataFeatures<>(null, column, patient)).getValue());
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.time.LocalDateTime;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.DoctorFactory;
+import co.edu.uniquindio.poo.services.PatientFactory;
+import co.edu.uniquindio.poo.services.PersonFactory;
+import co.edu.uniquindio.poo.services.StandardPriceStrategy;
+
+/**
+ * Datos sintéticos para los benchmarks.
+ */
+final class Fixtures {
+    static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    private static final PersonFactory PATIENTS = new PatientFactory();
+    private static final PersonFactory DOCTORS = new DoctorFactory();
+
+    private Fixtures() {
+    }
+
+    static Patient patient(String id) {
+        return (Patient) PATIENTS.createPerson(id, "Paciente " + id, "555-0000", "H" + id, "Calle 1");
+    }
+
+    static Doctor doctor(String id) {
+        return (Doctor) DOCTORS.createPerson(id, "Médico " + id, "555-1111", "Cardiología", "L" + id);
+    }
+
+    /**
+     * Almacén con {@code patients} pacientes, {@code doctors} médicos y
+     * {@code appointments} citas repartidas entre ellos sin solaparse.
+     */
+    static ClinicDataStore store(int patients, int doctors, int appointments) {
+        ClinicDataStore store = new ClinicDataStore();
+        store.batch(() -> {
+            for (int i = 0; i < patients; i++) {
+                store.addPatient(patient("P" + i));
+            }
+            for (int i = 0; i < doctors; i++) {
+                store.addDoctor(doctor("D" + i));
+            }
+            for (int i = 0; i < appointments; i++) {
+                Patient patient = store.findPatient("P" + (i % patients)).orElseThrow();
+                Doctor doctor = store.findDoctor("D" + (i % doctors)).orElseThrow();
+                store.addAppointment(new Appointment(patient, doctor, BASE.plusMinutes(30L * (i / doctors)), 50.0,
+                        new StandardPriceStrategy()));
+            }
+        });
+        return store;
+    }
+}
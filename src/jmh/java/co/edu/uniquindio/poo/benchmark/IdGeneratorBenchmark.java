@@ -0,0 +1,75 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.edu.uniquindio.poo.persistence.FileIdBlockSource;
+import co.edu.uniquindio.poo.services.BlockIdGenerator;
+import co.edu.uniquindio.poo.services.IdBlockSource;
+import co.edu.uniquindio.poo.services.IdGenerator;
+
+/**
+ * Ids por segundo con 8 hilos pidiendo a la vez: un contador atómico único
+ * (lo que había), bloques en memoria y bloques reservados en archivo con
+ * fsync, según el tamaño de bloque. Con bloques de 1 cada id toca la fuente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(8)
+@Fork(1)
+public class IdGeneratorBenchmark {
+
+    @Param({"atomic", "memory", "file"})
+    public String source;
+
+    @Param({"1", "64", "1024"})
+    public int blockSize;
+
+    private Path dir;
+    private AtomicLong counter;
+    private IdGenerator generator;
+
+    @Setup(Level.Trial)
+    public void create() throws IOException {
+        counter = new AtomicLong();
+        dir = Files.createTempDirectory("ids");
+        IdBlockSource blocks = switch (source) {
+            case "memory" -> IdBlockSource.inMemory();
+            case "file" -> new FileIdBlockSource(dir.resolve("ids.seq"));
+            default -> null;
+        };
+        generator = blocks == null ? null : new BlockIdGenerator(blocks, blockSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        Files.deleteIfExists(dir.resolve("ids.seq"));
+        Files.delete(dir);
+    }
+
+    @Benchmark
+    public long nextId() {
+        return generator == null ? counter.incrementAndGet() : generator.nextId();
+    }
+}
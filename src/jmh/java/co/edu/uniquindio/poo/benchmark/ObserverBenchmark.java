@@ -0,0 +1,62 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.edu.uniquindio.poo.services.ClinicDataMirror;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.DataChangeEvent;
+
+/**
+ * Costo de publicar un lote de {@code changes} altas y reflejarlo en las
+ * listas de las tablas, como hace App, pero sin la interfaz: el observador
+ * acumula los cambios y los aplica al espejo en el mismo hilo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 20)
+@Measurement(iterations = 50)
+@Fork(1)
+public class ObserverBenchmark {
+
+    @Param({"1", "100", "10000"})
+    public int changes;
+
+    private ClinicDataStore store;
+    private ClinicDataMirror mirror;
+
+    @Setup(Level.Iteration)
+    public void prepare() {
+        store = Fixtures.store(10_000, 100, 10_000);
+        mirror = new ClinicDataMirror(store);
+        DataChangeEvent.Builder pending = new DataChangeEvent.Builder();
+        store.registerObserver(event -> {
+            pending.merge(event);
+            mirror.apply(pending.build());
+            pending.clear();
+        });
+    }
+
+    @Benchmark
+    public ClinicDataMirror notifyAndResync() {
+        store.batch(() -> {
+            for (int i = 0; i < changes; i++) {
+                store.addPatient(Fixtures.patient("N" + i));
+            }
+        });
+        return mirror;
+    }
+}
@@ -0,0 +1,56 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.services.PriceStrategy;
+import co.edu.uniquindio.poo.services.PriceStrategyRegistry;
+
+/**
+ * Cálculo del precio final de una cita con cada estrategia.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    @Param({"standard", "specialist"})
+    public String strategy;
+
+    private Appointment appointment;
+
+    @Setup
+    public void create() {
+        PriceStrategy priceStrategy = PriceStrategyRegistry.byName(strategy);
+        appointment = new Appointment(Fixtures.patient("P"), Fixtures.doctor("D"), Fixtures.BASE, 80.0,
+                priceStrategy);
+    }
+
+    /** Lectura del precio en caché, como al pintar una celda. */
+    @Benchmark
+    public BigDecimal getFinalPrice() {
+        return appointment.getFinalPrice();
+    }
+
+    /** Cálculo completo con aritmética decimal, como al cambiar la estrategia. */
+    @Benchmark
+    public BigDecimal calculateFinalPrice() {
+        return appointment.calculateFinalPrice();
+    }
+}
@@ -0,0 +1,65 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.PriceStrategy;
+import co.edu.uniquindio.poo.services.PriceStrategyRegistry;
+import co.edu.uniquindio.poo.services.RepricingReport;
+
+/**
+ * Cambio de tarifa sobre todas las citas de {@code size} con {@code threads}
+ * hilos. Cada invocación alterna la estrategia para que todas las citas cambien.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RepricingBenchmark {
+
+    @Param({"1000000"})
+    public int size;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ClinicDataStore store;
+    private ForkJoinPool pool;
+    private boolean specialist;
+
+    @Setup(Level.Trial)
+    public void create() {
+        store = Fixtures.store(10_000, 1_000, size);
+        pool = new ForkJoinPool(threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public RepricingReport repriceAll() {
+        specialist = !specialist;
+        PriceStrategy strategy = specialist ? PriceStrategyRegistry.SPECIALIST : PriceStrategyRegistry.STANDARD;
+        return store.reprice(doctor -> true, LocalDateTime.MIN, LocalDateTime.MAX, strategy, pool);
+    }
+}
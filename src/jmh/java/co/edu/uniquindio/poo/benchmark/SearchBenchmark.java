@@ -0,0 +1,52 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.PersonSearchIndex;
+
+/**
+ * Búsqueda de los 20 mejores pacientes para una consulta escrita a medias,
+ * sobre un índice de {@code size} pacientes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SearchBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    @Param({"pac", "p4242", "555 h99"})
+    public String query;
+
+    private PersonSearchIndex<Patient> index;
+
+    @Setup
+    public void create() {
+        ClinicDataStore store = Fixtures.store(size, 1, 0);
+        index = PersonSearchIndex.patients(store);
+    }
+
+    @Benchmark
+    public List<Patient> topTwenty() {
+        return index.search(query, 20);
+    }
+}
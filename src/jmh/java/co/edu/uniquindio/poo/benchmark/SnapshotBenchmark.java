@@ -0,0 +1,98 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.ClinicSnapshot;
+import co.edu.uniquindio.poo.services.StandardPriceStrategy;
+
+/**
+ * Informe de ingresos sobre {@code size} citas mientras otro hilo reserva y
+ * cancela sin parar: copiando la lista antes de recorrerla (lo que había que
+ * hacer para no chocar con los escritores) o recorriendo una foto del almacén.
+ * {@code acquire} mide solo lo que cuesta tomar la foto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class SnapshotBenchmark {
+    private static final int DOCTORS = 100;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private ClinicDataStore store;
+    private Thread writer;
+    private volatile boolean running;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        store = Fixtures.store(size, DOCTORS, size);
+        Patient patient = store.findPatient("P0").orElseThrow();
+        Doctor doctor = store.findDoctor("D0").orElseThrow();
+        running = true;
+        writer = new Thread(() -> {
+            long next = 0;
+            while (running) {
+                Appointment a = new Appointment(patient, doctor, Fixtures.BASE.plusYears(100).plusMinutes(30 * next++),
+                        50.0, new StandardPriceStrategy());
+                store.addAppointment(a);
+                store.removeAppointment(a);
+            }
+        });
+        writer.start();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.join();
+    }
+
+    @Benchmark
+    public BigDecimal copyThenSum() {
+        List<Appointment> copy = new ArrayList<>(store.scanAppointments());
+        return sum(copy);
+    }
+
+    @Benchmark
+    public BigDecimal snapshotSum() {
+        return sum(store.snapshot().appointments());
+    }
+
+    @Benchmark
+    public ClinicSnapshot acquire() {
+        return store.snapshot();
+    }
+
+    private static BigDecimal sum(Iterable<Appointment> appointments) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (Appointment a : appointments) {
+            total = total.add(a.getFinalPrice());
+        }
+        return total;
+    }
+}
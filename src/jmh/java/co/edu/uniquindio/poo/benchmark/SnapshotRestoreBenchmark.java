@@ -0,0 +1,73 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.edu.uniquindio.poo.persistence.ClinicPersistence;
+import co.edu.uniquindio.poo.persistence.FsyncPolicy;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+
+/**
+ * Apertura de un almacén desde una foto con {@code appointments} citas
+ * repartidas entre 1.000 médicos: lectura de la foto, carga en bloque de las
+ * agendas y publicación de la primera versión. El objetivo es abrir un millón
+ * de citas en menos de un segundo con cuatro núcleos o más.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class SnapshotRestoreBenchmark {
+    private static final int DOCTORS = 1_000;
+
+    @Param({"100000", "1000000"})
+    public int appointments;
+
+    private Path dir;
+
+    @Setup(Level.Trial)
+    public void writeSnapshot() throws IOException {
+        dir = Files.createTempDirectory("clinic-restore");
+        ClinicDataStore store = Fixtures.store(100_000, DOCTORS, appointments);
+        try (ClinicPersistence persistence = ClinicPersistence.open(store, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            persistence.snapshot();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteSnapshot() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public ClinicDataStore open() throws IOException {
+        ClinicDataStore store = new ClinicDataStore();
+        ClinicPersistence.open(store, dir, FsyncPolicy.NEVER, Duration.ZERO).close();
+        return store;
+    }
+}
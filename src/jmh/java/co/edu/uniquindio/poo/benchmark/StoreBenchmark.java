@@ -0,0 +1,82 @@
+package co.edu.uniquindio.poo.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.StandardPriceStrategy;
+
+/**
+ * Altas de pacientes y citas sobre un almacén con {@code size} entidades.
+ * Cada iteración mide un lote de {@link #BATCH} altas y luego las deshace,
+ * así el tamaño del almacén no crece durante la medición.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = StoreBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = StoreBenchmark.BATCH)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class StoreBenchmark {
+    static final int BATCH = 1_000;
+    private static final int DOCTORS = 100;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private ClinicDataStore store;
+    private Doctor doctor;
+    private Patient patient;
+    private final List<String> addedPatients = new ArrayList<>();
+    private final List<Appointment> addedAppointments = new ArrayList<>();
+    private int next;
+
+    @Setup(Level.Trial)
+    public void fill() {
+        store = Fixtures.store(size, DOCTORS, size);
+        doctor = store.findDoctor("D0").orElseThrow();
+        patient = store.findPatient("P0").orElseThrow();
+    }
+
+    @TearDown(Level.Iteration)
+    public void undo() {
+        addedPatients.forEach(store::removePatient);
+        addedAppointments.forEach(store::removeAppointment);
+        addedPatients.clear();
+        addedAppointments.clear();
+    }
+
+    @Benchmark
+    public void addPatient() {
+        String id = "N" + next++;
+        store.addPatient(Fixtures.patient(id));
+        addedPatients.add(id);
+    }
+
+    @Benchmark
+    public void addAppointment() {
+        // Después de la última cita del médico: recorre su agenda completa hasta el final
+        Appointment appointment = new Appointment(patient, doctor,
+                Fixtures.BASE.plusYears(100).plusMinutes(30L * next++), 50.0, new StandardPriceStrategy());
+        store.addAppointment(appointment);
+        addedAppointments.add(appointment);
+    }
+}
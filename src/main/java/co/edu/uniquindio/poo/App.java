@@ -1,41 +1,69 @@
 package co.edu.uniquindio.poo;
 
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 
+import co.edu.uniquindio.poo.api.BookingServer;
 import co.edu.uniquindio.poo.controllers.AppointmentController;
 import co.edu.uniquindio.poo.controllers.DoctorController;
 import co.edu.uniquindio.poo.controllers.PatientController;
 import co.edu.uniquindio.poo.model.Appointment;
 import co.edu.uniquindio.poo.model.Doctor;
 import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.persistence.ClinicPersistence;
+import co.edu.uniquindio.poo.services.AsyncClinicStore;
+import co.edu.uniquindio.poo.services.ClinicDataMirror;
 import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.DataChange;
+import co.edu.uniquindio.poo.services.DataChangeEvent;
 import co.edu.uniquindio.poo.services.DataObserver;
 import co.edu.uniquindio.poo.services.DoctorFactory;
+import co.edu.uniquindio.poo.services.EntityType;
+import co.edu.uniquindio.poo.services.FrameExecutor;
+import co.edu.uniquindio.poo.services.PagedObservableList;
 import co.edu.uniquindio.poo.services.PatientFactory;
 import co.edu.uniquindio.poo.services.PersonFactory;
-import co.edu.uniquindio.poo.services.SpecialistPriceStrategy;
-import co.edu.uniquindio.poo.services.StandardPriceStrategy;
+import co.edu.uniquindio.poo.services.PersonSearchIndex;
+import co.edu.uniquindio.poo.services.PriceStrategyRegistry;
+import co.edu.uniquindio.poo.transfer.AppointmentExporter;
+import co.edu.uniquindio.poo.transfer.BulkImporter;
+import co.edu.uniquindio.poo.transfer.ExportFormat;
+import co.edu.uniquindio.poo.transfer.ExportReport;
+import co.edu.uniquindio.poo.transfer.ImportReport;
 import javafx.application.Application;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
 public class App extends Application implements DataObserver {
     private ClinicDataStore dataStore = ClinicDataStore.getInstance();
+    private AsyncClinicStore asyncStore;
     private TabPane tabPane;
 
-    private ObservableList<Patient> patientData;
-    private ObservableList<Doctor> doctorData;
-    private ObservableList<Appointment> appointmentData;
+    private ClinicDataMirror mirror;
+    private PagedObservableList<Appointment> appointmentPages;
 
     private PatientController patientController;
     private DoctorController doctorController;
     private AppointmentController appointmentController;
 
+    private final DataChangeEvent.Builder pendingChanges = new DataChangeEvent.Builder();
+    private boolean refreshScheduled;
+    private final Deque<DataChange> backlog = new ArrayDeque<>();
+    private ClinicPersistence persistence;
+    private BookingServer bookingServer;
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -43,16 +71,20 @@ public class App extends Application implements DataObserver {
     @Override
     public void start(Stage primaryStage) {
 
-        patientData = FXCollections.observableArrayList(dataStore.getPatients());
-        doctorData = FXCollections.observableArrayList(dataStore.getDoctors());
-        appointmentData = FXCollections.observableArrayList(dataStore.getAppointments());
+        openPersistence();
+
+        mirror = new ClinicDataMirror(dataStore);
+        appointmentPages = new PagedObservableList<>(dataStore.appointmentsByDate(false));
         dataStore.registerObserver(this);
 
         initializeDemoData();
+        startBookingServer();
 
-        patientController = new PatientController(patientData);
-        doctorController = new DoctorController(doctorData);
-        appointmentController = new AppointmentController(appointmentData, patientData, doctorData);
+        asyncStore = AsyncClinicStore.forFx(dataStore);
+        patientController = new PatientController(mirror.getPatients(), asyncStore);
+        doctorController = new DoctorController(mirror.getDoctors(), asyncStore);
+        appointmentController = new AppointmentController(appointmentPages, PersonSearchIndex.patients(dataStore),
+                PersonSearchIndex.doctors(dataStore), asyncStore);
 
         BorderPane root = new BorderPane();
         root.setPadding(new Insets(10));
@@ -65,6 +97,7 @@ public class App extends Application implements DataObserver {
 
         tabPane.getTabs().addAll(patientsTab, doctorsTab, appointmentsTab);
 
+        root.setTop(createMenuBar(primaryStage));
         root.setCenter(tabPane);
 
         Scene scene = new Scene(root, 500, 750);
@@ -74,6 +107,128 @@ public class App extends Application implements DataObserver {
         primaryStage.show();
     }
 
+    @Override
+    public void stop() throws IOException {
+        if (bookingServer != null) {
+            bookingServer.close();
+        }
+        if (asyncStore != null) {
+            asyncStore.close();
+        }
+        if (persistence != null) {
+            persistence.snapshot();
+            persistence.close();
+        }
+    }
+
+    /**
+     * Restaura el almacén desde la última foto y la cola del diario.
+     * Propiedades: clinic.dataDir, clinic.fsync y clinic.snapshotMinutes.
+     */
+    private void openPersistence() {
+        try {
+            persistence = ClinicPersistence.openConfigured(dataStore);
+        } catch (IOException e) {
+            showAlert("Persistencia", "No se pudo abrir el diario de datos: " + e.getMessage(), Alert.AlertType.WARNING);
+        }
+    }
+
+    /**
+     * Con la propiedad clinic.http.port, atiende también el servicio HTTP de
+     * reservas sobre el mismo almacén que usa la interfaz.
+     */
+    private void startBookingServer() {
+        Integer port = Integer.getInteger("clinic.http.port");
+        if (port == null) {
+            return;
+        }
+        try {
+            bookingServer = BookingServer.start(dataStore, new InetSocketAddress(port));
+        } catch (IOException e) {
+            showAlert("Servicio HTTP", "No se pudo abrir el puerto " + port + ": " + e.getMessage(),
+                    Alert.AlertType.WARNING);
+        }
+    }
+
+    private MenuBar createMenuBar(Stage stage) {
+        Menu fileMenu = new Menu("Archivo");
+        fileMenu.getItems().addAll(
+                createImportItem(stage, "Importar pacientes...", EntityType.PATIENT),
+                createImportItem(stage, "Importar médicos...", EntityType.DOCTOR),
+                createImportItem(stage, "Importar citas...", EntityType.APPOINTMENT),
+                new SeparatorMenuItem(),
+                createExportItem(stage));
+        return new MenuBar(fileMenu);
+    }
+
+    private MenuItem createImportItem(Stage stage, String text, EntityType type) {
+        MenuItem item = new MenuItem(text);
+        item.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter("CSV o JSON", "*.csv", "*.json", "*.jsonl", "*.ndjson"));
+            File file = chooser.showOpenDialog(stage);
+            if (file != null) {
+                importInBackground(file.toPath(), type);
+            }
+        });
+        return item;
+    }
+
+    private MenuItem createExportItem(Stage stage) {
+        MenuItem item = new MenuItem("Exportar citas...");
+        item.setOnAction(e -> {
+            FileChooser chooser = new FileChooser();
+            chooser.getExtensionFilters().addAll(
+                    new FileChooser.ExtensionFilter("CSV", "*.csv"),
+                    new FileChooser.ExtensionFilter("Binario", "*.bin"));
+            chooser.setInitialFileName("citas.csv");
+            File file = chooser.showSaveDialog(stage);
+            if (file != null) {
+                ExportFormat format = file.getName().toLowerCase().endsWith(".bin") ? ExportFormat.BINARY
+                        : ExportFormat.CSV;
+                runInBackground("clinic-export", () -> {
+                    ExportReport report = new AppointmentExporter(dataStore).exportTo(file.toPath(), format,
+                            LocalDateTime.MIN, LocalDateTime.MAX);
+                    Platform.runLater(() -> showAlert("Exportación", report.toString(), Alert.AlertType.INFORMATION));
+                });
+            }
+        });
+        return item;
+    }
+
+    /**
+     * La importación corre fuera del hilo de la interfaz; las tablas se
+     * actualizan con una notificación por lote.
+     */
+    private void importInBackground(Path file, EntityType type) {
+        runInBackground("clinic-import", () -> {
+            ImportReport report = new BulkImporter(dataStore).importFile(file, type);
+            StringBuilder message = new StringBuilder(report.toString());
+            report.rejections().stream().limit(10).forEach(rejection -> message.append("\nLínea ")
+                    .append(rejection.line()).append(": ").append(rejection.reason()));
+            Platform.runLater(() -> showAlert("Importación", message.toString(),
+                    report.rejected() == 0 ? Alert.AlertType.INFORMATION : Alert.AlertType.WARNING));
+        });
+    }
+
+    private interface FileTask {
+        void run() throws IOException;
+    }
+
+    private void runInBackground(String name, FileTask task) {
+        Thread worker = new Thread(() -> {
+            try {
+                task.run();
+            } catch (IOException | IllegalArgumentException ex) {
+                Platform.runLater(() -> showAlert("Archivo", "No se pudo completar la operación: " + ex.getMessage(),
+                        Alert.AlertType.ERROR));
+            }
+        }, name);
+        worker.setDaemon(true);
+        worker.start();
+    }
+
     private Tab createTab(String title, Region content) {
         Tab tab = new Tab(title);
         tab.setContent(new ScrollPane(content));
@@ -81,32 +236,56 @@ public class App extends Application implements DataObserver {
         return tab;
     }
 
+    /**
+     * Acumula los cambios y programa un único refresco por pulso de la interfaz,
+     * sin importar cuántas notificaciones lleguen antes de que se ejecute.
+     */
     @Override
-    public void update(String dataType) {
-        switch (dataType) {
-            case "patient":
-                patientData.setAll(dataStore.getPatients());
-                break;
-            case "doctor":
-                doctorData.setAll(dataStore.getDoctors());
-                break;
-            case "appointment":
-                appointmentData.setAll(dataStore.getAppointments());
-                break;
+    public void update(DataChangeEvent event) {
+        synchronized (pendingChanges) {
+            pendingChanges.merge(event);
+            if (refreshScheduled) {
+                return;
+            }
+            refreshScheduled = true;
         }
+        Platform.runLater(this::applyPendingChanges);
+    }
 
-        javafx.application.Platform.runLater(() -> {
-            if (patientController != null)
-                patientController.getPatientTable().refresh();
-            if (doctorController != null)
-                doctorController.getDoctorTable().refresh();
-            if (appointmentController != null)
-                appointmentController.getAppointmentTable().refresh();
-        });
+    /**
+     * Aplica los cambios acumulados hasta agotar el presupuesto del pulso; si
+     * una importación dejó miles de cambios, el resto sigue en el próximo.
+     */
+    private void applyPendingChanges() {
+        DataChangeEvent changes;
+        synchronized (pendingChanges) {
+            changes = pendingChanges.build();
+            pendingChanges.clear();
+            refreshScheduled = false;
+        }
+        backlog.addAll(changes.getChanges());
+        long deadline = System.nanoTime() + FrameExecutor.DEFAULT_BUDGET.toNanos();
+        List<Appointment> touched = new ArrayList<>();
+        while (!backlog.isEmpty() && System.nanoTime() - deadline < 0) {
+            DataChange change = backlog.poll();
+            mirror.apply(change);
+            if (change.getEntityType() == EntityType.APPOINTMENT) {
+                if (change.getBefore() != null) {
+                    touched.add((Appointment) change.getBefore());
+                }
+                if (change.getAfter() != null) {
+                    touched.add((Appointment) change.getAfter());
+                }
+            }
+        }
+        appointmentPages.invalidate(touched);
+        if (!backlog.isEmpty()) {
+            Platform.runLater(this::applyPendingChanges);
+        }
     }
 
     private void initializeDemoData() {
-        if (dataStore.getPatients().isEmpty() && dataStore.getDoctors().isEmpty()) {
+        if (dataStore.scanPatients().isEmpty() && dataStore.scanDoctors().isEmpty()) {
             PersonFactory patientFactory = new PatientFactory();
             PersonFactory doctorFactory = new DoctorFactory();
 
@@ -120,21 +299,22 @@ public class App extends Application implements DataObserver {
             Doctor d2 = (Doctor) doctorFactory.createPerson("D002", "Dra. Maria Gómez", "555-4321", "Medicina General",
                     "L67890");
 
-            dataStore.addPatient(p1);
-            dataStore.addPatient(p2);
-            dataStore.addDoctor(d1);
-            dataStore.addDoctor(d2);
-
             Appointment a1 = new Appointment(
                     p1, d2, LocalDateTime.now().plusDays(1).withHour(10).withMinute(0),
-                    50.00, new StandardPriceStrategy());
+                    50.00, PriceStrategyRegistry.STANDARD);
 
             Appointment a2 = new Appointment(
                     p2, d1, LocalDateTime.now().plusDays(2).withHour(15).withMinute(30),
-                    75.00, new SpecialistPriceStrategy());
+                    75.00, PriceStrategyRegistry.SPECIALIST);
 
-            dataStore.addAppointment(a1);
-            dataStore.addAppointment(a2);
+            dataStore.batch(() -> {
+                dataStore.addPatient(p1);
+                dataStore.addPatient(p2);
+                dataStore.addDoctor(d1);
+                dataStore.addDoctor(d2);
+                dataStore.addAppointment(a1);
+                dataStore.addAppointment(a2);
+            });
         }
     }
 
@@ -0,0 +1,437 @@
+package co.edu.uniquindio.poo.api;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.persistence.ClinicPersistence;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.PersonSearchIndex;
+import co.edu.uniquindio.poo.services.Workers;
+import co.edu.uniquindio.poo.transfer.ImportFormat;
+import co.edu.uniquindio.poo.transfer.RecordMapper;
+import co.edu.uniquindio.poo.transfer.RecordReader;
+
+/**
+ * Servicio HTTP/JSON de reservas sobre el mismo almacén que usa la interfaz,
+ * para el centro de llamadas y el portal web. Cada petición se atiende en su
+ * propio hilo (virtual desde Java 21) y llama directamente al almacén, que ya
+ * es seguro entre hilos.
+ * <p>
+ * Recursos:
+ * <ul>
+ * <li>{@code /patients} y {@code /doctors}: GET con {@code ?q=&limit=} busca
+ * como el campo de búsqueda de la interfaz, POST registra; {@code /{id}}
+ * admite GET, PUT y DELETE.</li>
+ * <li>{@code /patients/{id}/appointments}: citas del paciente.</li>
+ * <li>{@code /doctors/{id}/agenda?from=&to=} y
+ * {@code /doctors/{id}/free-slot?after=&duration=}: agenda y primer hueco libre.</li>
+ * <li>{@code /appointments}: GET con {@code ?from=&to=&limit=}, POST reserva;
+ * {@code /{id}} admite GET, DELETE y PUT con {@code {"strategy": ...}}.</li>
+ * </ul>
+ * Los cuerpos usan los mismos campos que la importación JSON. Un cuerpo o
+ * parámetro inválido responde 400, un recurso inexistente 404 y una
+ * operación que el almacén rechaza por el estado de los datos (cita
+ * solapada, id repetido) 409. Los parámetros se validan antes de llegar al
+ * almacén, porque cualquier otro IllegalArgumentException se toma como conflicto.
+ */
+public class BookingServer implements AutoCloseable {
+    private static final Logger LOG = Logger.getLogger(BookingServer.class.getName());
+    private static final int BACKLOG = 4096;
+    private static final int DEFAULT_LIMIT = 100;
+
+    static {
+        // Sin TCP_NODELAY las cabeceras y el cuerpo salen en segmentos separados y
+        // el ACK retardado del cliente suma ~40 ms a cada respuesta. El servidor
+        // del JDK lee la propiedad una sola vez, al crear el primer HttpServer.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final ClinicDataStore store;
+    private final RecordMapper mapper;
+    private final PersonSearchIndex<Patient> patientIndex;
+    private final PersonSearchIndex<Doctor> doctorIndex;
+    private final ExecutorService executor;
+    private final HttpServer server;
+
+    private BookingServer(ClinicDataStore store, InetSocketAddress address) throws IOException {
+        this.store = store;
+        this.mapper = new RecordMapper(store);
+        this.patientIndex = PersonSearchIndex.patients(store);
+        this.doctorIndex = PersonSearchIndex.doctors(store);
+        this.executor = Workers.newWorker();
+        this.server = HttpServer.create(address, BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/patients", json(this::patients));
+        server.createContext("/doctors", json(this::doctors));
+        server.createContext("/appointments", json(this::appointments));
+    }
+
+    /** Abre el puerto indicado (0 elige uno libre) y empieza a atender. */
+    public static BookingServer start(ClinicDataStore store, InetSocketAddress address) throws IOException {
+        BookingServer bookingServer = new BookingServer(store, address);
+        bookingServer.server.start();
+        return bookingServer;
+    }
+
+    /**
+     * Servicio sin interfaz gráfica: restaura el almacén con la misma
+     * configuración que la aplicación y atiende en el puerto del primer
+     * argumento, o el de la propiedad clinic.http.port (8080 por defecto).
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("clinic.http.port", 8080);
+        ClinicDataStore store = ClinicDataStore.getInstance();
+        ClinicPersistence persistence = ClinicPersistence.openConfigured(store);
+        BookingServer bookingServer = start(store, new InetSocketAddress(port));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            bookingServer.close();
+            try {
+                persistence.snapshot();
+                persistence.close();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "No se pudo cerrar el diario de datos", e);
+            }
+        }));
+        LOG.info("Servicio de reservas en el puerto " + bookingServer.getPort());
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /** Deja de aceptar peticiones y espera hasta un segundo a las que están en curso. */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+        store.unregisterObserver(patientIndex);
+        store.unregisterObserver(doctorIndex);
+    }
+
+    private Response patients(Request request) {
+        List<String> path = request.path();
+        if (path.isEmpty()) {
+            return switch (request.method()) {
+                case "GET" -> ok(Json.array(patientIndex.search(request.param("q"), request.limit()), Json::patient));
+                case "POST" -> {
+                    Patient patient = request.parse(mapper::toPatient);
+                    store.addPatient(patient);
+                    yield new Response(201, Json.patient(patient));
+                }
+                default -> throw HttpError.method(request);
+            };
+        }
+        String id = path.get(0);
+        Patient patient = store.findPatient(id).orElseThrow(() -> HttpError.notFound("Paciente no encontrado."));
+        if (path.size() == 2 && path.get(1).equals("appointments") && request.method().equals("GET")) {
+            return ok(Json.array(store.getPatientAppointments(id), Json::appointment));
+        }
+        if (path.size() > 1) {
+            throw HttpError.notFound("Recurso no encontrado.");
+        }
+        return switch (request.method()) {
+            case "GET" -> ok(Json.patient(patient));
+            case "PUT" -> {
+                Patient updated = request.parse(row -> mapper.toPatient(withId(row, id)));
+                store.editPatient(id, updated);
+                yield ok(Json.patient(store.findPatient(id).orElse(updated)));
+            }
+            case "DELETE" -> {
+                store.removePatient(id);
+                yield Response.NO_CONTENT;
+            }
+            default -> throw HttpError.method(request);
+        };
+    }
+
+    private Response doctors(Request request) {
+        List<String> path = request.path();
+        if (path.isEmpty()) {
+            return switch (request.method()) {
+                case "GET" -> ok(Json.array(doctorIndex.search(request.param("q"), request.limit()), Json::doctor));
+                case "POST" -> {
+                    Doctor doctor = request.parse(mapper::toDoctor);
+                    store.addDoctor(doctor);
+                    yield new Response(201, Json.doctor(doctor));
+                }
+                default -> throw HttpError.method(request);
+            };
+        }
+        String id = path.get(0);
+        Doctor doctor = store.findDoctor(id).orElseThrow(() -> HttpError.notFound("Médico no encontrado."));
+        if (path.size() == 2 && request.method().equals("GET")) {
+            switch (path.get(1)) {
+                case "agenda" -> {
+                    LocalDateTime from = request.dateTime("from", LocalDate.now().atStartOfDay());
+                    LocalDateTime to = request.dateTime("to", from.plusDays(1));
+                    return ok(Json.array(store.getDoctorAppointments(id, from, to), Json::appointment));
+                }
+                case "free-slot" -> {
+                    LocalDateTime after = request.dateTime("after", LocalDateTime.now());
+                    int duration = request.positive("duration", Appointment.DEFAULT_DURATION_MINUTES);
+                    LocalDateTime slot = store.findFirstFreeSlot(id, after, duration);
+                    return ok("{" + Json.field("dateTime", slot.toString()) + "}");
+                }
+                default -> throw HttpError.notFound("Recurso no encontrado.");
+            }
+        }
+        if (path.size() > 1) {
+            throw HttpError.notFound("Recurso no encontrado.");
+        }
+        return switch (request.method()) {
+            case "GET" -> ok(Json.doctor(doctor));
+            case "PUT" -> {
+                Doctor updated = request.parse(row -> mapper.toDoctor(withId(row, id)));
+                store.editDoctor(id, updated);
+                yield ok(Json.doctor(store.findDoctor(id).orElse(updated)));
+            }
+            case "DELETE" -> {
+                store.removeDoctor(id);
+                yield Response.NO_CONTENT;
+            }
+            default -> throw HttpError.method(request);
+        };
+    }
+
+    private Response appointments(Request request) {
+        List<String> path = request.path();
+        if (path.isEmpty()) {
+            return switch (request.method()) {
+                case "GET" -> {
+                    LocalDateTime from = request.dateTime("from", LocalDate.now().atStartOfDay());
+                    LocalDateTime to = request.dateTime("to", from.plusDays(7));
+                    int limit = request.limit();
+                    List<Appointment> page = new ArrayList<>(Math.min(limit, 1024));
+                    for (Appointment a : store.scanAppointments(from, to)) {
+                        if (page.size() == limit) {
+                            break;
+                        }
+                        page.add(a);
+                    }
+                    yield ok(Json.array(page, Json::appointment));
+                }
+                case "POST" -> {
+                    Appointment appointment = request.parse(mapper::toAppointment);
+                    store.addAppointment(appointment);
+                    yield new Response(201, Json.appointment(appointment));
+                }
+                default -> throw HttpError.method(request);
+            };
+        }
+        if (path.size() > 1) {
+            throw HttpError.notFound("Recurso no encontrado.");
+        }
+        long id;
+        try {
+            id = Long.parseLong(path.get(0));
+        } catch (NumberFormatException e) {
+            throw HttpError.notFound("Cita no encontrada.");
+        }
+        Appointment appointment = store.findAppointment(id)
+                .orElseThrow(() -> HttpError.notFound("Cita no encontrada."));
+        return switch (request.method()) {
+            case "GET" -> ok(Json.appointment(appointment));
+            case "PUT" -> {
+                store.changePriceStrategy(id, request.parse(row -> RecordMapper.toStrategy(row.get("strategy"))));
+                yield ok(Json.appointment(store.findAppointment(id).orElse(appointment)));
+            }
+            case "DELETE" -> {
+                store.removeAppointment(appointment);
+                yield Response.NO_CONTENT;
+            }
+            default -> throw HttpError.method(request);
+        };
+    }
+
+    private static Map<String, String> withId(Map<String, String> row, String id) {
+        Map<String, String> copy = new HashMap<>(row);
+        copy.put("id", id);
+        return copy;
+    }
+
+    private static Response ok(String body) {
+        return new Response(200, body);
+    }
+
+    /** Traduce las excepciones a códigos de estado y escribe la respuesta. */
+    private static HttpHandler json(Function<Request, Response> route) {
+        return exchange -> {
+            Response response;
+            try {
+                response = route.apply(new Request(exchange));
+            } catch (HttpError e) {
+                response = new Response(e.status, Json.error(e.getMessage()));
+            } catch (IllegalArgumentException e) {
+                response = new Response(409, Json.error(e.getMessage()));
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Error atendiendo " + exchange.getRequestURI(), e);
+                response = new Response(500, Json.error("Error interno."));
+            }
+            send(exchange, response);
+        };
+    }
+
+    private static void send(HttpExchange exchange, Response response) throws IOException {
+        try {
+            if (response.body() == null) {
+                exchange.sendResponseHeaders(response.status(), -1);
+                return;
+            }
+            byte[] bytes = response.body().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(response.status(), bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private record Response(int status, String body) {
+        static final Response NO_CONTENT = new Response(204, null);
+    }
+
+    /** Error con código de estado propio; cualquier otro IllegalArgumentException es un conflicto. */
+    private static final class HttpError extends RuntimeException {
+        final int status;
+
+        HttpError(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+
+        static HttpError badRequest(String message) {
+            return new HttpError(400, message);
+        }
+
+        static HttpError notFound(String message) {
+            return new HttpError(404, message);
+        }
+
+        static HttpError method(Request request) {
+            return new HttpError(405, "Método no admitido: " + request.method());
+        }
+    }
+
+    /** Método, ruta relativa al recurso, parámetros y cuerpo de una petición. */
+    private static final class Request {
+        private final HttpExchange exchange;
+        private final List<String> path;
+        private final Map<String, String> params;
+
+        Request(HttpExchange exchange) {
+            this.exchange = exchange;
+            String context = exchange.getHttpContext().getPath();
+            String rest = exchange.getRequestURI().getPath().substring(context.length());
+            this.path = Arrays.stream(rest.split("/")).filter(s -> !s.isEmpty()).toList();
+            this.params = new HashMap<>();
+            String query = exchange.getRequestURI().getRawQuery();
+            if (query != null) {
+                for (String pair : query.split("&")) {
+                    int eq = pair.indexOf('=');
+                    String name = eq < 0 ? pair : pair.substring(0, eq);
+                    String value = eq < 0 ? "" : pair.substring(eq + 1);
+                    params.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                            URLDecoder.decode(value, StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        String method() {
+            return exchange.getRequestMethod();
+        }
+
+        List<String> path() {
+            return path;
+        }
+
+        String param(String name) {
+            return params.get(name);
+        }
+
+        int limit() {
+            return positive("limit", DEFAULT_LIMIT);
+        }
+
+        int positive(String name, int defaultValue) {
+            int value = integer(name, defaultValue);
+            if (value <= 0) {
+                throw HttpError.badRequest(name + " debe ser positivo.");
+            }
+            return value;
+        }
+
+        int integer(String name, int defaultValue) {
+            String value = params.get(name);
+            if (value == null || value.isBlank()) {
+                return defaultValue;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                throw HttpError.badRequest("Número inválido en " + name + ": " + value);
+            }
+        }
+
+        LocalDateTime dateTime(String name, LocalDateTime defaultValue) {
+            String value = params.get(name);
+            if (value == null || value.isBlank()) {
+                return defaultValue;
+            }
+            try {
+                return LocalDateTime.parse(value.trim());
+            } catch (DateTimeParseException e) {
+                throw HttpError.badRequest("Fecha inválida en " + name + ": " + value);
+            }
+        }
+
+        /**
+         * Lee el cuerpo como un objeto JSON y lo convierte; los errores de
+         * formato o de validación son culpa del cliente y responden 400.
+         */
+        <T> T parse(Function<Map<String, String>, T> mapping) {
+            Map<String, String> row;
+            try (Reader body = new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8);
+                    RecordReader reader = RecordReader.open(body, ImportFormat.JSON)) {
+                row = reader.read();
+            } catch (IOException | IllegalArgumentException e) {
+                throw HttpError.badRequest("Cuerpo inválido: " + e.getMessage());
+            }
+            if (row == null) {
+                throw HttpError.badRequest("Falta el cuerpo de la petición.");
+            }
+            try {
+                return mapping.apply(row);
+            } catch (IllegalArgumentException e) {
+                throw HttpError.badRequest(e.getMessage());
+            }
+        }
+    }
+}
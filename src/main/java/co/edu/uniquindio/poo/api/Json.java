@@ -0,0 +1,94 @@
+package co.edu.uniquindio.poo.api;
+
+import java.util.Collection;
+import java.util.function.Function;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Representación JSON de las entidades que devuelve el servicio de reservas.
+ * Los campos se llaman igual que en la importación, así que una respuesta
+ * puede reenviarse como petición.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    static String patient(Patient p) {
+        return new StringBuilder("{")
+                .append(field("id", p.getId())).append(',')
+                .append(field("name", p.getName())).append(',')
+                .append(field("phone", p.getPhone())).append(',')
+                .append(field("historyNumber", p.getHistoryNumber())).append(',')
+                .append(field("address", p.getAddress()))
+                .append('}').toString();
+    }
+
+    static String doctor(Doctor d) {
+        return new StringBuilder("{")
+                .append(field("id", d.getId())).append(',')
+                .append(field("name", d.getName())).append(',')
+                .append(field("phone", d.getPhone())).append(',')
+                .append(field("specialty", d.getSpecialty())).append(',')
+                .append(field("licenseNumber", d.getLicenseNumber()))
+                .append('}').toString();
+    }
+
+    static String appointment(Appointment a) {
+        return new StringBuilder("{")
+                .append("\"id\":").append(a.getId()).append(',')
+                .append(field("patientId", a.getPatient().getId())).append(',')
+                .append(field("doctorId", a.getDoctor().getId())).append(',')
+                .append(field("dateTime", a.getDateTime().toString())).append(',')
+                .append("\"durationMinutes\":").append(a.getDurationMinutes()).append(',')
+                .append("\"basePrice\":").append(a.getBasePrice().toPlainString()).append(',')
+                .append("\"finalPrice\":").append(a.getFinalPrice().toPlainString()).append(',')
+                .append("\"strategyCode\":").append(a.getPriceStrategy().getCode()).append(',')
+                .append(field("strategy", a.getPriceStrategy().getLabel()))
+                .append('}').toString();
+    }
+
+    static <T> String array(Collection<T> items, Function<T, String> element) {
+        StringBuilder out = new StringBuilder("[");
+        for (T item : items) {
+            if (out.length() > 1) {
+                out.append(',');
+            }
+            out.append(element.apply(item));
+        }
+        return out.append(']').toString();
+    }
+
+    static String error(String message) {
+        return "{" + field("error", message) + "}";
+    }
+
+    static String field(String name, String value) {
+        return quote(name) + ":" + (value == null ? "null" : quote(value));
+    }
+
+    static String quote(String value) {
+        StringBuilder out = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        return out.append('"').toString();
+    }
+}
@@ -1,5 +1,6 @@
 package co.edu.uniquindio.poo.controllers;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -7,31 +8,39 @@ import java.time.format.DateTimeFormatter;
 
 import co.edu.uniquindio.poo.model.Appointment;
 import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Money;
 import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.model.Person;
+import co.edu.uniquindio.poo.services.AsyncClinicStore;
 import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.PagedObservableList;
+import co.edu.uniquindio.poo.services.PersonSearchIndex;
 import co.edu.uniquindio.poo.services.PriceStrategy;
-import co.edu.uniquindio.poo.services.SpecialistPriceStrategy;
-import co.edu.uniquindio.poo.services.StandardPriceStrategy;
+import co.edu.uniquindio.poo.services.PriceStrategyRegistry;
 import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.scene.control.TableCell;
+import javafx.util.StringConverter;
 
 public class AppointmentController {
     private final ClinicDataStore dataStore = ClinicDataStore.getInstance();
-    private final ObservableList<Appointment> appointmentData;
-    private final ObservableList<Patient> patientData;
-    private final ObservableList<Doctor> doctorData;
+    private final AsyncClinicStore asyncStore;
+    private final PagedObservableList<Appointment> appointmentData;
+    private final PersonSearchIndex<Patient> patientSearch;
+    private final PersonSearchIndex<Doctor> doctorSearch;
+    private static final int SEARCH_RESULTS = 20;
+
     private TableView<Appointment> appointmentTable;
+    private boolean sortedDescending;
 
-    public AppointmentController(ObservableList<Appointment> appointmentData, ObservableList<Patient> patientData, ObservableList<Doctor> doctorData) {
+    public AppointmentController(PagedObservableList<Appointment> appointmentData, PersonSearchIndex<Patient> patientSearch, PersonSearchIndex<Doctor> doctorSearch, AsyncClinicStore asyncStore) {
         this.appointmentData = appointmentData;
-        this.patientData = patientData;
-        this.doctorData = doctorData;
+        this.asyncStore = asyncStore;
+        this.patientSearch = patientSearch;
+        this.doctorSearch = doctorSearch;
     }
 
     /**
@@ -59,34 +68,49 @@ public class AppointmentController {
     private TableView<Appointment> createAppointmentTable() {
         TableView<Appointment> table = new TableView<>(appointmentData);
 
-        TableColumn<Appointment, Integer> idCol = new TableColumn<>("ID Cita");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
+        TableColumn<Appointment, Long> idCol = new TableColumn<>("ID Cita");
+        idCol.setCellValueFactory(CellValues.of(Appointment::getId));
 
-        TableColumn<Appointment, String> patientCol = new TableColumn<>("Paciente");
-        patientCol.setCellValueFactory(new PropertyValueFactory<>("patient"));
+        TableColumn<Appointment, Patient> patientCol = new TableColumn<>("Paciente");
+        patientCol.setCellValueFactory(CellValues.of(Appointment::getPatient));
 
-        TableColumn<Appointment, String> doctorCol = new TableColumn<>("Médico");
-        doctorCol.setCellValueFactory(new PropertyValueFactory<>("doctor"));
+        TableColumn<Appointment, Doctor> doctorCol = new TableColumn<>("Médico");
+        doctorCol.setCellValueFactory(CellValues.of(Appointment::getDoctor));
         
         TableColumn<Appointment, LocalDateTime> dateCol = new TableColumn<>("Fecha y Hora");
-        dateCol.setCellValueFactory(new PropertyValueFactory<>("dateTime"));
+        dateCol.setCellValueFactory(CellValues.of(Appointment::getDateTime));
         dateCol.setCellFactory(column -> new TableCell<Appointment, LocalDateTime>() {
             private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
             @Override
             protected void updateItem(LocalDateTime item, boolean empty) {
                 super.updateItem(item, empty);
-                setText(empty ? null : formatter.format(item));
+                setText(empty || item == null ? null : formatter.format(item));
             }
         });
 
-        TableColumn<Appointment, Double> basePriceCol = new TableColumn<>("Precio Base");
-        basePriceCol.setCellValueFactory(new PropertyValueFactory<>("basePrice"));
+        TableColumn<Appointment, Integer> durationCol = new TableColumn<>("Duración (min)");
+        durationCol.setCellValueFactory(CellValues.of(Appointment::getDurationMinutes));
+
+        TableColumn<Appointment, BigDecimal> basePriceCol = new TableColumn<>("Precio Base");
+        basePriceCol.setCellValueFactory(CellValues.of(Appointment::getBasePrice));
         
-        TableColumn<Appointment, Double> finalPriceCol = new TableColumn<>("Precio Final");
-        finalPriceCol.setCellValueFactory(new PropertyValueFactory<>("finalPrice")); // Usa el precio calculado por Strategy
+        TableColumn<Appointment, BigDecimal> finalPriceCol = new TableColumn<>("Precio Final");
+        finalPriceCol.setCellValueFactory(CellValues.of(Appointment::getFinalPrice)); // Precio calculado por Strategy al crear la cita
 
-        table.getColumns().addAll(idCol, patientCol, doctorCol, dateCol, basePriceCol, finalPriceCol);
+        table.getColumns().addAll(idCol, patientCol, doctorCol, dateCol, durationCol, basePriceCol, finalPriceCol);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
+
+        // Las filas se leen por páginas: solo se ordena por fecha, sobre el índice del almacén
+        table.getColumns().forEach(column -> column.setSortable(column == dateCol));
+        table.setSortPolicy(t -> {
+            boolean descending = t.getSortOrder().contains(dateCol)
+                    && dateCol.getSortType() == TableColumn.SortType.DESCENDING;
+            if (descending != sortedDescending) {
+                sortedDescending = descending;
+                appointmentData.setSource(dataStore.appointmentsByDate(descending));
+            }
+            return true;
+        });
         return table;
     }
 
@@ -96,31 +120,72 @@ public class AppointmentController {
         grid.setVgap(10);
         grid.setPadding(new Insets(10));
 
-        // Comboboxes de datos existentes (usando las listas observadas del DataStore)
-        ComboBox<Patient> patientCb = new ComboBox<>(patientData);
+        // Comboboxes con los resultados de la búsqueda por nombre, id, teléfono, historia o especialidad
+        TextField patientSearchField = new TextField();
+        patientSearchField.setPromptText("Buscar paciente...");
+        ComboBox<Patient> patientCb = new ComboBox<>();
         patientCb.setPromptText("Seleccione Paciente");
-        
-        ComboBox<Doctor> doctorCb = new ComboBox<>(doctorData);
+        bindSearch(patientSearchField, patientCb, patientSearch);
+
+        TextField doctorSearchField = new TextField();
+        doctorSearchField.setPromptText("Buscar médico...");
+        ComboBox<Doctor> doctorCb = new ComboBox<>();
         doctorCb.setPromptText("Seleccione Médico");
+        bindSearch(doctorSearchField, doctorCb, doctorSearch);
         
         // Entrada de fecha/hora
         DatePicker datePicker = new DatePicker(LocalDate.now());
         TextField timeField = new TextField(LocalTime.now().format(DateTimeFormatter.ofPattern("HH:mm")));
+        TextField durationField = new TextField(String.valueOf(Appointment.DEFAULT_DURATION_MINUTES));
         
         TextField priceField = new TextField("50.00");
         
         // Estrategia de Precio
-        ComboBox<String> strategyCb = new ComboBox<>(FXCollections.observableArrayList(
-            "Estándar (1.0x)", "Especialista (1.25x)"
-        ));
-        strategyCb.setValue("Estándar (1.0x)"); // Default
+        ComboBox<PriceStrategy> strategyCb = new ComboBox<>(FXCollections.observableArrayList(PriceStrategyRegistry.all()));
+        strategyCb.setConverter(new StringConverter<>() {
+            @Override
+            public String toString(PriceStrategy strategy) {
+                return strategy == null ? "" : strategy.getLabel();
+            }
 
-        grid.addRow(0, new Label("Paciente:"), patientCb);
-        grid.addRow(1, new Label("Médico:"), doctorCb);
+            @Override
+            public PriceStrategy fromString(String label) {
+                return null;
+            }
+        });
+        strategyCb.setValue(PriceStrategyRegistry.STANDARD); // Default
+
+        grid.addRow(0, new Label("Paciente:"), patientSearchField, patientCb);
+        grid.addRow(1, new Label("Médico:"), doctorSearchField, doctorCb);
         grid.addRow(2, new Label("Fecha:"), datePicker);
         grid.addRow(3, new Label("Hora (HH:mm):"), timeField);
-        grid.addRow(4, new Label("Precio Base:"), priceField);
-        grid.addRow(5, new Label("Estrategia de Precio:"), strategyCb);
+        grid.addRow(4, new Label("Duración (min):"), durationField);
+        grid.addRow(5, new Label("Precio Base:"), priceField);
+        grid.addRow(6, new Label("Estrategia de Precio:"), strategyCb);
+
+        Button freeSlotButton = new Button("🔎 Primer Horario Libre");
+        freeSlotButton.setOnAction(e -> {
+            try {
+                if (doctorCb.getValue() == null || datePicker.getValue() == null) {
+                    throw new IllegalArgumentException("Seleccione un médico y una fecha.");
+                }
+                LocalTime time = timeField.getText().isEmpty() ? LocalTime.now() : LocalTime.parse(timeField.getText());
+                asyncStore.findFirstFreeSlot(
+                    doctorCb.getValue().getId(),
+                    LocalDateTime.of(datePicker.getValue(), time),
+                    Integer.parseInt(durationField.getText())
+                ).whenComplete((slot, error) -> {
+                    if (error != null) {
+                        showAlert(Alert.AlertType.ERROR, "Error", "No se pudo buscar horario: " + error.getMessage());
+                        return;
+                    }
+                    datePicker.setValue(slot.toLocalDate());
+                    timeField.setText(slot.format(DateTimeFormatter.ofPattern("HH:mm")));
+                });
+            } catch (Exception ex) {
+                showAlert(Alert.AlertType.ERROR, "Error", "No se pudo buscar horario: " + ex.getMessage());
+            }
+        });
 
 
         Button scheduleButton = new Button("📅 Programar Cita");
@@ -138,42 +203,71 @@ public class AppointmentController {
                 LocalDate date = datePicker.getValue();
                 LocalTime time = LocalTime.parse(timeField.getText());
                 LocalDateTime dateTime = LocalDateTime.of(date, time);
-                double basePrice = Double.parseDouble(priceField.getText());
+                int durationMinutes = Integer.parseInt(durationField.getText());
+                BigDecimal basePrice = Money.of(priceField.getText());
 
-                // 2. Aplicar Patrón Strategy
-                PriceStrategy strategy = switch (strategyCb.getValue()) {
-                    case "Especialista (1.25x)" -> new SpecialistPriceStrategy();
-                    default -> new StandardPriceStrategy();
-                };
+                // 2. Aplicar Patrón Strategy (instancia compartida del registro)
+                PriceStrategy strategy = strategyCb.getValue();
 
                 // 3. Crear Cita con la estrategia
                 Appointment appointment = new Appointment(
                     selectedPatient,
                     selectedDoctor,
                     dateTime,
+                    durationMinutes,
                     basePrice,
                     strategy
                 );
                 
-                // 4. Guardar en el Singleton Data Store
-                dataStore.addAppointment(appointment); // Esto notifica al Observer en la clase principal
-                
-                // Limpiar (solo los campos que tienen entrada manual)
-                timeField.clear(); priceField.clear(); 
-                datePicker.setValue(LocalDate.now());
-                strategyCb.setValue("Estándar (1.0x)");
+                // 4. Guardar en el Singleton Data Store, fuera del hilo de la interfaz
+                asyncStore.addAppointment(appointment).whenComplete((ignored, error) -> { // Rechaza la cita si el médico ya está ocupado; notifica al Observer
+                    if (error != null) {
+                        showAlert(Alert.AlertType.ERROR, "Error", "Error al programar cita: " + error.getMessage());
+                        return;
+                    }
+                    // Limpiar (solo los campos que tienen entrada manual)
+                    timeField.clear(); priceField.clear(); 
+                    datePicker.setValue(LocalDate.now());
+                    strategyCb.setValue(PriceStrategyRegistry.STANDARD);
 
-                showAlert(Alert.AlertType.INFORMATION, "Éxito", "Cita programada. Precio Final: " + String.format("$%.2f", appointment.getFinalPrice()));
+                    showAlert(Alert.AlertType.INFORMATION, "Éxito", "Cita programada. Precio Final: " + String.format("$%.2f", appointment.getFinalPrice()));
+                });
                 
             } catch (Exception ex) {
                 showAlert(Alert.AlertType.ERROR, "Error", "Error al programar cita: " + ex.getMessage());
             }
         });
 
-        grid.add(scheduleButton, 1, 6);
+        grid.add(freeSlotButton, 0, 7);
+        grid.add(scheduleButton, 1, 7);
         return grid;
     }
 
+    /**
+     * Cada pulsación reemplaza las opciones del combo por las mejores
+     * coincidencias, y la única coincidencia se selecciona sola. La búsqueda
+     * corre fuera del hilo de la interfaz; si el texto cambió mientras tanto,
+     * el resultado o el error se descartan.
+     */
+    private <P extends Person> void bindSearch(TextField field, ComboBox<P> comboBox,
+            PersonSearchIndex<P> search) {
+        comboBox.getItems().setAll(search.search("", SEARCH_RESULTS));
+        field.textProperty().addListener((observable, oldText, newText) ->
+            asyncStore.search(search, newText, SEARCH_RESULTS).whenComplete((matches, error) -> {
+                if (!newText.equals(field.getText())) {
+                    return;
+                }
+                if (error != null) {
+                    showAlert(Alert.AlertType.ERROR, "Error", "No se pudo buscar: " + error.getMessage());
+                    return;
+                }
+                comboBox.getItems().setAll(matches);
+                if (matches.size() == 1) {
+                    comboBox.setValue(matches.get(0));
+                }
+            }));
+    }
+
     private void showAlert(Alert.AlertType type, String title, String content) {
         Alert alert = new Alert(type);
         alert.setTitle(title);
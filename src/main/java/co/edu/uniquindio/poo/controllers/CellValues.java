@@ -0,0 +1,30 @@
+package co.edu.uniquindio.poo.controllers;
+
+import java.util.function.Function;
+
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.beans.value.ObservableValue;
+import javafx.scene.control.TableColumn.CellDataFeatures;
+import javafx.util.Callback;
+
+/**
+ * Fábricas de valores de celda que leen la fila con un getter directo, en
+ * lugar de buscarlo por reflexión como {@code PropertyValueFactory}.
+ */
+public final class CellValues {
+
+    private CellValues() {
+    }
+
+    /**
+     * Valor de la columna obtenido con {@code getter}. Las filas nulas (páginas
+     * que se están recargando) se muestran vacías.
+     */
+    public static <S, T> Callback<CellDataFeatures<S, T>, ObservableValue<T>> of(
+            Function<? super S, ? extends T> getter) {
+        return cell -> {
+            S row = cell.getValue();
+            return new ReadOnlyObjectWrapper<>(row == null ? null : getter.apply(row));
+        };
+    }
+}
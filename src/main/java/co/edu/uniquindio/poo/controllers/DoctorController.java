@@ -3,23 +3,23 @@ package co.edu.uniquindio.poo.controllers;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 
 import co.edu.uniquindio.poo.model.Doctor;
-import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.AsyncClinicStore;
 import co.edu.uniquindio.poo.services.DoctorFactory;
 import co.edu.uniquindio.poo.services.PersonFactory;
 
 public class DoctorController {
-    private final ClinicDataStore dataStore = ClinicDataStore.getInstance();
+    private final AsyncClinicStore dataStore;
     private final ObservableList<Doctor> doctorData;
     private final PersonFactory doctorFactory = new DoctorFactory();
     private TableView<Doctor> doctorTable;
 
-    public DoctorController(ObservableList<Doctor> doctorData) {
+    public DoctorController(ObservableList<Doctor> doctorData, AsyncClinicStore dataStore) {
         this.doctorData = doctorData;
+        this.dataStore = dataStore;
     }
 
     public VBox createView() {
@@ -43,19 +43,19 @@ public class DoctorController {
         TableView<Doctor> table = new TableView<>(doctorData);
 
         TableColumn<Doctor, String> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
+        idCol.setCellValueFactory(CellValues.of(Doctor::getId));
 
         TableColumn<Doctor, String> nameCol = new TableColumn<>("Nombre");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        nameCol.setCellValueFactory(CellValues.of(Doctor::getName));
 
         TableColumn<Doctor, String> phoneCol = new TableColumn<>("Teléfono");
-        phoneCol.setCellValueFactory(new PropertyValueFactory<>("phone"));
+        phoneCol.setCellValueFactory(CellValues.of(Doctor::getPhone));
 
         TableColumn<Doctor, String> specialtyCol = new TableColumn<>("Especialidad");
-        specialtyCol.setCellValueFactory(new PropertyValueFactory<>("specialty"));
+        specialtyCol.setCellValueFactory(CellValues.of(Doctor::getSpecialty));
 
         TableColumn<Doctor, String> licenseCol = new TableColumn<>("Licencia");
-        licenseCol.setCellValueFactory(new PropertyValueFactory<>("licenseNumber"));
+        licenseCol.setCellValueFactory(CellValues.of(Doctor::getLicenseNumber));
 
         table.getColumns().addAll(idCol, nameCol, phoneCol, specialtyCol, licenseCol);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
@@ -96,15 +96,20 @@ public class DoctorController {
                         specialtyField.getText(),
                         licenseField.getText());
 
-                dataStore.addDoctor(doctor);
-
-                idField.clear();
-                nameField.clear();
-                phoneField.clear();
-                specialtyField.clear();
-                licenseField.clear();
-
-                showAlert(Alert.AlertType.INFORMATION, "Éxito", "Médico registrado correctamente.");
+                // Se guarda fuera del hilo de la interfaz; la respuesta vuelve a él
+                dataStore.addDoctor(doctor).whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        showAlert(Alert.AlertType.ERROR, "Error de Registro", error.getMessage());
+                        return;
+                    }
+                    idField.clear();
+                    nameField.clear();
+                    phoneField.clear();
+                    specialtyField.clear();
+                    licenseField.clear();
+
+                    showAlert(Alert.AlertType.INFORMATION, "Éxito", "Médico registrado correctamente.");
+                });
 
             } catch (Exception ex) {
                 showAlert(Alert.AlertType.ERROR, "Error de Registro", "Verifique todos los campos.");
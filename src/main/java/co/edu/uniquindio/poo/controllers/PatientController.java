@@ -3,23 +3,23 @@ package co.edu.uniquindio.poo.controllers;
 import javafx.collections.ObservableList;
 import javafx.geometry.Insets;
 import javafx.scene.control.*;
-import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 
 import co.edu.uniquindio.poo.model.Patient;
-import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.AsyncClinicStore;
 import co.edu.uniquindio.poo.services.PatientFactory;
 import co.edu.uniquindio.poo.services.PersonFactory;
 
 public class PatientController {
-    private final ClinicDataStore dataStore = ClinicDataStore.getInstance();
+    private final AsyncClinicStore dataStore;
     private final ObservableList<Patient> patientData;
     private final PersonFactory patientFactory = new PatientFactory();
     private TableView<Patient> patientTable;
 
-    public PatientController(ObservableList<Patient> patientData) {
+    public PatientController(ObservableList<Patient> patientData, AsyncClinicStore dataStore) {
         this.patientData = patientData;
+        this.dataStore = dataStore;
     }
 
     public VBox createView() {
@@ -43,19 +43,19 @@ public class PatientController {
         TableView<Patient> table = new TableView<>(patientData);
 
         TableColumn<Patient, String> idCol = new TableColumn<>("ID");
-        idCol.setCellValueFactory(new PropertyValueFactory<>("id"));
+        idCol.setCellValueFactory(CellValues.of(Patient::getId));
 
         TableColumn<Patient, String> nameCol = new TableColumn<>("Nombre");
-        nameCol.setCellValueFactory(new PropertyValueFactory<>("name"));
+        nameCol.setCellValueFactory(CellValues.of(Patient::getName));
 
         TableColumn<Patient, String> phoneCol = new TableColumn<>("Teléfono");
-        phoneCol.setCellValueFactory(new PropertyValueFactory<>("phone"));
+        phoneCol.setCellValueFactory(CellValues.of(Patient::getPhone));
 
         TableColumn<Patient, String> historyCol = new TableColumn<>("Historia");
-        historyCol.setCellValueFactory(new PropertyValueFactory<>("historyNumber"));
+        historyCol.setCellValueFactory(CellValues.of(Patient::getHistoryNumber));
 
         TableColumn<Patient, String> addressCol = new TableColumn<>("Dirección");
-        addressCol.setCellValueFactory(new PropertyValueFactory<>("address"));
+        addressCol.setCellValueFactory(CellValues.of(Patient::getAddress));
 
         table.getColumns().addAll(idCol, nameCol, phoneCol, historyCol, addressCol);
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
@@ -95,15 +95,20 @@ public class PatientController {
                         historyField.getText(),
                         addressField.getText());
 
-                dataStore.addPatient(patient);
-
-                idField.clear();
-                nameField.clear();
-                phoneField.clear();
-                historyField.clear();
-                addressField.clear();
-
-                showAlert(Alert.AlertType.INFORMATION, "Éxito", "Paciente registrado correctamente.");
+                // Se guarda fuera del hilo de la interfaz; la respuesta vuelve a él
+                dataStore.addPatient(patient).whenComplete((ignored, error) -> {
+                    if (error != null) {
+                        showAlert(Alert.AlertType.ERROR, "Error de Registro", error.getMessage());
+                        return;
+                    }
+                    idField.clear();
+                    nameField.clear();
+                    phoneField.clear();
+                    historyField.clear();
+                    addressField.clear();
+
+                    showAlert(Alert.AlertType.INFORMATION, "Éxito", "Paciente registrado correctamente.");
+                });
 
             } catch (Exception ex) {
                 showAlert(Alert.AlertType.ERROR, "Error de Registro", "Verifique todos los campos.");
@@ -1,35 +1,96 @@
 package co.edu.uniquindio.poo.model;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Objects;
 
+import co.edu.uniquindio.poo.services.BlockIdGenerator;
+import co.edu.uniquindio.poo.services.IdBlockSource;
+import co.edu.uniquindio.poo.services.IdGenerator;
 import co.edu.uniquindio.poo.services.PriceStrategy;
+import co.edu.uniquindio.poo.services.PriceStrategyRegistry;
 
 public class Appointment {
-    private static int nextAppointmentId = 1;
-    private final int id;
+    public static final int DEFAULT_DURATION_MINUTES = 30;
+    private static volatile IdGenerator idGenerator = new BlockIdGenerator(IdBlockSource.inMemory());
+    private final long id;
     private Patient patient;
     private Doctor doctor;
     private LocalDateTime dateTime;
-    private double basePrice;
+    private int durationMinutes;
+    private BigDecimal basePrice;
     private PriceStrategy priceStrategy;
+    private BigDecimal finalPrice;
 
     public Appointment(Patient patient, Doctor doctor, LocalDateTime dateTime, double basePrice, PriceStrategy priceStrategy) {
-        this.id = nextAppointmentId++;
+        this(patient, doctor, dateTime, DEFAULT_DURATION_MINUTES, basePrice, priceStrategy);
+    }
+
+    public Appointment(Patient patient, Doctor doctor, LocalDateTime dateTime, int durationMinutes, double basePrice, PriceStrategy priceStrategy) {
+        this(patient, doctor, dateTime, durationMinutes, Money.of(basePrice), priceStrategy);
+    }
+
+    public Appointment(Patient patient, Doctor doctor, LocalDateTime dateTime, int durationMinutes, BigDecimal basePrice, PriceStrategy priceStrategy) {
+        this(idGenerator.nextId(), patient, doctor, dateTime, durationMinutes, basePrice, priceStrategy);
+    }
+
+    /**
+     * Reconstruye una cita persistida conservando su id. Las citas nuevas
+     * recibirán ids posteriores.
+     */
+    public Appointment(long id, Patient patient, Doctor doctor, LocalDateTime dateTime, int durationMinutes, BigDecimal basePrice, PriceStrategy priceStrategy) {
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("La duración de la cita debe ser mayor que cero.");
+        }
+        this.id = id;
+        idGenerator.advancePast(id);
         this.patient = patient;
         this.doctor = doctor;
         this.dateTime = dateTime;
-        this.basePrice = basePrice;
-        this.priceStrategy = priceStrategy;
+        this.durationMinutes = durationMinutes;
+        this.basePrice = Money.round(basePrice);
+        setPriceStrategy(priceStrategy);
+    }
+
+    /**
+     * Copia con el mismo id, fechas, precios y estrategia. No reserva ids.
+     */
+    public Appointment(Appointment original) {
+        this(original, original.patient, original.doctor);
+    }
+
+    /** Copia como la anterior, apuntando al paciente y al médico dados. */
+    public Appointment(Appointment original, Patient patient, Doctor doctor) {
+        this.id = original.id;
+        this.patient = patient;
+        this.doctor = doctor;
+        this.dateTime = original.dateTime;
+        this.durationMinutes = original.durationMinutes;
+        this.basePrice = original.basePrice;
+        this.priceStrategy = original.priceStrategy;
+        this.finalPrice = original.finalPrice;
     }
 
-    public double calculateFinalPrice() {
+    public BigDecimal calculateFinalPrice() {
         return priceStrategy.calculatePrice(basePrice);
     }
 
-    public int getId() {
+    public long getId() {
         return id;
     }
 
+    public static IdGenerator getIdGenerator() {
+        return idGenerator;
+    }
+
+    /**
+     * Cambia el generador de ids de las citas nuevas; la persistencia instala
+     * uno respaldado en disco para que los ids no se repitan entre reinicios.
+     */
+    public static void setIdGenerator(IdGenerator generator) {
+        idGenerator = Objects.requireNonNull(generator);
+    }
+
     public Patient getPatient() {
         return patient;
     }
@@ -42,15 +103,29 @@ public class Appointment {
         return dateTime;
     }
 
-    public double getBasePrice() {
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public LocalDateTime getEndDateTime() {
+        return dateTime.plusMinutes(durationMinutes);
+    }
+
+    public BigDecimal getBasePrice() {
         return basePrice;
     }
 
-    public double getFinalPrice() {
-        return calculateFinalPrice();
+    /** Precio calculado al asignar la estrategia; no se recalcula en cada lectura. */
+    public BigDecimal getFinalPrice() {
+        return finalPrice;
     }
     
+    public PriceStrategy getPriceStrategy() {
+        return priceStrategy;
+    }
+
     public void setPriceStrategy(PriceStrategy priceStrategy) {
-        this.priceStrategy = priceStrategy;
+        this.priceStrategy = PriceStrategyRegistry.canonical(priceStrategy);
+        this.finalPrice = calculateFinalPrice();
     }
 }
@@ -0,0 +1,43 @@
+package co.edu.uniquindio.poo.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Importes exactos con dos decimales. Los redondeos van al par más cercano
+ * para que no sumen sesgo al acumular muchas citas.
+ */
+public final class Money {
+    public static final int SCALE = 2;
+    public static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
+    public static final BigDecimal ZERO = BigDecimal.ZERO.setScale(SCALE);
+
+    private Money() {
+    }
+
+    /** Importe con el valor decimal que muestra el double (50.1 es 50.10, no 50.0999...). */
+    public static BigDecimal of(double amount) {
+        return round(BigDecimal.valueOf(amount));
+    }
+
+    /** @throws NumberFormatException si el texto no es un número decimal. */
+    public static BigDecimal of(String amount) {
+        return round(new BigDecimal(amount.trim()));
+    }
+
+    public static BigDecimal round(BigDecimal amount) {
+        return amount.setScale(SCALE, ROUNDING);
+    }
+
+    /**
+     * Importe redondeado en centavos, para guardarlo como long sin pasar por double.
+     * @throws ArithmeticException si no cabe en un long.
+     */
+    public static long toCents(BigDecimal amount) {
+        return round(amount).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal ofCents(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+}
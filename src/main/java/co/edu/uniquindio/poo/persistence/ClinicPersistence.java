@@ -0,0 +1,174 @@
+package co.edu.uniquindio.poo.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.services.BlockIdGenerator;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.IdBlockSource;
+import co.edu.uniquindio.poo.services.IdGenerator;
+
+/**
+ * Persistencia del almacén: al abrir carga la última foto y reproduce solo la
+ * cola del diario; luego registra el diario y toma fotos periódicas en segundo
+ * plano sin detener las modificaciones.
+ * <p>
+ * Mientras está abierta, los ids de las citas nuevas salen de un archivo de
+ * rangos en el mismo directorio ({@link FileIdBlockSource}), así que no se
+ * repiten entre reinicios ni entre procesos que compartan el directorio.
+ */
+public class ClinicPersistence implements Closeable {
+    private static final Logger LOG = Logger.getLogger(ClinicPersistence.class.getName());
+    private static final String JOURNAL_FILE = "journal.log";
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String ID_FILE = "appointment-ids.seq";
+
+    private final ClinicDataStore store;
+    private final Path snapshotFile;
+    private final MutationJournal journal;
+    private final ScheduledExecutorService scheduler;
+    private final FileIdBlockSource idSource;
+    private final BlockIdGenerator idGenerator;
+    private final IdGenerator previousIdGenerator;
+
+    private ClinicPersistence(ClinicDataStore store, Path snapshotFile, MutationJournal journal,
+            FileIdBlockSource idSource, BlockIdGenerator idGenerator, IdGenerator previousIdGenerator) {
+        this.store = store;
+        this.snapshotFile = snapshotFile;
+        this.journal = journal;
+        this.idSource = idSource;
+        this.idGenerator = idGenerator;
+        this.previousIdGenerator = previousIdGenerator;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "clinic-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Como {@link #open}, con la configuración de las propiedades del sistema
+     * clinic.dataDir, clinic.fsync y clinic.snapshotMinutes. La comparten la
+     * aplicación de escritorio y el servicio HTTP.
+     */
+    public static ClinicPersistence openConfigured(ClinicDataStore store) throws IOException {
+        Path dataDir = Path.of(System.getProperty("clinic.dataDir", System.getProperty("user.home") + "/.clinica"));
+        FsyncPolicy fsyncPolicy = FsyncPolicy.valueOf(System.getProperty("clinic.fsync", FsyncPolicy.INTERVAL.name()));
+        Duration snapshotInterval = Duration.ofMinutes(Long.getLong("clinic.snapshotMinutes", 10));
+        return open(store, dataDir, fsyncPolicy, snapshotInterval);
+    }
+
+    /**
+     * Restaura el almacén (que debe estar vacío y sin observadores) desde el
+     * directorio indicado y empieza a persistir sus cambios.
+     * @param snapshotInterval cada cuánto tomar una foto; cero o negativo la desactiva.
+     */
+    public static ClinicPersistence open(ClinicDataStore store, Path dataDir, FsyncPolicy fsyncPolicy,
+            Duration snapshotInterval) throws IOException {
+        Files.createDirectories(dataDir);
+        Path journalFile = dataDir.resolve(JOURNAL_FILE);
+        Path snapshotFile = dataDir.resolve(SNAPSHOT_FILE);
+        // Se restaura con un generador en memoria que sigue al archivo: cada cita
+        // restaurada que sube el máximo lo avanza, y hacerlo en el archivo
+        // costaría una escritura forzada por fila. El archivo se avanza una vez al final.
+        IdGenerator previousIdGenerator = Appointment.getIdGenerator();
+        FileIdBlockSource idSource = new FileIdBlockSource(dataDir.resolve(ID_FILE));
+        BlockIdGenerator restoring = new BlockIdGenerator(IdBlockSource.inMemory());
+        restoring.advancePast(idSource.peek() - 1);
+        continueAfter(previousIdGenerator, restoring);
+        Appointment.setIdGenerator(restoring);
+
+        try {
+            long fromPosition = 0;
+            long afterVersion = 0;
+            if (Files.exists(snapshotFile)) {
+                StoreSnapshot.LoadResult loaded = StoreSnapshot.load(snapshotFile, store);
+                fromPosition = loaded.journalPosition();
+                afterVersion = loaded.storeVersion();
+            }
+            long journalSize = Files.exists(journalFile) ? Files.size(journalFile) : 0;
+            if (fromPosition > journalSize) {
+                LOG.warning("El diario es más corto que la posición registrada en la foto; se omite su reproducción");
+            } else {
+                MutationJournal.replay(journalFile, fromPosition, afterVersion, store);
+            }
+        } catch (IOException | RuntimeException e) {
+            Appointment.setIdGenerator(previousIdGenerator);
+            throw e;
+        }
+        BlockIdGenerator idGenerator = new BlockIdGenerator(idSource);
+        continueAfter(restoring, idGenerator);
+        Appointment.setIdGenerator(idGenerator);
+
+        MutationJournal journal = MutationJournal.open(journalFile, fsyncPolicy, 1000);
+        store.registerObserver(journal);
+        ClinicPersistence persistence = new ClinicPersistence(store, snapshotFile, journal, idSource, idGenerator,
+                previousIdGenerator);
+        if (!snapshotInterval.isZero() && !snapshotInterval.isNegative()) {
+            long millis = snapshotInterval.toMillis();
+            persistence.scheduler.scheduleWithFixedDelay(persistence::snapshotQuietly, millis, millis,
+                    TimeUnit.MILLISECONDS);
+        }
+        return persistence;
+    }
+
+    /**
+     * Toma una foto del estado actual. Todo lo escrito en el diario antes de la
+     * posición registrada ya está aplicado en el almacén cuando empieza el
+     * recorrido, así que al restaurar basta con reproducir desde ahí.
+     */
+    public synchronized void snapshot() throws IOException {
+        journal.flush();
+        long journalPosition = journal.size();
+        long storeVersion = store.getVersion();
+        StoreSnapshot.write(snapshotFile, store, journalPosition, storeVersion);
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException | RuntimeException e) {
+            LOG.log(Level.WARNING, "No se pudo tomar la foto del almacén", e);
+        }
+    }
+
+    public MutationJournal getJournal() {
+        return journal;
+    }
+
+    public FileIdBlockSource getIdSource() {
+        return idSource;
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        store.unregisterObserver(journal);
+        if (Appointment.getIdGenerator() == idGenerator) {
+            continueAfter(idGenerator, previousIdGenerator);
+            Appointment.setIdGenerator(previousIdGenerator);
+        }
+        journal.close();
+    }
+
+    /** Hace que {@code next} siga después de todos los ids que ya repartió {@code previous}. */
+    private static void continueAfter(IdGenerator previous, IdGenerator next) {
+        if (previous instanceof BlockIdGenerator blocks && blocks.getHighWaterMark() > 0) {
+            next.advancePast(blocks.getHighWaterMark() - 1);
+        }
+    }
+}
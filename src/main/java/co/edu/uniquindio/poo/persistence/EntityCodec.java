@@ -0,0 +1,125 @@
+package co.edu.uniquindio.poo.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Money;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.PriceStrategy;
+import co.edu.uniquindio.poo.services.PriceStrategyRegistry;
+
+/**
+ * Formato binario de pacientes, médicos y citas compartido por los archivos
+ * de persistencia. Los ids de cita son long y los precios se guardan en
+ * centavos como long, igual que en las columnas y los agregados.
+ * <p>
+ * La estrategia se guarda por código, así que solo se persisten estrategias
+ * registradas: otra con el mismo código volvería como la registrada.
+ */
+final class EntityCodec {
+
+    private EntityCodec() {
+    }
+
+    static void writePatient(DataOutput out, Patient patient) throws IOException {
+        writeString(out, patient.getId());
+        writeString(out, patient.getName());
+        writeString(out, patient.getPhone());
+        writeString(out, patient.getHistoryNumber());
+        writeString(out, patient.getAddress());
+    }
+
+    static Patient readPatient(DataInput in) throws IOException {
+        String id = readString(in);
+        String name = readString(in);
+        String phone = readString(in);
+        String historyNumber = readString(in);
+        String address = readString(in);
+        return new Patient.Builder(id, name, phone, historyNumber).address(address).build();
+    }
+
+    static void writeDoctor(DataOutput out, Doctor doctor) throws IOException {
+        writeString(out, doctor.getId());
+        writeString(out, doctor.getName());
+        writeString(out, doctor.getPhone());
+        writeString(out, doctor.getSpecialty());
+        writeString(out, doctor.getLicenseNumber());
+    }
+
+    static Doctor readDoctor(DataInput in) throws IOException {
+        return new Doctor(readString(in), readString(in), readString(in), readString(in), readString(in));
+    }
+
+    static void writeAppointment(DataOutput out, Appointment appointment) throws IOException {
+        out.writeLong(appointment.getId());
+        writeString(out, appointment.getPatient().getId());
+        writeString(out, appointment.getDoctor().getId());
+        writeDateTime(out, appointment.getDateTime());
+        out.writeInt(appointment.getDurationMinutes());
+        out.writeLong(Money.toCents(appointment.getBasePrice()));
+        out.writeByte(strategyCode(appointment.getPriceStrategy()));
+    }
+
+    /**
+     * Lee una cita resolviendo paciente y médico en el almacén.
+     * @return null si alguno de los dos ya no existe.
+     */
+    static Appointment readAppointment(DataInput in, ClinicDataStore store) throws IOException {
+        long id = in.readLong();
+        String patientId = readString(in);
+        String doctorId = readString(in);
+        LocalDateTime dateTime = readDateTime(in);
+        int durationMinutes = in.readInt();
+        BigDecimal basePrice = Money.ofCents(in.readLong());
+        PriceStrategy strategy = strategyFor(in.readByte());
+
+        Patient patient = store.findPatient(patientId).orElse(null);
+        Doctor doctor = store.findDoctor(doctorId).orElse(null);
+        if (patient == null || doctor == null) {
+            return null;
+        }
+        return new Appointment(id, patient, doctor, dateTime, durationMinutes, basePrice, strategy);
+    }
+
+    static void writeDateTime(DataOutput out, LocalDateTime dateTime) throws IOException {
+        out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(dateTime.getNano());
+    }
+
+    static LocalDateTime readDateTime(DataInput in) throws IOException {
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    /** @throws IllegalArgumentException si la estrategia no es la registrada con su código. */
+    static byte strategyCode(PriceStrategy strategy) {
+        if (!PriceStrategyRegistry.isRegistered(strategy)) {
+            throw new IllegalArgumentException("La estrategia " + strategy.getClass().getName()
+                    + " no está registrada y no se puede persistir.");
+        }
+        return strategy.getCode();
+    }
+
+    static PriceStrategy strategyFor(byte code) {
+        return PriceStrategyRegistry.byCode(code);
+    }
+
+    static void writeString(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
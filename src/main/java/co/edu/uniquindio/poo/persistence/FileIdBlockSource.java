@@ -0,0 +1,92 @@
+package co.edu.uniquindio.poo.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongUnaryOperator;
+
+import co.edu.uniquindio.poo.services.IdBlockSource;
+
+/**
+ * Rangos de ids respaldados por un archivo de 8 bytes con el siguiente id
+ * libre. Cada reserva bloquea el archivo, lo avanza y lo fuerza a disco antes
+ * de entregar el rango, así que un reinicio nunca repite un id (a lo sumo se
+ * salta los que quedaron sin usar) y varios procesos que compartan el archivo
+ * reciben rangos disjuntos.
+ */
+public class FileIdBlockSource implements IdBlockSource {
+    /** FileLock es por proceso: dentro de la JVM las reservas se turnan con este monitor. */
+    private static final Object JVM_LOCK = new Object();
+
+    private final Path file;
+    /** Escrituras forzadas a disco por esta instancia; protegido por {@link #JVM_LOCK}. */
+    private long syncs;
+
+    public FileIdBlockSource(Path file) {
+        this.file = file;
+    }
+
+    @Override
+    public long reserve(int size) {
+        return update(next -> Math.addExact(next, size));
+    }
+
+    @Override
+    public void advancePast(long id) {
+        update(next -> Math.max(next, id + 1));
+    }
+
+    /** Siguiente id libre según el archivo, sin reservarlo. */
+    public long peek() {
+        return update(LongUnaryOperator.identity());
+    }
+
+    /** Aplica el avance al valor guardado y devuelve el anterior. */
+    private long update(LongUnaryOperator advance) {
+        synchronized (JVM_LOCK) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+                    long next = 1;
+                    if (channel.size() >= Long.BYTES) {
+                        while (buffer.hasRemaining()) {
+                            channel.read(buffer, buffer.position());
+                        }
+                        next = buffer.flip().getLong();
+                    }
+                    long updated = advance.applyAsLong(next);
+                    if (updated != next) {
+                        buffer.clear().putLong(updated).flip();
+                        while (buffer.hasRemaining()) {
+                            channel.write(buffer, buffer.position());
+                        }
+                        channel.force(false);
+                        syncs++;
+                    }
+                    return next;
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo reservar ids en " + file, e);
+            }
+        }
+    }
+
+    /** Cuántas veces esta instancia avanzó el archivo y lo forzó a disco. */
+    public long getSyncCount() {
+        synchronized (JVM_LOCK) {
+            return syncs;
+        }
+    }
+
+    public Path getFile() {
+        return file;
+    }
+}
@@ -0,0 +1,13 @@
+package co.edu.uniquindio.poo.persistence;
+
+/**
+ * Cuándo forzar a disco lo escrito en el diario.
+ */
+public enum FsyncPolicy {
+    /** Después de cada grupo de registros: no se pierde nada confirmado. */
+    ALWAYS,
+    /** Como máximo una vez por intervalo: se pueden perder los últimos milisegundos. */
+    INTERVAL,
+    /** Nunca explícitamente: el sistema operativo decide. */
+    NEVER
+}
@@ -0,0 +1,408 @@
+package co.edu.uniquindio.poo.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ChangeType;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.DataChange;
+import co.edu.uniquindio.poo.services.DataChangeEvent;
+import co.edu.uniquindio.poo.services.DataObserver;
+import co.edu.uniquindio.poo.services.EntityType;
+
+/**
+ * Diario de solo anexado con los cambios del almacén. Como observador solo
+ * codifica y encola; un hilo escritor agrupa los registros pendientes y los
+ * escribe de una vez con un {@link FileChannel} (group commit), forzando a
+ * disco según la {@link FsyncPolicy}.
+ * <p>
+ * Cada registro es {@code [longitud][cuerpo][crc32]} y el cuerpo empieza con la
+ * última y la primera versión del cambio (distintas si un lote unió varios
+ * cambios del mismo id). Al reproducirlo se aplican por primera versión, que
+ * respeta las dependencias entre ids, y se descartan los registros de un id
+ * más viejos que uno ya aplicado según la última.
+ */
+public class MutationJournal implements DataObserver, Closeable {
+    private static final Logger LOG = Logger.getLogger(MutationJournal.class.getName());
+    private static final int MAX_GROUP_SIZE = 4096;
+    private static final long IDLE_POLL_MILLIS = 50;
+
+    private final FileChannel channel;
+    private final FsyncPolicy fsyncPolicy;
+    private final long fsyncIntervalMillis;
+    private final BlockingQueue<ByteBuffer> pending;
+    private final AtomicLong enqueued;
+    private final Object progress;
+    private final Thread writer;
+    private long written;
+    private long lastForce;
+    private IOException failure;
+    private volatile boolean closed;
+
+    private MutationJournal(FileChannel channel, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) {
+        this.channel = channel;
+        this.fsyncPolicy = fsyncPolicy;
+        this.fsyncIntervalMillis = fsyncIntervalMillis;
+        this.pending = new LinkedBlockingQueue<>();
+        this.enqueued = new AtomicLong();
+        this.progress = new Object();
+        this.lastForce = System.currentTimeMillis();
+        this.writer = new Thread(this::writeLoop, "clinic-journal-writer");
+        this.writer.setDaemon(true);
+    }
+
+    /**
+     * Abre el diario para anexar al final del archivo.
+     */
+    public static MutationJournal open(Path file, FsyncPolicy fsyncPolicy, long fsyncIntervalMillis) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        MutationJournal journal = new MutationJournal(channel, fsyncPolicy, fsyncIntervalMillis);
+        journal.writer.start();
+        return journal;
+    }
+
+    @Override
+    public void update(DataChangeEvent event) {
+        if (closed) {
+            throw new IllegalStateException("El diario está cerrado.");
+        }
+        for (DataChange change : event.getChanges()) {
+            pending.add(encode(change));
+            enqueued.incrementAndGet();
+        }
+    }
+
+    /**
+     * Espera a que todo lo encolado hasta ahora esté escrito y forzado a disco.
+     */
+    public void flush() throws IOException {
+        long target = enqueued.get();
+        synchronized (progress) {
+            while (written < target && failure == null) {
+                try {
+                    progress.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrumpido esperando el diario.", e);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+        channel.force(false);
+    }
+
+    /** Posición actual del final del diario, en bytes. */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            if (failure == null) {
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void writeLoop() {
+        List<ByteBuffer> group = new ArrayList<>();
+        try {
+            while (true) {
+                ByteBuffer first = pending.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    if (closed && pending.isEmpty()) {
+                        return;
+                    }
+                    forceIfDue();
+                    continue;
+                }
+                group.add(first);
+                pending.drainTo(group, MAX_GROUP_SIZE - 1);
+                ByteBuffer[] buffers = group.toArray(new ByteBuffer[0]);
+                long remaining = 0;
+                for (ByteBuffer buffer : buffers) {
+                    remaining += buffer.remaining();
+                }
+                while (remaining > 0) {
+                    remaining -= channel.write(buffers);
+                }
+                if (fsyncPolicy == FsyncPolicy.ALWAYS) {
+                    channel.force(false);
+                } else {
+                    forceIfDue();
+                }
+                synchronized (progress) {
+                    written += group.size();
+                    progress.notifyAll();
+                }
+                group.clear();
+            }
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "No se pudo escribir el diario", e);
+            synchronized (progress) {
+                failure = e;
+                progress.notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void forceIfDue() throws IOException {
+        long now = System.currentTimeMillis();
+        if (fsyncPolicy == FsyncPolicy.INTERVAL && now - lastForce >= fsyncIntervalMillis) {
+            channel.force(false);
+            lastForce = now;
+        }
+    }
+
+    static ByteBuffer encode(DataChange change) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream body = new DataOutputStream(bytes);
+            body.writeLong(change.getVersion());
+            body.writeLong(change.getFirstVersion());
+            boolean appointment = change.getEntityType() == EntityType.APPOINTMENT;
+            body.writeByte(change.getEntityType().ordinal());
+            body.writeByte(change.getChangeType().ordinal());
+            if (change.getChangeType() == ChangeType.REMOVED) {
+                if (appointment) {
+                    body.writeLong((Long) change.getId());
+                } else {
+                    EntityCodec.writeString(body, (String) change.getId());
+                }
+            } else {
+                switch (change.getEntityType()) {
+                    case PATIENT -> EntityCodec.writePatient(body, (Patient) change.getAfter());
+                    case DOCTOR -> EntityCodec.writeDoctor(body, (Doctor) change.getAfter());
+                    case APPOINTMENT -> EntityCodec.writeAppointment(body, (Appointment) change.getAfter());
+                }
+            }
+            body.flush();
+            byte[] content = bytes.toByteArray();
+            CRC32 crc = new CRC32();
+            crc.update(content);
+            ByteBuffer record = ByteBuffer.allocate(content.length + 8);
+            record.putInt(content.length).put(content).putInt((int) crc.getValue());
+            return record.flip();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reconstruye el almacén aplicando el diario desde el inicio.
+     */
+    public static ReplayResult replay(Path file, ClinicDataStore store) throws IOException {
+        return replay(file, 0, 0, store);
+    }
+
+    /**
+     * Aplica el diario desde la posición indicada, omitiendo los cambios con
+     * versión menor o igual a {@code afterVersion} (ya incluidos en una foto).
+     * Un registro incompleto o corrupto al final (escritura interrumpida) se
+     * descarta y se trunca. La cola se lee completa y se aplica en orden de
+     * primera versión, no de escritura. Debe llamarse antes de registrar observadores.
+     */
+    public static ReplayResult replay(Path file, long fromPosition, long afterVersion, ClinicDataStore store)
+            throws IOException {
+        if (!Files.exists(file)) {
+            return new ReplayResult(0, 0, 0);
+        }
+        Map<EntityType, Map<Object, Long>> appliedVersions = new EnumMap<>(EntityType.class);
+        long applied = 0;
+        long skipped = 0;
+        long maxVersion = 0;
+        List<PendingRecord> pending = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            channel.position(fromPosition);
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+            long validEnd = fromPosition;
+            CRC32 crc = new CRC32();
+            while (true) {
+                byte[] content;
+                try {
+                    int length = in.readInt();
+                    if (length < 2 * Long.BYTES + 2 || length > channel.size()) {
+                        break;
+                    }
+                    content = new byte[length];
+                    in.readFully(content);
+                    crc.reset();
+                    crc.update(content);
+                    if (in.readInt() != (int) crc.getValue()) {
+                        break;
+                    }
+                } catch (EOFException endOfJournal) {
+                    break;
+                }
+                validEnd += content.length + 8;
+
+                ByteBuffer versions = ByteBuffer.wrap(content);
+                long version = versions.getLong();
+                long firstVersion = versions.getLong();
+                maxVersion = Math.max(maxVersion, version);
+                if (version > afterVersion) {
+                    pending.add(new PendingRecord(firstVersion, version, content));
+                }
+            }
+            if (validEnd < channel.size()) {
+                LOG.warning("Se descartan " + (channel.size() - validEnd) + " bytes incompletos al final del diario");
+                channel.truncate(validEnd);
+            }
+        }
+        // Los escritores encolan después de soltar el cerrojo, así que en el
+        // archivo un cambio puede preceder a otro de versión menor del que
+        // depende (la cita antes que su paciente). Se aplican por primera
+        // versión: un lote que creó al paciente y luego lo editó lleva la
+        // versión de la edición, posterior a la de la cita que depende del alta.
+        pending.sort(Comparator.comparingLong(PendingRecord::firstVersion).thenComparingLong(PendingRecord::version));
+        for (PendingRecord record : pending) {
+            DataInputStream body = new DataInputStream(new ByteArrayInputStream(record.content()));
+            body.skipBytes(2 * Long.BYTES);
+            EntityType type = EntityType.values()[body.readByte()];
+            ChangeType changeType = ChangeType.values()[body.readByte()];
+            if (apply(store, type, changeType, body, record.version(),
+                    appliedVersions.computeIfAbsent(type, t -> new HashMap<>()))) {
+                applied++;
+            } else {
+                skipped++;
+            }
+        }
+        store.advanceVersion(maxVersion);
+        return new ReplayResult(applied, skipped, maxVersion);
+    }
+
+    private static boolean apply(ClinicDataStore store, EntityType type, ChangeType changeType, DataInputStream body,
+            long version, Map<Object, Long> appliedVersions) throws IOException {
+        try {
+            switch (type) {
+                case PATIENT -> {
+                    if (changeType == ChangeType.REMOVED) {
+                        String id = EntityCodec.readString(body);
+                        if (isStale(appliedVersions, id, version)) {
+                            return false;
+                        }
+                        store.removePatient(id);
+                    } else {
+                        Patient patient = EntityCodec.readPatient(body);
+                        if (isStale(appliedVersions, patient.getId(), version)) {
+                            return false;
+                        }
+                        if (store.findPatient(patient.getId()).isPresent()) {
+                            store.editPatient(patient.getId(), patient);
+                        } else {
+                            store.addPatient(patient);
+                        }
+                    }
+                }
+                case DOCTOR -> {
+                    if (changeType == ChangeType.REMOVED) {
+                        String id = EntityCodec.readString(body);
+                        if (isStale(appliedVersions, id, version)) {
+                            return false;
+                        }
+                        store.removeDoctor(id);
+                    } else {
+                        Doctor doctor = EntityCodec.readDoctor(body);
+                        if (isStale(appliedVersions, doctor.getId(), version)) {
+                            return false;
+                        }
+                        if (store.findDoctor(doctor.getId()).isPresent()) {
+                            store.editDoctor(doctor.getId(), doctor);
+                        } else {
+                            store.addDoctor(doctor);
+                        }
+                    }
+                }
+                case APPOINTMENT -> {
+                    if (changeType == ChangeType.REMOVED) {
+                        long id = body.readLong();
+                        if (isStale(appliedVersions, id, version)) {
+                            return false;
+                        }
+                        store.findAppointment(id).ifPresent(store::removeAppointment);
+                    } else {
+                        Appointment appointment = EntityCodec.readAppointment(body, store);
+                        if (appointment == null || isStale(appliedVersions, appointment.getId(), version)) {
+                            return false;
+                        }
+                        Appointment existing = store.findAppointment(appointment.getId()).orElse(null);
+                        if (existing != null) {
+                            store.changePriceStrategy(existing.getId(), appointment.getPriceStrategy());
+                        } else {
+                            store.addAppointment(appointment);
+                        }
+                    }
+                }
+            }
+            return true;
+        } catch (IllegalArgumentException rejected) {
+            LOG.warning("Registro del diario descartado: " + rejected.getMessage());
+            return false;
+        }
+    }
+
+    private static boolean isStale(Map<Object, Long> appliedVersions, Object id, long version) {
+        Long last = appliedVersions.get(id);
+        if (last != null && last >= version) {
+            return true;
+        }
+        appliedVersions.put(id, version);
+        return false;
+    }
+
+    /** Registro leído y verificado, pendiente de aplicar en orden de primera versión. */
+    private record PendingRecord(long firstVersion, long version, byte[] content) {
+    }
+
+    /**
+     * Resumen de una reproducción del diario.
+     */
+    public record ReplayResult(long applied, long skipped, long maxVersion) {
+    }
+}
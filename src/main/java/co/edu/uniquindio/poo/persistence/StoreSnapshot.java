@@ -0,0 +1,225 @@
+package co.edu.uniquindio.poo.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Money;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+
+/**
+ * Foto binaria compacta del almacén. Los ids, especialidades y direcciones se
+ * internan: la primera aparición se escribe completa y las siguientes solo su
+ * código, así las citas referencian a paciente y médico con un entero.
+ * <p>
+ * Se escribe recorriendo el almacén sin bloquearlo, por lo que puede reflejar
+ * cambios posteriores al inicio; la cabecera guarda la posición del diario y la
+ * versión del almacén a partir de las cuales hay que reproducir la cola.
+ * <p>
+ * Las citas archivadas se escriben como las demás y la cabecera guarda el
+ * horizonte del archivo: al cargar se vuelven a archivar las mismas citas.
+ */
+public final class StoreSnapshot {
+    private static final int MAGIC = 0x434C534E;
+    private static final int FORMAT_VERSION = 1;
+    private static final byte END = 0;
+    private static final byte ENTRY = 1;
+    private static final int NULL_STRING = -2;
+    private static final int NEW_STRING = -1;
+
+    private StoreSnapshot() {
+    }
+
+    /**
+     * Escribe la foto en un archivo temporal y lo mueve atómicamente sobre {@code file}.
+     */
+    public static void write(Path file, ClinicDataStore store, long journalPosition, long storeVersion)
+            throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(journalPosition);
+            out.writeLong(storeVersion);
+            LocalDateTime horizon = store.getArchiveHorizon();
+            out.writeLong(horizon.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(horizon.getNano());
+            Map<String, Integer> codes = new HashMap<>();
+
+            for (Patient p : store.scanPatients()) {
+                out.writeByte(ENTRY);
+                writeInterned(out, codes, p.getId());
+                writeText(out, p.getName());
+                writeText(out, p.getPhone());
+                writeText(out, p.getHistoryNumber());
+                writeInterned(out, codes, p.getAddress());
+            }
+            out.writeByte(END);
+
+            for (Doctor d : store.scanDoctors()) {
+                out.writeByte(ENTRY);
+                writeInterned(out, codes, d.getId());
+                writeText(out, d.getName());
+                writeText(out, d.getPhone());
+                writeInterned(out, codes, d.getSpecialty());
+                writeText(out, d.getLicenseNumber());
+            }
+            out.writeByte(END);
+
+            for (Appointment a : store.scanAppointments()) {
+                out.writeByte(ENTRY);
+                out.writeLong(a.getId());
+                writeInterned(out, codes, a.getPatient().getId());
+                writeInterned(out, codes, a.getDoctor().getId());
+                out.writeLong(a.getDateTime().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(a.getDateTime().getNano());
+                out.writeInt(a.getDurationMinutes());
+                out.writeLong(Money.toCents(a.getBasePrice()));
+                out.writeByte(EntityCodec.strategyCode(a.getPriceStrategy()));
+            }
+            out.writeByte(END);
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Carga la foto en un almacén vacío leyendo el archivo mapeado en memoria.
+     */
+    public static LoadResult load(Path file, ClinicDataStore store) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("La foto supera el tamaño que se puede mapear: " + channel.size());
+            }
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION) {
+                throw new IOException("Formato de foto no reconocido: " + file);
+            }
+            long journalPosition = in.getLong();
+            long storeVersion = in.getLong();
+            LocalDateTime horizon = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+            List<String> strings = new ArrayList<>();
+            int patients = 0;
+            int doctors = 0;
+            List<Appointment> restored = new ArrayList<>();
+            int skipped = 0;
+
+            while (in.get() == ENTRY) {
+                String id = readInterned(in, strings);
+                String name = readText(in);
+                String phone = readText(in);
+                String historyNumber = readText(in);
+                String address = readInterned(in, strings);
+                store.addPatient(new Patient.Builder(id, name, phone, historyNumber).address(address).build());
+                patients++;
+            }
+            while (in.get() == ENTRY) {
+                store.addDoctor(new Doctor(readInterned(in, strings), readText(in), readText(in),
+                        readInterned(in, strings), readText(in)));
+                doctors++;
+            }
+            while (in.get() == ENTRY) {
+                long id = in.getLong();
+                String patientId = readInterned(in, strings);
+                String doctorId = readInterned(in, strings);
+                LocalDateTime dateTime = LocalDateTime.ofEpochSecond(in.getLong(), in.getInt(), ZoneOffset.UTC);
+                int durationMinutes = in.getInt();
+                BigDecimal basePrice = Money.ofCents(in.getLong());
+                byte strategy = in.get();
+                Patient patient = store.findPatient(patientId).orElse(null);
+                Doctor doctor = store.findDoctor(doctorId).orElse(null);
+                if (patient == null || doctor == null) {
+                    // Cita capturada sin su paciente o médico: la cola del diario la repone
+                    skipped++;
+                    continue;
+                }
+                restored.add(new Appointment(id, patient, doctor, dateTime, durationMinutes, basePrice,
+                        EntityCodec.strategyFor(strategy)));
+            }
+            // Todas de una vez: un cerrojo, una versión y una foto inmutable para el lote
+            store.restoreAppointments(restored);
+            int appointments = restored.size();
+            int archived = horizon.equals(LocalDateTime.MIN) ? 0 : store.archiveBefore(horizon);
+            store.advanceVersion(storeVersion);
+            return new LoadResult(journalPosition, storeVersion, patients, doctors, appointments, skipped, archived);
+        }
+    }
+
+    private static void writeInterned(DataOutputStream out, Map<String, Integer> codes, String value)
+            throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_STRING);
+            return;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            out.writeInt(code);
+        } else {
+            codes.put(value, codes.size());
+            out.writeInt(NEW_STRING);
+            writeText(out, value);
+        }
+    }
+
+    private static String readInterned(ByteBuffer in, List<String> strings) {
+        int code = in.getInt();
+        if (code == NULL_STRING) {
+            return null;
+        }
+        if (code == NEW_STRING) {
+            String value = readText(in);
+            strings.add(value);
+            return value;
+        }
+        return strings.get(code);
+    }
+
+    private static void writeText(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readText(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Resultado de cargar una foto: desde dónde reproducir el diario y qué se cargó.
+     */
+    public record LoadResult(long journalPosition, long storeVersion, int patients, int doctors, int appointments,
+            int skipped, int archived) {
+    }
+}
@@ -0,0 +1,18 @@
+package co.edu.uniquindio.poo.services;
+
+import java.math.BigDecimal;
+
+import co.edu.uniquindio.poo.model.Money;
+
+/**
+ * Citas, minutos reservados e ingresos de un médico, una especialidad, un día
+ * o de toda la clínica.
+ */
+public record ActivityTotals(long appointments, long bookedMinutes, BigDecimal revenue) {
+    public static final ActivityTotals EMPTY = new ActivityTotals(0, 0, Money.ZERO);
+
+    @Override
+    public String toString() {
+        return String.format("%d citas, %d min, $%s", appointments, bookedMinutes, revenue);
+    }
+}
@@ -0,0 +1,152 @@
+package co.edu.uniquindio.poo.services;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import co.edu.uniquindio.poo.model.Appointment;
+
+/**
+ * Agendas diarias por médico ya armadas, con a lo sumo {@code capacity} días
+ * en memoria: al llenarse sale el día consultado hace más tiempo.
+ * <p>
+ * El almacén invalida solo el día del médico que cambia cuando se agrega,
+ * cancela o reprecia una cita, bajo el cerrojo de citas. Una reconstrucción
+ * que se cruza con una invalidación del mismo día entrega su resultado pero no
+ * lo guarda: cada franja de días lleva un contador de invalidaciones, y si
+ * cambió mientras se armaba la agenda, la copia podría ser anterior al cambio.
+ */
+public class AgendaCache {
+    public static final int DEFAULT_CAPACITY = 10_000;
+    private static final int STRIPES = 64;
+
+    private final int capacity;
+    private final Map<DayKey, List<Appointment>> days;
+    private final AtomicLongArray epochs;
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder evictions;
+    private final LongAdder invalidations;
+    private final LongAdder rebuildNanos;
+    private final AtomicLong maxRebuildNanos;
+
+    private record DayKey(String doctorId, LocalDate day) {
+    }
+
+    public AgendaCache(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("La capacidad debe ser mayor que cero.");
+        }
+        this.capacity = capacity;
+        this.evictions = new LongAdder();
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<DayKey, List<Appointment>> eldest) {
+                if (size() > AgendaCache.this.capacity) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.epochs = new AtomicLongArray(STRIPES);
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.invalidations = new LongAdder();
+        this.rebuildNanos = new LongAdder();
+        this.maxRebuildNanos = new AtomicLong();
+    }
+
+    /**
+     * Agenda del día desde la caché, o armada con {@code rebuild} y guardada
+     * como lista inmutable.
+     */
+    public List<Appointment> get(String doctorId, LocalDate day, Supplier<? extends List<Appointment>> rebuild) {
+        DayKey key = new DayKey(doctorId, day);
+        synchronized (days) {
+            List<Appointment> cached = days.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        int stripe = stripe(key);
+        long epoch = epochs.get(stripe);
+        long start = System.nanoTime();
+        List<Appointment> agenda = List.copyOf(rebuild.get());
+        long elapsed = System.nanoTime() - start;
+        rebuildNanos.add(elapsed);
+        maxRebuildNanos.accumulateAndGet(elapsed, Math::max);
+        synchronized (days) {
+            if (epochs.get(stripe) == epoch) {
+                days.put(key, agenda);
+            }
+        }
+        return agenda;
+    }
+
+    /** Descarta el día del médico en que empieza la cita. */
+    public void invalidate(Appointment appointment) {
+        invalidate(appointment.getDoctor().getId(), appointment.getDateTime().toLocalDate());
+    }
+
+    public void invalidate(String doctorId, LocalDate day) {
+        DayKey key = new DayKey(doctorId, day);
+        synchronized (days) {
+            epochs.incrementAndGet(stripe(key));
+            if (days.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    /** Descarta todos los días del médico, p. ej. al darlo de baja. */
+    public void invalidateDoctor(String doctorId) {
+        invalidateWhere(key -> key.doctorId().equals(doctorId));
+    }
+
+    /** Descarta los días hasta {@code lastDay} inclusive de todos los médicos, p. ej. al archivarlos. */
+    public void invalidateUntil(LocalDate lastDay) {
+        invalidateWhere(key -> !key.day().isAfter(lastDay));
+    }
+
+    private void invalidateWhere(Predicate<DayKey> filter) {
+        synchronized (days) {
+            // Las reconstrucciones en curso pueden ser de cualquier franja
+            for (int i = 0; i < STRIPES; i++) {
+                epochs.incrementAndGet(i);
+            }
+            int before = days.size();
+            days.keySet().removeIf(filter);
+            invalidations.add(before - days.size());
+        }
+    }
+
+    public AgendaCacheStats getStats() {
+        long rebuilds = misses.sum();
+        int size;
+        synchronized (days) {
+            size = days.size();
+        }
+        return new AgendaCacheStats(hits.sum(), rebuilds, evictions.sum(), invalidations.sum(), size, capacity,
+                Duration.ofNanos(rebuilds == 0 ? 0 : rebuildNanos.sum() / rebuilds),
+                Duration.ofNanos(maxRebuildNanos.get()));
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    private static int stripe(DayKey key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
@@ -0,0 +1,25 @@
+package co.edu.uniquindio.poo.services;
+
+import java.time.Duration;
+
+/**
+ * Uso de la caché de agendas diarias: consultas servidas desde la caché y
+ * reconstruidas, días expulsados por tamaño o invalidados por un cambio, y
+ * cuánto tardan las reconstrucciones.
+ */
+public record AgendaCacheStats(long hits, long misses, long evictions, long invalidations, int size, int capacity,
+        Duration averageRebuild, Duration maxRebuild) {
+
+    /** Fracción de consultas servidas sin reconstruir; 0 si aún no hubo consultas. */
+    public double hitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d/%d días, %.1f%% aciertos (%d de %d), %d expulsados, %d invalidados; "
+                + "reconstrucción media %d µs, máxima %d µs", size, capacity, hitRate() * 100, hits, hits + misses,
+                evictions, invalidations, averageRebuild.toNanos() / 1000, maxRebuild.toNanos() / 1000);
+    }
+}
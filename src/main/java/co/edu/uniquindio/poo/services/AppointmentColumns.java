@@ -0,0 +1,462 @@
+package co.edu.uniquindio.poo.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.IntPredicate;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Money;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Citas guardadas por columnas en arreglos primitivos: id, claves enteras de
+ * paciente y médico, inicio en minutos desde la época (UTC), duración, precio
+ * base en centavos y código de estrategia. Una fila ocupa menos de 70 bytes
+ * frente a los cientos de una cita en el heap con sus índices, y el
+ * recolector solo ve un puñado de arreglos.
+ * <p>
+ * Las citas se leen como vistas {@link Appointment} creadas al vuelo que
+ * comparten paciente, médico y estrategia; modificar una vista no cambia la
+ * fila. Todos los métodos se sincronizan sobre la instancia.
+ */
+public class AppointmentColumns {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<String, Integer> patientKeys;
+    private final List<Patient> patientsByKey;
+    private final Map<String, Integer> doctorKeys;
+    private final List<Doctor> doctorsByKey;
+    private final RowIndex rowsById;
+
+    private int size;
+    private long[] ids;
+    private int[] patientColumn;
+    private int[] doctorColumn;
+    private long[] startMinutes;
+    private int[] durations;
+    private long[] baseCents;
+    private byte[] strategyCodes;
+
+    public AppointmentColumns() {
+        this.patientKeys = new HashMap<>();
+        this.patientsByKey = new ArrayList<>();
+        this.doctorKeys = new HashMap<>();
+        this.doctorsByKey = new ArrayList<>();
+        this.rowsById = new RowIndex();
+        this.ids = new long[INITIAL_CAPACITY];
+        this.patientColumn = new int[INITIAL_CAPACITY];
+        this.doctorColumn = new int[INITIAL_CAPACITY];
+        this.startMinutes = new long[INITIAL_CAPACITY];
+        this.durations = new int[INITIAL_CAPACITY];
+        this.baseCents = new long[INITIAL_CAPACITY];
+        this.strategyCodes = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Indica si la cita cabe en las columnas sin perder datos: hora en minutos
+     * exactos y una estrategia registrada, que se recupera por su código.
+     */
+    public static boolean fits(Appointment appointment) {
+        LocalDateTime start = appointment.getDateTime();
+        return start.getSecond() == 0 && start.getNano() == 0 && isRegistered(appointment.getPriceStrategy());
+    }
+
+    private static boolean isRegistered(PriceStrategy strategy) {
+        try {
+            return PriceStrategyRegistry.byCode(strategy.getCode()) == strategy;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized boolean contains(long id) {
+        return rowsById.get(id) >= 0;
+    }
+
+    /**
+     * Agrega la cita como una fila nueva.
+     * @return false si ya había una fila con el mismo id.
+     * @throws IllegalArgumentException si la cita no cumple {@link #fits}.
+     */
+    public synchronized boolean add(Appointment appointment) {
+        if (!fits(appointment)) {
+            throw new IllegalArgumentException("La cita " + appointment.getId()
+                    + " no puede guardarse por columnas.");
+        }
+        if (rowsById.get(appointment.getId()) >= 0) {
+            return false;
+        }
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        ids[row] = appointment.getId();
+        patientColumn[row] = key(patientKeys, patientsByKey, appointment.getPatient().getId(), appointment.getPatient());
+        doctorColumn[row] = key(doctorKeys, doctorsByKey, appointment.getDoctor().getId(), appointment.getDoctor());
+        startMinutes[row] = appointment.getDateTime().toEpochSecond(ZoneOffset.UTC) / 60;
+        durations[row] = appointment.getDurationMinutes();
+        baseCents[row] = appointment.getBasePrice().unscaledValue().longValueExact();
+        strategyCodes[row] = appointment.getPriceStrategy().getCode();
+        rowsById.put(appointment.getId(), row);
+        return true;
+    }
+
+    /** Vista de la cita con ese id, o null si no hay fila. */
+    public synchronized Appointment get(long id) {
+        int row = rowsById.get(id);
+        return row < 0 ? null : view(row);
+    }
+
+    /**
+     * Elimina la fila moviendo la última al hueco.
+     * @return la vista de la cita eliminada o null si no existía.
+     */
+    public synchronized Appointment remove(long id) {
+        int row = rowsById.get(id);
+        if (row < 0) {
+            return null;
+        }
+        Appointment removed = view(row);
+        removeRow(row);
+        return removed;
+    }
+
+    /**
+     * Cambia la estrategia de la fila.
+     * @return la vista anterior al cambio, o null si no hay fila con ese id.
+     * @throws IllegalArgumentException si la estrategia no está registrada.
+     */
+    public synchronized Appointment setPriceStrategy(long id, PriceStrategy strategy) {
+        PriceStrategy shared = PriceStrategyRegistry.canonical(strategy);
+        if (!isRegistered(shared)) {
+            throw new IllegalArgumentException("Solo se aplican estrategias registradas a citas archivadas.");
+        }
+        int row = rowsById.get(id);
+        if (row < 0) {
+            return null;
+        }
+        Appointment before = view(row);
+        strategyCodes[row] = shared.getCode();
+        return before;
+    }
+
+    /** Elimina las filas del paciente y devuelve sus vistas en orden cronológico. */
+    public synchronized List<Appointment> removeByPatient(String patientId) {
+        Integer key = patientKeys.get(patientId);
+        return key == null ? List.of() : removeWhere(row -> patientColumn[row] == key);
+    }
+
+    /** Elimina las filas del médico y devuelve sus vistas en orden cronológico. */
+    public synchronized List<Appointment> removeByDoctor(String doctorId) {
+        Integer key = doctorKeys.get(doctorId);
+        return key == null ? List.of() : removeWhere(row -> doctorColumn[row] == key);
+    }
+
+    /** Citas con fecha en [from, to), en orden cronológico. */
+    public synchronized List<Appointment> between(LocalDateTime from, LocalDateTime to) {
+        long fromMinute = ceilMinute(from);
+        long toMinute = ceilMinute(to);
+        return select(row -> startMinutes[row] >= fromMinute && startMinutes[row] < toMinute);
+    }
+
+    /**
+     * Recorre las citas con fecha en [from, to) en orden cronológico sin crear
+     * todas las vistas a la vez: copia solo sus ids ordenados, 8 bytes por
+     * fila, y arma cada vista al llegar a ella. Las filas eliminadas mientras
+     * tanto se omiten.
+     */
+    public Iterator<Appointment> iterator(LocalDateTime from, LocalDateTime to) {
+        long[] ordered = chronologicalIds(ceilMinute(from), ceilMinute(to));
+        return new Iterator<>() {
+            private int position;
+            private Appointment pending = advance();
+
+            private Appointment advance() {
+                while (position < ordered.length) {
+                    Appointment appointment = get(ordered[position++]);
+                    if (appointment != null) {
+                        return appointment;
+                    }
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return pending != null;
+            }
+
+            @Override
+            public Appointment next() {
+                if (pending == null) {
+                    throw new NoSuchElementException();
+                }
+                Appointment current = pending;
+                pending = advance();
+                return current;
+            }
+        };
+    }
+
+    /** Citas del paciente con fecha en [from, to), en orden cronológico. */
+    public synchronized List<Appointment> forPatient(String patientId, LocalDateTime from, LocalDateTime to) {
+        Integer key = patientKeys.get(patientId);
+        if (key == null) {
+            return List.of();
+        }
+        long fromMinute = ceilMinute(from);
+        long toMinute = ceilMinute(to);
+        return select(row -> patientColumn[row] == key && startMinutes[row] >= fromMinute
+                && startMinutes[row] < toMinute);
+    }
+
+    /** Citas del médico con fecha en [from, to), en orden cronológico. */
+    public synchronized List<Appointment> forDoctor(String doctorId, LocalDateTime from, LocalDateTime to) {
+        Integer key = doctorKeys.get(doctorId);
+        if (key == null) {
+            return List.of();
+        }
+        long fromMinute = ceilMinute(from);
+        long toMinute = ceilMinute(to);
+        return select(row -> doctorColumn[row] == key && startMinutes[row] >= fromMinute
+                && startMinutes[row] < toMinute);
+    }
+
+    /**
+     * Memoria aproximada en bytes: las columnas reservadas y la tabla id → fila.
+     * Pacientes y médicos no se cuentan porque se comparten con el almacén.
+     */
+    public synchronized long getEstimatedBytes() {
+        long perRow = Integer.BYTES * 3 + Long.BYTES * 3 + Byte.BYTES;
+        return ids.length * perRow + rowsById.getEstimatedBytes();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("%d citas por columnas, ~%d KB", size, getEstimatedBytes() / 1024);
+    }
+
+    /**
+     * Ids de las filas con inicio en [fromMinute, toMinute) en orden
+     * cronológico. Se ordena el minuto relativo y la fila empaquetados en un
+     * long, sin cajas, y luego el id desempata dentro de cada minuto.
+     */
+    private synchronized long[] chronologicalIds(long fromMinute, long toMinute) {
+        int count = 0;
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (int row = 0; row < size; row++) {
+            long minute = startMinutes[row];
+            if (minute >= fromMinute && minute < toMinute) {
+                count++;
+                first = Math.min(first, minute);
+                last = Math.max(last, minute);
+            }
+        }
+        if (count > 0 && last - first >= 1L << 31) {
+            // Fechas a miles de años de distancia: no caben empaquetadas
+            return select(row -> startMinutes[row] >= fromMinute && startMinutes[row] < toMinute).stream()
+                    .mapToLong(Appointment::getId).toArray();
+        }
+        long[] order = new long[count];
+        int next = 0;
+        for (int row = 0; row < size; row++) {
+            long minute = startMinutes[row];
+            if (minute >= fromMinute && minute < toMinute) {
+                order[next++] = (minute - first) << 32 | row;
+            }
+        }
+        Arrays.sort(order);
+        int start = 0;
+        for (int i = 1; i <= count; i++) {
+            if (i == count || order[i] >>> 32 != order[start] >>> 32) {
+                for (int j = start; j < i; j++) {
+                    order[j] = ids[(int) order[j]];
+                }
+                Arrays.sort(order, start, i);
+                start = i;
+            }
+        }
+        return order;
+    }
+
+    private Appointment view(int row) {
+        return new Appointment(ids[row], patientsByKey.get(patientColumn[row]), doctorsByKey.get(doctorColumn[row]),
+                LocalDateTime.ofEpochSecond(startMinutes[row] * 60, 0, ZoneOffset.UTC), durations[row],
+                BigDecimal.valueOf(baseCents[row], Money.SCALE), PriceStrategyRegistry.byCode(strategyCodes[row]));
+    }
+
+    private List<Appointment> select(IntPredicate matches) {
+        List<Appointment> selected = new ArrayList<>();
+        for (int row = 0; row < size; row++) {
+            if (matches.test(row)) {
+                selected.add(view(row));
+            }
+        }
+        selected.sort(AppointmentTimeline.CHRONOLOGICAL);
+        return selected;
+    }
+
+    private List<Appointment> removeWhere(IntPredicate matches) {
+        List<Appointment> removed = new ArrayList<>();
+        // De atrás hacia adelante: la fila que se mueve al hueco ya fue revisada
+        for (int row = size - 1; row >= 0; row--) {
+            if (matches.test(row)) {
+                removed.add(view(row));
+                removeRow(row);
+            }
+        }
+        removed.sort(AppointmentTimeline.CHRONOLOGICAL);
+        return removed;
+    }
+
+    private void removeRow(int row) {
+        rowsById.remove(ids[row]);
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            patientColumn[row] = patientColumn[last];
+            doctorColumn[row] = doctorColumn[last];
+            startMinutes[row] = startMinutes[last];
+            durations[row] = durations[last];
+            baseCents[row] = baseCents[last];
+            strategyCodes[row] = strategyCodes[last];
+            rowsById.put(ids[row], row);
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        patientColumn = Arrays.copyOf(patientColumn, capacity);
+        doctorColumn = Arrays.copyOf(doctorColumn, capacity);
+        startMinutes = Arrays.copyOf(startMinutes, capacity);
+        durations = Arrays.copyOf(durations, capacity);
+        baseCents = Arrays.copyOf(baseCents, capacity);
+        strategyCodes = Arrays.copyOf(strategyCodes, capacity);
+    }
+
+    /**
+     * Clave entera de la persona. La última instancia vista reemplaza a la
+     * anterior: tras una baja en cascada el mismo id puede volver con otro objeto.
+     */
+    private static <P> int key(Map<String, Integer> keys, List<P> byKey, String id, P person) {
+        Integer key = keys.get(id);
+        if (key == null) {
+            key = byKey.size();
+            keys.put(id, key);
+            byKey.add(person);
+        } else {
+            byKey.set(key, person);
+        }
+        return key;
+    }
+
+    /** Primer minuto entero igual o posterior a la fecha. */
+    private static long ceilMinute(LocalDateTime dateTime) {
+        long seconds = dateTime.toEpochSecond(ZoneOffset.UTC);
+        boolean exact = seconds % 60 == 0 && dateTime.getNano() == 0;
+        return Math.floorDiv(seconds, 60) + (exact ? 0 : 1);
+    }
+
+    /**
+     * Tabla id → fila con direccionamiento abierto sobre dos arreglos
+     * primitivos, sin cajas ni nodos por entrada.
+     */
+    private static final class RowIndex {
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        private long[] keys;
+        private int[] rows;
+        private int count;
+
+        RowIndex() {
+            keys = new long[INITIAL_CAPACITY * 2];
+            rows = new int[INITIAL_CAPACITY * 2];
+            Arrays.fill(keys, EMPTY);
+        }
+
+        int get(long id) {
+            for (int slot = slot(id, keys.length); keys[slot] != EMPTY; slot = (slot + 1) & (keys.length - 1)) {
+                if (keys[slot] == id) {
+                    return rows[slot];
+                }
+            }
+            return -1;
+        }
+
+        void put(long id, int row) {
+            if ((count + 1) * 2 > keys.length) {
+                resize(keys.length * 2);
+            }
+            int slot = slot(id, keys.length);
+            while (keys[slot] != EMPTY && keys[slot] != id) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            if (keys[slot] == EMPTY) {
+                keys[slot] = id;
+                count++;
+            }
+            rows[slot] = row;
+        }
+
+        void remove(long id) {
+            int mask = keys.length - 1;
+            int slot = slot(id, keys.length);
+            while (keys[slot] != id) {
+                if (keys[slot] == EMPTY) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            // Corre hacia atrás las claves siguientes para no dejar huecos en sus cadenas
+            int gap = slot;
+            for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+                int home = slot(keys[next], keys.length);
+                if (((next - home) & mask) >= ((next - gap) & mask)) {
+                    keys[gap] = keys[next];
+                    rows[gap] = rows[next];
+                    gap = next;
+                }
+            }
+            keys[gap] = EMPTY;
+            count--;
+        }
+
+        long getEstimatedBytes() {
+            return (long) keys.length * (Long.BYTES + Integer.BYTES);
+        }
+
+        private void resize(int capacity) {
+            long[] oldKeys = keys;
+            int[] oldRows = rows;
+            keys = new long[capacity];
+            rows = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            count = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    put(oldKeys[i], oldRows[i]);
+                }
+            }
+        }
+
+        private static int slot(long id, int length) {
+            long hash = id * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ hash >>> 32) & (length - 1);
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package co.edu.uniquindio.poo.services;
+
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import co.edu.uniquindio.poo.model.Appointment;
+
+/**
+ * Citas ordenadas por fecha y hora (el id desempata). Las consultas por rango
+ * y la siguiente cita se resuelven en O(log n) y no bloquean a los escritores.
+ * <p>
+ * En las agendas de médico los intervalos [inicio, fin) nunca se solapan, así
+ * que ordenar por inicio basta como índice de intervalos: el único candidato a
+ * solaparse con un intervalo nuevo es la última cita que empieza antes de su fin.
+ */
+public class AppointmentTimeline {
+    /** Orden de la agenda: fecha y hora, y el id para desempatar. */
+    public static final Comparator<Appointment> CHRONOLOGICAL = Comparator.comparing(Appointment::getDateTime)
+            .thenComparingLong(Appointment::getId);
+
+    /** Solo se reemplaza al cargar en bloque una agenda vacía. */
+    private volatile NavigableMap<SlotKey, Appointment> slots;
+
+    public AppointmentTimeline() {
+        this.slots = new ConcurrentSkipListMap<>();
+    }
+
+    public void add(Appointment appointment) {
+        slots.put(SlotKey.of(appointment), appointment);
+    }
+
+    /**
+     * Agrega citas ya ordenadas con {@link #CHRONOLOGICAL} y de ids distintos.
+     * Si la agenda está vacía arma la lista de saltos de una pasada, sin buscar
+     * la posición de cada cita; si no, las agrega una a una. Quien modifica la
+     * agenda debe serializar las escrituras, como con {@link #add}.
+     */
+    public void addAll(List<Appointment> chronological) {
+        if (!slots.isEmpty()) {
+            chronological.forEach(this::add);
+        } else if (!chronological.isEmpty()) {
+            slots = new ConcurrentSkipListMap<>(new SortedSlots(chronological));
+        }
+    }
+
+    public boolean remove(Appointment appointment) {
+        return slots.remove(SlotKey.of(appointment)) != null;
+    }
+
+    public boolean isEmpty() {
+        return slots.isEmpty();
+    }
+
+    /**
+     * Citas con fecha en [from, to), en orden cronológico.
+     */
+    public List<Appointment> between(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        return new ArrayList<>(slots.subMap(SlotKey.first(from), true, SlotKey.first(to), false).values());
+    }
+
+    /**
+     * Vista de solo lectura de las citas con fecha en [from, to), sin copia.
+     * Su recorrido es débilmente consistente frente a escrituras concurrentes.
+     */
+    public Collection<Appointment> scan(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            return List.of();
+        }
+        return Collections.unmodifiableCollection(
+                slots.subMap(SlotKey.first(from), true, SlotKey.first(to), false).values());
+    }
+
+    /**
+     * Primera cita con fecha igual o posterior a la indicada.
+     */
+    public Optional<Appointment> next(LocalDateTime after) {
+        Map.Entry<SlotKey, Appointment> entry = slots.ceilingEntry(SlotKey.first(after));
+        return entry == null ? Optional.empty() : Optional.of(entry.getValue());
+    }
+
+    /**
+     * Cita que se solapa con [start, end), si existe. Requiere que la agenda no
+     * tenga solapamientos previos.
+     */
+    public Optional<Appointment> findOverlap(LocalDateTime start, LocalDateTime end) {
+        Map.Entry<SlotKey, Appointment> previous = slots.lowerEntry(SlotKey.first(end));
+        if (previous != null && previous.getValue().getEndDateTime().isAfter(start)) {
+            return Optional.of(previous.getValue());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Primer inicio libre, igual o posterior a {@code after}, en el que cabe una
+     * cita de la duración indicada. Recorre solo las citas contiguas ya ocupadas.
+     */
+    public LocalDateTime firstFreeSlot(LocalDateTime after, int durationMinutes) {
+        NavigableMap<SlotKey, Appointment> slots = this.slots;
+        LocalDateTime candidate = after;
+        Map.Entry<SlotKey, Appointment> previous = slots.lowerEntry(SlotKey.first(candidate));
+        if (previous != null && previous.getValue().getEndDateTime().isAfter(candidate)) {
+            candidate = previous.getValue().getEndDateTime();
+        }
+        for (Appointment next : slots.tailMap(SlotKey.first(candidate), true).values()) {
+            if (!next.getDateTime().isBefore(candidate.plusMinutes(durationMinutes))) {
+                break;
+            }
+            if (next.getEndDateTime().isAfter(candidate)) {
+                candidate = next.getEndDateTime();
+            }
+        }
+        return candidate;
+    }
+
+    /**
+     * Recorre, sin copia, las citas posteriores a {@code after} (o todas si es
+     * null) en orden cronológico o inverso. {@code after} puede no estar ya en la agenda.
+     */
+    public Iterator<Appointment> iterator(Appointment after, boolean descending) {
+        NavigableMap<SlotKey, Appointment> ordered = descending ? slots.descendingMap() : slots;
+        if (after != null) {
+            ordered = ordered.tailMap(SlotKey.of(after), false);
+        }
+        return Collections.unmodifiableCollection(ordered.values()).iterator();
+    }
+
+    /** Todas las citas en orden cronológico. */
+    public List<Appointment> all() {
+        return new ArrayList<>(slots.values());
+    }
+
+    /**
+     * Vista de solo lectura, como mapa ordenado, de una lista ya ordenada con
+     * {@link #CHRONOLOGICAL}. Existe para que {@link ConcurrentSkipListMap} la
+     * copie de una pasada; los rangos se resuelven con búsqueda binaria sobre
+     * sublistas, sin copiar.
+     */
+    private static final class SortedSlots extends AbstractMap<SlotKey, Appointment>
+            implements SortedMap<SlotKey, Appointment> {
+        private final List<Appointment> chronological;
+
+        SortedSlots(List<Appointment> chronological) {
+            this.chronological = chronological;
+        }
+
+        @Override
+        public Set<Map.Entry<SlotKey, Appointment>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Map.Entry<SlotKey, Appointment>> iterator() {
+                    Iterator<Appointment> appointments = chronological.iterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return appointments.hasNext();
+                        }
+
+                        @Override
+                        public Map.Entry<SlotKey, Appointment> next() {
+                            Appointment appointment = appointments.next();
+                            return Map.entry(SlotKey.of(appointment), appointment);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return chronological.size();
+                }
+            };
+        }
+
+        @Override
+        public Appointment get(Object key) {
+            if (!(key instanceof SlotKey slot)) {
+                return null;
+            }
+            int index = indexOf(slot);
+            return index < chronological.size() && SlotKey.of(chronological.get(index)).equals(slot)
+                    ? chronological.get(index) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Comparator<? super SlotKey> comparator() {
+            return null;
+        }
+
+        @Override
+        public SortedMap<SlotKey, Appointment> subMap(SlotKey fromKey, SlotKey toKey) {
+            if (fromKey.compareTo(toKey) > 0) {
+                throw new IllegalArgumentException("El inicio del rango es posterior a su fin.");
+            }
+            return new SortedSlots(chronological.subList(indexOf(fromKey), indexOf(toKey)));
+        }
+
+        @Override
+        public SortedMap<SlotKey, Appointment> headMap(SlotKey toKey) {
+            return new SortedSlots(chronological.subList(0, indexOf(toKey)));
+        }
+
+        @Override
+        public SortedMap<SlotKey, Appointment> tailMap(SlotKey fromKey) {
+            return new SortedSlots(chronological.subList(indexOf(fromKey), chronological.size()));
+        }
+
+        @Override
+        public SlotKey firstKey() {
+            if (chronological.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return SlotKey.of(chronological.get(0));
+        }
+
+        @Override
+        public SlotKey lastKey() {
+            if (chronological.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            return SlotKey.of(chronological.get(chronological.size() - 1));
+        }
+
+        /** Posición de la primera cita con clave mayor o igual a {@code key}. */
+        private int indexOf(SlotKey key) {
+            int low = 0;
+            int high = chronological.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (SlotKey.of(chronological.get(middle)).compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+
+    private record SlotKey(LocalDateTime dateTime, long id) implements Comparable<SlotKey> {
+
+        static SlotKey of(Appointment appointment) {
+            return new SlotKey(appointment.getDateTime(), appointment.getId());
+        }
+
+        /** Clave menor que cualquier cita real en esa fecha y hora. */
+        static SlotKey first(LocalDateTime dateTime) {
+            return new SlotKey(dateTime, Long.MIN_VALUE);
+        }
+
+        @Override
+        public int compareTo(SlotKey other) {
+            int byTime = dateTime.compareTo(other.dateTime);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+}
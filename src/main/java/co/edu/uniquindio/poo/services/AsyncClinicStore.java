@@ -0,0 +1,114 @@
+package co.edu.uniquindio.poo.services;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.model.Person;
+
+/**
+ * Fachada asíncrona del almacén para la interfaz. Las operaciones corren en
+ * un ejecutor propio y sus futuros se completan en el ejecutor de la interfaz,
+ * así que los {@code thenAccept} y {@code whenComplete} que encadene un
+ * controlador ya corren en el hilo de JavaFX.
+ * <p>
+ * Las modificaciones se aplican en el orden en que se pidieron, aunque una
+ * anterior falle; las consultas corren en paralelo entre sí y con ellas.
+ */
+public class AsyncClinicStore implements AutoCloseable {
+    private final ClinicDataStore store;
+    private final ExecutorService worker;
+    private final Executor ui;
+    private CompletableFuture<?> lastMutation;
+
+    public AsyncClinicStore(ClinicDataStore store, ExecutorService worker, Executor ui) {
+        this.store = store;
+        this.worker = worker;
+        this.ui = ui;
+        this.lastMutation = CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Fachada que trabaja en hilos virtuales, si la JVM los tiene, y entrega
+     * los resultados al hilo de JavaFX agrupados por pulso.
+     */
+    public static AsyncClinicStore forFx(ClinicDataStore store) {
+        return new AsyncClinicStore(store, Workers.newWorker(), FrameExecutor.fx());
+    }
+
+    /** Consulta fuera del hilo de la interfaz. */
+    public <T> CompletableFuture<T> query(Function<? super ClinicDataStore, ? extends T> query) {
+        return deliver(CompletableFuture.supplyAsync(() -> query.apply(store), worker));
+    }
+
+    /** Modificación en orden, fuera del hilo de la interfaz. */
+    public CompletableFuture<Void> mutate(Consumer<? super ClinicDataStore> mutation) {
+        return mutateAndGet(s -> {
+            mutation.accept(s);
+            return null;
+        });
+    }
+
+    /** Como {@link #mutate(Consumer)}, devolviendo un resultado. */
+    public <T> CompletableFuture<T> mutateAndGet(Function<? super ClinicDataStore, ? extends T> mutation) {
+        CompletableFuture<T> result;
+        synchronized (this) {
+            result = lastMutation.handleAsync((ignored, previousError) -> mutation.apply(store), worker);
+            lastMutation = result;
+        }
+        return deliver(result);
+    }
+
+    public CompletableFuture<Void> addPatient(Patient patient) {
+        return mutate(s -> s.addPatient(patient));
+    }
+
+    public CompletableFuture<Void> addDoctor(Doctor doctor) {
+        return mutate(s -> s.addDoctor(doctor));
+    }
+
+    public CompletableFuture<Void> addAppointment(Appointment appointment) {
+        return mutate(s -> s.addAppointment(appointment));
+    }
+
+    public CompletableFuture<LocalDateTime> findFirstFreeSlot(String doctorId, LocalDateTime after,
+            int durationMinutes) {
+        return query(s -> s.findFirstFreeSlot(doctorId, after, durationMinutes));
+    }
+
+    public <P extends Person> CompletableFuture<List<P>> search(PersonSearchIndex<P> index, String query,
+            int limit) {
+        return deliver(CompletableFuture.supplyAsync(() -> index.search(query, limit), worker));
+    }
+
+    /**
+     * Resultado completado en el ejecutor de la interfaz, con la excepción
+     * original en lugar de su {@link CompletionException}.
+     */
+    private <T> CompletableFuture<T> deliver(CompletableFuture<T> work) {
+        CompletableFuture<T> delivered = new CompletableFuture<>();
+        work.whenComplete((value, error) -> ui.execute(() -> {
+            if (error == null) {
+                delivered.complete(value);
+            } else {
+                delivered.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+            }
+        }));
+        return delivered;
+    }
+
+    /** Deja de aceptar operaciones; las pendientes terminan. */
+    @Override
+    public void close() {
+        worker.shutdown();
+    }
+}
@@ -0,0 +1,122 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Generador de ids por bloques. Los hilos se reparten entre varias franjas;
+ * cada franja consume un rango de {@code blockSize} ids tomado de la
+ * {@link IdBlockSource} con un simple incremento atómico, así que la fuente
+ * (y el archivo, si persiste) solo se toca una vez por bloque. Cada franja
+ * trae su bloque siguiente bajo su propio cerrojo: si varios hilos la agotan a
+ * la vez, solo uno reserva y los demás toman ids del bloque que él trajo.
+ * <p>
+ * Las franjas van por hilo y no son de un hilo: con un hilo virtual por
+ * petición, un bloque por hilo gastaría un bloque entero en cada reserva.
+ * Los ids son únicos pero, entre franjas, no crecen en el orden en que se
+ * piden; los que quedan sin usar al terminar el proceso se pierden.
+ */
+public class BlockIdGenerator implements IdGenerator {
+    public static final int DEFAULT_BLOCK_SIZE = 1024;
+
+    private final IdBlockSource source;
+    private final int blockSize;
+    private final AtomicReferenceArray<Block> stripes;
+    private final ReentrantLock[] refills;
+    /** Todo id menor ya está repartido en un bloque o declarado en uso. */
+    private final AtomicLong covered;
+
+    public BlockIdGenerator(IdBlockSource source) {
+        this(source, DEFAULT_BLOCK_SIZE);
+    }
+
+    public BlockIdGenerator(IdBlockSource source, int blockSize) {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de bloque debe ser mayor que cero.");
+        }
+        this.source = source;
+        this.blockSize = blockSize;
+        int count = Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()) * 4 - 1);
+        this.stripes = new AtomicReferenceArray<>(count);
+        this.refills = new ReentrantLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes.set(i, Block.EXHAUSTED);
+            refills[i] = new ReentrantLock();
+        }
+        this.covered = new AtomicLong(Long.MIN_VALUE);
+    }
+
+    @Override
+    public long nextId() {
+        int stripe = (int) mix(System.identityHashCode(Thread.currentThread())) & (stripes.length() - 1);
+        while (true) {
+            Block block = stripes.get(stripe);
+            long id = block.next.getAndIncrement();
+            if (id < block.limit) {
+                return id;
+            }
+            refill(stripe, block);
+        }
+    }
+
+    /**
+     * Trae un bloque nuevo para la franja, salvo que otro hilo ya haya
+     * reemplazado el agotado mientras se esperaba el cerrojo.
+     */
+    private void refill(int stripe, Block exhausted) {
+        ReentrantLock lock = refills[stripe];
+        lock.lock();
+        try {
+            if (stripes.get(stripe) != exhausted) {
+                return;
+            }
+            Block fresh = new Block(source.reserve(blockSize), blockSize);
+            covered.accumulateAndGet(fresh.limit, Math::max);
+            stripes.set(stripe, fresh);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Un id por debajo de lo ya repartido no cambia nada, así que reconstruir
+     * vistas de citas existentes no llega a la fuente. Como los ids
+     * declarados quedan por encima de todos los bloques entregados, los
+     * bloques a medio consumir siguen siendo válidos.
+     */
+    @Override
+    public void advancePast(long id) {
+        if (id < covered.get()) {
+            return;
+        }
+        source.advancePast(id);
+        covered.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /** Primer id que este generador aún no ha repartido ni visto en uso. */
+    public long getHighWaterMark() {
+        return covered.get();
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    private static long mix(long threadHash) {
+        long h = threadHash * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static final class Block {
+        static final Block EXHAUSTED = new Block(0, 0);
+
+        final AtomicLong next;
+        final long limit;
+
+        Block(long first, int size) {
+            this.next = new AtomicLong(first);
+            this.limit = first + size;
+        }
+    }
+}
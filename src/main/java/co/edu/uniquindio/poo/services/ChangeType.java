@@ -0,0 +1,10 @@
+package co.edu.uniquindio.poo.services;
+
+/**
+ * Operación aplicada sobre una entidad del almacén.
+ */
+public enum ChangeType {
+    ADDED,
+    UPDATED,
+    REMOVED
+}
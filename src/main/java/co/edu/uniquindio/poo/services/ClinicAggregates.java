@@ -0,0 +1,211 @@
+package co.edu.uniquindio.poo.services;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Money;
+
+/**
+ * Totales de citas, minutos e ingresos por médico, especialidad y día,
+ * mantenidos por el almacén en O(1) con cada alta, baja o cambio de precio.
+ * Las consultas leen contadores ya sumados y no recorren las citas.
+ * <p>
+ * Las modificaciones las hace el almacén con el cerrojo de citas; las
+ * consultas pueden hacerse desde cualquier hilo. Los ingresos se cuentan en
+ * centavos, así que sumar y restar es exacto.
+ */
+public class ClinicAggregates {
+    private final Map<String, Counters> byDoctor;
+    private final Map<String, Counters> bySpecialty;
+    private final Map<LocalDate, Counters> byDay;
+    private final Map<String, String> specialtyByDoctor;
+    private final Counters overall;
+
+    public ClinicAggregates() {
+        this.byDoctor = new ConcurrentHashMap<>();
+        this.bySpecialty = new ConcurrentHashMap<>();
+        this.byDay = new ConcurrentHashMap<>();
+        this.specialtyByDoctor = new ConcurrentHashMap<>();
+        this.overall = new Counters();
+    }
+
+    /**
+     * Suma la cita. La especialidad solo se usa si es la primera cita del
+     * médico; después se sigue la que se haya fijado con {@link #moveSpecialty}.
+     */
+    void add(Appointment appointment, String specialty) {
+        String doctorId = appointment.getDoctor().getId();
+        String tracked = specialtyByDoctor.computeIfAbsent(doctorId, id -> keyOf(specialty));
+        long cents = cents(appointment.getFinalPrice());
+        int minutes = appointment.getDurationMinutes();
+        byDoctor.computeIfAbsent(doctorId, k -> new Counters()).add(1, minutes, cents);
+        bySpecialty.computeIfAbsent(tracked, k -> new Counters()).add(1, minutes, cents);
+        byDay.computeIfAbsent(appointment.getDateTime().toLocalDate(), k -> new Counters()).add(1, minutes, cents);
+        overall.add(1, minutes, cents);
+    }
+
+    void remove(Appointment appointment) {
+        String doctorId = appointment.getDoctor().getId();
+        long cents = -cents(appointment.getFinalPrice());
+        int minutes = -appointment.getDurationMinutes();
+        String specialty = specialtyByDoctor.get(doctorId);
+        subtract(byDoctor, doctorId, minutes, cents);
+        if (specialty != null) {
+            subtract(bySpecialty, specialty, minutes, cents);
+        }
+        subtract(byDay, appointment.getDateTime().toLocalDate(), minutes, cents);
+        overall.add(-1, minutes, cents);
+        if (!byDoctor.containsKey(doctorId)) {
+            specialtyByDoctor.remove(doctorId);
+        }
+    }
+
+    /**
+     * Ajusta los ingresos de una cita cuyo precio final pasó de {@code before}
+     * a {@code after}.
+     */
+    void reprice(Appointment appointment, BigDecimal before, BigDecimal after) {
+        long delta = cents(after) - cents(before);
+        if (delta == 0) {
+            return;
+        }
+        String doctorId = appointment.getDoctor().getId();
+        byDoctor.get(doctorId).addCents(delta);
+        bySpecialty.get(specialtyByDoctor.get(doctorId)).addCents(delta);
+        byDay.get(appointment.getDateTime().toLocalDate()).addCents(delta);
+        overall.addCents(delta);
+    }
+
+    /**
+     * Suma a los contadores compartidos lo que acumuló una hoja del
+     * repreciado: una escritura por médico, especialidad y día tocados, en vez
+     * de una por cita. Puede llamarse en paralelo con acumulados distintos.
+     */
+    void apply(RepriceDeltas deltas) {
+        if (deltas.byDoctor.isEmpty()) {
+            return;
+        }
+        Map<String, long[]> specialties = new HashMap<>();
+        deltas.byDoctor.forEach((doctorId, delta) -> {
+            byDoctor.get(doctorId).addCents(delta[0]);
+            specialties.computeIfAbsent(specialtyByDoctor.get(doctorId), k -> new long[1])[0] += delta[0];
+        });
+        specialties.forEach((specialty, delta) -> bySpecialty.get(specialty).addCents(delta[0]));
+        deltas.byDay.forEach((day, delta) -> byDay.get(day).addCents(delta[0]));
+        overall.addCents(deltas.overall);
+    }
+
+    /** Pasa los totales del médico de su especialidad anterior a la nueva. */
+    void moveSpecialty(String doctorId, String specialty) {
+        String to = keyOf(specialty);
+        String from = specialtyByDoctor.get(doctorId);
+        Counters doctor = byDoctor.get(doctorId);
+        if (from == null || from.equals(to) || doctor == null) {
+            return;
+        }
+        specialtyByDoctor.put(doctorId, to);
+        long count = doctor.count.get();
+        long minutes = doctor.minutes.get();
+        long cents = doctor.cents.get();
+        bySpecialty.computeIfAbsent(to, k -> new Counters()).add(count, minutes, cents);
+        Counters previous = bySpecialty.get(from);
+        previous.add(-count, -minutes, -cents);
+        if (previous.count.get() == 0) {
+            bySpecialty.remove(from);
+        }
+    }
+
+    public ActivityTotals forDoctor(String doctorId) {
+        return totalsOf(byDoctor.get(doctorId));
+    }
+
+    public ActivityTotals forSpecialty(String specialty) {
+        return totalsOf(bySpecialty.get(keyOf(specialty)));
+    }
+
+    public ActivityTotals forDay(LocalDate day) {
+        return totalsOf(byDay.get(day));
+    }
+
+    public ActivityTotals overall() {
+        return overall.totals();
+    }
+
+    /** Totales de cada especialidad con citas, en orden alfabético. */
+    public Map<String, ActivityTotals> bySpecialty() {
+        Map<String, ActivityTotals> result = new TreeMap<>();
+        bySpecialty.forEach((specialty, counters) -> result.put(specialty, counters.totals()));
+        return result;
+    }
+
+    private static <K> void subtract(Map<K, Counters> index, K key, int minutes, long cents) {
+        Counters counters = index.get(key);
+        if (counters != null) {
+            counters.add(-1, minutes, cents);
+            if (counters.count.get() == 0) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private static ActivityTotals totalsOf(Counters counters) {
+        return counters == null ? ActivityTotals.EMPTY : counters.totals();
+    }
+
+    private static String keyOf(String specialty) {
+        return specialty == null ? "" : specialty;
+    }
+
+    private static long cents(BigDecimal amount) {
+        return Money.round(amount).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Cambios de ingresos de un grupo de citas, acumulados en memoria local
+     * antes de pasarlos a {@link #apply}. No es seguro entre hilos: cada hoja
+     * del repreciado usa el suyo.
+     */
+    static class RepriceDeltas {
+        private final Map<String, long[]> byDoctor = new HashMap<>();
+        private final Map<LocalDate, long[]> byDay = new HashMap<>();
+        private long overall;
+
+        void record(Appointment appointment, BigDecimal before, BigDecimal after) {
+            long delta = cents(after) - cents(before);
+            if (delta == 0) {
+                return;
+            }
+            byDoctor.computeIfAbsent(appointment.getDoctor().getId(), k -> new long[1])[0] += delta;
+            byDay.computeIfAbsent(appointment.getDateTime().toLocalDate(), k -> new long[1])[0] += delta;
+            overall += delta;
+        }
+    }
+
+    private static class Counters {
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong minutes = new AtomicLong();
+        final AtomicLong cents = new AtomicLong();
+
+        void add(long appointments, long bookedMinutes, long amountCents) {
+            count.addAndGet(appointments);
+            minutes.addAndGet(bookedMinutes);
+            cents.addAndGet(amountCents);
+        }
+
+        void addCents(long amountCents) {
+            if (amountCents != 0) {
+                cents.addAndGet(amountCents);
+            }
+        }
+
+        ActivityTotals totals() {
+            return new ActivityTotals(count.get(), minutes.get(), BigDecimal.valueOf(cents.get(), 2));
+        }
+    }
+}
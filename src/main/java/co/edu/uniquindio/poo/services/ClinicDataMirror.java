@@ -0,0 +1,75 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import javafx.collections.ObservableList;
+
+/**
+ * Copia de los pacientes y médicos del almacén para las tablas y listas de
+ * selección, mantenida al día
+ * aplicando los cambios publicados con add/set/remove en O(1), de modo que las
+ * tablas solo repintan las filas afectadas. Debe usarse desde un único hilo
+ * (en la aplicación, el de la interfaz). Las citas no se copian: las tablas
+ * las leen por páginas con {@link PagedObservableList}.
+ * <p>
+ * El almacén publica después de soltar sus cerrojos, así que dos cambios del
+ * mismo id pueden llegar en otro orden que sus versiones. La copia recuerda la
+ * última versión aplicada a cada id, también a los dados de baja, y descarta
+ * los cambios más viejos: una alta atrasada no revive una fila eliminada.
+ */
+public class ClinicDataMirror {
+    private final ObservableIndex<String, Patient> patients;
+    private final ObservableIndex<String, Doctor> doctors;
+    private final Map<Object, Long> patientVersions;
+    private final Map<Object, Long> doctorVersions;
+
+    public ClinicDataMirror(ClinicDataStore store) {
+        this.patients = new ObservableIndex<>(Patient::getId);
+        this.doctors = new ObservableIndex<>(Doctor::getId);
+        this.patientVersions = new HashMap<>();
+        this.doctorVersions = new HashMap<>();
+        store.scanPatients().forEach(patients::put);
+        store.scanDoctors().forEach(doctors::put);
+    }
+
+    public void apply(DataChangeEvent changes) {
+        for (DataChange change : changes.getChanges()) {
+            apply(change);
+        }
+    }
+
+    /** Aplica un solo cambio, para repartir eventos grandes entre varios pulsos. */
+    public void apply(DataChange change) {
+        switch (change.getEntityType()) {
+            case PATIENT -> apply(patients, patientVersions, change, Patient.class);
+            case DOCTOR -> apply(doctors, doctorVersions, change, Doctor.class);
+            case APPOINTMENT -> {
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, E> void apply(ObservableIndex<K, E> mirror, Map<Object, Long> versions, DataChange change,
+            Class<E> type) {
+        Long applied = versions.get(change.getId());
+        if (applied != null && applied >= change.getVersion()) {
+            return;
+        }
+        versions.put(change.getId(), change.getVersion());
+        switch (change.getChangeType()) {
+            case ADDED, UPDATED -> mirror.put(type.cast(change.getAfter()));
+            case REMOVED -> mirror.remove((K) change.getId());
+        }
+    }
+
+    public ObservableList<Patient> getPatients() {
+        return patients.view();
+    }
+
+    public ObservableList<Doctor> getDoctors() {
+        return doctors.view();
+    }
+}
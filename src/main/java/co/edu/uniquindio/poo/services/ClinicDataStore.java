@@ -1,136 +1,1013 @@
 package co.edu.uniquindio.poo.services;
 
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.AbstractCollection;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
 
 import co.edu.uniquindio.poo.model.Appointment;
 import co.edu.uniquindio.poo.model.Doctor;
 import co.edu.uniquindio.poo.model.Patient;
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 
 /**
  * Singleton para gestionar los datos de la clínica.
+ * <p>
+ * Es seguro entre hilos: las escrituras se serializan con un cerrojo por tipo
+ * de entidad (orden de adquisición: pacientes, médicos, citas) y las lecturas
+ * por id o por agenda usan mapas concurrentes, por lo que nunca bloquean a los
+ * escritores. Las listas observables deben leerse desde el hilo de la interfaz.
+ * <p>
+ * Las citas ya terminadas pueden pasarse a un archivo por columnas con
+ * {@link #archiveBefore(LocalDateTime)}: siguen existiendo para las búsquedas,
+ * las agendas, la persistencia y los totales, pero dejan de ocupar objetos e
+ * índices en el heap y de aparecer en la lista observable y la tabla paginada.
+ * <p>
+ * Los informes largos deben recorrer una {@link #snapshot()}: cada escritura
+ * publica, bajo su cerrojo, una foto nueva que comparte estructura con la
+ * anterior, así que tomarla es O(1) y no hace falta copiar las listas.
  */
-public class ClinicDataStore {
-    private static ClinicDataStore instance;
-    private final ObservableList<Patient> patients;
-    private final ObservableList<Doctor> doctors;
-    private final ObservableList<Appointment> appointments;
+public class ClinicDataStore implements ObservableData {
+    private final EntityIndex<String, Patient> patients;
+    private final EntityIndex<String, Doctor> doctors;
+    private final EntityIndex<Long, Appointment> appointments;
+    private final Map<String, AppointmentTimeline> appointmentsByDoctor;
+    private final Map<String, AppointmentTimeline> appointmentsByPatient;
+    private final AppointmentTimeline appointmentsByTime;
+    private final ClinicAggregates aggregates;
+    private final AgendaCache agendas;
+    private final AppointmentColumns archive;
+    private volatile LocalDateTime archiveHorizon;
+    private final StringDictionary dictionary;
     private final List<DataObserver> observers;
+    private final ReentrantLock patientLock;
+    private final ReentrantLock doctorLock;
+    private final ReentrantLock appointmentLock;
+    private final ThreadLocal<DataChangeEvent.Builder> currentBatch;
+    private final AtomicLong version;
+    private final AtomicReference<ClinicSnapshot> current;
 
-    private ClinicDataStore() {
-        this.patients = FXCollections.observableArrayList();
-        this.doctors = FXCollections.observableArrayList();
-        this.appointments = FXCollections.observableArrayList();
-        this.observers = new ArrayList<>();
+    /**
+     * Crea un almacén independiente. La aplicación comparte el de {@link #getInstance()}.
+     */
+    public ClinicDataStore() {
+        this.patients = new EntityIndex<>(Patient::getId);
+        this.doctors = new EntityIndex<>(Doctor::getId);
+        this.appointments = new EntityIndex<>(Appointment::getId);
+        this.appointmentsByDoctor = new ConcurrentHashMap<>();
+        this.appointmentsByPatient = new ConcurrentHashMap<>();
+        this.appointmentsByTime = new AppointmentTimeline();
+        this.aggregates = new ClinicAggregates();
+        this.agendas = new AgendaCache(AgendaCache.DEFAULT_CAPACITY);
+        this.archive = new AppointmentColumns();
+        this.archiveHorizon = LocalDateTime.MIN;
+        this.dictionary = new StringDictionary();
+        // Marcadores que usan las fábricas para los datos que faltan
+        this.dictionary.canonical("N/A");
+        this.observers = new CopyOnWriteArrayList<>();
+        this.patientLock = new ReentrantLock();
+        this.doctorLock = new ReentrantLock();
+        this.appointmentLock = new ReentrantLock();
+        this.currentBatch = new ThreadLocal<>();
+        this.version = new AtomicLong();
+        this.current = new AtomicReference<>(ClinicSnapshot.EMPTY);
+    }
+
+    private static class Holder {
+        private static final ClinicDataStore INSTANCE = new ClinicDataStore();
     }
 
     public static ClinicDataStore getInstance() {
-        if (instance == null) {
-            instance = new ClinicDataStore();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
 
+    @Override
     public void registerObserver(DataObserver observer) {
         observers.add(observer);
     }
 
-    private void notifyObservers(String dataType) {
+    @Override
+    public void unregisterObserver(DataObserver observer) {
+        observers.remove(observer);
+    }
+
+    @Override
+    public void notifyObservers(DataChangeEvent event) {
         for (DataObserver observer : observers) {
-            observer.update(dataType);
+            observer.update(event);
         }
     }
 
-    public ObservableList<Patient> getPatients() {
-        return patients;
+    /**
+     * Ejecuta varias operaciones y notifica a cada observador una sola vez con
+     * los cambios netos de todas ellas. Los lotes anidados se unen al exterior.
+     */
+    public void batch(Runnable operations) {
+        if (currentBatch.get() != null) {
+            operations.run();
+            return;
+        }
+        DataChangeEvent.Builder changes = new DataChangeEvent.Builder();
+        currentBatch.set(changes);
+        try {
+            operations.run();
+        } finally {
+            currentBatch.remove();
+            if (!changes.isEmpty()) {
+                notifyObservers(changes.build());
+            }
+        }
+    }
+
+    private void publish(DataChangeEvent.Builder changes) {
+        DataChangeEvent.Builder batch = currentBatch.get();
+        if (batch != null) {
+            batch.merge(changes.build());
+        } else {
+            notifyObservers(changes.build());
+        }
+    }
+
+    private void publish(EntityType type, ChangeType change, Object id, Object before, Object after, long version) {
+        if (observers.isEmpty() && currentBatch.get() == null) {
+            return;
+        }
+        publish(new DataChangeEvent.Builder().record(type, change, id, before, after, version));
+    }
+
+    /**
+     * Versión asignada al próximo cambio. Se toma bajo el cerrojo del tipo de
+     * entidad, así que ordena los cambios de un mismo id aunque los observadores
+     * los reciban en otro orden.
+     */
+    private long nextVersion() {
+        return version.incrementAndGet();
+    }
+
+    /** Versión del último cambio aplicado. */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Garantiza que los próximos cambios tengan una versión mayor que la dada,
+     * p. ej. después de restaurar datos persistidos.
+     */
+    public void advanceVersion(long atLeast) {
+        version.accumulateAndGet(atLeast, Math::max);
+    }
+
+    /**
+     * Foto inmutable de los datos vivos tras el último cambio publicado, en O(1).
+     */
+    public ClinicSnapshot snapshot() {
+        return current.get();
+    }
+
+    /**
+     * Publica una foto nueva. Cada índice de la foto solo cambia bajo el
+     * cerrojo de su tipo, así que quien lo llama ya calculó su parte y solo
+     * reintenta la unión si otro tipo publicó a la vez.
+     */
+    private void publishSnapshot(UnaryOperator<ClinicSnapshot> change) {
+        current.updateAndGet(change);
+    }
+
+    /**
+     * Copia de los pacientes en un momento dado. Para recorrerlos sin copiar
+     * se usa {@link #scanPatients()}; las tablas se enlazan con
+     * {@link ClinicDataMirror}.
+     */
+    public List<Patient> getPatients() {
+        return List.copyOf(patients.values());
+    }
+
+    /**
+     * Recorrido de los pacientes sin bloqueo, seguro desde cualquier hilo.
+     */
+    public Collection<Patient> scanPatients() {
+        return patients.values();
+    }
+
+    public Optional<Patient> findPatient(String id) {
+        return Optional.ofNullable(patients.get(id));
     }
 
     public void addPatient(Patient patient) {
-        if (patients.stream().anyMatch(p -> p.getId().equals(patient.getId()))) {
-            throw new IllegalArgumentException("Ya existe un paciente con este ID.");
+        long changeVersion;
+        shareText(patient);
+        patientLock.lock();
+        try {
+            if (!this.patients.add(patient)) {
+                throw new IllegalArgumentException("Ya existe un paciente con este ID.");
+            }
+            changeVersion = nextVersion();
+            PersistentIndex<String, Patient> updated = current.get().patientIndex().with(copyOf(patient));
+            publishSnapshot(s -> s.withPatients(updated, changeVersion));
+        } finally {
+            patientLock.unlock();
         }
-        this.patients.add(patient);
-        notifyObservers("patient");
+        publish(EntityType.PATIENT, ChangeType.ADDED, patient.getId(), null, patient, changeVersion);
     }
 
     public void editPatient(String id, Patient updatedPatient) {
-        Optional<Patient> existingPatient = patients.stream().filter(p -> p.getId().equals(id)).findFirst();
-        if (existingPatient.isPresent()) {
-            Patient p = existingPatient.get();
-
-            p.setName(updatedPatient.getName());
-            p.setPhone(updatedPatient.getPhone());
-            p.setHistoryNumber(updatedPatient.getHistoryNumber());
-            p.setAddress(updatedPatient.getAddress());
-            notifyObservers("patient");
-        } else {
-            throw new IllegalArgumentException("Paciente no encontrado.");
+        Patient before;
+        Patient p;
+        long changeVersion;
+        patientLock.lock();
+        try {
+            Optional<Patient> existingPatient = findPatient(id);
+            if (existingPatient.isPresent()) {
+                p = existingPatient.get();
+                before = copyOf(p);
+
+                p.setName(updatedPatient.getName());
+                p.setPhone(updatedPatient.getPhone());
+                p.setHistoryNumber(dictionary.known(updatedPatient.getHistoryNumber()));
+                p.setAddress(dictionary.known(updatedPatient.getAddress()));
+                changeVersion = nextVersion();
+                PersistentIndex<String, Patient> updated = current.get().patientIndex().with(copyOf(p));
+                publishSnapshot(s -> s.withPatients(updated, changeVersion));
+            } else {
+                throw new IllegalArgumentException("Paciente no encontrado.");
+            }
+        } finally {
+            patientLock.unlock();
         }
+        publish(EntityType.PATIENT, ChangeType.UPDATED, id, before, p, changeVersion);
     }
 
     public void removePatient(String id) {
-        boolean removed = this.patients.removeIf(p -> p.getId().equals(id));
-        if (removed) {
-
-            this.appointments.removeIf(a -> a.getPatient().getId().equals(id));
-            notifyObservers("patient");
-            notifyObservers("appointment");
+        DataChangeEvent.Builder changes = new DataChangeEvent.Builder();
+        Patient removed;
+        patientLock.lock();
+        try {
+            removed = this.patients.remove(id);
+            if (removed != null) {
+                long patientVersion = nextVersion();
+                changes.record(EntityType.PATIENT, ChangeType.REMOVED, id, removed, null, patientVersion);
+                appointmentLock.lock();
+                try {
+                    PersistentIndex<Long, Appointment> remaining = current.get().appointmentIndex();
+                    AppointmentTimeline cancelled = appointmentsByPatient.remove(id);
+                    if (cancelled != null) {
+                        for (Appointment a : cancelled.all()) {
+                            appointments.remove(a.getId());
+                            remaining = remaining.without(a.getId());
+                            changes.record(EntityType.APPOINTMENT, ChangeType.REMOVED, a.getId(), a, null, nextVersion());
+                            unindex(appointmentsByDoctor, a.getDoctor().getId(), a);
+                            appointmentsByTime.remove(a);
+                            aggregates.remove(a);
+                            agendas.invalidate(a);
+                        }
+                    }
+                    for (Appointment a : archive.removeByPatient(id)) {
+                        changes.record(EntityType.APPOINTMENT, ChangeType.REMOVED, a.getId(), a, null, nextVersion());
+                        aggregates.remove(a);
+                        agendas.invalidate(a);
+                    }
+                    // Paciente y citas salen de la foto a la vez
+                    PersistentIndex<String, Patient> patientsLeft = current.get().patientIndex().without(id);
+                    PersistentIndex<Long, Appointment> appointmentsLeft = remaining;
+                    long lastVersion = version.get();
+                    publishSnapshot(s -> s.withPatients(patientsLeft, patientVersion)
+                            .withAppointments(appointmentsLeft, lastVersion));
+                } finally {
+                    appointmentLock.unlock();
+                }
+            }
+        } finally {
+            patientLock.unlock();
         }
+        if (removed != null) {
+            publish(changes);
+        }
+    }
+
+    /** Copia de los médicos en un momento dado; ver {@link #getPatients()}. */
+    public List<Doctor> getDoctors() {
+        return List.copyOf(doctors.values());
+    }
+
+    /**
+     * Recorrido de los médicos sin bloqueo, seguro desde cualquier hilo.
+     */
+    public Collection<Doctor> scanDoctors() {
+        return doctors.values();
     }
 
-    public ObservableList<Doctor> getDoctors() {
-        return doctors;
+    public Optional<Doctor> findDoctor(String id) {
+        return Optional.ofNullable(doctors.get(id));
     }
 
     public void addDoctor(Doctor doctor) {
-        if (doctors.stream().anyMatch(d -> d.getId().equals(doctor.getId()))) {
-            throw new IllegalArgumentException("Ya existe un médico con este ID.");
+        long changeVersion;
+        shareText(doctor);
+        doctorLock.lock();
+        try {
+            if (!this.doctors.add(doctor)) {
+                throw new IllegalArgumentException("Ya existe un médico con este ID.");
+            }
+            changeVersion = nextVersion();
+            PersistentIndex<String, Doctor> updated = current.get().doctorIndex().with(copyOf(doctor));
+            publishSnapshot(s -> s.withDoctors(updated, changeVersion));
+        } finally {
+            doctorLock.unlock();
         }
-        this.doctors.add(doctor);
-        notifyObservers("doctor");
+        publish(EntityType.DOCTOR, ChangeType.ADDED, doctor.getId(), null, doctor, changeVersion);
     }
 
     public void editDoctor(String id, Doctor updatedDoctor) {
-        Optional<Doctor> existingDoctor = doctors.stream().filter(d -> d.getId().equals(id)).findFirst();
-        if (existingDoctor.isPresent()) {
-            Doctor d = existingDoctor.get();
-
-            d.setName(updatedDoctor.getName());
-            d.setPhone(updatedDoctor.getPhone());
-            d.setSpecialty(updatedDoctor.getSpecialty());
-            d.setLicenseNumber(updatedDoctor.getLicenseNumber());
-            notifyObservers("doctor");
-        } else {
-            throw new IllegalArgumentException("Médico no encontrado.");
+        Doctor before;
+        Doctor d;
+        long changeVersion;
+        doctorLock.lock();
+        try {
+            Optional<Doctor> existingDoctor = findDoctor(id);
+            if (existingDoctor.isPresent()) {
+                d = existingDoctor.get();
+                before = copyOf(d);
+
+                d.setName(updatedDoctor.getName());
+                d.setPhone(updatedDoctor.getPhone());
+                // Bajo el cerrojo de citas para que los totales por especialidad no vean un estado intermedio
+                appointmentLock.lock();
+                try {
+                    d.setSpecialty(dictionary.canonical(updatedDoctor.getSpecialty()));
+                    aggregates.moveSpecialty(id, updatedDoctor.getSpecialty());
+                } finally {
+                    appointmentLock.unlock();
+                }
+                d.setLicenseNumber(dictionary.known(updatedDoctor.getLicenseNumber()));
+                changeVersion = nextVersion();
+                PersistentIndex<String, Doctor> updated = current.get().doctorIndex().with(copyOf(d));
+                publishSnapshot(s -> s.withDoctors(updated, changeVersion));
+            } else {
+                throw new IllegalArgumentException("Médico no encontrado.");
+            }
+        } finally {
+            doctorLock.unlock();
         }
+        publish(EntityType.DOCTOR, ChangeType.UPDATED, id, before, d, changeVersion);
     }
 
     public void removeDoctor(String id) {
-        boolean removed = this.doctors.removeIf(d -> d.getId().equals(id));
-        if (removed) {
+        DataChangeEvent.Builder changes = new DataChangeEvent.Builder();
+        Doctor removed;
+        doctorLock.lock();
+        try {
+            removed = this.doctors.remove(id);
+            if (removed != null) {
+                long doctorVersion = nextVersion();
+                changes.record(EntityType.DOCTOR, ChangeType.REMOVED, id, removed, null, doctorVersion);
+                appointmentLock.lock();
+                try {
+                    PersistentIndex<Long, Appointment> remaining = current.get().appointmentIndex();
+                    AppointmentTimeline cancelled = appointmentsByDoctor.remove(id);
+                    if (cancelled != null) {
+                        for (Appointment a : cancelled.all()) {
+                            appointments.remove(a.getId());
+                            remaining = remaining.without(a.getId());
+                            changes.record(EntityType.APPOINTMENT, ChangeType.REMOVED, a.getId(), a, null, nextVersion());
+                            unindex(appointmentsByPatient, a.getPatient().getId(), a);
+                            appointmentsByTime.remove(a);
+                            aggregates.remove(a);
+                        }
+                    }
+                    for (Appointment a : archive.removeByDoctor(id)) {
+                        changes.record(EntityType.APPOINTMENT, ChangeType.REMOVED, a.getId(), a, null, nextVersion());
+                        aggregates.remove(a);
+                    }
+                    agendas.invalidateDoctor(id);
+                    PersistentIndex<String, Doctor> doctorsLeft = current.get().doctorIndex().without(id);
+                    PersistentIndex<Long, Appointment> appointmentsLeft = remaining;
+                    long lastVersion = version.get();
+                    publishSnapshot(s -> s.withDoctors(doctorsLeft, doctorVersion)
+                            .withAppointments(appointmentsLeft, lastVersion));
+                } finally {
+                    appointmentLock.unlock();
+                }
+            }
+        } finally {
+            doctorLock.unlock();
+        }
+        if (removed != null) {
+            publish(changes);
+        }
+    }
+
+    /**
+     * Copia de las citas vivas en un momento dado; las archivadas no forman
+     * parte de la lista. Ver {@link #getPatients()}.
+     */
+    public List<Appointment> getAppointments() {
+        return List.copyOf(appointments.values());
+    }
 
-            this.appointments.removeIf(a -> a.getDoctor().getId().equals(id));
-            notifyObservers("doctor");
-            notifyObservers("appointment");
+    /**
+     * Recorrido de las citas sin bloqueo, seguro desde cualquier hilo. Si hay
+     * citas archivadas, se recorren al final como vistas armadas al vuelo, sin
+     * copiar antes todas las filas.
+     */
+    public Collection<Appointment> scanAppointments() {
+        Collection<Appointment> live = appointments.values();
+        if (archive.size() == 0) {
+            return live;
         }
+        return new MergedScan(live, () -> archive.iterator(LocalDateTime.MIN, LocalDateTime.MAX), null);
+    }
+
+    /**
+     * Citas con fecha en [from, to) en orden cronológico, recorridas sobre el
+     * índice temporal sin copiarlas ni bloquear a los escritores. Si el rango
+     * empieza antes del horizonte del archivo, las archivadas se intercalan
+     * durante el recorrido; en ese caso {@code size()} cuenta recorriendo.
+     */
+    public Collection<Appointment> scanAppointments(LocalDateTime from, LocalDateTime to) {
+        Collection<Appointment> live = appointmentsByTime.scan(from, to);
+        if (!from.isBefore(archiveHorizon) || archive.size() == 0) {
+            return live;
+        }
+        return new MergedScan(live, () -> archive.iterator(from, to), AppointmentTimeline.CHRONOLOGICAL);
+    }
+
+    /**
+     * Citas en orden cronológico (o inverso) como fuente paginada para las
+     * tablas. Se recorren sobre el índice temporal sin bloquear a los escritores.
+     */
+    public PageSource<Appointment> appointmentsByDate(boolean descending) {
+        Comparator<Appointment> order = descending ? AppointmentTimeline.CHRONOLOGICAL.reversed()
+                : AppointmentTimeline.CHRONOLOGICAL;
+        return new PageSource<>() {
+            @Override
+            public int size() {
+                return appointments.size();
+            }
+
+            @Override
+            public Iterator<Appointment> iterator(Appointment after) {
+                return appointmentsByTime.iterator(after, descending);
+            }
+
+            @Override
+            public Comparator<? super Appointment> comparator() {
+                return order;
+            }
+        };
     }
 
-    public ObservableList<Appointment> getAppointments() {
-        return appointments;
+    /** Cita viva o vista de la archivada con ese id. */
+    public Optional<Appointment> findAppointment(long id) {
+        Appointment live = appointments.get(id);
+        return Optional.ofNullable(live != null ? live : archive.get(id));
     }
 
     public void addAppointment(Appointment appointment) {
-        this.appointments.add(appointment);
-        notifyObservers("appointment");
+        long changeVersion;
+        appointmentLock.lock();
+        try {
+            if (appointment.getDateTime().isBefore(archiveHorizon)) {
+                throw new IllegalArgumentException("Las citas anteriores a " + archiveHorizon + " ya están archivadas.");
+            }
+            // Se valida bajo el cerrojo de citas para no cruzarse con una baja en cascada
+            if (!patients.containsKey(appointment.getPatient().getId())) {
+                throw new IllegalArgumentException("El paciente de la cita no está registrado.");
+            }
+            if (!doctors.containsKey(appointment.getDoctor().getId())) {
+                throw new IllegalArgumentException("El médico de la cita no está registrado.");
+            }
+            Optional<Appointment> conflict = findDoctorConflict(appointment.getDoctor().getId(),
+                    appointment.getDateTime(), appointment.getDurationMinutes());
+            if (conflict.isPresent()) {
+                throw new IllegalArgumentException("El médico ya tiene la cita " + conflict.get().getId()
+                        + " en ese horario.");
+            }
+            if (archive.contains(appointment.getId()) || !this.appointments.add(appointment)) {
+                throw new IllegalArgumentException("Ya existe una cita con este ID.");
+            }
+            appointmentsByDoctor.computeIfAbsent(appointment.getDoctor().getId(), k -> new AppointmentTimeline())
+                    .add(appointment);
+            appointmentsByPatient.computeIfAbsent(appointment.getPatient().getId(), k -> new AppointmentTimeline())
+                    .add(appointment);
+            appointmentsByTime.add(appointment);
+            Doctor registered = doctors.get(appointment.getDoctor().getId());
+            aggregates.add(appointment, (registered != null ? registered : appointment.getDoctor()).getSpecialty());
+            agendas.invalidate(appointment);
+            changeVersion = nextVersion();
+            publishAppointments(current.get().appointmentIndex().with(frozen(appointment)), changeVersion);
+        } finally {
+            appointmentLock.unlock();
+        }
+        publish(EntityType.APPOINTMENT, ChangeType.ADDED, appointment.getId(), null, appointment, changeVersion);
+    }
+
+    /**
+     * Carga masiva para restaurar citas persistidas. Valida cada cita como
+     * {@link #addAppointment}, pero toma el cerrojo, la versión y la foto
+     * inmutable una sola vez para todo el lote y no avisa a los observadores,
+     * así que debe llamarse antes de registrarlos. Las agendas vacías se arman
+     * de una pasada a partir del lote ordenado. Si una cita no es válida se
+     * lanza la excepción y las anteriores del lote quedan agregadas.
+     */
+    public void restoreAppointments(Collection<Appointment> restored) {
+        List<Appointment> ordered = new ArrayList<>(restored);
+        ordered.sort(AppointmentTimeline.CHRONOLOGICAL);
+        List<Appointment> accepted = new ArrayList<>(ordered.size());
+        Map<String, List<Appointment>> byDoctor = new HashMap<>();
+        Map<String, List<Appointment>> byPatient = new HashMap<>();
+        appointmentLock.lock();
+        try {
+            for (Appointment appointment : ordered) {
+                if (appointment.getDateTime().isBefore(archiveHorizon)) {
+                    throw new IllegalArgumentException("Las citas anteriores a " + archiveHorizon
+                            + " ya están archivadas.");
+                }
+                if (!patients.containsKey(appointment.getPatient().getId())) {
+                    throw new IllegalArgumentException("El paciente de la cita no está registrado.");
+                }
+                Doctor registered = doctors.get(appointment.getDoctor().getId());
+                if (registered == null) {
+                    throw new IllegalArgumentException("El médico de la cita no está registrado.");
+                }
+                // Con el lote en orden, la única cita del lote que puede solaparse es la anterior del médico
+                List<Appointment> agenda = byDoctor.computeIfAbsent(registered.getId(), k -> new ArrayList<>());
+                Optional<Appointment> conflict = agenda.isEmpty() ? Optional.empty()
+                        : Optional.of(agenda.get(agenda.size() - 1))
+                                .filter(previous -> previous.getEndDateTime().isAfter(appointment.getDateTime()));
+                if (conflict.isEmpty()) {
+                    conflict = findDoctorConflict(registered.getId(), appointment.getDateTime(),
+                            appointment.getDurationMinutes());
+                }
+                if (conflict.isPresent()) {
+                    throw new IllegalArgumentException("El médico ya tiene la cita " + conflict.get().getId()
+                            + " en ese horario.");
+                }
+                if (archive.contains(appointment.getId()) || !this.appointments.add(appointment)) {
+                    throw new IllegalArgumentException("Ya existe una cita con este ID.");
+                }
+                agenda.add(appointment);
+                byPatient.computeIfAbsent(appointment.getPatient().getId(), k -> new ArrayList<>()).add(appointment);
+                aggregates.add(appointment, registered.getSpecialty());
+                accepted.add(appointment);
+            }
+        } finally {
+            if (!accepted.isEmpty()) {
+                byDoctor.forEach((id, agenda) -> appointmentsByDoctor
+                        .computeIfAbsent(id, k -> new AppointmentTimeline()).addAll(agenda));
+                byPatient.forEach((id, agenda) -> appointmentsByPatient
+                        .computeIfAbsent(id, k -> new AppointmentTimeline()).addAll(agenda));
+                appointmentsByTime.addAll(accepted);
+                agendas.invalidateUntil(LocalDate.MAX);
+                List<Appointment> copies = new ArrayList<>(accepted.size());
+                for (Appointment appointment : accepted) {
+                    copies.add(frozen(appointment));
+                }
+                publishAppointments(current.get().appointmentIndex().withAll(copies), nextVersion());
+            }
+            appointmentLock.unlock();
+        }
     }
 
     public void removeAppointment(Appointment appointment) {
-        boolean removed = this.appointments.remove(appointment);
-        if (removed) {
-            notifyObservers("appointment");
+        Appointment removed;
+        long changeVersion = 0;
+        appointmentLock.lock();
+        try {
+            removed = this.appointments.remove(appointment.getId());
+            if (removed != null) {
+                unindex(appointmentsByDoctor, removed.getDoctor().getId(), removed);
+                unindex(appointmentsByPatient, removed.getPatient().getId(), removed);
+                appointmentsByTime.remove(removed);
+                changeVersion = nextVersion();
+                publishAppointments(current.get().appointmentIndex().without(removed.getId()), changeVersion);
+            } else {
+                removed = archive.remove(appointment.getId());
+                if (removed != null) {
+                    changeVersion = nextVersion();
+                }
+            }
+            if (removed != null) {
+                aggregates.remove(removed);
+                agendas.invalidate(removed);
+            }
+        } finally {
+            appointmentLock.unlock();
+        }
+        if (removed != null) {
+            publish(EntityType.APPOINTMENT, ChangeType.REMOVED, removed.getId(), removed, null, changeVersion);
+        }
+    }
+
+    /**
+     * Cambia la estrategia de precio de una cita registrada, actualiza los
+     * totales y avisa a los observadores. Es la forma de repreciar una cita
+     * sin que los totales de {@link #getAggregates()} queden desfasados.
+     */
+    public void changePriceStrategy(long appointmentId, PriceStrategy strategy) {
+        Appointment before;
+        Appointment appointment;
+        long changeVersion;
+        appointmentLock.lock();
+        try {
+            appointment = appointments.get(appointmentId);
+            boolean live = appointment != null;
+            if (live) {
+                before = new Appointment(appointment);
+                appointment.setPriceStrategy(strategy);
+            } else {
+                before = archive.setPriceStrategy(appointmentId, strategy);
+                if (before == null) {
+                    throw new IllegalArgumentException("Cita no encontrada.");
+                }
+                appointment = archive.get(appointmentId);
+            }
+            aggregates.reprice(appointment, before.getFinalPrice(), appointment.getFinalPrice());
+            agendas.invalidate(appointment);
+            changeVersion = nextVersion();
+            if (live) {
+                publishAppointments(current.get().appointmentIndex().with(frozen(appointment)), changeVersion);
+            }
+        } finally {
+            appointmentLock.unlock();
+        }
+        publish(EntityType.APPOINTMENT, ChangeType.UPDATED, appointmentId, before, appointment, changeVersion);
+    }
+
+    /** Publica el índice de citas de la foto; se llama con el cerrojo de citas. */
+    private void publishAppointments(PersistentIndex<Long, Appointment> updated, long changeVersion) {
+        publishSnapshot(s -> s.withAppointments(updated, changeVersion));
+    }
+
+    /**
+     * Totales de citas, minutos e ingresos por médico, especialidad y día,
+     * al día con cada cambio del almacén.
+     */
+    public ClinicAggregates getAggregates() {
+        return aggregates;
+    }
+
+    /**
+     * Aplica la estrategia a las citas vivas con fecha en [from, to) de los
+     * médicos que cumplen el filtro, recalculando en paralelo en el ForkJoinPool
+     * común. Las citas archivadas conservan su precio. Los observadores reciben un único aviso con las citas cuyo precio cambió.
+     */
+    public RepricingReport reprice(Predicate<? super Doctor> doctorFilter, LocalDateTime from, LocalDateTime to,
+            PriceStrategy strategy) {
+        return reprice(doctorFilter, from, to, strategy, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Como {@link #reprice(Predicate, LocalDateTime, LocalDateTime, PriceStrategy)},
+     * pero en el pool indicado. Bloquea médicos y citas mientras dura.
+     */
+    public RepricingReport reprice(Predicate<? super Doctor> doctorFilter, LocalDateTime from, LocalDateTime to,
+            PriceStrategy strategy, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        PriceStrategy shared = PriceStrategyRegistry.canonical(strategy);
+        boolean listened = !observers.isEmpty() || currentBatch.get() != null;
+        DataChangeEvent.Builder changes = new DataChangeEvent.Builder();
+        Appointment[] targets;
+        RepricingTask.Totals totals;
+        doctorLock.lock();
+        try {
+            appointmentLock.lock();
+            try {
+                // Las agendas por médico ya están ordenadas: solo se recorre el rango pedido
+                List<Appointment> matched = new ArrayList<>();
+                for (Doctor doctor : doctors.values()) {
+                    AppointmentTimeline timeline = appointmentsByDoctor.get(doctor.getId());
+                    if (timeline != null && doctorFilter.test(doctor)) {
+                        matched.addAll(timeline.scan(from, to));
+                    }
+                }
+                targets = matched.toArray(new Appointment[0]);
+                Appointment[] previous = listened ? new Appointment[targets.length] : null;
+                totals = pool.invoke(new RepricingTask(targets, previous, 0, targets.length, shared, aggregates));
+                // Un solo tramo de versiones para toda la tarea, en el orden de targets
+                long changeVersion = version.getAndAdd(totals.repriced());
+                if (previous != null) {
+                    for (int i = 0; i < targets.length; i++) {
+                        if (previous[i] != null) {
+                            changes.record(EntityType.APPOINTMENT, ChangeType.UPDATED, targets[i].getId(),
+                                    previous[i], targets[i], ++changeVersion);
+                        }
+                    }
+                }
+                if (totals.repriced() > 0) {
+                    // Las citas de la foto no se tocan: las repreciadas entran como copias nuevas
+                    PersistentIndex<Long, Appointment> repriced = current.get().appointmentIndex();
+                    for (Appointment a : targets) {
+                        Appointment frozen = repriced.get(a.getId());
+                        if (frozen == null || frozen.getPriceStrategy() != a.getPriceStrategy()) {
+                            repriced = repriced.with(frozen(a));
+                            agendas.invalidate(a);
+                        }
+                    }
+                    publishAppointments(repriced, version.get());
+                }
+            } finally {
+                appointmentLock.unlock();
+            }
+        } finally {
+            doctorLock.unlock();
+        }
+        if (!changes.isEmpty()) {
+            publish(changes);
+        }
+        return new RepricingReport(targets.length, totals.repriced(), totals.before(), totals.after(),
+                Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /**
+     * Pasa al archivo por columnas las citas que terminan a más tardar en
+     * {@code cutoff} y fija ese instante como horizonte: desde entonces no se
+     * aceptan citas que empiecen antes. Las citas con segundos o con una
+     * estrategia no registrada siguen vivas. No notifica a los observadores,
+     * porque ninguna cita cambia; conviene llamarlo antes de crear las vistas.
+     * @return cuántas citas se archivaron.
+     */
+    public int archiveBefore(LocalDateTime cutoff) {
+        appointmentLock.lock();
+        try {
+            List<Appointment> finished = new ArrayList<>();
+            for (Appointment a : appointmentsByTime.scan(LocalDateTime.MIN, cutoff)) {
+                if (!a.getEndDateTime().isAfter(cutoff) && AppointmentColumns.fits(a)) {
+                    finished.add(a);
+                }
+            }
+            PersistentIndex<Long, Appointment> live = current.get().appointmentIndex();
+            for (Appointment a : finished) {
+                appointments.remove(a.getId());
+                unindex(appointmentsByDoctor, a.getDoctor().getId(), a);
+                unindex(appointmentsByPatient, a.getPatient().getId(), a);
+                appointmentsByTime.remove(a);
+                archive.add(a);
+                live = live.without(a.getId());
+            }
+            if (!finished.isEmpty()) {
+                publishAppointments(live, 0);
+                // Las agendas guardadas apuntan a las citas vivas que acaban de pasar al archivo
+                agendas.invalidateUntil(cutoff.toLocalDate());
+            }
+            if (cutoff.isAfter(archiveHorizon)) {
+                archiveHorizon = cutoff;
+            }
+            return finished.size();
+        } finally {
+            appointmentLock.unlock();
+        }
+    }
+
+    /** Instante antes del cual ya no se programan citas; MIN si nunca se archivó. */
+    public LocalDateTime getArchiveHorizon() {
+        return archiveHorizon;
+    }
+
+    /** Citas archivadas por columnas, con su memoria aproximada en {@code toString()}. */
+    public AppointmentColumns getArchive() {
+        return archive;
+    }
+
+    /**
+     * Citas del médico con fecha en [from, to), en orden cronológico, incluidas
+     * las archivadas. Si el rango es un día completo, sale de la caché de agendas.
+     */
+    public List<Appointment> getDoctorAppointments(String doctorId, LocalDateTime from, LocalDateTime to) {
+        if (from.toLocalTime().equals(LocalTime.MIDNIGHT) && to.equals(from.plusDays(1))) {
+            return getDoctorAgenda(doctorId, from.toLocalDate());
+        }
+        return collectDoctorAppointments(doctorId, from, to);
+    }
+
+    /**
+     * Agenda del médico en ese día, en orden cronológico e inmutable. Se arma
+     * una vez y se guarda en la caché hasta que una cita de ese médico y día
+     * cambie o el día salga por tamaño.
+     */
+    public List<Appointment> getDoctorAgenda(String doctorId, LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        return agendas.get(doctorId, day, () -> collectDoctorAppointments(doctorId, from, from.plusDays(1)));
+    }
+
+    /** Aciertos, expulsiones y tiempos de reconstrucción de la caché de agendas. */
+    public AgendaCacheStats getAgendaStats() {
+        return agendas.getStats();
+    }
+
+    private List<Appointment> collectDoctorAppointments(String doctorId, LocalDateTime from, LocalDateTime to) {
+        AppointmentTimeline timeline = appointmentsByDoctor.get(doctorId);
+        List<Appointment> live = timeline == null ? List.of() : timeline.between(from, to);
+        return from.isBefore(archiveHorizon) ? merge(live, archive.forDoctor(doctorId, from, to)) : live;
+    }
+
+    /**
+     * Cita del médico que se cruzaría con una nueva cita en ese horario.
+     */
+    public Optional<Appointment> findDoctorConflict(String doctorId, LocalDateTime start, int durationMinutes) {
+        AppointmentTimeline timeline = appointmentsByDoctor.get(doctorId);
+        return timeline == null ? Optional.empty()
+                : timeline.findOverlap(start, start.plusMinutes(durationMinutes));
+    }
+
+    /**
+     * Primer horario libre del médico a partir de la fecha indicada.
+     * @throws IllegalArgumentException si la duración no es positiva.
+     */
+    public LocalDateTime findFirstFreeSlot(String doctorId, LocalDateTime after, int durationMinutes) {
+        if (durationMinutes <= 0) {
+            throw new IllegalArgumentException("La duración de la cita debe ser mayor que cero.");
+        }
+        // Antes del horizonte todo está archivado y no se aceptan citas nuevas
+        LocalDateTime start = after.isBefore(archiveHorizon) ? archiveHorizon : after;
+        AppointmentTimeline timeline = appointmentsByDoctor.get(doctorId);
+        return timeline == null ? start : timeline.firstFreeSlot(start, durationMinutes);
+    }
+
+    /**
+     * Citas del paciente en orden cronológico, incluidas las archivadas.
+     */
+    public List<Appointment> getPatientAppointments(String patientId) {
+        AppointmentTimeline timeline = appointmentsByPatient.get(patientId);
+        List<Appointment> live = timeline == null ? List.of() : timeline.all();
+        return archive.size() == 0 ? live
+                : merge(live, archive.forPatient(patientId, LocalDateTime.MIN, LocalDateTime.MAX));
+    }
+
+    /**
+     * Próxima cita del paciente a partir de la fecha indicada.
+     */
+    public Optional<Appointment> getNextPatientAppointment(String patientId, LocalDateTime after) {
+        if (after.isBefore(archiveHorizon)) {
+            List<Appointment> archived = archive.forPatient(patientId, after, archiveHorizon);
+            Optional<Appointment> next = getNextLivePatientAppointment(patientId, after);
+            if (!archived.isEmpty() && (next.isEmpty()
+                    || AppointmentTimeline.CHRONOLOGICAL.compare(archived.get(0), next.get()) < 0)) {
+                return Optional.of(archived.get(0));
+            }
+            return next;
+        }
+        return getNextLivePatientAppointment(patientId, after);
+    }
+
+    private Optional<Appointment> getNextLivePatientAppointment(String patientId, LocalDateTime after) {
+        AppointmentTimeline timeline = appointmentsByPatient.get(patientId);
+        return timeline == null ? Optional.empty() : timeline.next(after);
+    }
+
+    /**
+     * Citas vivas seguidas de las archivadas, recorridas sin copia. Con un
+     * orden intercala los dos recorridos, que ya vienen ordenados.
+     */
+    private static final class MergedScan extends AbstractCollection<Appointment> {
+        private final Collection<Appointment> live;
+        private final Supplier<Iterator<Appointment>> archived;
+        private final Comparator<Appointment> order;
+
+        MergedScan(Collection<Appointment> live, Supplier<Iterator<Appointment>> archived,
+                Comparator<Appointment> order) {
+            this.live = live;
+            this.archived = archived;
+            this.order = order;
+        }
+
+        @Override
+        public Iterator<Appointment> iterator() {
+            Iterator<Appointment> left = live.iterator();
+            Iterator<Appointment> right = archived.get();
+            return new Iterator<>() {
+                private Appointment a = left.hasNext() ? left.next() : null;
+                private Appointment b = right.hasNext() ? right.next() : null;
+
+                @Override
+                public boolean hasNext() {
+                    return a != null || b != null;
+                }
+
+                @Override
+                public Appointment next() {
+                    Appointment current;
+                    if (a != null && (b == null || order == null || order.compare(a, b) <= 0)) {
+                        current = a;
+                        a = left.hasNext() ? left.next() : null;
+                    } else if (b != null) {
+                        current = b;
+                        b = right.hasNext() ? right.next() : null;
+                    } else {
+                        throw new NoSuchElementException();
+                    }
+                    return current;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            int count = 0;
+            for (Iterator<Appointment> it = iterator(); it.hasNext(); it.next()) {
+                count++;
+            }
+            return count;
+        }
+    }
+
+    /** Une dos listas ya ordenadas cronológicamente en una copia ordenada. */
+    private static List<Appointment> merge(Collection<Appointment> live, List<Appointment> archived) {
+        if (archived.isEmpty()) {
+            return live instanceof List<Appointment> list ? list : new ArrayList<>(live);
+        }
+        List<Appointment> merged = new ArrayList<>(live.size() + archived.size());
+        Iterator<Appointment> left = live.iterator();
+        Iterator<Appointment> right = archived.iterator();
+        Appointment a = left.hasNext() ? left.next() : null;
+        Appointment b = right.next();
+        while (a != null || b != null) {
+            if (b == null || (a != null && AppointmentTimeline.CHRONOLOGICAL.compare(a, b) <= 0)) {
+                merged.add(a);
+                a = left.hasNext() ? left.next() : null;
+            } else {
+                merged.add(b);
+                b = right.hasNext() ? right.next() : null;
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Diccionario con el que el almacén comparte especialidades y marcadores.
+     * Las direcciones solo toman el marcador compartido; no se registran.
+     * Las fábricas que lo usan entregan entidades ya compartidas.
+     */
+    public StringDictionary getDictionary() {
+        return dictionary;
+    }
+
+    /** Conteos del almacén y memoria ahorrada por el archivo y el diccionario. */
+    public StoreStats getStats() {
+        return new StoreStats(patients.size(), doctors.size(), appointments.size(), archive.size(),
+                archive.getEstimatedBytes(), dictionary.size(), dictionary.getDuplicates(),
+                dictionary.getSavedBytes());
+    }
+
+    /** Reemplaza los textos repetidos de la entidad por sus instancias compartidas. */
+    private void shareText(Patient patient) {
+        patient.setAddress(dictionary.known(patient.getAddress()));
+        patient.setHistoryNumber(dictionary.known(patient.getHistoryNumber()));
+    }
+
+    private void shareText(Doctor doctor) {
+        doctor.setSpecialty(dictionary.canonical(doctor.getSpecialty()));
+        doctor.setLicenseNumber(dictionary.known(doctor.getLicenseNumber()));
+    }
+
+    /**
+     * Copia de la cita para la foto. Apunta a las copias del paciente y del
+     * médico que ya están en la foto, que el almacén no modifica, y no a los
+     * registros vivos que {@link #editPatient} y {@link #editDoctor} cambian.
+     */
+    private Appointment frozen(Appointment appointment) {
+        ClinicSnapshot snapshot = current.get();
+        Patient patient = snapshot.patientIndex().get(appointment.getPatient().getId());
+        Doctor doctor = snapshot.doctorIndex().get(appointment.getDoctor().getId());
+        return new Appointment(appointment, patient != null ? patient : copyOf(appointment.getPatient()),
+                doctor != null ? doctor : copyOf(appointment.getDoctor()));
+    }
+
+    private static Patient copyOf(Patient patient) {
+        return new Patient.Builder(patient.getId(), patient.getName(), patient.getPhone(), patient.getHistoryNumber())
+                .address(patient.getAddress())
+                .build();
+    }
+
+    private static Doctor copyOf(Doctor doctor) {
+        return new Doctor(doctor.getId(), doctor.getName(), doctor.getPhone(), doctor.getSpecialty(),
+                doctor.getLicenseNumber());
+    }
+
+    private static void unindex(Map<String, AppointmentTimeline> index, String key, Appointment appointment) {
+        AppointmentTimeline timeline = index.get(key);
+        if (timeline != null) {
+            timeline.remove(appointment);
+            if (timeline.isEmpty()) {
+                index.remove(key);
+            }
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,105 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Foto inmutable de pacientes, médicos y citas vivas de un
+ * {@link ClinicDataStore} en un instante. Se obtiene en O(1) con
+ * {@link ClinicDataStore#snapshot()} y puede recorrerse desde cualquier hilo,
+ * el tiempo que haga falta, mientras el almacén sigue recibiendo cambios: nunca
+ * bloquea a los escritores ni lanza ConcurrentModificationException.
+ * <p>
+ * Las entidades son copias que el almacén no vuelve a modificar, así que una
+ * edición posterior no cambia la foto; no deben modificarse. Cada foto
+ * comparte su estructura con la siguiente, así que retenerla solo cuesta lo
+ * que cambió desde que se tomó. Una cita de la foto apunta a las copias del
+ * paciente y del médico vigentes cuando se publicó la cita; sus datos a la
+ * fecha de la foto son los de {@link #findPatient(String)} y
+ * {@link #findDoctor(String)}.
+ * Como {@link ClinicDataStore#getAppointments()}, no incluye las citas archivadas.
+ */
+public final class ClinicSnapshot {
+    static final ClinicSnapshot EMPTY = new ClinicSnapshot(0, PersistentIndex.empty(Patient::getId),
+            PersistentIndex.empty(Doctor::getId), PersistentIndex.empty(Appointment::getId));
+
+    private final long version;
+    private final PersistentIndex<String, Patient> patients;
+    private final PersistentIndex<String, Doctor> doctors;
+    private final PersistentIndex<Long, Appointment> appointments;
+
+    private ClinicSnapshot(long version, PersistentIndex<String, Patient> patients,
+            PersistentIndex<String, Doctor> doctors, PersistentIndex<Long, Appointment> appointments) {
+        this.version = version;
+        this.patients = patients;
+        this.doctors = doctors;
+        this.appointments = appointments;
+    }
+
+    /**
+     * Versión del cambio más reciente incluido. Los cambios de tipos distintos
+     * se aplican en paralelo, así que uno con versión menor aún puede faltar.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public Collection<Patient> patients() {
+        return Collections.unmodifiableCollection(patients);
+    }
+
+    public Collection<Doctor> doctors() {
+        return Collections.unmodifiableCollection(doctors);
+    }
+
+    public Collection<Appointment> appointments() {
+        return Collections.unmodifiableCollection(appointments);
+    }
+
+    public Optional<Patient> findPatient(String id) {
+        return Optional.ofNullable(patients.get(id));
+    }
+
+    public Optional<Doctor> findDoctor(String id) {
+        return Optional.ofNullable(doctors.get(id));
+    }
+
+    public Optional<Appointment> findAppointment(long id) {
+        return Optional.ofNullable(appointments.get(id));
+    }
+
+    ClinicSnapshot withPatients(PersistentIndex<String, Patient> updated, long changeVersion) {
+        return new ClinicSnapshot(Math.max(version, changeVersion), updated, doctors, appointments);
+    }
+
+    ClinicSnapshot withDoctors(PersistentIndex<String, Doctor> updated, long changeVersion) {
+        return new ClinicSnapshot(Math.max(version, changeVersion), patients, updated, appointments);
+    }
+
+    ClinicSnapshot withAppointments(PersistentIndex<Long, Appointment> updated, long changeVersion) {
+        return new ClinicSnapshot(Math.max(version, changeVersion), patients, doctors, updated);
+    }
+
+    PersistentIndex<String, Patient> patientIndex() {
+        return patients;
+    }
+
+    PersistentIndex<String, Doctor> doctorIndex() {
+        return doctors;
+    }
+
+    PersistentIndex<Long, Appointment> appointmentIndex() {
+        return appointments;
+    }
+
+    @Override
+    public String toString() {
+        return "ClinicSnapshot[version=" + version + ", patients=" + patients.size() + ", doctors="
+                + doctors.size() + ", appointments=" + appointments.size() + "]";
+    }
+}
@@ -0,0 +1,72 @@
+package co.edu.uniquindio.poo.services;
+
+/**
+ * Cambio sobre una entidad del almacén. {@code before} es una copia del estado
+ * previo (null en altas) y {@code after} la entidad resultante (null en bajas).
+ * {@code version} crece con cada cambio del almacén. Un cambio que une varios
+ * del mismo id (en un lote) lleva la versión del último y, en
+ * {@code firstVersion}, la del primero.
+ */
+public class DataChange {
+    private final EntityType entityType;
+    private final ChangeType changeType;
+    private final Object id;
+    private final Object before;
+    private final Object after;
+    private final long firstVersion;
+    private final long version;
+
+    public DataChange(EntityType entityType, ChangeType changeType, Object id, Object before, Object after,
+            long version) {
+        this(entityType, changeType, id, before, after, version, version);
+    }
+
+    public DataChange(EntityType entityType, ChangeType changeType, Object id, Object before, Object after,
+            long firstVersion, long version) {
+        this.entityType = entityType;
+        this.changeType = changeType;
+        this.id = id;
+        this.before = before;
+        this.after = after;
+        this.firstVersion = firstVersion;
+        this.version = version;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    public Object getBefore() {
+        return before;
+    }
+
+    public Object getAfter() {
+        return after;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Versión del primer cambio unido en este. Los cambios de otros ids que
+     * dependen de este (la cita de un paciente recién creado) tienen una
+     * versión mayor que esta, aunque puede ser menor que {@link #getVersion()}.
+     */
+    public long getFirstVersion() {
+        return firstVersion;
+    }
+
+    @Override
+    public String toString() {
+        return entityType + " " + changeType + " " + id + " v" + version;
+    }
+}
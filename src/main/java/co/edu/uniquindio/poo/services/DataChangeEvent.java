@@ -0,0 +1,135 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cambios netos del almacén que recibe un observador en una sola notificación,
+ * como registros por entidad con su estado anterior y posterior.
+ */
+public class DataChangeEvent {
+    private final Map<EntityType, List<DataChange>> changes;
+
+    private DataChangeEvent(Map<EntityType, List<DataChange>> changes) {
+        this.changes = changes;
+    }
+
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public boolean touches(EntityType type) {
+        return changes.containsKey(type);
+    }
+
+    public List<DataChange> getChanges() {
+        List<DataChange> all = new ArrayList<>();
+        changes.values().forEach(all::addAll);
+        return all;
+    }
+
+    public List<DataChange> getChanges(EntityType type) {
+        return changes.getOrDefault(type, List.of());
+    }
+
+    public Set<Object> getAdded(EntityType type) {
+        return ids(type, ChangeType.ADDED);
+    }
+
+    public Set<Object> getUpdated(EntityType type) {
+        return ids(type, ChangeType.UPDATED);
+    }
+
+    public Set<Object> getRemoved(EntityType type) {
+        return ids(type, ChangeType.REMOVED);
+    }
+
+    private Set<Object> ids(EntityType type, ChangeType change) {
+        Set<Object> ids = new LinkedHashSet<>();
+        for (DataChange c : getChanges(type)) {
+            if (c.getChangeType() == change) {
+                ids.add(c.getId());
+            }
+        }
+        return Collections.unmodifiableSet(ids);
+    }
+
+    @Override
+    public String toString() {
+        return "DataChangeEvent" + changes;
+    }
+
+    /**
+     * Acumula cambios fusionando los que afectan al mismo id: se conserva el
+     * primer estado anterior y el último posterior, con la primera y la última
+     * versión. Agregar y luego eliminar se anula; eliminar y volver a agregar
+     * cuenta como actualización. Los observadores pueden recibir los avisos de
+     * un mismo id en otro orden que sus versiones (se publican al soltar el
+     * cerrojo): un cambio más viejo que el ya acumulado para su id se descarta.
+     */
+    public static class Builder {
+        private final Map<EntityType, Map<Object, DataChange>> changes = new EnumMap<>(EntityType.class);
+
+        public Builder record(EntityType type, ChangeType change, Object id, Object before, Object after,
+                long version) {
+            return record(new DataChange(type, change, id, before, after, version));
+        }
+
+        public Builder record(DataChange change) {
+            Map<Object, DataChange> byId = changes.computeIfAbsent(change.getEntityType(), t -> new LinkedHashMap<>());
+            DataChange previous = byId.get(change.getId());
+            if (previous == null) {
+                byId.put(change.getId(), change);
+            } else if (change.getVersion() < previous.getVersion()) {
+                // Llegó tarde: otro hilo publicó antes un cambio más reciente del mismo id
+                return this;
+            } else if (previous.getChangeType() == ChangeType.ADDED && change.getChangeType() == ChangeType.REMOVED) {
+                byId.remove(change.getId());
+            } else {
+                byId.put(change.getId(), new DataChange(change.getEntityType(),
+                        merge(previous.getChangeType(), change.getChangeType()),
+                        change.getId(), previous.getBefore(), change.getAfter(), previous.getFirstVersion(),
+                        change.getVersion()));
+            }
+            if (byId.isEmpty()) {
+                changes.remove(change.getEntityType());
+            }
+            return this;
+        }
+
+        private static ChangeType merge(ChangeType previous, ChangeType next) {
+            if (next == ChangeType.REMOVED) {
+                return ChangeType.REMOVED;
+            }
+            if (previous == ChangeType.ADDED) {
+                return ChangeType.ADDED;
+            }
+            return ChangeType.UPDATED;
+        }
+
+        public Builder merge(DataChangeEvent event) {
+            event.getChanges().forEach(this::record);
+            return this;
+        }
+
+        public boolean isEmpty() {
+            return changes.isEmpty();
+        }
+
+        public void clear() {
+            changes.clear();
+        }
+
+        public DataChangeEvent build() {
+            Map<EntityType, List<DataChange>> copy = new EnumMap<>(EntityType.class);
+            changes.forEach((type, byId) -> copy.put(type, List.copyOf(byId.values())));
+            return new DataChangeEvent(Collections.unmodifiableMap(copy));
+        }
+    }
+}
@@ -1,5 +1,5 @@
 package co.edu.uniquindio.poo.services;
 
 public interface DataObserver {
-    void update(String dataType);
+    void update(DataChangeEvent event);
 }
@@ -4,13 +4,24 @@ import co.edu.uniquindio.poo.model.Doctor;
 import co.edu.uniquindio.poo.model.Person;
 
 public class DoctorFactory implements PersonFactory {
+    private final StringDictionary dictionary;
+
+    public DoctorFactory() {
+        this(StringDictionary.IDENTITY);
+    }
+
+    /** Fábrica que comparte especialidades y marcadores repetidos a través del diccionario. */
+    public DoctorFactory(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
     @Override
     public Person createPerson(String id, String name, String phone, String... additionalData) {
         // additionalData[0] = specialty, additionalData[1] = licenseNumber
         String specialty = additionalData.length > 0 ? additionalData[0] : "General";
         String licenseNumber = additionalData.length > 1 ? additionalData[1] : "N/A";
 
-        return new Doctor(id, name, phone, specialty, licenseNumber);
+        return new Doctor(id, name, phone, dictionary.canonical(specialty), dictionary.known(licenseNumber));
     }
 
 }
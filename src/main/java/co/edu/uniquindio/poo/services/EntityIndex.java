@@ -0,0 +1,62 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Índice hash id → entidad del almacén. Altas, búsquedas y bajas por id son O(1).
+ * <p>
+ * Las lecturas pueden hacerse desde cualquier hilo; las modificaciones deben
+ * serializarse por quien usa el índice. No guarda ninguna lista observable:
+ * las tablas se enlazan con {@link ObservableIndex} a través de
+ * {@link ClinicDataMirror}, en el hilo de la interfaz.
+ */
+public class EntityIndex<K, E> {
+    private final Function<E, K> keyExtractor;
+    private final Map<K, E> byId;
+
+    public EntityIndex(Function<E, K> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+        this.byId = new ConcurrentHashMap<>();
+    }
+
+    public E get(K id) {
+        return byId.get(id);
+    }
+
+    public boolean containsKey(K id) {
+        return byId.containsKey(id);
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    public boolean isEmpty() {
+        return byId.isEmpty();
+    }
+
+    /**
+     * Agrega la entidad si su id no existe todavía.
+     * @return false si ya había una entidad con el mismo id.
+     */
+    public boolean add(E entity) {
+        return byId.putIfAbsent(keyExtractor.apply(entity), entity) == null;
+    }
+
+    /** @return la entidad eliminada o null si no existía. */
+    public E remove(K id) {
+        return byId.remove(id);
+    }
+
+    /**
+     * Recorrido sin bloqueo y débilmente consistente: puede usarse desde
+     * cualquier hilo mientras otros modifican el índice.
+     */
+    public Collection<E> values() {
+        return Collections.unmodifiableCollection(byId.values());
+    }
+}
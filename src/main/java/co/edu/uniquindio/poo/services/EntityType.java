@@ -0,0 +1,10 @@
+package co.edu.uniquindio.poo.services;
+
+/**
+ * Tipos de entidad que gestiona el almacén de la clínica.
+ */
+public enum EntityType {
+    PATIENT,
+    DOCTOR,
+    APPOINTMENT
+}
@@ -0,0 +1,72 @@
+package co.edu.uniquindio.poo.services;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javafx.application.Platform;
+
+/**
+ * Ejecutor que lleva tareas al hilo de la interfaz agrupadas: muchas tareas
+ * enviadas entre dos pulsos viajan en un solo {@code Platform.runLater}, y
+ * cada vuelta corre tareas solo hasta agotar su presupuesto de tiempo. Lo que
+ * sobra se deja para la siguiente vuelta, así la interfaz sigue pintando.
+ */
+public class FrameExecutor implements Executor {
+    public static final Duration DEFAULT_BUDGET = Duration.ofMillis(4);
+    private static final Logger LOG = Logger.getLogger(FrameExecutor.class.getName());
+
+    private final Consumer<Runnable> scheduler;
+    private final long budgetNanos;
+    private final Queue<Runnable> tasks;
+    private final AtomicBoolean scheduled;
+
+    /**
+     * @param scheduler lleva una vuelta de tareas al hilo de destino.
+     * @param budget tiempo máximo por vuelta; la primera tarea siempre corre.
+     */
+    public FrameExecutor(Consumer<Runnable> scheduler, Duration budget) {
+        this.scheduler = scheduler;
+        this.budgetNanos = budget.toNanos();
+        this.tasks = new ConcurrentLinkedQueue<>();
+        this.scheduled = new AtomicBoolean();
+    }
+
+    /** Ejecutor del hilo de JavaFX con el presupuesto por defecto. */
+    public static FrameExecutor fx() {
+        return new FrameExecutor(Platform::runLater, DEFAULT_BUDGET);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        tasks.add(task);
+        schedule();
+    }
+
+    private void schedule() {
+        if (!tasks.isEmpty() && scheduled.compareAndSet(false, true)) {
+            scheduler.accept(this::drain);
+        }
+    }
+
+    private void drain() {
+        // Antes de correr tareas: si una abre un diálogo modal, las nuevas se agendan aparte
+        scheduled.set(false);
+        long deadline = System.nanoTime() + budgetNanos;
+        Runnable task = tasks.poll();
+        while (task != null) {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "Tarea de interfaz fallida", e);
+            }
+            task = System.nanoTime() - deadline < 0 ? tasks.poll() : null;
+        }
+        schedule();
+    }
+}
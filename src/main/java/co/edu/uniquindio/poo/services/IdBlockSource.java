@@ -0,0 +1,33 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reparte rangos contiguos de ids a un {@link BlockIdGenerator}. Es lo único
+ * que comparten los hilos (o los procesos, si el rango se persiste), así que
+ * se consulta una vez por bloque y no una vez por id.
+ */
+public interface IdBlockSource {
+
+    /** Primer id de un rango de {@code size} ids que nadie más recibirá. */
+    long reserve(int size);
+
+    /** Los rangos siguientes empezarán después de {@code id}. */
+    void advancePast(long id);
+
+    /** Rangos en memoria desde 1; vuelven a empezar con cada proceso. */
+    static IdBlockSource inMemory() {
+        AtomicLong next = new AtomicLong(1);
+        return new IdBlockSource() {
+            @Override
+            public long reserve(int size) {
+                return next.getAndAdd(size);
+            }
+
+            @Override
+            public void advancePast(long id) {
+                next.accumulateAndGet(id + 1, Math::max);
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package co.edu.uniquindio.poo.services;
+
+/**
+ * Fuente de ids de citas. Las implementaciones pueden usarse desde cualquier
+ * hilo y nunca repiten un id, ni uno propio ni uno declarado con
+ * {@link #advancePast}.
+ */
+public interface IdGenerator {
+
+    long nextId();
+
+    /**
+     * Declara en uso un id que no salió de este generador, como el de una
+     * cita restaurada; los ids nuevos serán mayores. Los ids restaurados deben
+     * declararse antes de generar ids que puedan alcanzarlos.
+     */
+    void advancePast(long id);
+}
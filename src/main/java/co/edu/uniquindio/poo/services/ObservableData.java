@@ -4,5 +4,5 @@ public interface ObservableData {
     
     void registerObserver(DataObserver observer);
     void unregisterObserver(DataObserver observer);
-    void notifyObservers(String dataType);
+    void notifyObservers(DataChangeEvent event);
 }
@@ -0,0 +1,99 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+/**
+ * Índice hash id → entidad que mantiene sincronizada la ObservableList
+ * que se expone a las tablas. Altas, búsquedas, ediciones y bajas por id son O(1).
+ * <p>
+ * La lista observable no es segura entre hilos: el índice completo debe usarse
+ * desde un único hilo (en la aplicación, el de la interfaz). El almacén usa
+ * {@link EntityIndex}, que no tiene lista.
+ */
+public class ObservableIndex<K, E> {
+    private final Function<E, K> keyExtractor;
+    private final Map<K, E> byId;
+    private final Map<K, Integer> positions;
+    private final ObservableList<E> items;
+    private final ObservableList<E> readOnlyItems;
+
+    public ObservableIndex(Function<E, K> keyExtractor) {
+        this.keyExtractor = keyExtractor;
+        this.byId = new HashMap<>();
+        this.positions = new HashMap<>();
+        this.items = FXCollections.observableArrayList();
+        this.readOnlyItems = FXCollections.unmodifiableObservableList(items);
+    }
+
+    public E get(K id) {
+        return byId.get(id);
+    }
+
+    public boolean containsKey(K id) {
+        return byId.containsKey(id);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    /**
+     * Agrega la entidad si su id no existe todavía.
+     * @return false si ya había una entidad con el mismo id.
+     */
+    public boolean add(E entity) {
+        K id = keyExtractor.apply(entity);
+        if (byId.putIfAbsent(id, entity) != null) {
+            return false;
+        }
+        positions.put(id, items.size());
+        items.add(entity);
+        return true;
+    }
+
+    /**
+     * Reemplaza la entidad con el mismo id en su misma posición, o la agrega al
+     * final si no existía. Los oyentes de la lista reciben un único cambio.
+     */
+    public void put(E entity) {
+        K id = keyExtractor.apply(entity);
+        Integer index = positions.get(id);
+        if (index == null) {
+            add(entity);
+        } else {
+            byId.put(id, entity);
+            items.set(index, entity);
+        }
+    }
+
+    /**
+     * Elimina la entidad moviendo la última fila al hueco que deja,
+     * de modo que no se desplaza el resto de la lista.
+     * @return la entidad eliminada o null si no existía.
+     */
+    public E remove(K id) {
+        E removed = byId.remove(id);
+        if (removed == null) {
+            return null;
+        }
+        int index = positions.remove(id);
+        int lastIndex = items.size() - 1;
+        if (index != lastIndex) {
+            E last = items.get(lastIndex);
+            items.set(index, last);
+            positions.put(keyExtractor.apply(last), index);
+        }
+        items.remove(lastIndex);
+        return removed;
+    }
+
+    /** Vista de solo lectura para enlazar con las tablas. */
+    public ObservableList<E> view() {
+        return readOnlyItems;
+    }
+}
@@ -0,0 +1,23 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Colección ordenada que se puede recorrer a partir de cualquiera de sus
+ * elementos, sin conocer su posición. Es la base de {@link PagedObservableList}.
+ */
+public interface PageSource<E> {
+
+    /** Número actual de elementos. */
+    int size();
+
+    /**
+     * Recorre los elementos posteriores a {@code after} en el orden de la
+     * fuente, o todos si es null. {@code after} puede haber sido eliminado.
+     */
+    Iterator<E> iterator(E after);
+
+    /** Orden en el que la fuente entrega los elementos. */
+    Comparator<? super E> comparator();
+}
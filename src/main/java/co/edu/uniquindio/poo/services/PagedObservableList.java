@@ -0,0 +1,194 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import javafx.collections.ObservableListBase;
+
+/**
+ * Lista observable de solo lectura que materializa por páginas los elementos
+ * de una {@link PageSource}. Una TableView solo pide las filas visibles, así
+ * que en memoria quedan las páginas de la caché LRU y un ancla por página ya
+ * recorrida (el último elemento de la página anterior), con la que se retoma
+ * el recorrido de la fuente sin contar desde el principio.
+ * <p>
+ * Debe usarse desde un único hilo (en la aplicación, el de la interfaz).
+ */
+public class PagedObservableList<E> extends ObservableListBase<E> {
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_CACHED_PAGES = 16;
+
+    private final int pageSize;
+    private final Map<Integer, List<E>> pages;
+    private final NavigableMap<Integer, E> anchors;
+    private PageSource<E> source;
+    private int size;
+    private long hits;
+    private long misses;
+
+    public PagedObservableList(PageSource<E> source) {
+        this(source, DEFAULT_PAGE_SIZE, DEFAULT_CACHED_PAGES);
+    }
+
+    public PagedObservableList(PageSource<E> source, int pageSize, int cachedPages) {
+        if (pageSize <= 0 || cachedPages <= 0) {
+            throw new IllegalArgumentException("El tamaño de página y de la caché deben ser positivos.");
+        }
+        this.pageSize = pageSize;
+        this.pages = new LinkedHashMap<>(cachedPages * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<E>> eldest) {
+                return size() > cachedPages;
+            }
+        };
+        this.anchors = new TreeMap<>();
+        this.source = source;
+        this.size = source.size();
+    }
+
+    /**
+     * Fila en la posición indicada, o null si la fuente se acortó desde el
+     * último aviso de cambios.
+     */
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        List<E> page = page(index / pageSize);
+        int offset = index % pageSize;
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Cambia el orden (u origen) de las filas y avisa a la tabla.
+     */
+    public void setSource(PageSource<E> source) {
+        this.source = source;
+        reset(0);
+    }
+
+    /**
+     * Descarta las páginas y anclas que pueden haberse desplazado por altas,
+     * bajas o ediciones de los elementos indicados, y avisa a la tabla.
+     */
+    public void invalidate(Collection<? extends E> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        E first = null;
+        for (E element : changed) {
+            if (first == null || source.comparator().compare(element, first) < 0) {
+                first = element;
+            }
+        }
+        E from = first;
+        anchors.values().removeIf(anchor -> anchor != null && source.comparator().compare(anchor, from) >= 0);
+        int firstStale = anchors.isEmpty() ? 0 : anchors.lastKey();
+        reset(firstStale);
+    }
+
+    /** Vacía la caché y las anclas y avisa a la tabla. */
+    public void invalidateAll() {
+        anchors.clear();
+        reset(0);
+    }
+
+    private void reset(int firstStalePage) {
+        if (firstStalePage == 0) {
+            anchors.clear();
+        }
+        pages.keySet().removeIf(page -> page >= firstStalePage);
+        int oldSize = size;
+        size = source.size();
+        int from = Math.min(firstStalePage * pageSize, Math.min(oldSize, size));
+
+        beginChange();
+        if (oldSize > from) {
+            nextRemove(from, new Placeholders<>(oldSize - from));
+        }
+        if (size > from) {
+            nextAdd(from, size);
+        }
+        endChange();
+    }
+
+    private List<E> page(int number) {
+        List<E> page = pages.get(number);
+        if (page != null) {
+            hits++;
+            return page;
+        }
+        misses++;
+        Map.Entry<Integer, E> start = anchors.floorEntry(number);
+        int current = start == null ? 0 : start.getKey();
+        Iterator<E> iterator = source.iterator(start == null ? null : start.getValue());
+        if (start == null) {
+            anchors.put(0, null);
+        }
+        // Avanza desde la última ancla conocida, registrando las intermedias
+        while (current < number) {
+            E last = null;
+            for (int i = 0; i < pageSize && iterator.hasNext(); i++) {
+                last = iterator.next();
+            }
+            if (last == null) {
+                break;
+            }
+            current++;
+            anchors.put(current, last);
+        }
+        page = new ArrayList<>(pageSize);
+        while (current == number && page.size() < pageSize && iterator.hasNext()) {
+            page.add(iterator.next());
+        }
+        if (page.size() == pageSize) {
+            anchors.put(number + 1, page.get(pageSize - 1));
+        }
+        pages.put(number, page);
+        return page;
+    }
+
+    public int getCachedPages() {
+        return pages.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /** Filas eliminadas de un aviso de cambio; no se materializan. */
+    private static class Placeholders<E> extends AbstractList<E> {
+        private final int size;
+
+        Placeholders(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public E get(int index) {
+            return null;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
@@ -4,14 +4,25 @@ import co.edu.uniquindio.poo.model.Patient;
 import co.edu.uniquindio.poo.model.Person;
 
 public class PatientFactory  implements PersonFactory {
+    private final StringDictionary dictionary;
+
+    public PatientFactory() {
+        this(StringDictionary.IDENTITY);
+    }
+
+    /** Fábrica que comparte los marcadores repetidos a través del diccionario. */
+    public PatientFactory(StringDictionary dictionary) {
+        this.dictionary = dictionary;
+    }
+
     @Override
     public Person createPerson(String id, String name, String phone, String...additionalData) {
         //additionalData [0] = historyNumber, additionalData [1] = address
         String historyNumber = additionalData.length > 0 ? additionalData[0] : "N/A";
         String address = additionalData.length > 1 ? additionalData[1] : "N/A";
 
-        return new Patient.Builder(id, name, phone, historyNumber)
-                .address(address)
+        return new Patient.Builder(id, name, phone, dictionary.known(historyNumber))
+                .address(dictionary.known(address))
                 .build();
     }
 
@@ -0,0 +1,413 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+
+/**
+ * Índice id → entidad inmutable y persistente: {@link #with} y
+ * {@link #without} devuelven un índice nuevo que comparte con el anterior
+ * todo salvo el camino hasta la entidad cambiada, así que conservar una
+ * versión cuesta solo los nodos que se copiaron después.
+ * <p>
+ * Es un trie de 32 ramas sobre el hash del id (HAMT): cada nodo guarda un
+ * mapa de bits con las ramas ocupadas y un arreglo compacto con ellas, de
+ * modo que altas, bajas y búsquedas tocan a lo sumo siete nodos. Como en
+ * {@link EntityIndex}, el id se obtiene de la propia entidad y no se guarda.
+ */
+final class PersistentIndex<K, E> extends AbstractCollection<E> {
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private final Function<? super E, ? extends K> keyExtractor;
+    private final Node root;
+    private final int size;
+
+    private PersistentIndex(Function<? super E, ? extends K> keyExtractor, Node root, int size) {
+        this.keyExtractor = keyExtractor;
+        this.root = root;
+        this.size = size;
+    }
+
+    static <K, E> PersistentIndex<K, E> empty(Function<? super E, ? extends K> keyExtractor) {
+        return new PersistentIndex<>(keyExtractor, null, 0);
+    }
+
+    E get(K id) {
+        if (root == null) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        E found = (E) root.find(id, hash(id), 0, this::keyOf);
+        return found;
+    }
+
+    /** Índice con la entidad agregada o en lugar de la que tenía su id. */
+    PersistentIndex<K, E> with(E entity) {
+        Object id = keyOf(entity);
+        int hash = hash(id);
+        if (root == null) {
+            return new PersistentIndex<>(keyExtractor, new Branch(bit(hash, 0), new Object[] {entity}), 1);
+        }
+        boolean[] added = new boolean[1];
+        Node updated = root.put(entity, id, hash, 0, this::keyOf, added);
+        return updated == root ? this : new PersistentIndex<>(keyExtractor, updated, added[0] ? size + 1 : size);
+    }
+
+    /**
+     * Índice con todas las entidades agregadas. Sobre un índice vacío arma el
+     * trie de una vez, repartiendo las entidades por rama en cada nivel, en
+     * lugar de copiar el camino una vez por entidad; los ids deben ser distintos.
+     */
+    PersistentIndex<K, E> withAll(Collection<? extends E> entities) {
+        if (root != null) {
+            PersistentIndex<K, E> result = this;
+            for (E entity : entities) {
+                result = result.with(entity);
+            }
+            return result;
+        }
+        Object[] items = entities.toArray();
+        if (items.length == 0) {
+            return this;
+        }
+        int[] hashes = new int[items.length];
+        for (int i = 0; i < items.length; i++) {
+            hashes[i] = hash(keyOf(items[i]));
+        }
+        return new PersistentIndex<>(keyExtractor, build(items, hashes, 0, items.length, 0), items.length);
+    }
+
+    /** Índice sin la entidad con ese id; el mismo si no estaba. */
+    PersistentIndex<K, E> without(K id) {
+        if (root == null) {
+            return this;
+        }
+        Node updated = root.remove(id, hash(id), 0, this::keyOf);
+        return updated == root ? this : new PersistentIndex<>(keyExtractor, updated, size - 1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Walker<>(root);
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        return Spliterators.spliterator(this, Spliterator.IMMUTABLE | Spliterator.NONNULL | Spliterator.DISTINCT);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object keyOf(Object entity) {
+        return keyExtractor.apply((E) entity);
+    }
+
+    private static int hash(Object id) {
+        int h = id.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static int bit(int hash, int shift) {
+        return 1 << ((hash >>> shift) & MASK);
+    }
+
+    /**
+     * Nodo con las entidades de items[from, to), que comparten los bits de hash
+     * por debajo de {@code shift}. Ordena ese tramo por rama con un conteo.
+     */
+    private static Node build(Object[] items, int[] hashes, int from, int to, int shift) {
+        if (shift >= Integer.SIZE) {
+            return new Collision(Arrays.copyOfRange(items, from, to));
+        }
+        int[] starts = new int[MASK + 2];
+        for (int i = from; i < to; i++) {
+            starts[((hashes[i] >>> shift) & MASK) + 1]++;
+        }
+        int bitmap = 0;
+        for (int branch = 0; branch <= MASK; branch++) {
+            if (starts[branch + 1] > 0) {
+                bitmap |= 1 << branch;
+            }
+            starts[branch + 1] += starts[branch];
+        }
+        Object[] sortedItems = new Object[to - from];
+        int[] sortedHashes = new int[to - from];
+        int[] next = starts.clone();
+        for (int i = from; i < to; i++) {
+            int at = next[(hashes[i] >>> shift) & MASK]++;
+            sortedItems[at] = items[i];
+            sortedHashes[at] = hashes[i];
+        }
+        System.arraycopy(sortedItems, 0, items, from, sortedItems.length);
+        System.arraycopy(sortedHashes, 0, hashes, from, sortedHashes.length);
+
+        Object[] slots = new Object[Integer.bitCount(bitmap)];
+        int slot = 0;
+        for (int branch = 0; branch <= MASK; branch++) {
+            int start = from + starts[branch];
+            int end = from + starts[branch + 1];
+            if (end - start == 1) {
+                slots[slot++] = items[start];
+            } else if (end > start) {
+                slots[slot++] = build(items, hashes, start, end, shift + BITS);
+            }
+        }
+        return new Branch(bitmap, slots);
+    }
+
+    /**
+     * Los nodos son inmutables; una entidad se distingue de un subnodo porque
+     * las entidades nunca son {@code Node}.
+     */
+    private abstract static class Node {
+        abstract Object find(Object id, int hash, int shift, Function<Object, Object> keyOf);
+
+        /** El mismo nodo si la entidad ya estaba tal cual. */
+        abstract Node put(Object entity, Object id, int hash, int shift, Function<Object, Object> keyOf,
+                boolean[] added);
+
+        /** El mismo nodo si el id no estaba; null si queda vacío. */
+        abstract Node remove(Object id, int hash, int shift, Function<Object, Object> keyOf);
+
+        /** La entidad si el nodo guarda solo una y ningún subnodo, para subirla al padre. */
+        abstract Object single();
+
+        abstract Object[] slots();
+    }
+
+    private static final class Branch extends Node {
+        final int bitmap;
+        final Object[] slots;
+
+        Branch(int bitmap, Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots = slots;
+        }
+
+        @Override
+        Object find(Object id, int hash, int shift, Function<Object, Object> keyOf) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            Object slot = slots[Integer.bitCount(bitmap & (bit - 1))];
+            if (slot instanceof Node node) {
+                return node.find(id, hash, shift + BITS, keyOf);
+            }
+            return id.equals(keyOf.apply(slot)) ? slot : null;
+        }
+
+        @Override
+        Node put(Object entity, Object id, int hash, int shift, Function<Object, Object> keyOf, boolean[] added) {
+            int bit = bit(hash, shift);
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            if ((bitmap & bit) == 0) {
+                Object[] grown = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, grown, 0, index);
+                grown[index] = entity;
+                System.arraycopy(slots, index, grown, index + 1, slots.length - index);
+                added[0] = true;
+                return new Branch(bitmap | bit, grown);
+            }
+            Object slot = slots[index];
+            if (slot instanceof Node node) {
+                Node updated = node.put(entity, id, hash, shift + BITS, keyOf, added);
+                return updated == node ? this : replace(index, updated);
+            }
+            Object slotId = keyOf.apply(slot);
+            if (id.equals(slotId)) {
+                return slot == entity ? this : replace(index, entity);
+            }
+            added[0] = true;
+            return replace(index, pair(slot, hash(slotId), entity, hash, shift + BITS));
+        }
+
+        @Override
+        Node remove(Object id, int hash, int shift, Function<Object, Object> keyOf) {
+            int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return this;
+            }
+            int index = Integer.bitCount(bitmap & (bit - 1));
+            Object slot = slots[index];
+            if (slot instanceof Node node) {
+                Node updated = node.remove(id, hash, shift + BITS, keyOf);
+                if (updated == node) {
+                    return this;
+                }
+                if (updated == null) {
+                    return shrink(bit, index);
+                }
+                Object single = updated.single();
+                return replace(index, single != null ? single : updated);
+            }
+            return id.equals(keyOf.apply(slot)) ? shrink(bit, index) : this;
+        }
+
+        @Override
+        Object single() {
+            return slots.length == 1 && !(slots[0] instanceof Node) ? slots[0] : null;
+        }
+
+        @Override
+        Object[] slots() {
+            return slots;
+        }
+
+        private Branch replace(int index, Object slot) {
+            Object[] copy = slots.clone();
+            copy[index] = slot;
+            return new Branch(bitmap, copy);
+        }
+
+        private Branch shrink(int bit, int index) {
+            if (slots.length == 1) {
+                return null;
+            }
+            Object[] shrunk = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, shrunk, 0, index);
+            System.arraycopy(slots, index + 1, shrunk, index, shrunk.length - index);
+            return new Branch(bitmap & ~bit, shrunk);
+        }
+
+        /** Nodo con dos entidades de ids distintos a partir de este nivel. */
+        private static Node pair(Object a, int hashA, Object b, int hashB, int shift) {
+            if (shift >= Integer.SIZE) {
+                return new Collision(new Object[] {a, b});
+            }
+            int bitA = bit(hashA, shift);
+            int bitB = bit(hashB, shift);
+            if (bitA == bitB) {
+                return new Branch(bitA, new Object[] {pair(a, hashA, b, hashB, shift + BITS)});
+            }
+            return new Branch(bitA | bitB, Integer.compareUnsigned(bitA, bitB) < 0 ? new Object[] {a, b}
+                    : new Object[] {b, a});
+        }
+    }
+
+    /** Entidades con el mismo hash completo; se buscan por igualdad de id. */
+    private static final class Collision extends Node {
+        final Object[] entities;
+
+        Collision(Object[] entities) {
+            this.entities = entities;
+        }
+
+        @Override
+        Object find(Object id, int hash, int shift, Function<Object, Object> keyOf) {
+            int index = indexOf(id, keyOf);
+            return index < 0 ? null : entities[index];
+        }
+
+        @Override
+        Node put(Object entity, Object id, int hash, int shift, Function<Object, Object> keyOf, boolean[] added) {
+            int index = indexOf(id, keyOf);
+            if (index < 0) {
+                Object[] grown = Arrays.copyOf(entities, entities.length + 1);
+                grown[entities.length] = entity;
+                added[0] = true;
+                return new Collision(grown);
+            }
+            if (entities[index] == entity) {
+                return this;
+            }
+            Object[] copy = entities.clone();
+            copy[index] = entity;
+            return new Collision(copy);
+        }
+
+        @Override
+        Node remove(Object id, int hash, int shift, Function<Object, Object> keyOf) {
+            int index = indexOf(id, keyOf);
+            if (index < 0) {
+                return this;
+            }
+            if (entities.length == 1) {
+                return null;
+            }
+            Object[] shrunk = new Object[entities.length - 1];
+            System.arraycopy(entities, 0, shrunk, 0, index);
+            System.arraycopy(entities, index + 1, shrunk, index, shrunk.length - index);
+            return new Collision(shrunk);
+        }
+
+        @Override
+        Object single() {
+            return entities.length == 1 ? entities[0] : null;
+        }
+
+        @Override
+        Object[] slots() {
+            return entities;
+        }
+
+        private int indexOf(Object id, Function<Object, Object> keyOf) {
+            for (int i = 0; i < entities.length; i++) {
+                if (Objects.equals(id, keyOf.apply(entities[i]))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /** Recorrido en profundidad con una pila de arreglos; el trie no pasa de ocho niveles. */
+    private static final class Walker<E> implements Iterator<E> {
+        private final Object[][] stack = new Object[Integer.SIZE / BITS + 2][];
+        private final int[] positions = new int[stack.length];
+        private int depth = -1;
+        private Object next;
+
+        Walker(Node root) {
+            if (root != null) {
+                stack[++depth] = root.slots();
+            }
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                Object[] slots = stack[depth];
+                if (positions[depth] == slots.length) {
+                    positions[depth--] = 0;
+                    continue;
+                }
+                Object slot = slots[positions[depth]++];
+                if (slot instanceof Node node) {
+                    stack[++depth] = node.slots();
+                } else {
+                    next = slot;
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            @SuppressWarnings("unchecked")
+            E current = (E) next;
+            advance();
+            return current;
+        }
+    }
+}
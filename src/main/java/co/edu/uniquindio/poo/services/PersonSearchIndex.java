@@ -0,0 +1,251 @@
+package co.edu.uniquindio.poo.services;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.model.Person;
+
+/**
+ * Índice invertido de palabras para buscar personas mientras se escribe. Cada
+ * campo se normaliza (minúsculas, sin tildes) y se parte en palabras; las
+ * palabras se guardan ordenadas, así que todas las que empiezan por un prefijo
+ * son un rango contiguo del índice.
+ * <p>
+ * Se mantiene al día con los cambios que publica el almacén y puede
+ * consultarse desde cualquier hilo mientras se actualiza.
+ */
+public class PersonSearchIndex<P extends Person> implements DataObserver {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final EntityType entityType;
+    private final Class<P> type;
+    private final Function<P, List<String>> fields;
+    private final Function<String, P> lookup;
+    private final NavigableMap<String, Set<String>> postings;
+    private final AtomicLong postingCount;
+
+    public PersonSearchIndex(EntityType entityType, Class<P> type, Function<P, List<String>> fields,
+            Function<String, P> lookup) {
+        this.entityType = entityType;
+        this.type = type;
+        this.fields = fields;
+        this.lookup = lookup;
+        this.postings = new ConcurrentSkipListMap<>();
+        this.postingCount = new AtomicLong();
+    }
+
+    /** Índice de pacientes por id, nombre, teléfono e historia, suscrito al almacén. */
+    public static PersonSearchIndex<Patient> patients(ClinicDataStore store) {
+        PersonSearchIndex<Patient> index = new PersonSearchIndex<>(EntityType.PATIENT, Patient.class,
+                p -> Arrays.asList(p.getId(), p.getName(), p.getPhone(), p.getHistoryNumber()),
+                id -> store.findPatient(id).orElse(null));
+        store.registerObserver(index);
+        store.scanPatients().forEach(index::add);
+        return index;
+    }
+
+    /** Índice de médicos por id, nombre, teléfono y especialidad, suscrito al almacén. */
+    public static PersonSearchIndex<Doctor> doctors(ClinicDataStore store) {
+        PersonSearchIndex<Doctor> index = new PersonSearchIndex<>(EntityType.DOCTOR, Doctor.class,
+                d -> Arrays.asList(d.getId(), d.getName(), d.getPhone(), d.getSpecialty()),
+                id -> store.findDoctor(id).orElse(null));
+        store.registerObserver(index);
+        store.scanDoctors().forEach(index::add);
+        return index;
+    }
+
+    @Override
+    public void update(DataChangeEvent event) {
+        for (DataChange change : event.getChanges(entityType)) {
+            if (change.getBefore() != null) {
+                remove(type.cast(change.getBefore()));
+            }
+            if (change.getAfter() != null) {
+                add(type.cast(change.getAfter()));
+            }
+        }
+    }
+
+    public void add(P person) {
+        for (String token : tokens(person)) {
+            // Atómico frente a una baja que vacíe y elimine la misma palabra
+            postings.compute(token, (t, ids) -> {
+                Set<String> set = ids != null ? ids : ConcurrentHashMap.newKeySet();
+                if (set.add(person.getId())) {
+                    postingCount.incrementAndGet();
+                }
+                return set;
+            });
+        }
+    }
+
+    public void remove(P person) {
+        for (String token : tokens(person)) {
+            postings.computeIfPresent(token, (t, ids) -> {
+                if (ids.remove(person.getId())) {
+                    postingCount.decrementAndGet();
+                }
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /**
+     * Hasta {@code limit} personas en las que cada palabra de la consulta es
+     * prefijo de alguna de sus palabras. Las coincidencias exactas de la palabra
+     * más larga salen primero; una consulta vacía devuelve las primeras personas.
+     */
+    public List<P> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(split(query));
+        if (limit <= 0) {
+            return List.of();
+        }
+        // La palabra más larga suele ser la más selectiva: recorre su rango y filtra con las demás
+        terms.sort((a, b) -> Integer.compare(b.length(), a.length()));
+        String driver = terms.isEmpty() ? "" : terms.remove(0);
+        List<P> results = new ArrayList<>(limit);
+        Set<String> seen = new HashSet<>();
+        for (Set<String> ids : prefixRange(driver).values()) {
+            for (String id : ids) {
+                if (!seen.add(id)) {
+                    continue;
+                }
+                P person = lookup.apply(id);
+                if (person != null && matchesAll(person, terms)) {
+                    results.add(person);
+                    if (results.size() == limit) {
+                        return results;
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Une resultados de {@link #search} de varios índices con los mismos
+     * campos (p. ej. uno por sede) en el orden en que los daría un único
+     * índice: por la primera palabra de la persona que empieza con el término
+     * más largo de la consulta. Una persona repetida en varios índices sale una vez.
+     */
+    public List<P> merge(String query, List<List<P>> results, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        String driver = split(query).stream().max(Comparator.comparingInt(String::length)).orElse("");
+        List<Map.Entry<String, P>> ranked = new ArrayList<>();
+        for (List<P> partial : results) {
+            for (P person : partial) {
+                String first = tokens(person).stream().filter(token -> token.startsWith(driver))
+                        .min(String::compareTo).orElse(driver);
+                ranked.add(Map.entry(first, person));
+            }
+        }
+        ranked.sort(Map.Entry.comparingByKey());
+        List<P> merged = new ArrayList<>(Math.min(limit, ranked.size()));
+        Set<String> seen = new HashSet<>();
+        for (Map.Entry<String, P> entry : ranked) {
+            if (merged.size() == limit) {
+                break;
+            }
+            if (seen.add(entry.getValue().getId())) {
+                merged.add(entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    private boolean matchesAll(P person, List<String> terms) {
+        if (terms.isEmpty()) {
+            return true;
+        }
+        Set<String> tokens = tokens(person);
+        for (String term : terms) {
+            if (tokens.stream().noneMatch(token -> token.startsWith(term))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private NavigableMap<String, Set<String>> prefixRange(String prefix) {
+        if (prefix.isEmpty()) {
+            return postings;
+        }
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private Set<String> tokens(P person) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String field : fields.apply(person)) {
+            List<String> words = split(field);
+            tokens.addAll(words);
+            if (words.size() > 1 && words.stream().allMatch(word -> word.chars().allMatch(Character::isDigit))) {
+                // Teléfonos como 555-1234 también se encuentran escritos de corrido
+                tokens.add(String.join("", words));
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> split(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+        List<String> words = new ArrayList<>();
+        for (String word : SEPARATORS.split(normalized)) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    /** Palabras distintas en el índice. */
+    public int getTokenCount() {
+        return postings.size();
+    }
+
+    /** Pares palabra → persona en el índice. */
+    public long getPostingCount() {
+        return postingCount.get();
+    }
+
+    /**
+     * Memoria aproximada del índice en bytes: nodos del mapa ordenado, las
+     * palabras y una entrada de conjunto por cada par palabra → persona. Los
+     * ids no se cuentan porque se comparten con las entidades del almacén.
+     */
+    public long getEstimatedBytes() {
+        long bytes = 0;
+        for (Map.Entry<String, Set<String>> entry : postings.entrySet()) {
+            bytes += 64 + 40 + entry.getKey().length() + 96;
+        }
+        return bytes + postingCount.get() * 48;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d palabras, %d referencias, ~%d KB", getTokenCount(), getPostingCount(),
+                getEstimatedBytes() / 1024);
+    }
+}
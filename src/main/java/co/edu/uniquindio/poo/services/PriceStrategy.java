@@ -1,5 +1,17 @@
 package co.edu.uniquindio.poo.services;
 
+import java.math.BigDecimal;
+
+/**
+ * Regla de precio de una cita. Las implementaciones no guardan estado, así
+ * que todas las citas comparten la instancia de {@link PriceStrategyRegistry}.
+ */
 public interface PriceStrategy {
-    double calculatePrice (double basePrice) ;
+    BigDecimal calculatePrice(BigDecimal basePrice);
+
+    /** Código compacto con el que se registra y se persiste la estrategia. */
+    byte getCode();
+
+    /** Nombre para mostrar en la interfaz. */
+    String getLabel();
 }
@@ -0,0 +1,80 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Estrategias de precio compartidas, identificadas por su código. Las citas,
+ * la persistencia y la importación resuelven aquí la instancia única de cada
+ * estrategia en lugar de crear una por cita.
+ */
+public final class PriceStrategyRegistry {
+    public static final PriceStrategy STANDARD = new StandardPriceStrategy();
+    public static final PriceStrategy SPECIALIST = new SpecialistPriceStrategy();
+
+    private static final Map<Byte, PriceStrategy> BY_CODE = new ConcurrentHashMap<>();
+    private static final Map<String, PriceStrategy> BY_NAME = new ConcurrentHashMap<>();
+    private static final List<PriceStrategy> ALL = new CopyOnWriteArrayList<>();
+
+    static {
+        register(STANDARD, "standard", "estandar", "estándar");
+        register(SPECIALIST, "specialist", "especialista");
+    }
+
+    private PriceStrategyRegistry() {
+    }
+
+    /**
+     * Registra una estrategia con los nombres con los que se importa.
+     * @throws IllegalArgumentException si su código ya está en uso.
+     */
+    public static void register(PriceStrategy strategy, String... names) {
+        if (BY_CODE.putIfAbsent(strategy.getCode(), strategy) != null) {
+            throw new IllegalArgumentException("Ya hay una estrategia con el código " + strategy.getCode());
+        }
+        ALL.add(strategy);
+        for (String name : names) {
+            BY_NAME.put(name.toLowerCase(Locale.ROOT), strategy);
+        }
+    }
+
+    /** @throws IllegalArgumentException si el código no está registrado. */
+    public static PriceStrategy byCode(byte code) {
+        PriceStrategy strategy = BY_CODE.get(code);
+        if (strategy == null) {
+            throw new IllegalArgumentException("Código de estrategia desconocido: " + code);
+        }
+        return strategy;
+    }
+
+    /** @throws IllegalArgumentException si el nombre no está registrado. */
+    public static PriceStrategy byName(String name) {
+        PriceStrategy strategy = BY_NAME.get(name.trim().toLowerCase(Locale.ROOT));
+        if (strategy == null) {
+            throw new IllegalArgumentException("Estrategia de precio desconocida: " + name);
+        }
+        return strategy;
+    }
+
+    /**
+     * Instancia registrada de la misma clase y código, o la propia estrategia
+     * si no está registrada.
+     */
+    public static PriceStrategy canonical(PriceStrategy strategy) {
+        PriceStrategy registered = BY_CODE.get(strategy.getCode());
+        return registered != null && registered.getClass() == strategy.getClass() ? registered : strategy;
+    }
+
+    /** Si es la instancia registrada con su código. */
+    public static boolean isRegistered(PriceStrategy strategy) {
+        return BY_CODE.get(strategy.getCode()) == strategy;
+    }
+
+    /** Estrategias en orden de registro, para las listas de selección. */
+    public static List<PriceStrategy> all() {
+        return List.copyOf(ALL);
+    }
+}
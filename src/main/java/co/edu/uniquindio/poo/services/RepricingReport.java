@@ -0,0 +1,22 @@
+package co.edu.uniquindio.poo.services;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Resultado de un cambio masivo de tarifa: citas seleccionadas, citas cuyo
+ * precio cambió, ingresos de las seleccionadas antes y después, y tiempo empleado.
+ */
+public record RepricingReport(long matched, long repriced, BigDecimal revenueBefore, BigDecimal revenueAfter,
+        Duration elapsed) {
+
+    public BigDecimal revenueDelta() {
+        return revenueAfter.subtract(revenueBefore);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d citas seleccionadas, %d recalculadas; ingresos %s → %s en %d ms",
+                matched, repriced, revenueBefore, revenueAfter, elapsed.toMillis());
+    }
+}
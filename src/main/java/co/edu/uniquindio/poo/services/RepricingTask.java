@@ -0,0 +1,79 @@
+package co.edu.uniquindio.poo.services;
+
+import java.math.BigDecimal;
+import java.util.concurrent.RecursiveTask;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Money;
+
+/**
+ * Aplica una estrategia a un tramo del arreglo de citas dividiéndolo en
+ * mitades hasta {@link #THRESHOLD} citas por hoja. Cada hoja guarda las copias
+ * previas en su propio tramo de {@code previous}, así que no hay que unir
+ * listas, y suma los cambios de ingresos en local para tocar los totales
+ * compartidos una sola vez. Las versiones las asigna el llamador al terminar,
+ * reservando un único tramo para todas las citas repreciadas.
+ * El llamador debe tener el cerrojo de citas.
+ */
+class RepricingTask extends RecursiveTask<RepricingTask.Totals> {
+    static final int THRESHOLD = 4_096;
+
+    private final Appointment[] targets;
+    private final Appointment[] previous;
+    private final int from;
+    private final int to;
+    private final PriceStrategy strategy;
+    private final ClinicAggregates aggregates;
+
+    /**
+     * @param previous arreglo del mismo largo que {@code targets} donde queda
+     *                 la copia previa de cada cita repreciada, o null si nadie
+     *                 escucha los cambios.
+     */
+    RepricingTask(Appointment[] targets, Appointment[] previous, int from, int to, PriceStrategy strategy,
+            ClinicAggregates aggregates) {
+        this.targets = targets;
+        this.previous = previous;
+        this.from = from;
+        this.to = to;
+        this.strategy = strategy;
+        this.aggregates = aggregates;
+    }
+
+    record Totals(long repriced, BigDecimal before, BigDecimal after) {
+        Totals plus(Totals other) {
+            return new Totals(repriced + other.repriced, before.add(other.before), after.add(other.after));
+        }
+    }
+
+    @Override
+    protected Totals compute() {
+        if (to - from > THRESHOLD) {
+            int middle = (from + to) >>> 1;
+            RepricingTask right = new RepricingTask(targets, previous, middle, to, strategy, aggregates);
+            right.fork();
+            Totals left = new RepricingTask(targets, previous, from, middle, strategy, aggregates).compute();
+            return left.plus(right.join());
+        }
+        long repriced = 0;
+        BigDecimal before = Money.ZERO;
+        BigDecimal after = Money.ZERO;
+        ClinicAggregates.RepriceDeltas deltas = new ClinicAggregates.RepriceDeltas();
+        for (int i = from; i < to; i++) {
+            Appointment appointment = targets[i];
+            BigDecimal previousPrice = appointment.getFinalPrice();
+            before = before.add(previousPrice);
+            if (appointment.getPriceStrategy() != strategy) {
+                if (previous != null) {
+                    previous[i] = new Appointment(appointment);
+                }
+                appointment.setPriceStrategy(strategy);
+                deltas.record(appointment, previousPrice, appointment.getFinalPrice());
+                repriced++;
+            }
+            after = after.add(appointment.getFinalPrice());
+        }
+        aggregates.apply(deltas);
+        return new Totals(repriced, before, after);
+    }
+}
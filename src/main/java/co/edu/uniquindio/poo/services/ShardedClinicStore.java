@@ -0,0 +1,379 @@
+package co.edu.uniquindio.poo.services;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Money;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.model.Person;
+
+/**
+ * Almacén repartido en varios {@link ClinicDataStore}, uno por sede o por
+ * tramo de hash de los ids, detrás de los mismos métodos que el almacén único.
+ * <p>
+ * Un enrutador asigna cada id de paciente y de médico a su partición. Las
+ * citas viven en la partición del médico, que es donde se comprueban los
+ * solapes; si el paciente es de otra partición, se registra allí una réplica
+ * suya al reservar, que las ediciones y la baja del paciente mantienen al día.
+ * Así cada partición valida sus citas sola y las escrituras de particiones
+ * distintas no comparten cerrojos.
+ * <p>
+ * Las consultas que abarcan todas las particiones (recorridos, agendas de un
+ * paciente, búsquedas, repreciado) se lanzan en paralelo y sus resultados se
+ * unen. No hay transacciones entre particiones: la baja de un paciente con
+ * réplicas se aplica partición por partición, empezando por la suya.
+ */
+public class ShardedClinicStore {
+    private final List<ClinicDataStore> shards;
+    private final ToIntFunction<String> router;
+    private volatile List<PersonSearchIndex<Patient>> patientIndexes;
+    private volatile List<PersonSearchIndex<Doctor>> doctorIndexes;
+
+    /**
+     * @param router índice de partición de un id de paciente o médico, p. ej.
+     *               según el prefijo de sede del id.
+     */
+    public ShardedClinicStore(List<ClinicDataStore> shards, ToIntFunction<String> router) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Se necesita al menos una partición.");
+        }
+        this.shards = List.copyOf(shards);
+        this.router = router;
+    }
+
+    /** Particiones nuevas repartidas por el hash de los ids. */
+    public static ShardedClinicStore byIdHash(int shardCount) {
+        List<ClinicDataStore> shards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            shards.add(new ClinicDataStore());
+        }
+        return new ShardedClinicStore(shards, id -> {
+            int h = id.hashCode() * 0x9E3779B9;
+            return Math.floorMod(h ^ (h >>> 16), shardCount);
+        });
+    }
+
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    public ClinicDataStore getShard(int index) {
+        return shards.get(index);
+    }
+
+    /** Partición a la que pertenece el paciente o médico con ese id. */
+    public int shardOf(String personId) {
+        int index = router.applyAsInt(personId);
+        if (index < 0 || index >= shards.size()) {
+            throw new IllegalArgumentException("El id " + personId + " no corresponde a ninguna partición.");
+        }
+        return index;
+    }
+
+    private ClinicDataStore home(String personId) {
+        return shards.get(shardOf(personId));
+    }
+
+    /** Aplica la consulta a cada partición en paralelo y devuelve los resultados en orden de partición. */
+    private <T> List<T> each(Function<ClinicDataStore, T> query) {
+        if (shards.size() == 1) {
+            return List.of(query.apply(shards.get(0)));
+        }
+        return shards.parallelStream().map(query).toList();
+    }
+
+    /** El observador recibe los cambios de cada partición por separado. */
+    public void registerObserver(DataObserver observer) {
+        shards.forEach(shard -> shard.registerObserver(observer));
+    }
+
+    public void unregisterObserver(DataObserver observer) {
+        shards.forEach(shard -> shard.unregisterObserver(observer));
+    }
+
+    /** Pacientes de todas las particiones, sin réplicas. */
+    public Collection<Patient> scanPatients() {
+        List<Patient> all = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            for (Patient p : shards.get(i).scanPatients()) {
+                if (shardOf(p.getId()) == i) {
+                    all.add(p);
+                }
+            }
+        }
+        return all;
+    }
+
+    public Optional<Patient> findPatient(String id) {
+        return home(id).findPatient(id);
+    }
+
+    public void addPatient(Patient patient) {
+        home(patient.getId()).addPatient(patient);
+    }
+
+    /** Edita el paciente en su partición y después en sus réplicas. */
+    public void editPatient(String id, Patient updatedPatient) {
+        home(id).editPatient(id, updatedPatient);
+        for (ClinicDataStore shard : replicasOf(id)) {
+            shard.editPatient(id, updatedPatient);
+        }
+    }
+
+    /**
+     * Da de baja al paciente con sus citas en todas las particiones. Primero
+     * en su partición, que es la que consultan las reservas para confirmar que
+     * sigue registrado, y después en las réplicas: una reserva que cree una
+     * réplica a la vez la ve aquí o se deshace sola.
+     */
+    public void removePatient(String id) {
+        home(id).removePatient(id);
+        for (ClinicDataStore shard : replicasOf(id)) {
+            shard.removePatient(id);
+        }
+    }
+
+    private List<ClinicDataStore> replicasOf(String patientId) {
+        ClinicDataStore home = home(patientId);
+        List<ClinicDataStore> replicas = new ArrayList<>();
+        for (ClinicDataStore shard : shards) {
+            if (shard != home && shard.findPatient(patientId).isPresent()) {
+                replicas.add(shard);
+            }
+        }
+        return replicas;
+    }
+
+    public Collection<Doctor> scanDoctors() {
+        List<Doctor> all = new ArrayList<>();
+        shards.forEach(shard -> all.addAll(shard.scanDoctors()));
+        return all;
+    }
+
+    public Optional<Doctor> findDoctor(String id) {
+        return home(id).findDoctor(id);
+    }
+
+    public void addDoctor(Doctor doctor) {
+        home(doctor.getId()).addDoctor(doctor);
+    }
+
+    public void editDoctor(String id, Doctor updatedDoctor) {
+        home(id).editDoctor(id, updatedDoctor);
+    }
+
+    public void removeDoctor(String id) {
+        home(id).removeDoctor(id);
+    }
+
+    /** Citas vivas y archivadas de todas las particiones. */
+    public Collection<Appointment> scanAppointments() {
+        List<Appointment> all = new ArrayList<>();
+        each(ClinicDataStore::scanAppointments).forEach(all::addAll);
+        return all;
+    }
+
+    /** Citas con fecha en [from, to) de todas las particiones, en orden cronológico. */
+    public List<Appointment> scanAppointments(LocalDateTime from, LocalDateTime to) {
+        return chronological(each(shard -> new ArrayList<>(shard.scanAppointments(from, to))));
+    }
+
+    /** Las citas no dicen a qué partición pertenecen: se busca en todas, O(1) en cada una. */
+    public Optional<Appointment> findAppointment(long id) {
+        for (ClinicDataStore shard : shards) {
+            Optional<Appointment> found = shard.findAppointment(id);
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Registra la cita en la partición del médico. Si el paciente es de otra
+     * partición y aún no tiene réplica allí, se la crea primero.
+     * <p>
+     * Con el paciente en otra partición, al terminar se comprueba que siga
+     * registrado en la suya. Si lo dieron de baja entre tanto, la réplica y sus
+     * citas se retiran y la reserva falla como si el paciente no existiera; si
+     * sigue, cualquier baja posterior encontrará la réplica al purgar.
+     */
+    public void addAppointment(Appointment appointment) {
+        ClinicDataStore shard = home(appointment.getDoctor().getId());
+        String patientId = appointment.getPatient().getId();
+        ClinicDataStore patientHome = home(patientId);
+        if (shard != patientHome && shard.findPatient(patientId).isEmpty()) {
+            Patient patient = patientHome.findPatient(patientId)
+                    .orElseThrow(() -> new IllegalArgumentException("El paciente de la cita no está registrado."));
+            try {
+                shard.addPatient(replicaOf(patient));
+            } catch (IllegalArgumentException alreadyReplicated) {
+                // Otra reserva del mismo paciente creó la réplica a la vez
+            }
+        }
+        shard.addAppointment(appointment);
+        if (shard != patientHome && patientHome.findPatient(patientId).isEmpty()) {
+            shard.removePatient(patientId);
+            throw new IllegalArgumentException("El paciente de la cita no está registrado.");
+        }
+    }
+
+    public void removeAppointment(Appointment appointment) {
+        home(appointment.getDoctor().getId()).removeAppointment(appointment);
+    }
+
+    public void changePriceStrategy(long appointmentId, PriceStrategy strategy) {
+        for (ClinicDataStore shard : shards) {
+            if (shard.findAppointment(appointmentId).isPresent()) {
+                shard.changePriceStrategy(appointmentId, strategy);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("Cita no encontrada.");
+    }
+
+    /**
+     * Reprecia cada partición en paralelo y suma los resultados; cada partición
+     * avisa a sus observadores por separado.
+     */
+    public RepricingReport reprice(Predicate<? super Doctor> doctorFilter, LocalDateTime from, LocalDateTime to,
+            PriceStrategy strategy) {
+        long start = System.nanoTime();
+        long matched = 0;
+        long repriced = 0;
+        BigDecimal before = Money.ZERO;
+        BigDecimal after = Money.ZERO;
+        for (RepricingReport report : each(shard -> shard.reprice(doctorFilter, from, to, strategy))) {
+            matched += report.matched();
+            repriced += report.repriced();
+            before = before.add(report.revenueBefore());
+            after = after.add(report.revenueAfter());
+        }
+        return new RepricingReport(matched, repriced, before, after, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    /** @return cuántas citas se archivaron entre todas las particiones. */
+    public int archiveBefore(LocalDateTime cutoff) {
+        return each(shard -> shard.archiveBefore(cutoff)).stream().mapToInt(Integer::intValue).sum();
+    }
+
+    public List<Appointment> getDoctorAppointments(String doctorId, LocalDateTime from, LocalDateTime to) {
+        return home(doctorId).getDoctorAppointments(doctorId, from, to);
+    }
+
+    public List<Appointment> getDoctorAgenda(String doctorId, LocalDate day) {
+        return home(doctorId).getDoctorAgenda(doctorId, day);
+    }
+
+    public Optional<Appointment> findDoctorConflict(String doctorId, LocalDateTime start, int durationMinutes) {
+        return home(doctorId).findDoctorConflict(doctorId, start, durationMinutes);
+    }
+
+    public LocalDateTime findFirstFreeSlot(String doctorId, LocalDateTime after, int durationMinutes) {
+        return home(doctorId).findFirstFreeSlot(doctorId, after, durationMinutes);
+    }
+
+    /** Citas del paciente con médicos de cualquier partición, en orden cronológico. */
+    public List<Appointment> getPatientAppointments(String patientId) {
+        return chronological(each(shard -> shard.getPatientAppointments(patientId)));
+    }
+
+    public Optional<Appointment> getNextPatientAppointment(String patientId, LocalDateTime after) {
+        return each(shard -> shard.getNextPatientAppointment(patientId, after)).stream()
+                .flatMap(Optional::stream)
+                .min(AppointmentTimeline.CHRONOLOGICAL);
+    }
+
+    /**
+     * Hasta {@code limit} pacientes de cualquier partición, en el orden en que
+     * los daría un único índice. Los índices por partición se crean en la
+     * primera búsqueda y desde entonces siguen los cambios de su partición.
+     */
+    public List<Patient> searchPatients(String query, int limit) {
+        List<PersonSearchIndex<Patient>> indexes = patientIndexes;
+        if (indexes == null) {
+            synchronized (this) {
+                if (patientIndexes == null) {
+                    patientIndexes = shards.stream().map(PersonSearchIndex::patients).toList();
+                }
+                indexes = patientIndexes;
+            }
+        }
+        return search(indexes, query, limit);
+    }
+
+    public List<Doctor> searchDoctors(String query, int limit) {
+        List<PersonSearchIndex<Doctor>> indexes = doctorIndexes;
+        if (indexes == null) {
+            synchronized (this) {
+                if (doctorIndexes == null) {
+                    doctorIndexes = shards.stream().map(PersonSearchIndex::doctors).toList();
+                }
+                indexes = doctorIndexes;
+            }
+        }
+        return search(indexes, query, limit);
+    }
+
+    private <P extends Person> List<P> search(List<PersonSearchIndex<P>> indexes,
+            String query, int limit) {
+        List<List<P>> partial = indexes.size() == 1 ? List.of(indexes.get(0).search(query, limit))
+                : indexes.parallelStream().map(index -> index.search(query, limit)).toList();
+        return indexes.get(0).merge(query, partial, limit);
+    }
+
+    /** Foto de cada partición, en orden de partición; no forman un corte común. */
+    public List<ClinicSnapshot> snapshots() {
+        return shards.stream().map(ClinicDataStore::snapshot).toList();
+    }
+
+    /** Suma de los conteos de las particiones; los pacientes incluyen las réplicas. */
+    public StoreStats getStats() {
+        int patients = 0;
+        int doctors = 0;
+        int appointments = 0;
+        int archived = 0;
+        long archiveBytes = 0;
+        int dictionaryValues = 0;
+        long duplicates = 0;
+        long savedBytes = 0;
+        for (ClinicDataStore shard : shards) {
+            StoreStats stats = shard.getStats();
+            patients += stats.patients();
+            doctors += stats.doctors();
+            appointments += stats.appointments();
+            archived += stats.archivedAppointments();
+            archiveBytes += stats.archiveBytes();
+            dictionaryValues += stats.dictionaryValues();
+            duplicates += stats.duplicateStrings();
+            savedBytes += stats.savedStringBytes();
+        }
+        return new StoreStats(patients, doctors, appointments, archived, archiveBytes, dictionaryValues, duplicates,
+                savedBytes);
+    }
+
+    private static List<Appointment> chronological(List<? extends Collection<Appointment>> parts) {
+        List<Appointment> merged = new ArrayList<>();
+        parts.forEach(merged::addAll);
+        // Cada tramo ya viene ordenado: el ordenamiento solo intercala los tramos
+        merged.sort(AppointmentTimeline.CHRONOLOGICAL);
+        return merged;
+    }
+
+    private static Patient replicaOf(Patient patient) {
+        return new Patient.Builder(patient.getId(), patient.getName(), patient.getPhone(), patient.getHistoryNumber())
+                .address(patient.getAddress())
+                .build();
+    }
+}
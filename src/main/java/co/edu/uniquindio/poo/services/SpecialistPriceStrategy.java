@@ -1,11 +1,26 @@
 package co.edu.uniquindio.poo.services;
 
+import java.math.BigDecimal;
+
+import co.edu.uniquindio.poo.model.Money;
+
 public class SpecialistPriceStrategy implements PriceStrategy {
-    private static final double SPECIALIST_SURCHARGE = 1.25;
+    public static final byte CODE = 1;
+    private static final BigDecimal SPECIALIST_SURCHARGE = new BigDecimal("1.25");
+
+    @Override
+    public BigDecimal calculatePrice(BigDecimal basePrice) {
+        return Money.round(basePrice.multiply(SPECIALIST_SURCHARGE));
+    }
+
+    @Override
+    public byte getCode() {
+        return CODE;
+    }
 
     @Override
-    public double calculatePrice(double basePrice) {
-        return basePrice * SPECIALIST_SURCHARGE;
+    public String getLabel() {
+        return "Especialista (1.25x)";
     }
 
 }
@@ -1,9 +1,25 @@
 package co.edu.uniquindio.poo.services;
 
+import java.math.BigDecimal;
+
+import co.edu.uniquindio.poo.model.Money;
+
 public class StandardPriceStrategy implements PriceStrategy {
+    public static final byte CODE = 0;
+
+    @Override
+    public BigDecimal calculatePrice(BigDecimal basePrice) {
+        return Money.round(basePrice);
+    }
+
+    @Override
+    public byte getCode() {
+        return CODE;
+    }
+
     @Override
-    public double calculatePrice(double basePrice) {
-        return basePrice;
+    public String getLabel() {
+        return "Estándar (1.0x)";
     }
 
 }
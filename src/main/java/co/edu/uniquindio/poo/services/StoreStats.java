@@ -0,0 +1,17 @@
+package co.edu.uniquindio.poo.services;
+
+/**
+ * Tamaño del almacén en un instante: entidades, citas archivadas por columnas
+ * con su memoria aproximada, y el efecto del diccionario de textos.
+ */
+public record StoreStats(int patients, int doctors, int appointments, int archivedAppointments,
+        long archiveBytes, int dictionaryValues, long duplicateStrings, long savedStringBytes) {
+
+    @Override
+    public String toString() {
+        return String.format("%d pacientes, %d médicos, %d citas vivas, %d archivadas (~%d KB); "
+                + "%d textos compartidos, %d copias evitadas (~%d KB)", patients, doctors, appointments,
+                archivedAppointments, archiveBytes / 1024, dictionaryValues, duplicateStrings,
+                savedStringBytes / 1024);
+    }
+}
@@ -0,0 +1,111 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Diccionario de textos repetidos: especialidades y marcadores como "N/A".
+ * Devuelve una única instancia por valor para que miles de registros
+ * importados no guarden cada uno su propia copia.
+ * <p>
+ * Solo deben registrarse campos de pocos valores distintos; los campos casi
+ * únicos, como direcciones o licencias, pasan por {@link #known} y nunca
+ * agregan valores. Guarda a lo sumo {@code capacity} valores; pasado ese
+ * límite los textos nuevos se devuelven tal cual. Puede usarse desde
+ * cualquier hilo.
+ */
+public class StringDictionary {
+    public static final int DEFAULT_CAPACITY = 1_024;
+
+    /** Diccionario vacío que devuelve cada texto sin cambios. */
+    public static final StringDictionary IDENTITY = new StringDictionary(0);
+
+    private final int capacity;
+    private final Map<String, String> values;
+    private final AtomicLong duplicates;
+    private final AtomicLong savedBytes;
+
+    public StringDictionary() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public StringDictionary(int capacity) {
+        this.capacity = capacity;
+        this.values = new ConcurrentHashMap<>();
+        this.duplicates = new AtomicLong();
+        this.savedBytes = new AtomicLong();
+    }
+
+    /**
+     * Instancia compartida igual al texto, que queda registrada si aún no lo
+     * estaba. Para campos de pocos valores distintos.
+     */
+    public String canonical(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = values.get(value);
+        if (shared == null) {
+            if (values.size() >= capacity) {
+                return value;
+            }
+            shared = values.putIfAbsent(value, value);
+            if (shared == null) {
+                return value;
+            }
+        }
+        return share(value, shared);
+    }
+
+    /**
+     * Instancia compartida si el texto ya está registrado, o el propio texto.
+     * Para campos casi únicos que a veces llevan un marcador repetido, como
+     * "N/A" en la dirección.
+     */
+    public String known(String value) {
+        if (value == null) {
+            return null;
+        }
+        String shared = values.get(value);
+        return shared == null ? value : share(value, shared);
+    }
+
+    private String share(String value, String shared) {
+        if (shared != value) {
+            duplicates.incrementAndGet();
+            savedBytes.addAndGet(estimateBytes(value));
+        }
+        return shared;
+    }
+
+    /** Valores distintos registrados. */
+    public int size() {
+        return values.size();
+    }
+
+    /** Copias reemplazadas por la instancia compartida desde que se creó el diccionario. */
+    public long getDuplicates() {
+        return duplicates.get();
+    }
+
+    /**
+     * Bytes aproximados de las copias reemplazadas: objeto String más su
+     * arreglo, con un byte por carácter Latin-1 y dos en otro caso.
+     */
+    public long getSavedBytes() {
+        return savedBytes.get();
+    }
+
+    private static long estimateBytes(String value) {
+        boolean latin1 = value.chars().allMatch(c -> c < 256);
+        long array = 16 + (long) value.length() * (latin1 ? 1 : 2);
+        return 24 + (array + 7) / 8 * 8;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d textos compartidos, %d copias evitadas, ~%d KB ahorrados", size(),
+                getDuplicates(), getSavedBytes() / 1024);
+    }
+}
@@ -0,0 +1,34 @@
+package co.edu.uniquindio.poo.services;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecutores para el trabajo fuera del hilo de la interfaz y del servidor.
+ * No depende de JavaFX, así que el servidor sin interfaz puede usarlo.
+ */
+public final class Workers {
+
+    private Workers() {
+    }
+
+    /**
+     * Un hilo virtual por tarea desde Java 21; en JVM anteriores, un pool de
+     * hilos daemon que no impide cerrar la aplicación.
+     */
+    public static ExecutorService newWorker() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            ThreadFactory daemons = task -> {
+                Thread thread = new Thread(task, "clinic-worker-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newCachedThreadPool(daemons);
+        }
+    }
+}
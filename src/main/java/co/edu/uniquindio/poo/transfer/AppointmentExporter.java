@@ -0,0 +1,211 @@
+package co.edu.uniquindio.poo.transfer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Money;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+
+/**
+ * Exporta el libro de citas (id, paciente, médico, fecha, precio base y
+ * precio final) en streaming.
+ * <p>
+ * Recorre el índice temporal del almacén sin copiar la lista ni tomar sus
+ * cerrojos, de modo que las reservas concurrentes no se detienen; el filtro
+ * por fechas salta directamente al primer registro del rango. Las filas se
+ * codifican sobre un único búfer directo que se vacía en el canal al llenarse,
+ * así que el uso de memoria no depende del número de citas.
+ * <p>
+ * Formato binario (big-endian): int MAGIC, int versión y, por cita, el byte
+ * ENTRY seguido de long id, cadenas patientId, patientName, doctorId y
+ * doctorName, long segundos UTC, int nanos, long basePrice y long
+ * finalPrice en centavos, para que los importes lleguen exactos. Termina con el byte END y un long con el número de citas. Las
+ * cadenas se escriben como short longitud (-1 si es null) y bytes UTF-8.
+ */
+public class AppointmentExporter {
+    public static final int MAGIC = 0x434C4558;
+    public static final int FORMAT_VERSION = 3;
+    public static final byte END = 0;
+    public static final byte ENTRY = 1;
+
+    private static final String CSV_HEADER = "id,patientId,patientName,doctorId,doctorName,dateTime,basePrice,finalPrice\n";
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ClinicDataStore store;
+
+    public AppointmentExporter(ClinicDataStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Exporta a un archivo, reemplazándolo si ya existe.
+     */
+    public ExportReport exportTo(Path file, ExportFormat format, LocalDateTime from, LocalDateTime to)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            return export(channel, format, from, to);
+        }
+    }
+
+    /** Exporta todas las citas en orden cronológico. */
+    public ExportReport export(WritableByteChannel channel, ExportFormat format) throws IOException {
+        return export(channel, format, LocalDateTime.MIN, LocalDateTime.MAX);
+    }
+
+    /**
+     * Exporta las citas con fecha en [from, to) en orden cronológico. El canal
+     * no se cierra.
+     */
+    public ExportReport export(WritableByteChannel channel, ExportFormat format, LocalDateTime from,
+            LocalDateTime to) throws IOException {
+        long start = System.nanoTime();
+        Sink sink = new Sink(channel);
+        long rows = switch (format) {
+            case CSV -> writeCsv(sink, from, to);
+            case BINARY -> writeBinary(sink, from, to);
+        };
+        sink.flush();
+        return new ExportReport(rows, sink.written, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    private long writeCsv(Sink sink, LocalDateTime from, LocalDateTime to) throws IOException {
+        StringBuilder line = new StringBuilder(256);
+        line.append(CSV_HEADER);
+        long rows = 0;
+        for (Appointment a : store.scanAppointments(from, to)) {
+            line.append(a.getId()).append(',');
+            appendCsv(line, a.getPatient().getId()).append(',');
+            appendCsv(line, a.getPatient().getName()).append(',');
+            appendCsv(line, a.getDoctor().getId()).append(',');
+            appendCsv(line, a.getDoctor().getName()).append(',');
+            line.append(a.getDateTime()).append(',')
+                    .append(a.getBasePrice()).append(',')
+                    .append(a.getFinalPrice()).append('\n');
+            rows++;
+            if (line.length() >= BUFFER_SIZE / 4) {
+                sink.writeText(line);
+                line.setLength(0);
+            }
+        }
+        sink.writeText(line);
+        return rows;
+    }
+
+    private static StringBuilder appendCsv(StringBuilder line, String value) {
+        if (value == null) {
+            return line;
+        }
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            return line.append(value);
+        }
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                line.append('"');
+            }
+            line.append(c);
+        }
+        return line.append('"');
+    }
+
+    private long writeBinary(Sink sink, LocalDateTime from, LocalDateTime to) throws IOException {
+        sink.reserve(8).putInt(MAGIC).putInt(FORMAT_VERSION);
+        long rows = 0;
+        for (Appointment a : store.scanAppointments(from, to)) {
+            sink.reserve(9).put(ENTRY).putLong(a.getId());
+            sink.writeString(a.getPatient().getId());
+            sink.writeString(a.getPatient().getName());
+            sink.writeString(a.getDoctor().getId());
+            sink.writeString(a.getDoctor().getName());
+            LocalDateTime dateTime = a.getDateTime();
+            sink.reserve(28)
+                    .putLong(dateTime.toEpochSecond(ZoneOffset.UTC))
+                    .putInt(dateTime.getNano())
+                    .putLong(Money.toCents(a.getBasePrice()))
+                    .putLong(Money.toCents(a.getFinalPrice()));
+            rows++;
+        }
+        sink.reserve(9).put(END).putLong(rows);
+        return rows;
+    }
+
+    /**
+     * Búfer directo que se vacía en el canal cuando no cabe lo siguiente.
+     */
+    private static class Sink {
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final CharsetEncoder encoder;
+        private long written;
+
+        Sink(WritableByteChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            this.encoder = StandardCharsets.UTF_8.newEncoder();
+        }
+
+        ByteBuffer reserve(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+            return buffer;
+        }
+
+        void writeString(String value) throws IOException {
+            if (value == null) {
+                reserve(2).putShort((short) -1);
+                return;
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length > Short.MAX_VALUE) {
+                throw new IllegalArgumentException("Texto demasiado largo para exportar.");
+            }
+            reserve(2 + bytes.length).putShort((short) bytes.length).put(bytes);
+        }
+
+        void writeText(CharSequence text) throws IOException {
+            CharBuffer chars = CharBuffer.wrap(text);
+            encoder.reset();
+            while (true) {
+                CoderResult result = encoder.encode(chars, buffer, true);
+                if (result.isOverflow()) {
+                    flush();
+                } else if (result.isUnderflow()) {
+                    break;
+                } else {
+                    result.throwException();
+                }
+            }
+            while (encoder.flush(buffer).isOverflow()) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                written += channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
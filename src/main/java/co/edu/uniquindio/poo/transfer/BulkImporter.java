@@ -0,0 +1,148 @@
+package co.edu.uniquindio.poo.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.EntityType;
+
+/**
+ * Importación masiva de pacientes, médicos y citas desde CSV o JSON.
+ * <p>
+ * El archivo se lee en streaming y las filas se insertan en lotes de
+ * {@code batchSize} dentro de {@link ClinicDataStore#batch}, así que los
+ * observadores reciben una notificación por lote y en memoria nunca hay más
+ * de un lote. Las filas inválidas se rechazan sin detener la importación.
+ * <p>
+ * Campos por tipo de registro:
+ * <ul>
+ * <li>Paciente: id, name, phone, historyNumber, address</li>
+ * <li>Médico: id, name, phone, specialty, licenseNumber</li>
+ * <li>Cita: patientId, doctorId, dateTime (ISO-8601), durationMinutes, basePrice, strategy</li>
+ * </ul>
+ */
+public class BulkImporter {
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    public static final int MAX_REPORTED_REJECTIONS = 100;
+
+    private final ClinicDataStore store;
+    private final int batchSize;
+    private final RecordMapper mapper;
+
+    public BulkImporter(ClinicDataStore store) {
+        this(store, DEFAULT_BATCH_SIZE);
+    }
+
+    public BulkImporter(ClinicDataStore store, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("El tamaño de lote debe ser positivo.");
+        }
+        this.store = store;
+        this.batchSize = batchSize;
+        this.mapper = new RecordMapper(store);
+    }
+
+    /**
+     * Importa un archivo detectando el formato por su extensión.
+     */
+    public ImportReport importFile(Path file, EntityType type) throws IOException {
+        ImportFormat format = ImportFormat.fromFileName(file);
+        try (Reader source = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importRecords(source, format, type);
+        }
+    }
+
+    public ImportReport importPatients(Reader source, ImportFormat format) throws IOException {
+        return importRecords(source, format, EntityType.PATIENT);
+    }
+
+    public ImportReport importDoctors(Reader source, ImportFormat format) throws IOException {
+        return importRecords(source, format, EntityType.DOCTOR);
+    }
+
+    public ImportReport importAppointments(Reader source, ImportFormat format) throws IOException {
+        return importRecords(source, format, EntityType.APPOINTMENT);
+    }
+
+    /**
+     * Importa todos los registros de la fuente. Un error de sintaxis que impide
+     * seguir leyendo se propaga como IOException; los lotes ya insertados se conservan.
+     */
+    public ImportReport importRecords(Reader source, ImportFormat format, EntityType type) throws IOException {
+        long start = System.nanoTime();
+        Progress progress = new Progress();
+        List<Map<String, String>> rows = new ArrayList<>(batchSize);
+        List<Long> lines = new ArrayList<>(batchSize);
+
+        RecordReader reader = RecordReader.open(source, format);
+        while (true) {
+            Map<String, String> row;
+            try {
+                row = reader.read();
+            } catch (MalformedRecordException e) {
+                progress.reject(reader.getLine(), e.getMessage());
+                continue;
+            }
+            if (row == null) {
+                break;
+            }
+            rows.add(row);
+            lines.add(reader.getLine());
+            if (rows.size() == batchSize) {
+                insertBatch(rows, lines, type, progress);
+            }
+        }
+        insertBatch(rows, lines, type, progress);
+
+        return new ImportReport(progress.accepted, progress.rejected, progress.batches,
+                Duration.ofNanos(System.nanoTime() - start), List.copyOf(progress.rejections));
+    }
+
+    private void insertBatch(List<Map<String, String>> rows, List<Long> lines, EntityType type, Progress progress) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        store.batch(() -> {
+            for (int i = 0; i < rows.size(); i++) {
+                try {
+                    insert(rows.get(i), type);
+                    progress.accepted++;
+                } catch (IllegalArgumentException e) {
+                    progress.reject(lines.get(i), e.getMessage());
+                }
+            }
+        });
+        progress.batches++;
+        rows.clear();
+        lines.clear();
+    }
+
+    private void insert(Map<String, String> row, EntityType type) {
+        switch (type) {
+            case PATIENT -> store.addPatient(mapper.toPatient(row));
+            case DOCTOR -> store.addDoctor(mapper.toDoctor(row));
+            case APPOINTMENT -> store.addAppointment(mapper.toAppointment(row));
+        }
+    }
+
+    private static class Progress {
+        long accepted;
+        long rejected;
+        int batches;
+        final List<ImportReport.RejectedRow> rejections = new ArrayList<>();
+
+        void reject(long line, String reason) {
+            rejected++;
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(new ImportReport.RejectedRow(line, reason));
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package co.edu.uniquindio.poo.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Lectura carácter a carácter con un búfer propio y conteo de líneas.
+ */
+class CharCursor {
+    static final int EOF = -1;
+
+    private final Reader source;
+    private final char[] buffer;
+    private int position;
+    private int limit;
+    private long line;
+
+    CharCursor(Reader source) {
+        this.source = source;
+        this.buffer = new char[1 << 14];
+        this.line = 1;
+    }
+
+    int peek() throws IOException {
+        if (position == limit) {
+            limit = source.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position];
+    }
+
+    int next() throws IOException {
+        int c = peek();
+        if (c != EOF) {
+            position++;
+            if (c == '\n') {
+                line++;
+            }
+        }
+        return c;
+    }
+
+    long getLine() {
+        return line;
+    }
+
+    void close() throws IOException {
+        source.close();
+    }
+}
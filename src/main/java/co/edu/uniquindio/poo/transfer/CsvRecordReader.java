@@ -0,0 +1,97 @@
+package co.edu.uniquindio.poo.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * CSV (RFC 4180): la primera línea es el encabezado, los campos pueden ir entre
+ * comillas con comas, saltos de línea y comillas dobladas en su interior.
+ */
+class CsvRecordReader implements RecordReader {
+    private final CharCursor cursor;
+    private List<String> header;
+    private long recordLine;
+
+    CsvRecordReader(Reader source) {
+        this.cursor = new CharCursor(source);
+    }
+
+    @Override
+    public Map<String, String> read() throws IOException {
+        if (header == null) {
+            header = readFields();
+            if (header == null) {
+                return null;
+            }
+            header.replaceAll(String::trim);
+        }
+        List<String> fields;
+        do {
+            recordLine = cursor.getLine();
+            fields = readFields();
+            if (fields == null) {
+                return null;
+            }
+        } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+        if (fields.size() != header.size()) {
+            throw new MalformedRecordException("Se esperaban " + header.size() + " campos y hay " + fields.size());
+        }
+        Map<String, String> record = new HashMap<>();
+        for (int i = 0; i < fields.size(); i++) {
+            record.put(header.get(i), fields.get(i));
+        }
+        return record;
+    }
+
+    private List<String> readFields() throws IOException {
+        if (cursor.peek() == CharCursor.EOF) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            int c = cursor.next();
+            if (quoted) {
+                if (c == CharCursor.EOF) {
+                    throw new IOException("Comillas sin cerrar en la línea " + recordLine);
+                }
+                if (c == '"') {
+                    if (cursor.peek() == '"') {
+                        cursor.next();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == CharCursor.EOF) {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+    }
+
+    @Override
+    public long getLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cursor.close();
+    }
+}
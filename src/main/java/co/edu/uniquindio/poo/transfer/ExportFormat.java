@@ -0,0 +1,11 @@
+package co.edu.uniquindio.poo.transfer;
+
+/**
+ * Formatos de salida del libro de citas.
+ */
+public enum ExportFormat {
+    /** CSV UTF-8 con encabezado. */
+    CSV,
+    /** Binario compacto: cabecera, una entrada por cita y el total al final. */
+    BINARY
+}
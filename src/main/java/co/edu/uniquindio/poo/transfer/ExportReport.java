@@ -0,0 +1,20 @@
+package co.edu.uniquindio.poo.transfer;
+
+import java.time.Duration;
+
+/**
+ * Resultado de una exportación: filas y bytes escritos y tiempo empleado.
+ */
+public record ExportReport(long rows, long bytes, Duration elapsed) {
+
+    public double rowsPerSecond() {
+        long nanos = Math.max(1, elapsed.toNanos());
+        return rows * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d citas, %d bytes en %d ms (%.0f filas/s)",
+                rows, bytes, elapsed.toMillis(), rowsPerSecond());
+    }
+}
@@ -0,0 +1,24 @@
+package co.edu.uniquindio.poo.transfer;
+
+import java.nio.file.Path;
+
+/**
+ * Formatos de archivo aceptados por la importación masiva.
+ */
+public enum ImportFormat {
+    /** CSV con encabezado en la primera línea. */
+    CSV,
+    /** Arreglo JSON de objetos planos, o un objeto por línea. */
+    JSON;
+
+    public static ImportFormat fromFileName(Path file) {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".json") || name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSON;
+        }
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        throw new IllegalArgumentException("Formato de archivo no soportado: " + file.getFileName());
+    }
+}
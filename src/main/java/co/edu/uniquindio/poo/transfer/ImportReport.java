@@ -0,0 +1,32 @@
+package co.edu.uniquindio.poo.transfer;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Resultado de una importación masiva. Solo se conservan los primeros
+ * {@link BulkImporter#MAX_REPORTED_REJECTIONS} rechazos con su motivo.
+ */
+public record ImportReport(long accepted, long rejected, int batches, Duration elapsed,
+        List<RejectedRow> rejections) {
+
+    /** Fila rechazada: línea del archivo donde empieza y motivo. */
+    public record RejectedRow(long line, String reason) {
+    }
+
+    public long total() {
+        return accepted + rejected;
+    }
+
+    /** Filas procesadas por segundo, aceptadas o no. */
+    public double rowsPerSecond() {
+        long nanos = Math.max(1, elapsed.toNanos());
+        return total() * 1_000_000_000.0 / nanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d importados, %d rechazados en %d ms (%.0f filas/s)",
+                accepted, rejected, elapsed.toMillis(), rowsPerSecond());
+    }
+}
@@ -0,0 +1,164 @@
+package co.edu.uniquindio.poo.transfer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * JSON en streaming: acepta un arreglo de objetos planos o una secuencia de
+ * objetos (uno por línea). Los números y booleanos se entregan como texto y
+ * null como valor ausente.
+ */
+class JsonRecordReader implements RecordReader {
+    private final CharCursor cursor;
+    private boolean started;
+    private boolean inArray;
+    private long recordLine;
+
+    JsonRecordReader(Reader source) {
+        this.cursor = new CharCursor(source);
+    }
+
+    @Override
+    public Map<String, String> read() throws IOException {
+        int c = skipWhitespace();
+        if (!started) {
+            started = true;
+            if (c == '[') {
+                inArray = true;
+                cursor.next();
+                c = skipWhitespace();
+                if (c == ']') {
+                    cursor.next();
+                    return null;
+                }
+            }
+        } else if (inArray) {
+            if (c == ']') {
+                cursor.next();
+                return null;
+            }
+            expect(',');
+            c = skipWhitespace();
+        }
+        if (c == CharCursor.EOF) {
+            if (inArray) {
+                throw error("Arreglo sin cerrar");
+            }
+            return null;
+        }
+        recordLine = cursor.getLine();
+        return readObject();
+    }
+
+    private Map<String, String> readObject() throws IOException {
+        expect('{');
+        Map<String, String> record = new HashMap<>();
+        if (skipWhitespace() == '}') {
+            cursor.next();
+            return record;
+        }
+        while (true) {
+            skipWhitespace();
+            String key = readString();
+            skipWhitespace();
+            expect(':');
+            record.put(key, readValue());
+            int c = skipWhitespace();
+            cursor.next();
+            if (c == '}') {
+                return record;
+            }
+            if (c != ',') {
+                throw error("Se esperaba ',' o '}'");
+            }
+        }
+    }
+
+    private String readValue() throws IOException {
+        int c = skipWhitespace();
+        if (c == '"') {
+            return readString();
+        }
+        if (c == '{' || c == '[') {
+            throw error("Los registros deben ser objetos planos");
+        }
+        StringBuilder literal = new StringBuilder();
+        while ((c = cursor.peek()) != CharCursor.EOF && c != ',' && c != '}' && !Character.isWhitespace(c)) {
+            literal.append((char) cursor.next());
+        }
+        String text = literal.toString();
+        if (text.isEmpty()) {
+            throw error("Valor vacío");
+        }
+        return text.equals("null") ? null : text;
+    }
+
+    private String readString() throws IOException {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            int c = cursor.next();
+            if (c == CharCursor.EOF) {
+                throw error("Cadena sin cerrar");
+            }
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append((char) c);
+                continue;
+            }
+            int escaped = cursor.next();
+            switch (escaped) {
+                case '"', '\\', '/' -> value.append((char) escaped);
+                case 'b' -> value.append('\b');
+                case 'f' -> value.append('\f');
+                case 'n' -> value.append('\n');
+                case 'r' -> value.append('\r');
+                case 't' -> value.append('\t');
+                case 'u' -> {
+                    int code = 0;
+                    for (int i = 0; i < 4; i++) {
+                        int digit = Character.digit(cursor.next(), 16);
+                        if (digit < 0) {
+                            throw error("Secuencia \\u inválida");
+                        }
+                        code = code * 16 + digit;
+                    }
+                    value.append((char) code);
+                }
+                default -> throw error("Escape inválido");
+            }
+        }
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = cursor.peek()) != CharCursor.EOF && Character.isWhitespace(c)) {
+            cursor.next();
+        }
+        return c;
+    }
+
+    private void expect(char expected) throws IOException {
+        if (cursor.next() != expected) {
+            throw error("Se esperaba '" + expected + "'");
+        }
+    }
+
+    private IOException error(String message) {
+        return new IOException(message + " en la línea " + cursor.getLine());
+    }
+
+    @Override
+    public long getLine() {
+        return recordLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        cursor.close();
+    }
+}
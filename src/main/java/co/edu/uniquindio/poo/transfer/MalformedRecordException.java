@@ -0,0 +1,11 @@
+package co.edu.uniquindio.poo.transfer;
+
+/**
+ * Registro que no se puede interpretar pero que no impide seguir leyendo el archivo.
+ */
+public class MalformedRecordException extends IllegalArgumentException {
+
+    public MalformedRecordException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,119 @@
+package co.edu.uniquindio.poo.transfer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Money;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.DoctorFactory;
+import co.edu.uniquindio.poo.services.PatientFactory;
+import co.edu.uniquindio.poo.services.PersonFactory;
+import co.edu.uniquindio.poo.services.PriceStrategy;
+import co.edu.uniquindio.poo.services.PriceStrategyRegistry;
+
+/**
+ * Convierte registros campo → valor en entidades, con los campos que
+ * documenta {@link BulkImporter}. Lo comparten la importación y el servicio
+ * HTTP, así que un registro se valida igual venga de un archivo o de una petición.
+ */
+public class RecordMapper {
+    private final ClinicDataStore store;
+    private final PersonFactory patientFactory;
+    private final PersonFactory doctorFactory;
+
+    public RecordMapper(ClinicDataStore store) {
+        this.store = store;
+        this.patientFactory = new PatientFactory(store.getDictionary());
+        this.doctorFactory = new DoctorFactory(store.getDictionary());
+    }
+
+    /** @throws IllegalArgumentException si falta un campo obligatorio. */
+    public Patient toPatient(Map<String, String> row) {
+        return (Patient) patientFactory.createPerson(required(row, "id"), required(row, "name"),
+                required(row, "phone"), optionals(row, "historyNumber", "address"));
+    }
+
+    /** @throws IllegalArgumentException si falta un campo obligatorio. */
+    public Doctor toDoctor(Map<String, String> row) {
+        return (Doctor) doctorFactory.createPerson(required(row, "id"), required(row, "name"),
+                required(row, "phone"), optionals(row, "specialty", "licenseNumber"));
+    }
+
+    /**
+     * Cita nueva con paciente y médico ya registrados en el almacén.
+     * @throws IllegalArgumentException si falta un campo o un valor es inválido.
+     */
+    public Appointment toAppointment(Map<String, String> row) {
+        String patientId = required(row, "patientId");
+        String doctorId = required(row, "doctorId");
+        Patient patient = store.findPatient(patientId)
+                .orElseThrow(() -> new IllegalArgumentException("El paciente " + patientId + " no está registrado."));
+        Doctor doctor = store.findDoctor(doctorId)
+                .orElseThrow(() -> new IllegalArgumentException("El médico " + doctorId + " no está registrado."));
+        LocalDateTime dateTime;
+        try {
+            dateTime = LocalDateTime.parse(required(row, "dateTime"));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Fecha inválida: " + row.get("dateTime"));
+        }
+        String duration = row.get("durationMinutes");
+        int durationMinutes = isBlank(duration) ? Appointment.DEFAULT_DURATION_MINUTES : parseInt(duration, "durationMinutes");
+        BigDecimal basePrice = parseMoney(required(row, "basePrice"), "basePrice");
+        return new Appointment(patient, doctor, dateTime, durationMinutes, basePrice, toStrategy(row.get("strategy")));
+    }
+
+    /** Estrategia por nombre; la estándar si no se indica. */
+    public static PriceStrategy toStrategy(String name) {
+        return isBlank(name) ? PriceStrategyRegistry.STANDARD : PriceStrategyRegistry.byName(name);
+    }
+
+    private static String required(Map<String, String> row, String field) {
+        String value = row.get(field);
+        if (isBlank(value)) {
+            throw new IllegalArgumentException("Falta el campo " + field + ".");
+        }
+        return value.trim();
+    }
+
+    /**
+     * Datos adicionales para la fábrica. Se omiten los campos finales vacíos
+     * para que la fábrica aplique sus valores por defecto.
+     */
+    private static String[] optionals(Map<String, String> row, String... fields) {
+        int length = fields.length;
+        while (length > 0 && isBlank(row.get(fields[length - 1]))) {
+            length--;
+        }
+        String[] values = new String[length];
+        for (int i = 0; i < length; i++) {
+            String value = row.get(fields[i]);
+            values[i] = value == null ? "" : value.trim();
+        }
+        return values;
+    }
+
+    private static int parseInt(String value, String field) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor numérico inválido en " + field + ": " + value);
+        }
+    }
+
+    private static BigDecimal parseMoney(String value, String field) {
+        try {
+            return Money.of(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor numérico inválido en " + field + ": " + value);
+        }
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,28 @@
+package co.edu.uniquindio.poo.transfer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Map;
+
+/**
+ * Lee registros de un archivo de intercambio de uno en uno, sin cargarlo
+ * completo en memoria. Cada registro es un mapa campo → valor.
+ */
+public interface RecordReader extends Closeable {
+
+    /**
+     * @return el siguiente registro o null al llegar al final.
+     */
+    Map<String, String> read() throws IOException;
+
+    /** Línea del archivo en la que empieza el último registro leído. */
+    long getLine();
+
+    static RecordReader open(Reader source, ImportFormat format) {
+        return switch (format) {
+            case CSV -> new CsvRecordReader(source);
+            case JSON -> new JsonRecordReader(source);
+        };
+    }
+}
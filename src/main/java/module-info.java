@@ -2,8 +2,13 @@ module co.edu.uniquindio.poo {
     requires javafx.controls;
     requires javafx.graphics;
     requires javafx.fxml;
+    requires java.logging;
+    requires jdk.httpserver;
     exports co.edu.uniquindio.poo;
     exports co.edu.uniquindio.poo.controllers;
     exports co.edu.uniquindio.poo.model;
     exports co.edu.uniquindio.poo.services;
+    exports co.edu.uniquindio.poo.persistence;
+    exports co.edu.uniquindio.poo.transfer;
+    exports co.edu.uniquindio.poo.api;
 }
\ No newline at end of file
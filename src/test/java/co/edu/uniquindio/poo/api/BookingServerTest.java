@@ -0,0 +1,107 @@
+package co.edu.uniquindio.poo.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+
+/**
+ * Pruebas del servicio HTTP de reservas contra un puerto libre local.
+ */
+public class BookingServerTest {
+    private static final Logger LOG = Logger.getLogger(BookingServerTest.class.getName());
+
+    private record Reply(int status, String body) {
+    }
+
+    private static Reply call(int port, String method, String path, String body) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + path).openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        String text = in == null ? "" : new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        connection.disconnect();
+        return new Reply(status, text);
+    }
+
+    @Test
+    public void shouldBookAndListAgendaOverHttp() throws IOException {
+        LOG.info("Iniciado test shouldBookAndListAgendaOverHttp");
+        ClinicDataStore store = new ClinicDataStore();
+        try (BookingServer server = BookingServer.start(store, new InetSocketAddress("localhost", 0))) {
+            int port = server.getPort();
+            assertEquals(201, call(port, "POST", "/patients",
+                    "{\"id\":\"P1\",\"name\":\"Ana Gómez\",\"phone\":\"555-1234\",\"historyNumber\":\"H1\"}").status());
+            assertEquals(201, call(port, "POST", "/doctors",
+                    "{\"id\":\"D1\",\"name\":\"Luis Pérez\",\"phone\":\"555-9876\",\"specialty\":\"Pediatría\"}").status());
+
+            Reply booked = call(port, "POST", "/appointments", "{\"patientId\":\"P1\",\"doctorId\":\"D1\","
+                    + "\"dateTime\":\"2030-03-01T09:00\",\"basePrice\":\"100\",\"strategy\":\"especialista\"}");
+            assertEquals(201, booked.status());
+            assertTrue(booked.body().contains("\"finalPrice\":125.00"));
+            assertEquals(1, store.scanAppointments().size());
+
+            Reply agenda = call(port, "GET", "/doctors/D1/agenda?from=2030-03-01T00:00&to=2030-03-02T00:00", null);
+            assertEquals(200, agenda.status());
+            assertTrue(agenda.body().contains("\"dateTime\":\"2030-03-01T09:00\""));
+
+            Reply slot = call(port, "GET", "/doctors/D1/free-slot?after=2030-03-01T09:00&duration=30", null);
+            assertEquals("{\"dateTime\":\"2030-03-01T09:30\"}", slot.body());
+
+            Reply search = call(port, "GET", "/patients?q=gomez", null);
+            assertTrue(search.body().contains("\"id\":\"P1\""));
+            LOG.info("Finalizando test shouldBookAndListAgendaOverHttp");
+        }
+    }
+
+    @Test
+    public void shouldMapFailuresToStatusCodes() throws IOException {
+        LOG.info("Iniciado test shouldMapFailuresToStatusCodes");
+        ClinicDataStore store = new ClinicDataStore();
+        try (BookingServer server = BookingServer.start(store, new InetSocketAddress("localhost", 0))) {
+            int port = server.getPort();
+            call(port, "POST", "/patients", "{\"id\":\"P1\",\"name\":\"Ana\",\"phone\":\"555\"}");
+            call(port, "POST", "/patients", "{\"id\":\"P2\",\"name\":\"Eva\",\"phone\":\"556\"}");
+            call(port, "POST", "/doctors", "{\"id\":\"D1\",\"name\":\"Luis\",\"phone\":\"557\"}");
+            String booking = "\"doctorId\":\"D1\",\"dateTime\":\"2030-03-01T09:00\",\"basePrice\":\"80\"}";
+            assertEquals(201, call(port, "POST", "/appointments", "{\"patientId\":\"P1\"," + booking).status());
+
+            Reply overlap = call(port, "POST", "/appointments", "{\"patientId\":\"P2\"," + booking);
+            assertEquals(409, overlap.status());
+            assertTrue(overlap.body().startsWith("{\"error\":"));
+            assertEquals(409, call(port, "POST", "/patients", "{\"id\":\"P1\",\"name\":\"Otra\",\"phone\":\"1\"}").status());
+            assertEquals(400, call(port, "POST", "/patients", "{\"id\":\"P3\"}").status());
+            assertEquals(400, call(port, "POST", "/patients", "{\"id\":").status());
+            assertEquals(400, call(port, "GET", "/doctors/D1/agenda?from=ayer", null).status());
+            assertEquals(400, call(port, "GET", "/doctors/D1/free-slot?duration=0", null).status());
+            assertEquals(400, call(port, "GET", "/doctors/D1/free-slot?duration=-30", null).status());
+            assertEquals(404, call(port, "GET", "/patients/P9", null).status());
+            assertEquals(404, call(port, "GET", "/appointments/999999", null).status());
+            assertEquals(405, call(port, "DELETE", "/patients", null).status());
+
+            assertEquals(204, call(port, "DELETE", "/patients/P1", null).status());
+            assertFalse(store.findPatient("P1").isPresent());
+            assertTrue(store.scanAppointments().isEmpty());
+            LOG.info("Finalizando test shouldMapFailuresToStatusCodes");
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package co.edu.uniquindio.poo.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.BlockIdGenerator;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.IdBlockSource;
+import co.edu.uniquindio.poo.services.IdGenerator;
+import co.edu.uniquindio.poo.services.StandardPriceStrategy;
+
+/**
+ * Pruebas de fotos del almacén con reproducción de la cola del diario.
+ */
+public class ClinicPersistenceTest {
+    private static final Logger LOG = Logger.getLogger(ClinicPersistenceTest.class.getName());
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    private static Patient patient(String id) {
+        return new Patient.Builder(id, "Paciente " + id, "555-0000", "H" + id).build();
+    }
+
+    private static Doctor doctor(String id) {
+        return new Doctor(id, "Médico " + id, "555-1111", "Cardiología", "L" + id);
+    }
+
+    private static Set<String> contents(ClinicDataStore store) {
+        Set<String> rows = new TreeSet<>();
+        store.scanPatients().forEach(p -> rows.add(p.getId() + "|" + p.getName() + "|" + p.getAddress()));
+        store.scanDoctors().forEach(d -> rows.add(d.getId() + "|" + d.getSpecialty()));
+        store.scanAppointments().forEach(a -> rows.add(a.getId() + "|" + a.getPatient().getId() + "|"
+                + a.getDoctor().getId() + "|" + a.getDateTime() + "|" + a.getFinalPrice()));
+        return rows;
+    }
+
+    @Test
+    public void shouldRestoreSnapshotPlusJournalTail() throws IOException {
+        LOG.info("Iniciado test shouldRestoreSnapshotPlusJournalTail");
+        ClinicDataStore original = new ClinicDataStore();
+        try (ClinicPersistence persistence = ClinicPersistence.open(original, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            for (int i = 0; i < 10; i++) {
+                original.addPatient(patient("P" + i));
+            }
+            original.addDoctor(doctor("D1"));
+            original.addAppointment(new Appointment(original.findPatient("P1").orElseThrow(),
+                    original.findDoctor("D1").orElseThrow(), BASE, 40.0, new StandardPriceStrategy()));
+            persistence.snapshot();
+
+            original.removePatient("P1");
+            original.editPatient("P2", new Patient.Builder("P2", "Editado", "1", "H").address("Calle 2").build());
+            original.addPatient(patient("P10"));
+        }
+        long journalSize = Files.size(dir.resolve("journal.log"));
+
+        ClinicDataStore restored = new ClinicDataStore();
+        try (ClinicPersistence persistence = ClinicPersistence.open(restored, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            assertEquals(contents(original), contents(restored));
+            assertFalse(restored.findPatient("P1").isPresent());
+            assertEquals(original.getVersion(), restored.getVersion());
+        }
+        assertEquals(journalSize, Files.size(dir.resolve("journal.log")));
+        LOG.info("Finalizando test shouldRestoreSnapshotPlusJournalTail");
+    }
+
+    @Test
+    public void shouldSnapshotWhileMutationsContinue() throws Exception {
+        LOG.info("Iniciado test shouldSnapshotWhileMutationsContinue");
+        ClinicDataStore original = new ClinicDataStore();
+        for (int i = 0; i < 50; i++) {
+            original.addDoctor(doctor("D" + i));
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (ClinicPersistence persistence = ClinicPersistence.open(original, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            Thread writer = new Thread(() -> {
+                int i = 0;
+                while (running.get()) {
+                    Patient p = patient("P" + i);
+                    original.addPatient(p);
+                    original.addAppointment(new Appointment(p, original.findDoctor("D" + (i % 50)).orElseThrow(),
+                            BASE.plusHours(i), 30.0, new StandardPriceStrategy()));
+                    if (i % 3 == 0) {
+                        original.removePatient("P" + (i / 2));
+                    }
+                    i++;
+                }
+            });
+            writer.start();
+            for (int s = 0; s < 5; s++) {
+                Thread.sleep(20);
+                persistence.snapshot();
+            }
+            running.set(false);
+            writer.join();
+        }
+
+        ClinicDataStore restored = new ClinicDataStore();
+        try (ClinicPersistence persistence = ClinicPersistence.open(restored, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            assertEquals(contents(original), contents(restored));
+        }
+        LOG.info("Finalizando test shouldSnapshotWhileMutationsContinue");
+    }
+
+    /**
+     * Un lote une el alta y la edición del paciente en un solo cambio con la
+     * versión de la edición, posterior a la de la cita que depende del alta.
+     */
+    @Test
+    public void shouldReopenWithAppointmentsBookedInBatches() throws IOException {
+        LOG.info("Iniciado test shouldReopenWithAppointmentsBookedInBatches");
+        ClinicDataStore original = new ClinicDataStore();
+        try (ClinicPersistence persistence = ClinicPersistence.open(original, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            original.addDoctor(doctor("D1"));
+            original.addPatient(patient("P1"));
+            original.addAppointment(new Appointment(original.findPatient("P1").orElseThrow(),
+                    original.findDoctor("D1").orElseThrow(), BASE, 40.0, new StandardPriceStrategy()));
+            original.batch(() -> {
+                original.addPatient(patient("P2"));
+                original.addAppointment(new Appointment(original.findPatient("P2").orElseThrow(),
+                        original.findDoctor("D1").orElseThrow(), BASE.plusHours(1), 40.0,
+                        new StandardPriceStrategy()));
+                original.editPatient("P2", new Patient.Builder("P2", "Editado", "1", "H").build());
+            });
+            // Dos ediciones unidas: queda el estado de la última
+            original.batch(() -> {
+                original.editPatient("P1", new Patient.Builder("P1", "Primera", "1", "H").build());
+                original.editPatient("P1", new Patient.Builder("P1", "Segunda", "1", "H").build());
+            });
+        }
+        assertEquals(2, original.scanAppointments().size());
+
+        ClinicDataStore restored = new ClinicDataStore();
+        try (ClinicPersistence persistence = ClinicPersistence.open(restored, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            assertEquals(contents(original), contents(restored));
+            assertEquals(2, restored.scanAppointments().size());
+            assertEquals("Editado", restored.findPatient("P2").orElseThrow().getName());
+            assertEquals(original.getVersion(), restored.getVersion());
+        }
+        LOG.info("Finalizando test shouldReopenWithAppointmentsBookedInBatches");
+    }
+
+    @Test
+    public void shouldKeepArchivedAppointmentsAcrossRestart() throws IOException {
+        LOG.info("Iniciado test shouldKeepArchivedAppointmentsAcrossRestart");
+        ClinicDataStore original = new ClinicDataStore();
+        try (ClinicPersistence persistence = ClinicPersistence.open(original, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            original.addPatient(patient("P1"));
+            original.addDoctor(doctor("D1"));
+            for (int i = 0; i < 10; i++) {
+                original.addAppointment(new Appointment(original.findPatient("P1").orElseThrow(),
+                        original.findDoctor("D1").orElseThrow(), BASE.plusHours(i), 30, 40.0,
+                        new StandardPriceStrategy()));
+            }
+            assertEquals(4, original.archiveBefore(BASE.plusHours(4)));
+            persistence.snapshot();
+        }
+
+        ClinicDataStore restored = new ClinicDataStore();
+        try (ClinicPersistence persistence = ClinicPersistence.open(restored, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            assertEquals(contents(original), contents(restored));
+            assertEquals(4, restored.getArchive().size());
+            assertEquals(BASE.plusHours(4), restored.getArchiveHorizon());
+        }
+        LOG.info("Finalizando test shouldKeepArchivedAppointmentsAcrossRestart");
+    }
+
+    /**
+     * Abre una foto con varias agendas por la carga en bloque. El tiempo de
+     * apertura con un millón de citas se mide en SnapshotRestoreBenchmark.
+     */
+    @Test
+    public void shouldOpenStoreFromSnapshotInBulk() throws IOException {
+        LOG.info("Iniciado test shouldOpenStoreFromSnapshotInBulk");
+        int doctors = 50;
+        int appointmentsPerDoctor = 200;
+        ClinicDataStore original = new ClinicDataStore();
+        try (ClinicPersistence persistence = ClinicPersistence.open(original, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            for (int p = 0; p < 500; p++) {
+                original.addPatient(patient("P" + p));
+            }
+            for (int d = 0; d < doctors; d++) {
+                Doctor doctor = doctor("D" + d);
+                original.addDoctor(doctor);
+                for (int i = 0; i < appointmentsPerDoctor; i++) {
+                    Patient patient = original.findPatient("P" + ((d * 7 + i) % 500)).orElseThrow();
+                    original.addAppointment(new Appointment(patient, doctor, BASE.plusMinutes(30L * i), 50.0,
+                            new StandardPriceStrategy()));
+                }
+            }
+            persistence.snapshot();
+        }
+
+        ClinicDataStore restored = new ClinicDataStore();
+        try (ClinicPersistence persistence = ClinicPersistence.open(restored, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+            assertEquals(contents(original), contents(restored));
+            assertEquals(original.getVersion(), restored.getVersion());
+            assertEquals(appointmentsPerDoctor,
+                    restored.getDoctorAppointments("D7", LocalDateTime.MIN, LocalDateTime.MAX).size());
+            assertTrue(restored.findDoctorConflict("D7", BASE, 30).isPresent());
+        }
+        LOG.info("Finalizando test shouldOpenStoreFromSnapshotInBulk");
+    }
+
+    @Test
+    public void shouldNotReuseAppointmentIdsAfterRestart() throws IOException {
+        LOG.info("Iniciado test shouldNotReuseAppointmentIdsAfterRestart");
+        IdGenerator original = Appointment.getIdGenerator();
+        long firstId;
+        long secondId;
+        try {
+            // Cada apertura simula un proceso nuevo, con el contador en memoria desde 1
+            Appointment.setIdGenerator(new BlockIdGenerator(IdBlockSource.inMemory()));
+            ClinicDataStore store = new ClinicDataStore();
+            try (ClinicPersistence persistence = ClinicPersistence.open(store, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+                store.addPatient(patient("P1"));
+                store.addDoctor(doctor("D1"));
+                Appointment first = new Appointment(store.findPatient("P1").orElseThrow(),
+                        store.findDoctor("D1").orElseThrow(), BASE, 40.0, new StandardPriceStrategy());
+                store.addAppointment(first);
+                firstId = first.getId();
+            }
+            // Aunque el diario se pierda, el archivo de ids recuerda lo repartido
+            Files.delete(dir.resolve("journal.log"));
+
+            Appointment.setIdGenerator(new BlockIdGenerator(IdBlockSource.inMemory()));
+            ClinicDataStore restarted = new ClinicDataStore();
+            try (ClinicPersistence persistence = ClinicPersistence.open(restarted, dir, FsyncPolicy.NEVER,
+                    Duration.ZERO)) {
+                assertTrue(restarted.scanAppointments().isEmpty());
+                secondId = new Appointment(patient("P2"), doctor("D2"), BASE, 40.0, new StandardPriceStrategy()).getId();
+            }
+        } finally {
+            original.advancePast(Appointment.getIdGenerator().nextId());
+            Appointment.setIdGenerator(original);
+        }
+        assertTrue(secondId > firstId);
+        LOG.info("Finalizando test shouldNotReuseAppointmentIdsAfterRestart");
+    }
+
+    @Test
+    public void shouldAdvanceIdFileOnceWhenRestoring() throws IOException {
+        LOG.info("Iniciado test shouldAdvanceIdFileOnceWhenRestoring");
+        IdGenerator original = Appointment.getIdGenerator();
+        long maxId = 0;
+        long nextId;
+        try {
+            Appointment.setIdGenerator(new BlockIdGenerator(IdBlockSource.inMemory()));
+            ClinicDataStore store = new ClinicDataStore();
+            try (ClinicPersistence persistence = ClinicPersistence.open(store, dir, FsyncPolicy.NEVER, Duration.ZERO)) {
+                store.addPatient(patient("P1"));
+                store.addDoctor(doctor("D1"));
+                for (int i = 0; i < 500; i++) {
+                    Appointment appointment = new Appointment(store.findPatient("P1").orElseThrow(),
+                            store.findDoctor("D1").orElseThrow(), BASE.plusHours(i), 40.0,
+                            new StandardPriceStrategy());
+                    store.addAppointment(appointment);
+                    maxId = Math.max(maxId, appointment.getId());
+                }
+                persistence.snapshot();
+            }
+            // Directorio copiado sin su archivo de ids: cada cita restaurada sube el máximo
+            Files.delete(dir.resolve("appointment-ids.seq"));
+
+            Appointment.setIdGenerator(new BlockIdGenerator(IdBlockSource.inMemory()));
+            ClinicDataStore restarted = new ClinicDataStore();
+            try (ClinicPersistence persistence = ClinicPersistence.open(restarted, dir, FsyncPolicy.NEVER,
+                    Duration.ZERO)) {
+                assertEquals(500, restarted.scanAppointments().size());
+                assertEquals(1, persistence.getIdSource().getSyncCount());
+                nextId = new Appointment(patient("P2"), doctor("D2"), BASE, 40.0, new StandardPriceStrategy()).getId();
+            }
+        } finally {
+            original.advancePast(Appointment.getIdGenerator().nextId());
+            Appointment.setIdGenerator(original);
+        }
+        assertTrue(nextId > maxId);
+        LOG.info("Finalizando test shouldAdvanceIdFileOnceWhenRestoring");
+    }
+}
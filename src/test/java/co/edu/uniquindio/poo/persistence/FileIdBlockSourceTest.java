@@ -0,0 +1,76 @@
+package co.edu.uniquindio.poo.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import co.edu.uniquindio.poo.services.BlockIdGenerator;
+
+/**
+ * Pruebas de los rangos de ids persistidos en archivo.
+ */
+public class FileIdBlockSourceTest {
+    private static final Logger LOG = Logger.getLogger(FileIdBlockSourceTest.class.getName());
+
+    @TempDir
+    Path dir;
+
+    @Test
+    public void shouldGiveDisjointRangesToInstancesSharingTheFile() throws Exception {
+        LOG.info("Iniciado test shouldGiveDisjointRangesToInstancesSharingTheFile");
+        Path file = dir.resolve("ids.seq");
+        // Dos generadores sobre el mismo archivo, como dos procesos de la misma clínica
+        List<BlockIdGenerator> generators = List.of(new BlockIdGenerator(new FileIdBlockSource(file), 32),
+                new BlockIdGenerator(new FileIdBlockSource(file), 32));
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                BlockIdGenerator generator = generators.get(t % 2);
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        assertTrue(ids.add(generator.nextId()));
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(8000, ids.size());
+        long max = ids.stream().mapToLong(Long::longValue).max().orElseThrow();
+
+        // Un reinicio continúa después de todo lo reservado, aunque no se haya usado
+        FileIdBlockSource restarted = new FileIdBlockSource(file);
+        assertTrue(restarted.peek() > max);
+        assertTrue(new BlockIdGenerator(restarted).nextId() > max);
+        LOG.info("Finalizando test shouldGiveDisjointRangesToInstancesSharingTheFile");
+    }
+
+    @Test
+    public void shouldAdvancePastRestoredIds() {
+        LOG.info("Iniciado test shouldAdvancePastRestoredIds");
+        FileIdBlockSource source = new FileIdBlockSource(dir.resolve("ids.seq"));
+        assertEquals(1, source.peek());
+        source.advancePast(41);
+        assertEquals(42, source.reserve(8));
+        source.advancePast(10);
+        assertEquals(50, source.peek());
+        LOG.info("Finalizando test shouldAdvancePastRestoredIds");
+    }
+}
@@ -0,0 +1,281 @@
+package co.edu.uniquindio.poo.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ChangeType;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.DataChangeEvent;
+import co.edu.uniquindio.poo.services.EntityType;
+import co.edu.uniquindio.poo.services.PriceStrategy;
+import co.edu.uniquindio.poo.services.SpecialistPriceStrategy;
+import co.edu.uniquindio.poo.services.StandardPriceStrategy;
+
+/**
+ * Pruebas del diario de cambios y su reproducción.
+ */
+public class MutationJournalTest {
+    private static final Logger LOG = Logger.getLogger(MutationJournalTest.class.getName());
+
+    @TempDir
+    Path dir;
+
+    private static Patient patient(String id) {
+        return new Patient.Builder(id, "Paciente " + id, "555-0000", "H" + id).build();
+    }
+
+    private static Doctor doctor(String id) {
+        return new Doctor(id, "Médico " + id, "555-1111", "Cardiología", "L" + id);
+    }
+
+    @Test
+    public void shouldRebuildStoreFromJournal() throws IOException {
+        LOG.info("Iniciado test shouldRebuildStoreFromJournal");
+        Path file = dir.resolve("journal.log");
+        ClinicDataStore original = new ClinicDataStore();
+        LocalDateTime base = LocalDateTime.of(2030, 3, 1, 8, 0);
+        try (MutationJournal journal = MutationJournal.open(file, FsyncPolicy.ALWAYS, 0)) {
+            original.registerObserver(journal);
+            original.addPatient(patient("P1"));
+            original.addPatient(patient("P2"));
+            original.addDoctor(doctor("D1"));
+            original.addDoctor(doctor("D2"));
+            Patient p1 = original.findPatient("P1").orElseThrow();
+            Doctor d1 = original.findDoctor("D1").orElseThrow();
+            original.addAppointment(new Appointment(p1, d1, base, 45, 80.0, new SpecialistPriceStrategy()));
+            original.addAppointment(new Appointment(original.findPatient("P2").orElseThrow(),
+                    original.findDoctor("D2").orElseThrow(), base, 50.0, new StandardPriceStrategy()));
+            original.editPatient("P1", new Patient.Builder("P1", "Ana", "555-9", "H9").address("Calle 9").build());
+            original.removeDoctor("D2");
+        }
+
+        ClinicDataStore restored = new ClinicDataStore();
+        MutationJournal.ReplayResult result = MutationJournal.replay(file, restored);
+
+        assertEquals(0, result.skipped());
+        assertEquals(original.getVersion(), restored.getVersion());
+        assertEquals("Ana", restored.findPatient("P1").orElseThrow().getName());
+        assertEquals("Calle 9", restored.findPatient("P1").orElseThrow().getAddress());
+        assertFalse(restored.findDoctor("D2").isPresent());
+        assertEquals(1, restored.getAppointments().size());
+        Appointment appointment = restored.getAppointments().get(0);
+        assertEquals(original.getAppointments().get(0).getId(), appointment.getId());
+        assertEquals(45, appointment.getDurationMinutes());
+        assertEquals(new BigDecimal("100.00"), appointment.getFinalPrice());
+        assertEquals(base, appointment.getDateTime());
+        LOG.info("Finalizando test shouldRebuildStoreFromJournal");
+    }
+
+    @Test
+    public void shouldIgnoreTornTailAndKeepAppending() throws IOException {
+        LOG.info("Iniciado test shouldIgnoreTornTailAndKeepAppending");
+        Path file = dir.resolve("journal.log");
+        ClinicDataStore store = new ClinicDataStore();
+        try (MutationJournal journal = MutationJournal.open(file, FsyncPolicy.NEVER, 0)) {
+            store.registerObserver(journal);
+            store.addPatient(patient("P1"));
+        }
+        long goodSize = Files.size(file);
+        Files.write(file, new byte[] { 0, 0, 0, 40, 1, 2, 3 }, StandardOpenOption.APPEND);
+
+        ClinicDataStore restored = new ClinicDataStore();
+        MutationJournal.replay(file, restored);
+        assertEquals(goodSize, Files.size(file));
+
+        try (MutationJournal journal = MutationJournal.open(file, FsyncPolicy.NEVER, 0)) {
+            restored.registerObserver(journal);
+            restored.addPatient(patient("P2"));
+        }
+        ClinicDataStore again = new ClinicDataStore();
+        MutationJournal.replay(file, again);
+        assertEquals(2, again.getPatients().size());
+        LOG.info("Finalizando test shouldIgnoreTornTailAndKeepAppending");
+    }
+
+    @Test
+    public void shouldApplyRecordsInVersionOrder() throws IOException {
+        LOG.info("Iniciado test shouldApplyRecordsInVersionOrder");
+        Path file = dir.resolve("journal.log");
+        Patient p1 = patient("P1");
+        Patient p2 = patient("P2");
+        Doctor d1 = doctor("D1");
+        Appointment appointment = new Appointment(p2, d1, LocalDateTime.of(2030, 3, 1, 8, 0), 30, 50.0,
+                new StandardPriceStrategy());
+        try (MutationJournal journal = MutationJournal.open(file, FsyncPolicy.NEVER, 0)) {
+            // La baja (versión 2) llegó al diario antes que el alta (versión 1)
+            journal.update(new DataChangeEvent.Builder()
+                    .record(EntityType.PATIENT, ChangeType.REMOVED, "P1", p1, null, 2).build());
+            journal.update(new DataChangeEvent.Builder()
+                    .record(EntityType.PATIENT, ChangeType.ADDED, "P1", null, p1, 1).build());
+            // La cita llegó antes que su paciente y su médico
+            journal.update(new DataChangeEvent.Builder()
+                    .record(EntityType.APPOINTMENT, ChangeType.ADDED, appointment.getId(), null, appointment, 5)
+                    .build());
+            journal.update(new DataChangeEvent.Builder()
+                    .record(EntityType.DOCTOR, ChangeType.ADDED, "D1", null, d1, 4).build());
+            journal.update(new DataChangeEvent.Builder()
+                    .record(EntityType.PATIENT, ChangeType.ADDED, "P2", null, p2, 3).build());
+            // Repetido: ya aplicado con esa versión
+            journal.update(new DataChangeEvent.Builder()
+                    .record(EntityType.PATIENT, ChangeType.ADDED, "P2", null, p2, 3).build());
+        }
+
+        ClinicDataStore restored = new ClinicDataStore();
+        MutationJournal.ReplayResult result = MutationJournal.replay(file, restored);
+
+        assertFalse(restored.findPatient("P1").isPresent());
+        assertTrue(restored.findAppointment(appointment.getId()).isPresent());
+        assertEquals(5, result.applied());
+        assertEquals(1, result.skipped());
+        assertEquals(5, restored.getVersion());
+        LOG.info("Finalizando test shouldApplyRecordsInVersionOrder");
+    }
+
+    /**
+     * Varios hilos dan de alta pacientes, médicos y citas a la vez y dan de
+     * baja algunos pacientes: los registros llegan al diario en otro orden que
+     * sus versiones, y la reproducción debe dejar el mismo contenido.
+     */
+    @Test
+    public void shouldReplayConcurrentWritersToTheSameContents() throws Exception {
+        LOG.info("Iniciado test shouldReplayConcurrentWritersToTheSameContents");
+        Path file = dir.resolve("journal.log");
+        ClinicDataStore original = new ClinicDataStore();
+        int threads = 4;
+        int perThread = 500;
+        try (MutationJournal journal = MutationJournal.open(file, FsyncPolicy.NEVER, 0)) {
+            original.registerObserver(journal);
+            List<Thread> writers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                writers.add(new Thread(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        String suffix = thread + "-" + i;
+                        original.addPatient(patient("P" + suffix));
+                        original.addDoctor(doctor("D" + suffix));
+                        original.addAppointment(new Appointment(original.findPatient("P" + suffix).orElseThrow(),
+                                original.findDoctor("D" + suffix).orElseThrow(),
+                                LocalDateTime.of(2030, 3, 1, 8, 0), 30, 50.0, new StandardPriceStrategy()));
+                        if (i % 5 == 0) {
+                            original.removePatient("P" + suffix);
+                        }
+                    }
+                }));
+            }
+            writers.forEach(Thread::start);
+            for (Thread writer : writers) {
+                writer.join();
+            }
+        }
+
+        ClinicDataStore restored = new ClinicDataStore();
+        MutationJournal.ReplayResult result = MutationJournal.replay(file, restored);
+
+        assertEquals(0, result.skipped());
+        assertEquals(original.scanPatients().size(), restored.scanPatients().size());
+        assertEquals(original.scanDoctors().size(), restored.scanDoctors().size());
+        assertEquals(threads * perThread * 4 / 5, restored.scanAppointments().size());
+        for (Appointment appointment : original.scanAppointments()) {
+            assertTrue(restored.findAppointment(appointment.getId()).isPresent());
+        }
+        assertEquals(original.getVersion(), restored.getVersion());
+        LOG.info("Finalizando test shouldReplayConcurrentWritersToTheSameContents");
+    }
+
+    @Test
+    public void shouldPersistExactPricesAndOnlyRegisteredStrategies() throws IOException {
+        LOG.info("Iniciado test shouldPersistExactPricesAndOnlyRegisteredStrategies");
+        Path file = dir.resolve("journal.log");
+        Path snapshot = dir.resolve("snapshot.bin");
+        // Más dígitos de los que un double conserva
+        BigDecimal price = new BigDecimal("123456789012345.67");
+        ClinicDataStore original = new ClinicDataStore();
+        try (MutationJournal journal = MutationJournal.open(file, FsyncPolicy.NEVER, 0)) {
+            original.registerObserver(journal);
+            original.addPatient(patient("P1"));
+            original.addDoctor(doctor("D1"));
+            Appointment appointment = new Appointment(original.findPatient("P1").orElseThrow(),
+                    original.findDoctor("D1").orElseThrow(), LocalDateTime.of(2030, 3, 1, 8, 0), 30, price,
+                    new StandardPriceStrategy());
+            original.addAppointment(appointment);
+            StoreSnapshot.write(snapshot, original, 0, original.getVersion());
+
+            // Mismo código que la estándar pero otra regla: volvería como la estándar
+            PriceStrategy unregistered = new PriceStrategy() {
+                @Override
+                public BigDecimal calculatePrice(BigDecimal basePrice) {
+                    return basePrice.add(BigDecimal.ONE);
+                }
+
+                @Override
+                public byte getCode() {
+                    return new StandardPriceStrategy().getCode();
+                }
+
+                @Override
+                public String getLabel() {
+                    return "Sin registrar";
+                }
+            };
+            Appointment changed = new Appointment(appointment);
+            changed.setPriceStrategy(unregistered);
+            assertThrows(IllegalArgumentException.class, () -> journal.update(new DataChangeEvent.Builder()
+                    .record(EntityType.APPOINTMENT, ChangeType.UPDATED, changed.getId(), appointment, changed,
+                            original.getVersion() + 1)
+                    .build()));
+        }
+
+        ClinicDataStore replayed = new ClinicDataStore();
+        MutationJournal.replay(file, replayed);
+        assertEquals(price, replayed.scanAppointments().iterator().next().getBasePrice());
+        ClinicDataStore loaded = new ClinicDataStore();
+        StoreSnapshot.load(snapshot, loaded);
+        assertEquals(price, loaded.scanAppointments().iterator().next().getBasePrice());
+        LOG.info("Finalizando test shouldPersistExactPricesAndOnlyRegisteredStrategies");
+    }
+
+    @Test
+    public void shouldReportSustainedMutationThroughput() throws IOException {
+        LOG.info("Iniciado test shouldReportSustainedMutationThroughput");
+        int mutations = 100_000;
+        for (FsyncPolicy policy : FsyncPolicy.values()) {
+            Path file = dir.resolve("bench-" + policy + ".log");
+            ClinicDataStore store = new ClinicDataStore();
+            long start = System.nanoTime();
+            try (MutationJournal journal = MutationJournal.open(file, policy, 10)) {
+                store.registerObserver(journal);
+                for (int i = 0; i < mutations; i++) {
+                    store.addPatient(patient("P" + i));
+                }
+                journal.flush();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            LOG.info(String.format("fsync %s: %.0f cambios/s, %d bytes", policy, mutations / seconds, Files.size(file)));
+
+            long replayStart = System.nanoTime();
+            ClinicDataStore restored = new ClinicDataStore();
+            MutationJournal.replay(file, restored);
+            LOG.info(String.format("reproducción: %.0f ms", (System.nanoTime() - replayStart) / 1e6));
+            assertEquals(mutations, restored.getPatients().size());
+        }
+        LOG.info("Finalizando test shouldReportSustainedMutationThroughput");
+    }
+}
@@ -0,0 +1,118 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Pruebas de la caché de agendas diarias y de su invalidación desde el almacén.
+ */
+public class AgendaCacheTest {
+    private static final Logger LOG = Logger.getLogger(AgendaCacheTest.class.getName());
+    private static final LocalDate MONDAY = LocalDate.of(2030, 1, 7);
+
+    private static Patient patient(String id) {
+        return (Patient) new PatientFactory().createPerson(id, "Paciente " + id, "555-0000", "H" + id);
+    }
+
+    private static Doctor doctor(String id) {
+        return (Doctor) new DoctorFactory().createPerson(id, "Médico " + id, "555-1111", "General", "L" + id);
+    }
+
+    private static Appointment book(ClinicDataStore store, Patient p, Doctor d, LocalDateTime at) {
+        Appointment appointment = new Appointment(p, d, at, 100.0, new StandardPriceStrategy());
+        store.addAppointment(appointment);
+        return appointment;
+    }
+
+    @Test
+    public void shouldInvalidateOnlyTheChangedDoctorDay() {
+        LOG.info("Iniciado test shouldInvalidateOnlyTheChangedDoctorDay");
+        ClinicDataStore store = new ClinicDataStore();
+        Patient p = patient("P1");
+        Doctor ana = doctor("D1");
+        Doctor luis = doctor("D2");
+        store.addPatient(p);
+        store.addDoctor(ana);
+        store.addDoctor(luis);
+        LocalDateTime nine = MONDAY.atTime(9, 0);
+        Appointment first = book(store, p, ana, nine);
+        book(store, p, luis, nine);
+
+        List<Appointment> monday = store.getDoctorAgenda("D1", MONDAY);
+        List<Appointment> tuesday = store.getDoctorAgenda("D1", MONDAY.plusDays(1));
+        List<Appointment> other = store.getDoctorAgenda("D2", MONDAY);
+        assertEquals(List.of(first), monday);
+        assertTrue(tuesday.isEmpty());
+        assertSame(monday,
+                store.getDoctorAppointments("D1", MONDAY.atStartOfDay(), MONDAY.plusDays(1).atStartOfDay()));
+        assertEquals(1, store.getAgendaStats().hits());
+        assertEquals(3, store.getAgendaStats().misses());
+
+        Appointment second = book(store, p, ana, nine.plusHours(1));
+        assertSame(tuesday, store.getDoctorAgenda("D1", MONDAY.plusDays(1)));
+        assertSame(other, store.getDoctorAgenda("D2", MONDAY));
+        assertEquals(List.of(first, second), store.getDoctorAgenda("D1", MONDAY));
+
+        monday = store.getDoctorAgenda("D1", MONDAY);
+        store.changePriceStrategy(first.getId(), new SpecialistPriceStrategy());
+        List<Appointment> repriced = store.getDoctorAgenda("D1", MONDAY);
+        assertTrue(repriced != monday);
+        assertEquals(SpecialistPriceStrategy.class, repriced.get(0).getPriceStrategy().getClass());
+
+        store.removeAppointment(second);
+        assertEquals(List.of(first), store.getDoctorAgenda("D1", MONDAY));
+        store.reprice(d -> d.getId().equals("D2"), MONDAY.atStartOfDay(), MONDAY.plusDays(1).atStartOfDay(),
+                new SpecialistPriceStrategy());
+        assertSame(tuesday, store.getDoctorAgenda("D1", MONDAY.plusDays(1)));
+        assertEquals(SpecialistPriceStrategy.class,
+                store.getDoctorAgenda("D2", MONDAY).get(0).getPriceStrategy().getClass());
+
+        store.removeDoctor("D2");
+        assertTrue(store.getDoctorAgenda("D2", MONDAY).isEmpty());
+        AgendaCacheStats stats = store.getAgendaStats();
+        assertEquals(5, stats.invalidations());
+        assertTrue(stats.hitRate() > 0 && stats.hitRate() < 1);
+        LOG.info("Finalizando test shouldInvalidateOnlyTheChangedDoctorDay");
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedDay() {
+        LOG.info("Iniciado test shouldEvictLeastRecentlyUsedDay");
+        AgendaCache cache = new AgendaCache(2);
+        AtomicInteger rebuilds = new AtomicInteger();
+        Supplier<List<Appointment>> rebuild = () -> {
+            rebuilds.incrementAndGet();
+            return List.of();
+        };
+        cache.get("D1", MONDAY, rebuild);
+        cache.get("D1", MONDAY.plusDays(1), rebuild);
+        // Consultar el lunes lo vuelve el más reciente: sale el martes
+        cache.get("D1", MONDAY, rebuild);
+        cache.get("D1", MONDAY.plusDays(2), rebuild);
+        cache.get("D1", MONDAY, rebuild);
+        assertEquals(3, rebuilds.get());
+        cache.get("D1", MONDAY.plusDays(1), rebuild);
+        assertEquals(4, rebuilds.get());
+
+        AgendaCacheStats stats = cache.getStats();
+        assertEquals(2, stats.hits());
+        assertEquals(4, stats.misses());
+        assertEquals(2, stats.evictions());
+        assertEquals(2, stats.size());
+        LOG.info("Finalizando test shouldEvictLeastRecentlyUsedDay");
+    }
+}
@@ -0,0 +1,92 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Pruebas del almacenamiento de citas por columnas.
+ */
+public class AppointmentColumnsTest {
+    private static final Logger LOG = Logger.getLogger(AppointmentColumnsTest.class.getName());
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    private static final Patient PATIENT = (Patient) new PatientFactory().createPerson("P1", "Paciente", "555", "H1");
+    private static final Doctor DOCTOR = (Doctor) new DoctorFactory().createPerson("D1", "Médico", "555", "General", "L1");
+
+    @Test
+    public void shouldMatchHeapAppointmentsAfterRandomChanges() {
+        LOG.info("Iniciado test shouldMatchHeapAppointmentsAfterRandomChanges");
+        AppointmentColumns columns = new AppointmentColumns();
+        Map<Integer, Appointment> expected = new HashMap<>();
+        Random random = new Random(7);
+        for (int step = 0; step < 20_000; step++) {
+            int id = random.nextInt(5_000);
+            if (random.nextInt(3) > 0) {
+                Appointment appointment = new Appointment(id, PATIENT, DOCTOR, BASE.plusMinutes(random.nextInt(100_000)),
+                        15 + random.nextInt(60), BigDecimal.valueOf(random.nextInt(100_000), 2),
+                        random.nextBoolean() ? PriceStrategyRegistry.STANDARD : PriceStrategyRegistry.SPECIALIST);
+                assertEquals(expected.putIfAbsent(id, appointment) == null, columns.add(appointment));
+            } else {
+                Appointment removed = columns.remove(id);
+                assertEquals(expected.remove(id) != null, removed != null);
+            }
+        }
+
+        assertEquals(expected.size(), columns.size());
+        for (Appointment original : expected.values()) {
+            Appointment view = columns.get(original.getId());
+            assertEquals(original.getDateTime(), view.getDateTime());
+            assertEquals(original.getDurationMinutes(), view.getDurationMinutes());
+            assertEquals(original.getBasePrice(), view.getBasePrice());
+            assertEquals(original.getFinalPrice(), view.getFinalPrice());
+            assertSame(original.getPriceStrategy(), view.getPriceStrategy());
+            assertSame(PATIENT, view.getPatient());
+        }
+        List<Appointment> all = columns.between(LocalDateTime.MIN, LocalDateTime.MAX);
+        assertEquals(expected.size(), all.size());
+        for (int i = 1; i < all.size(); i++) {
+            assertTrue(AppointmentTimeline.CHRONOLOGICAL.compare(all.get(i - 1), all.get(i)) < 0);
+        }
+        Iterator<Appointment> streamed = columns.iterator(BASE, BASE.plusDays(30));
+        for (Appointment expectedNext : columns.between(BASE, BASE.plusDays(30))) {
+            assertEquals(expectedNext.getId(), streamed.next().getId());
+        }
+        assertFalse(streamed.hasNext());
+        LOG.info("Finalizando test shouldMatchHeapAppointmentsAfterRandomChanges");
+    }
+
+    @Test
+    public void shouldOnlyStoreLosslessAppointments() {
+        LOG.info("Iniciado test shouldOnlyStoreLosslessAppointments");
+        AppointmentColumns columns = new AppointmentColumns();
+        Appointment withSeconds = new Appointment(PATIENT, DOCTOR, BASE.plusSeconds(30), 50.0,
+                PriceStrategyRegistry.STANDARD);
+        Appointment custom = new Appointment(PATIENT, DOCTOR, BASE, 50.0, new StandardPriceStrategy() {
+        });
+
+        assertFalse(AppointmentColumns.fits(withSeconds));
+        assertFalse(AppointmentColumns.fits(custom));
+        assertThrows(IllegalArgumentException.class, () -> columns.add(withSeconds));
+        assertNull(columns.get(withSeconds.getId()));
+        LOG.info("Finalizando test shouldOnlyStoreLosslessAppointments");
+    }
+}
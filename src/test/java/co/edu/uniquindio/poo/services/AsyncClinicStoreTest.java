@@ -0,0 +1,110 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Pruebas de la fachada asíncrona y del ejecutor por pulsos de la interfaz.
+ */
+public class AsyncClinicStoreTest {
+    private static final Logger LOG = Logger.getLogger(AsyncClinicStoreTest.class.getName());
+
+    private static Patient patient(String id) {
+        return (Patient) new PatientFactory().createPerson(id, "Paciente " + id, "555-0000", "H" + id);
+    }
+
+    @Test
+    public void shouldApplyMutationsInOrderAndDeliverOnUiExecutor() throws Exception {
+        LOG.info("Iniciado test shouldApplyMutationsInOrderAndDeliverOnUiExecutor");
+        ClinicDataStore store = new ClinicDataStore();
+        BlockingQueue<Runnable> uiQueue = new LinkedBlockingQueue<>();
+        // El almacén no guarda orden de inserción: el orden se lee de los cambios publicados
+        List<Object> ids = new CopyOnWriteArrayList<>();
+        store.registerObserver(event -> event.getChanges().forEach(change -> ids.add(change.getId())));
+        try (AsyncClinicStore async = new AsyncClinicStore(store, Executors.newFixedThreadPool(4), uiQueue::add)) {
+            List<CompletableFuture<Void>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                results.add(async.addPatient(patient("P" + i)));
+            }
+            CompletableFuture<Void> duplicate = async.addPatient(patient("P0"));
+            CompletableFuture<Integer> count = async.mutateAndGet(s -> s.getPatients().size());
+
+            // Nada se completa hasta que la interfaz corre sus tareas
+            assertFalse(count.isDone());
+            for (int delivered = 0; delivered < 202; delivered++) {
+                uiQueue.poll(5, TimeUnit.SECONDS).run();
+            }
+            assertEquals(200, count.get().intValue());
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                    duplicate::get);
+            assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+            assertTrue(results.stream().allMatch(r -> r.isDone() && !r.isCompletedExceptionally()));
+            assertEquals(200, ids.size());
+            for (int i = 0; i < 200; i++) {
+                assertEquals("P" + i, ids.get(i));
+            }
+        }
+        LOG.info("Finalizando test shouldApplyMutationsInOrderAndDeliverOnUiExecutor");
+    }
+
+    @Test
+    public void shouldSpreadTasksOverFramesWithinBudget() {
+        LOG.info("Iniciado test shouldSpreadTasksOverFramesWithinBudget");
+        List<Runnable> frames = new ArrayList<>();
+        FrameExecutor executor = new FrameExecutor(frames::add, Duration.ofMillis(1));
+        List<Integer> ran = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            int task = i;
+            executor.execute(() -> {
+                ran.add(task);
+                sleep(5);
+            });
+        }
+        assertEquals(1, frames.size());
+
+        frames.remove(0).run();
+        assertEquals(List.of(0), ran);
+        assertEquals(1, frames.size());
+        while (!frames.isEmpty()) {
+            frames.remove(0).run();
+        }
+        assertEquals(List.of(0, 1, 2), ran);
+
+        for (int i = 0; i < 100; i++) {
+            executor.execute(() -> ran.add(-1));
+        }
+        assertEquals(1, frames.size());
+        while (!frames.isEmpty()) {
+            frames.remove(0).run();
+        }
+        assertEquals(103, ran.size());
+        LOG.info("Finalizando test shouldSpreadTasksOverFramesWithinBudget");
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Pruebas del generador de ids por bloques.
+ */
+public class BlockIdGeneratorTest {
+    private static final Logger LOG = Logger.getLogger(BlockIdGeneratorTest.class.getName());
+
+    @Test
+    public void shouldHandOutUniqueIdsAcrossThreads() throws Exception {
+        LOG.info("Iniciado test shouldHandOutUniqueIdsAcrossThreads");
+        BlockIdGenerator generator = new BlockIdGenerator(IdBlockSource.inMemory(), 64);
+        int threads = 8;
+        int perThread = 50_000;
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        assertTrue(ids.add(generator.nextId()));
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertEquals(threads * perThread, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id > 0 && id < generator.getHighWaterMark()));
+        LOG.info("Finalizando test shouldHandOutUniqueIdsAcrossThreads");
+    }
+
+    @Test
+    public void shouldNeverReturnIdsDeclaredInUse() {
+        LOG.info("Iniciado test shouldNeverReturnIdsDeclaredInUse");
+        BlockIdGenerator generator = new BlockIdGenerator(IdBlockSource.inMemory(), 16);
+        generator.advancePast(5000);
+        assertTrue(generator.nextId() > 5000);
+
+        // Un id restaurado por encima de todo lo repartido tampoco se repite
+        long restored = generator.getHighWaterMark() + 3;
+        generator.advancePast(restored);
+        Set<Long> seen = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < 1000; i++) {
+            long id = generator.nextId();
+            assertTrue(id != restored);
+            assertTrue(seen.add(id));
+        }
+        // Los ids ya repartidos no llegan a la fuente
+        long mark = generator.getHighWaterMark();
+        generator.advancePast(mark - 1);
+        assertEquals(mark, generator.getHighWaterMark());
+        LOG.info("Finalizando test shouldNeverReturnIdsDeclaredInUse");
+    }
+
+    /**
+     * Con una fuente lenta, varios hilos agotan la misma franja a la vez. Solo
+     * uno reserva el bloque siguiente, así que los bloques sin terminar son a
+     * lo sumo uno por franja.
+     */
+    @Test
+    public void shouldNotDiscardBlocksWhenStripesRefillConcurrently() throws Exception {
+        LOG.info("Iniciado test shouldNotDiscardBlocksWhenStripesRefillConcurrently");
+        IdBlockSource memory = IdBlockSource.inMemory();
+        AtomicInteger reserves = new AtomicInteger();
+        IdBlockSource slow = new IdBlockSource() {
+            @Override
+            public long reserve(int size) {
+                reserves.incrementAndGet();
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return memory.reserve(size);
+            }
+
+            @Override
+            public void advancePast(long id) {
+                memory.advancePast(id);
+            }
+        };
+        int blockSize = 64;
+        BlockIdGenerator generator = new BlockIdGenerator(slow, blockSize);
+        int threads = 8;
+        int perThread = 2_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        generator.nextId();
+                    }
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        int stripes = Runtime.getRuntime().availableProcessors() * 4;
+        LOG.info(String.format("%d bloques reservados para %d ids", reserves.get(), threads * perThread));
+        assertTrue(reserves.get() <= threads * perThread / blockSize + stripes);
+        LOG.info("Finalizando test shouldNotDiscardBlocksWhenStripesRefillConcurrently");
+    }
+}
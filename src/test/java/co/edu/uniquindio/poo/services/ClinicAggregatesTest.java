@@ -0,0 +1,117 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Money;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Los totales incrementales deben coincidir con recorrer todas las citas.
+ */
+public class ClinicAggregatesTest {
+    private static final Logger LOG = Logger.getLogger(ClinicAggregatesTest.class.getName());
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+    private static final String[] SPECIALTIES = {"Cardiología", "Pediatría", "General"};
+
+    @Test
+    public void shouldMatchFullRecomputationAfterRandomChanges() {
+        LOG.info("Iniciado test shouldMatchFullRecomputationAfterRandomChanges");
+        ClinicDataStore store = new ClinicDataStore();
+        Random random = new Random(42);
+        for (int i = 0; i < 20; i++) {
+            store.addPatient((Patient) new PatientFactory().createPerson("P" + i, "Paciente " + i, "555", "H" + i));
+        }
+        for (int i = 0; i < 6; i++) {
+            store.addDoctor(doctor("D" + i, SPECIALTIES[i % SPECIALTIES.length]));
+        }
+
+        for (int step = 0; step < 3_000; step++) {
+            int action = random.nextInt(10);
+            if (action < 6) {
+                Patient patient = store.findPatient("P" + random.nextInt(20)).orElse(null);
+                Doctor doctor = store.findDoctor("D" + random.nextInt(8)).orElse(null);
+                if (patient == null || doctor == null) {
+                    continue;
+                }
+                LocalDateTime slot = BASE.plusMinutes(15L * random.nextInt(2_000));
+                if (store.findDoctorConflict(doctor.getId(), slot, 30).isEmpty()) {
+                    store.addAppointment(new Appointment(patient, doctor, slot, 30, 10 + random.nextInt(9_000) / 100.0,
+                            random.nextBoolean() ? PriceStrategyRegistry.STANDARD : PriceStrategyRegistry.SPECIALIST));
+                }
+            } else if (action < 8 && !store.getAppointments().isEmpty()) {
+                List<Appointment> all = store.getAppointments();
+                Appointment target = all.get(random.nextInt(all.size()));
+                if (random.nextBoolean()) {
+                    store.removeAppointment(target);
+                } else {
+                    store.changePriceStrategy(target.getId(), random.nextBoolean() ? PriceStrategyRegistry.STANDARD
+                            : PriceStrategyRegistry.SPECIALIST);
+                }
+            } else if (action == 8) {
+                String id = "D" + random.nextInt(8);
+                if (store.findDoctor(id).isPresent()) {
+                    store.editDoctor(id, doctor(id, SPECIALTIES[random.nextInt(SPECIALTIES.length)]));
+                } else {
+                    store.addDoctor(doctor(id, SPECIALTIES[random.nextInt(SPECIALTIES.length)]));
+                }
+            } else if (random.nextInt(20) == 0) {
+                store.removeDoctor("D" + random.nextInt(8));
+            } else {
+                String specialty = SPECIALTIES[random.nextInt(SPECIALTIES.length)];
+                store.reprice(d -> d.getSpecialty().equals(specialty), BASE.plusDays(random.nextInt(20)),
+                        LocalDateTime.MAX, random.nextBoolean() ? PriceStrategyRegistry.STANDARD
+                                : PriceStrategyRegistry.SPECIALIST);
+            }
+        }
+
+        assertMatchesRecomputation(store);
+        LOG.info("Finalizando test shouldMatchFullRecomputationAfterRandomChanges");
+    }
+
+    private static Doctor doctor(String id, String specialty) {
+        return (Doctor) new DoctorFactory().createPerson(id, "Médico " + id, "555", specialty, "L" + id);
+    }
+
+    private static void assertMatchesRecomputation(ClinicDataStore store) {
+        Map<String, ActivityTotals> byDoctor = new HashMap<>();
+        Map<String, ActivityTotals> bySpecialty = new HashMap<>();
+        Map<LocalDate, ActivityTotals> byDay = new HashMap<>();
+        ActivityTotals overall = ActivityTotals.EMPTY;
+        for (Appointment a : new ArrayList<>(store.getAppointments())) {
+            String specialty = store.findDoctor(a.getDoctor().getId()).orElseThrow().getSpecialty();
+            byDoctor.merge(a.getDoctor().getId(), totalsOf(a), ClinicAggregatesTest::sum);
+            bySpecialty.merge(specialty, totalsOf(a), ClinicAggregatesTest::sum);
+            byDay.merge(a.getDateTime().toLocalDate(), totalsOf(a), ClinicAggregatesTest::sum);
+            overall = sum(overall, totalsOf(a));
+        }
+        ClinicAggregates aggregates = store.getAggregates();
+        assertEquals(overall, aggregates.overall());
+        byDoctor.forEach((id, totals) -> assertEquals(totals, aggregates.forDoctor(id)));
+        byDay.forEach((day, totals) -> assertEquals(totals, aggregates.forDay(day)));
+        assertEquals(new TreeMap<>(bySpecialty), aggregates.bySpecialty());
+    }
+
+    private static ActivityTotals totalsOf(Appointment appointment) {
+        return new ActivityTotals(1, appointment.getDurationMinutes(), appointment.getFinalPrice());
+    }
+
+    private static ActivityTotals sum(ActivityTotals a, ActivityTotals b) {
+        BigDecimal revenue = Money.round(a.revenue().add(b.revenue()));
+        return new ActivityTotals(a.appointments() + b.appointments(), a.bookedMinutes() + b.bookedMinutes(), revenue);
+    }
+}
@@ -0,0 +1,54 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Pruebas de la copia observable frente a cambios que llegan fuera de orden.
+ */
+public class ClinicDataMirrorTest {
+    private static final Logger LOG = Logger.getLogger(ClinicDataMirrorTest.class.getName());
+
+    private static Patient patient(String id, String name) {
+        return new Patient.Builder(id, name, "555-0000", "H" + id).build();
+    }
+
+    @Test
+    public void shouldIgnoreChangesOlderThanTheLastApplied() {
+        LOG.info("Iniciado test shouldIgnoreChangesOlderThanTheLastApplied");
+        ClinicDataStore store = new ClinicDataStore();
+        ClinicDataMirror mirror = new ClinicDataMirror(store);
+        Patient ana = patient("P1", "Ana");
+
+        mirror.apply(new DataChange(EntityType.PATIENT, ChangeType.REMOVED, "P1", ana, null, 2));
+        mirror.apply(new DataChange(EntityType.PATIENT, ChangeType.ADDED, "P1", null, ana, 1));
+        assertTrue(mirror.getPatients().isEmpty());
+
+        mirror.apply(new DataChange(EntityType.PATIENT, ChangeType.ADDED, "P2", null, patient("P2", "Nueva"), 4));
+        mirror.apply(new DataChange(EntityType.PATIENT, ChangeType.UPDATED, "P2", null, patient("P2", "Vieja"), 3));
+        assertEquals(1, mirror.getPatients().size());
+        assertEquals("Nueva", mirror.getPatients().get(0).getName());
+        LOG.info("Finalizando test shouldIgnoreChangesOlderThanTheLastApplied");
+    }
+
+    @Test
+    public void shouldKeepNewestChangeWhenMergingLateOnes() {
+        LOG.info("Iniciado test shouldKeepNewestChangeWhenMergingLateOnes");
+        Patient ana = patient("P1", "Ana");
+        DataChangeEvent event = new DataChangeEvent.Builder()
+                .record(EntityType.PATIENT, ChangeType.REMOVED, "P1", ana, null, 2)
+                .record(EntityType.PATIENT, ChangeType.ADDED, "P1", null, ana, 1)
+                .build();
+
+        assertEquals(1, event.getChanges().size());
+        assertTrue(event.getRemoved(EntityType.PATIENT).contains("P1"));
+        assertEquals(2, event.getChanges().get(0).getVersion());
+        LOG.info("Finalizando test shouldKeepNewestChangeWhenMergingLateOnes");
+    }
+}
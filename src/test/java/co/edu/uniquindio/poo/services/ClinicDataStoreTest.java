@@ -0,0 +1,416 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Pruebas de los índices del almacén de datos de la clínica.
+ */
+public class ClinicDataStoreTest {
+    private static final Logger LOG = Logger.getLogger(ClinicDataStoreTest.class.getName());
+
+    private ClinicDataStore store;
+
+    @BeforeEach
+    public void setUp() {
+        store = new ClinicDataStore();
+    }
+
+    private static Patient patient(String id) {
+        return (Patient) new PatientFactory().createPerson(id, "Paciente " + id, "555-0000", "H" + id);
+    }
+
+    private static Doctor doctor(String id) {
+        return (Doctor) new DoctorFactory().createPerson(id, "Médico " + id, "555-1111", "General", "L" + id);
+    }
+
+    @Test
+    public void shouldRejectDuplicatedIds() {
+        LOG.info("Iniciado test shouldRejectDuplicatedIds");
+        store.addPatient(patient("P1"));
+        store.addDoctor(doctor("D1"));
+
+        assertThrows(IllegalArgumentException.class, () -> store.addPatient(patient("P1")));
+        assertThrows(IllegalArgumentException.class, () -> store.addDoctor(doctor("D1")));
+        assertEquals(1, store.getPatients().size());
+        assertEquals(1, store.getDoctors().size());
+        LOG.info("Finalizando test shouldRejectDuplicatedIds");
+    }
+
+    @Test
+    public void shouldEditThroughIndex() {
+        LOG.info("Iniciado test shouldEditThroughIndex");
+        Patient original = patient("P1");
+        store.addPatient(original);
+
+        Patient updated = new Patient.Builder("P1", "Nuevo Nombre", "555-9999", "H77").address("Calle 1").build();
+        store.editPatient("P1", updated);
+
+        assertSame(original, store.findPatient("P1").orElseThrow());
+        assertEquals("Nuevo Nombre", original.getName());
+        assertEquals("Calle 1", original.getAddress());
+        assertThrows(IllegalArgumentException.class, () -> store.editPatient("P2", updated));
+        LOG.info("Finalizando test shouldEditThroughIndex");
+    }
+
+    @Test
+    public void shouldKeepViewInSyncAfterRemovals() {
+        LOG.info("Iniciado test shouldKeepViewInSyncAfterRemovals");
+        for (int i = 0; i < 5; i++) {
+            store.addPatient(patient("P" + i));
+        }
+        store.removePatient("P1");
+        store.removePatient("P4");
+
+        assertEquals(3, store.getPatients().size());
+        assertFalse(store.findPatient("P1").isPresent());
+        for (Patient p : store.getPatients()) {
+            assertSame(p, store.findPatient(p.getId()).orElseThrow());
+        }
+        LOG.info("Finalizando test shouldKeepViewInSyncAfterRemovals");
+    }
+
+    @Test
+    public void shouldCascadeAppointmentsOnRemoval() {
+        LOG.info("Iniciado test shouldCascadeAppointmentsOnRemoval");
+        Patient p1 = patient("P1");
+        Patient p2 = patient("P2");
+        Doctor d1 = doctor("D1");
+        store.addPatient(p1);
+        store.addPatient(p2);
+        store.addDoctor(d1);
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 8, 0);
+        Appointment a1 = new Appointment(p1, d1, base, 50.0, new StandardPriceStrategy());
+        Appointment a2 = new Appointment(p2, d1, base.plusHours(1), 50.0, new StandardPriceStrategy());
+        store.addAppointment(a1);
+        store.addAppointment(a2);
+
+        store.removePatient("P1");
+
+        assertEquals(1, store.getAppointments().size());
+        assertFalse(store.findAppointment(a1.getId()).isPresent());
+        assertTrue(store.findAppointment(a2.getId()).isPresent());
+        LOG.info("Finalizando test shouldCascadeAppointmentsOnRemoval");
+    }
+
+    @Test
+    public void shouldAnswerAgendaQueriesFromSecondaryIndexes() {
+        LOG.info("Iniciado test shouldAnswerAgendaQueriesFromSecondaryIndexes");
+        Patient p1 = patient("P1");
+        Doctor d1 = doctor("D1");
+        Doctor d2 = doctor("D2");
+        store.addPatient(p1);
+        store.addDoctor(d1);
+        store.addDoctor(d2);
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 8, 0);
+        Appointment late = new Appointment(p1, d1, base.plusHours(3), 50.0, new StandardPriceStrategy());
+        Appointment early = new Appointment(p1, d1, base, 50.0, new StandardPriceStrategy());
+        Appointment other = new Appointment(p1, d2, base.plusHours(1), 50.0, new StandardPriceStrategy());
+        store.addAppointment(late);
+        store.addAppointment(early);
+        store.addAppointment(other);
+
+        assertEquals(List.of(early, late), store.getDoctorAppointments("D1", base, base.plusDays(1)));
+        assertEquals(List.of(early), store.getDoctorAppointments("D1", base, base.plusHours(3)));
+        assertSame(other, store.getNextPatientAppointment("P1", base.plusMinutes(1)).orElseThrow());
+
+        store.removeDoctor("D1");
+
+        assertEquals(List.of(other), store.getPatientAppointments("P1"));
+        assertTrue(store.getDoctorAppointments("D1", base, base.plusDays(1)).isEmpty());
+        LOG.info("Finalizando test shouldAnswerAgendaQueriesFromSecondaryIndexes");
+    }
+
+    @Test
+    public void shouldRejectDoubleBookingAndFindFreeSlot() {
+        LOG.info("Iniciado test shouldRejectDoubleBookingAndFindFreeSlot");
+        Patient p1 = patient("P1");
+        Doctor d1 = doctor("D1");
+        store.addPatient(p1);
+        store.addDoctor(d1);
+        LocalDateTime nine = LocalDateTime.of(2030, 1, 1, 9, 0);
+        store.addAppointment(new Appointment(p1, d1, nine, 30, 50.0, new StandardPriceStrategy()));
+        store.addAppointment(new Appointment(p1, d1, nine.plusMinutes(30), 60, 50.0, new StandardPriceStrategy()));
+        store.addAppointment(new Appointment(p1, d1, nine.plusHours(2), 30, 50.0, new StandardPriceStrategy()));
+
+        assertThrows(IllegalArgumentException.class, () -> store.addAppointment(
+                new Appointment(p1, d1, nine.plusMinutes(15), 30, 50.0, new StandardPriceStrategy())));
+        assertThrows(IllegalArgumentException.class, () -> store.addAppointment(
+                new Appointment(p1, d1, nine.minusMinutes(10), 15, 50.0, new StandardPriceStrategy())));
+        assertFalse(store.findDoctorConflict("D1", nine.minusMinutes(30), 30).isPresent());
+        assertFalse(store.findDoctorConflict("D1", nine.plusMinutes(90), 30).isPresent());
+        assertEquals(3, store.getAppointments().size());
+
+        assertEquals(nine.plusMinutes(90), store.findFirstFreeSlot("D1", nine.plusMinutes(10), 30));
+        assertEquals(nine.plusMinutes(150), store.findFirstFreeSlot("D1", nine, 45));
+        assertEquals(nine.minusHours(1), store.findFirstFreeSlot("D1", nine.minusHours(1), 60));
+        assertEquals(nine, store.findFirstFreeSlot("D2", nine, 30));
+        LOG.info("Finalizando test shouldRejectDoubleBookingAndFindFreeSlot");
+    }
+
+    @Test
+    public void shouldNotifyOnceWithNetChangesPerBatch() {
+        LOG.info("Iniciado test shouldNotifyOnceWithNetChangesPerBatch");
+        List<DataChangeEvent> events = new ArrayList<>();
+        store.addPatient(patient("P0"));
+        store.registerObserver(events::add);
+
+        Doctor d1 = doctor("D1");
+        store.batch(() -> {
+            for (int i = 1; i <= 100; i++) {
+                store.addPatient(patient("P" + i));
+            }
+            store.addDoctor(d1);
+            store.addAppointment(new Appointment(store.findPatient("P1").orElseThrow(), d1,
+                    LocalDateTime.of(2030, 1, 1, 8, 0), 50.0, new StandardPriceStrategy()));
+            store.editPatient("P0", patient("P0"));
+            store.editPatient("P2", patient("P2"));
+            store.removePatient("P3");
+            store.removePatient("P1");
+        });
+
+        assertEquals(1, events.size());
+        DataChangeEvent event = events.get(0);
+        assertEquals(98, event.getAdded(EntityType.PATIENT).size());
+        assertTrue(event.getAdded(EntityType.PATIENT).contains("P2"));
+        assertEquals(Set.of("P0"), event.getUpdated(EntityType.PATIENT));
+        assertTrue(event.getRemoved(EntityType.PATIENT).isEmpty());
+        assertEquals(Set.of("D1"), event.getAdded(EntityType.DOCTOR));
+        assertFalse(event.touches(EntityType.APPOINTMENT));
+
+        store.removePatient("P0");
+        assertEquals(Set.of("P0"), events.get(1).getRemoved(EntityType.PATIENT));
+        LOG.info("Finalizando test shouldNotifyOnceWithNetChangesPerBatch");
+    }
+
+    @Test
+    public void shouldPublishBeforeAndAfterStates() {
+        LOG.info("Iniciado test shouldPublishBeforeAndAfterStates");
+        List<DataChangeEvent> events = new ArrayList<>();
+        DataObserver observer = events::add;
+        Patient original = patient("P1");
+        store.addPatient(original);
+        store.registerObserver(observer);
+
+        store.editPatient("P1", new Patient.Builder("P1", "Otro Nombre", "555-2222", "H1").build());
+
+        DataChange change = events.get(0).getChanges().get(0);
+        assertEquals(EntityType.PATIENT, change.getEntityType());
+        assertEquals(ChangeType.UPDATED, change.getChangeType());
+        assertEquals("Paciente P1", ((Patient) change.getBefore()).getName());
+        assertSame(original, change.getAfter());
+
+        store.unregisterObserver(observer);
+        store.removePatient("P1");
+        assertEquals(1, events.size());
+        LOG.info("Finalizando test shouldPublishBeforeAndAfterStates");
+    }
+
+    @Test
+    public void shouldRepriceMatchingAppointmentsInOneNotification() {
+        LOG.info("Iniciado test shouldRepriceMatchingAppointmentsInOneNotification");
+        Patient p1 = patient("P1");
+        Doctor cardiologist = (Doctor) new DoctorFactory().createPerson("D1", "Médico D1", "555-1111", "Cardiología", "L1");
+        Doctor general = doctor("D2");
+        store.addPatient(p1);
+        store.addDoctor(cardiologist);
+        store.addDoctor(general);
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 8, 0);
+        int count = 3 * RepricingTask.THRESHOLD;
+        store.batch(() -> {
+            for (int i = 0; i < count; i++) {
+                store.addAppointment(new Appointment(p1, i % 2 == 0 ? cardiologist : general,
+                        base.plusMinutes(30L * (i / 2)), 80.0, PriceStrategyRegistry.STANDARD));
+            }
+        });
+        Appointment past = new Appointment(p1, cardiologist, base.minusDays(1), 80.0, PriceStrategyRegistry.STANDARD);
+        store.addAppointment(past);
+        List<DataChangeEvent> events = new ArrayList<>();
+        store.registerObserver(events::add);
+        long version = store.getVersion();
+
+        RepricingReport report = store.reprice(d -> d.getSpecialty().equals("Cardiología"), base,
+                LocalDateTime.MAX, PriceStrategyRegistry.SPECIALIST);
+
+        assertEquals(count / 2, report.matched());
+        assertEquals(count / 2, report.repriced());
+        assertEquals(new BigDecimal("80.00").multiply(BigDecimal.valueOf(count / 2)), report.revenueBefore());
+        assertEquals(new BigDecimal("100.00").multiply(BigDecimal.valueOf(count / 2)), report.revenueAfter());
+        assertEquals(1, events.size());
+        assertEquals(count / 2, events.get(0).getUpdated(EntityType.APPOINTMENT).size());
+        // Un tramo de versiones contiguo, asignado en orden cronológico
+        assertEquals(version + count / 2, store.getVersion());
+        for (DataChange change : events.get(0).getChanges()) {
+            assertEquals(++version, change.getVersion());
+        }
+        ClinicAggregates totals = store.getAggregates();
+        assertEquals(new BigDecimal("100.00").multiply(BigDecimal.valueOf(count / 2)).add(new BigDecimal("80.00")),
+                totals.forDoctor("D1").revenue());
+        assertEquals(totals.forDoctor("D1").revenue(), totals.forSpecialty("Cardiología").revenue());
+        assertEquals(totals.forDoctor("D1").revenue().add(totals.forDoctor("D2").revenue()),
+                totals.overall().revenue());
+        assertEquals(new BigDecimal("80.00"), past.getFinalPrice());
+        for (Appointment a : store.getDoctorAppointments("D2", base, LocalDateTime.MAX)) {
+            assertSame(PriceStrategyRegistry.STANDARD, a.getPriceStrategy());
+        }
+
+        RepricingReport again = store.reprice(d -> d.getSpecialty().equals("Cardiología"), base,
+                LocalDateTime.MAX, PriceStrategyRegistry.SPECIALIST);
+        assertEquals(0, again.repriced());
+        assertEquals(1, events.size());
+        LOG.info("Finalizando test shouldRepriceMatchingAppointmentsInOneNotification");
+    }
+
+    @Test
+    public void shouldRestoreAppointmentsInBulk() {
+        LOG.info("Iniciado test shouldRestoreAppointmentsInBulk");
+        Patient p1 = patient("P1");
+        Doctor d1 = doctor("D1");
+        Doctor d2 = doctor("D2");
+        store.addPatient(p1);
+        store.addDoctor(d1);
+        store.addDoctor(d2);
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 8, 0);
+        Appointment existing = new Appointment(p1, d2, base, 30, 50.0, PriceStrategyRegistry.STANDARD);
+        store.addAppointment(existing);
+        List<Appointment> batch = new ArrayList<>();
+        for (int i = 40; i > 0; i--) {
+            batch.add(new Appointment(p1, i % 2 == 0 ? d1 : d2, base.plusHours(i), 30, 50.0,
+                    PriceStrategyRegistry.STANDARD));
+        }
+        long version = store.getVersion();
+
+        store.restoreAppointments(batch);
+
+        assertEquals(version + 1, store.getVersion());
+        assertEquals(41, store.snapshot().appointments().size());
+        for (Appointment restored : batch) {
+            assertTrue(store.snapshot().findAppointment(restored.getId()).isPresent());
+        }
+        assertEquals(41, store.getPatientAppointments("P1").size());
+        List<Appointment> agenda = store.getDoctorAppointments("D1", base, base.plusDays(2));
+        assertEquals(20, agenda.size());
+        for (int i = 1; i < agenda.size(); i++) {
+            assertTrue(agenda.get(i - 1).getDateTime().isBefore(agenda.get(i).getDateTime()));
+        }
+        assertEquals(existing.getId(), store.getDoctorAppointments("D2", base, base.plusDays(2)).get(0).getId());
+        assertEquals(new BigDecimal("2050.00"), store.getAggregates().overall().revenue());
+
+        // Se solapa con otra cita del mismo lote: las anteriores quedan agregadas
+        Appointment first = new Appointment(p1, d1, base.plusDays(3), 60, 50.0, PriceStrategyRegistry.STANDARD);
+        Appointment overlapping = new Appointment(p1, d1, base.plusDays(3).plusMinutes(30), 30, 50.0,
+                PriceStrategyRegistry.STANDARD);
+        assertThrows(IllegalArgumentException.class,
+                () -> store.restoreAppointments(List.of(overlapping, first)));
+        assertTrue(store.findAppointment(first.getId()).isPresent());
+        assertFalse(store.findAppointment(overlapping.getId()).isPresent());
+        assertEquals(42, store.snapshot().appointments().size());
+        LOG.info("Finalizando test shouldRestoreAppointmentsInBulk");
+    }
+
+    @Test
+    public void shouldKeepArchivedAppointmentsReachable() {
+        LOG.info("Iniciado test shouldKeepArchivedAppointmentsReachable");
+        Patient p1 = patient("P1");
+        Doctor d1 = doctor("D1");
+        Doctor d2 = doctor("D2");
+        store.addPatient(p1);
+        store.addDoctor(d1);
+        store.addDoctor(d2);
+        LocalDateTime base = LocalDateTime.of(2030, 1, 1, 8, 0);
+        Appointment old = new Appointment(p1, d1, base, 30, 50.0, PriceStrategyRegistry.STANDARD);
+        Appointment running = new Appointment(p1, d2, base.plusMinutes(45), 30, 50.0, PriceStrategyRegistry.STANDARD);
+        Appointment future = new Appointment(p1, d1, base.plusHours(2), 30, 50.0, PriceStrategyRegistry.STANDARD);
+        store.addAppointment(old);
+        store.addAppointment(running);
+        store.addAppointment(future);
+        BigDecimal revenue = store.getAggregates().overall().revenue();
+
+        assertEquals(1, store.archiveBefore(base.plusHours(1)));
+
+        assertEquals(2, store.getAppointments().size());
+        assertEquals(1, store.getArchive().size());
+        Appointment archived = store.findAppointment(old.getId()).orElseThrow();
+        assertEquals(old.getDateTime(), archived.getDateTime());
+        assertSame(p1, archived.getPatient());
+        assertEquals(old.getFinalPrice(), archived.getFinalPrice());
+        assertEquals(List.of(old.getId(), running.getId(), future.getId()),
+                store.getPatientAppointments("P1").stream().map(Appointment::getId).toList());
+        assertEquals(3, store.scanAppointments(LocalDateTime.MIN, LocalDateTime.MAX).size());
+        assertEquals(List.of(old.getId(), running.getId(), future.getId()),
+                store.scanAppointments(base, base.plusDays(1)).stream().map(Appointment::getId).toList());
+        assertEquals(3, store.scanAppointments().size());
+        assertEquals(revenue, store.getAggregates().overall().revenue());
+        assertThrows(IllegalArgumentException.class, () -> store.addAppointment(
+                new Appointment(p1, d1, base.plusMinutes(30), 15, 50.0, PriceStrategyRegistry.STANDARD)));
+        assertEquals(base.plusHours(1), store.findFirstFreeSlot("D1", base, 30));
+
+        store.changePriceStrategy(old.getId(), PriceStrategyRegistry.SPECIALIST);
+        assertEquals(new BigDecimal("62.50"), store.findAppointment(old.getId()).orElseThrow().getFinalPrice());
+
+        List<DataChangeEvent> events = new ArrayList<>();
+        store.registerObserver(events::add);
+        store.removeDoctor("D1");
+        assertEquals(Set.of(old.getId(), future.getId()), events.get(0).getRemoved(EntityType.APPOINTMENT));
+        assertEquals(0, store.getArchive().size());
+        assertFalse(store.findAppointment(old.getId()).isPresent());
+        assertEquals(1, store.getAggregates().overall().appointments());
+        LOG.info("Finalizando test shouldKeepArchivedAppointmentsReachable");
+    }
+
+    @Test
+    public void shouldShareRepeatedTextAcrossEntities() {
+        LOG.info("Iniciado test shouldShareRepeatedTextAcrossEntities");
+        PersonFactory patients = new PatientFactory(store.getDictionary());
+        for (int i = 0; i < 100; i++) {
+            // Textos nuevos en cada registro, como los que crea una importación
+            store.addPatient((Patient) patients.createPerson("P" + i, "Paciente " + i, "555",
+                    new String("N/A"), new String(i % 2 == 0 ? "N/A" : "Calle 10 # 20-30, Armenia")));
+        }
+        store.addDoctor(new Doctor("D1", "Médico D1", "555", new String("Pediatría"), "L1"));
+        store.addDoctor(new Doctor("D2", "Médico D2", "555", new String("Pediatría"), "L2"));
+
+        Patient first = store.findPatient("P0").orElseThrow();
+        Patient last = store.findPatient("P98").orElseThrow();
+        assertSame(first.getAddress(), last.getAddress());
+        assertSame(first.getHistoryNumber(), last.getHistoryNumber());
+        // Las direcciones no se registran aunque se repitan: solo comparten el marcador
+        assertEquals(store.findPatient("P1").orElseThrow().getAddress(),
+                store.findPatient("P99").orElseThrow().getAddress());
+        assertTrue(store.findPatient("P1").orElseThrow().getAddress()
+                != store.findPatient("P99").orElseThrow().getAddress());
+        assertSame(store.findDoctor("D1").orElseThrow().getSpecialty(),
+                store.findDoctor("D2").orElseThrow().getSpecialty());
+        assertEquals("L2", store.findDoctor("D2").orElseThrow().getLicenseNumber());
+
+        StoreStats stats = store.getStats();
+        assertEquals(100, stats.patients());
+        assertEquals(2, stats.dictionaryValues());
+        assertEquals(100 + 50 + 1, stats.duplicateStrings());
+        assertTrue(stats.savedStringBytes() > 0);
+
+        StringDictionary tiny = new StringDictionary(1);
+        String kept = tiny.canonical(new String("uno"));
+        String other = new String("dos");
+        assertSame(other, tiny.canonical(other));
+        assertSame(kept, tiny.canonical(new String("uno")));
+        LOG.info("Finalizando test shouldShareRepeatedTextAcrossEntities");
+    }
+}
@@ -0,0 +1,209 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Pruebas de las fotos inmutables del almacén y del índice persistente que las respalda.
+ */
+public class ClinicSnapshotTest {
+    private static final Logger LOG = Logger.getLogger(ClinicSnapshotTest.class.getName());
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 7, 8, 0);
+
+    private static Patient patient(String id) {
+        return (Patient) new PatientFactory().createPerson(id, "Paciente " + id, "555-0000", "H" + id);
+    }
+
+    private static Doctor doctor(String id) {
+        return (Doctor) new DoctorFactory().createPerson(id, "Médico " + id, "555-1111", "General", "L" + id);
+    }
+
+    @Test
+    public void shouldKeepPointInTimeView() {
+        LOG.info("Iniciado test shouldKeepPointInTimeView");
+        ClinicDataStore store = new ClinicDataStore();
+        Patient ana = patient("P1");
+        Doctor doctor = doctor("D1");
+        store.addPatient(ana);
+        store.addPatient(patient("P2"));
+        store.addDoctor(doctor);
+        Appointment first = new Appointment(ana, doctor, BASE, 100.0, new StandardPriceStrategy());
+        Appointment second = new Appointment(ana, doctor, BASE.plusHours(1), 100.0, new StandardPriceStrategy());
+        store.addAppointment(first);
+        store.addAppointment(second);
+
+        ClinicSnapshot before = store.snapshot();
+        assertSame(before, store.snapshot());
+        assertEquals(store.getVersion(), before.getVersion());
+
+        store.editPatient("P1", new Patient.Builder("P1", "Ana María", "555-9999", "H1").build());
+        store.changePriceStrategy(first.getId(), new SpecialistPriceStrategy());
+        store.removeAppointment(second);
+        store.removePatient("P2");
+        store.addPatient(patient("P3"));
+
+        assertEquals("Paciente P1", before.findPatient("P1").orElseThrow().getName());
+        assertTrue(before.findPatient("P2").isPresent());
+        assertFalse(before.findPatient("P3").isPresent());
+        assertEquals(2, before.appointments().size());
+        assertTrue(before.findAppointment(second.getId()).isPresent());
+        Appointment frozen = before.findAppointment(first.getId()).orElseThrow();
+        assertEquals(StandardPriceStrategy.class, frozen.getPriceStrategy().getClass());
+        assertEquals(0, new BigDecimal("100").compareTo(frozen.getFinalPrice()));
+
+        ClinicSnapshot after = store.snapshot();
+        assertEquals("Ana María", after.findPatient("P1").orElseThrow().getName());
+        assertEquals(SpecialistPriceStrategy.class,
+                after.findAppointment(first.getId()).orElseThrow().getPriceStrategy().getClass());
+        assertEquals(1, after.appointments().size());
+        assertEquals(2, after.patients().size());
+        assertEquals(store.getVersion(), after.getVersion());
+
+        store.removeDoctor("D1");
+        assertTrue(store.snapshot().appointments().isEmpty());
+        assertEquals(1, after.appointments().size());
+        LOG.info("Finalizando test shouldKeepPointInTimeView");
+    }
+
+    @Test
+    public void shouldNotSeeInPlaceEditsThroughSnapshotAppointments() {
+        LOG.info("Iniciado test shouldNotSeeInPlaceEditsThroughSnapshotAppointments");
+        ClinicDataStore store = new ClinicDataStore();
+        Patient ana = patient("P1");
+        Doctor doctor = doctor("D1");
+        store.addPatient(ana);
+        store.addDoctor(doctor);
+        Appointment booked = new Appointment(ana, doctor, BASE, 100.0, new StandardPriceStrategy());
+        store.addAppointment(booked);
+
+        ClinicSnapshot before = store.snapshot();
+        store.editPatient("P1", new Patient.Builder("P1", "Ana María", "555-9999", "H1").build());
+        store.editDoctor("D1", new Doctor("D1", "Otro Médico", "555-2222", "Cardiología", "LD1"));
+
+        Appointment frozen = before.findAppointment(booked.getId()).orElseThrow();
+        assertEquals("Paciente P1", frozen.getPatient().getName());
+        assertEquals("Médico D1", frozen.getDoctor().getName());
+        assertEquals("General", before.findDoctor("D1").orElseThrow().getSpecialty());
+        assertSame(before.findPatient("P1").orElseThrow(), frozen.getPatient());
+        assertEquals("Ana María", ana.getName());
+        LOG.info("Finalizando test shouldNotSeeInPlaceEditsThroughSnapshotAppointments");
+    }
+
+    @Test
+    public void shouldScanStableSnapshotWhileOthersWrite() throws Exception {
+        LOG.info("Iniciado test shouldScanStableSnapshotWhileOthersWrite");
+        ClinicDataStore store = new ClinicDataStore();
+        Doctor doctor = doctor("D1");
+        store.addDoctor(doctor);
+        for (int i = 0; i < 2_000; i++) {
+            Patient p = patient("P" + i);
+            store.addPatient(p);
+            store.addAppointment(new Appointment(p, doctor, BASE.plusMinutes(30L * i), 50.0,
+                    new StandardPriceStrategy()));
+        }
+        ClinicSnapshot report = store.snapshot();
+        BigDecimal expected = store.getAggregates().overall().revenue();
+
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> writer = executor.submit(() -> {
+                int writes = 0;
+                for (int i = 2_000; !done.get() && i < 200_000; i++, writes++) {
+                    Patient p = patient("P" + i);
+                    store.addPatient(p);
+                    Appointment a = new Appointment(p, doctor, BASE.plusMinutes(30L * i), 50.0,
+                            new StandardPriceStrategy());
+                    store.addAppointment(a);
+                    if (i % 3 == 0) {
+                        store.removeAppointment(a);
+                    }
+                    if (i % 5 == 0) {
+                        store.reprice(d -> true, BASE, BASE.plusMinutes(300), new SpecialistPriceStrategy());
+                    }
+                }
+                return writes;
+            });
+            for (int pass = 0; pass < 20; pass++) {
+                BigDecimal revenue = BigDecimal.ZERO;
+                int count = 0;
+                for (Appointment a : report.appointments()) {
+                    revenue = revenue.add(a.getFinalPrice());
+                    count++;
+                }
+                assertEquals(2_000, count);
+                assertEquals(0, expected.compareTo(revenue));
+            }
+            done.set(true);
+            assertTrue(writer.get() > 0);
+        } finally {
+            executor.shutdown();
+        }
+        ClinicSnapshot latest = store.snapshot();
+        assertEquals(store.scanAppointments().size(), latest.appointments().size());
+        assertEquals(store.scanPatients().size(), latest.patients().size());
+        LOG.info("Finalizando test shouldScanStableSnapshotWhileOthersWrite");
+    }
+
+    @Test
+    public void shouldMatchHashMapUnderRandomChanges() {
+        LOG.info("Iniciado test shouldMatchHashMapUnderRandomChanges");
+        // Claves con pocos hashes distintos para pasar también por los nodos de colisión
+        PersistentIndex<Key, Key> index = PersistentIndex.empty(k -> k);
+        Map<Key, Key> expected = new HashMap<>();
+        Random random = new Random(42);
+        PersistentIndex<Key, Key> kept = index;
+        Map<Key, Key> keptExpected = Map.of();
+        for (int i = 0; i < 50_000; i++) {
+            Key key = new Key(random.nextInt(5_000), random.nextInt(4) == 0);
+            if (random.nextInt(3) == 0) {
+                index = index.without(key);
+                expected.remove(key);
+            } else {
+                index = index.with(key);
+                expected.put(key, key);
+            }
+            if (i == 25_000) {
+                kept = index;
+                keptExpected = Map.copyOf(expected);
+            }
+        }
+        assertEquals(expected.size(), index.size());
+        assertEquals(expected.keySet(), new HashSet<>(index));
+        for (Key key : expected.keySet()) {
+            assertSame(expected.get(key), index.get(key));
+        }
+        assertNull(index.get(new Key(-1, false)));
+        assertEquals(keptExpected.keySet(), new HashSet<>(kept));
+        assertEquals(keptExpected.size(), kept.size());
+        LOG.info("Finalizando test shouldMatchHashMapUnderRandomChanges");
+    }
+
+    private record Key(int value, boolean colliding) {
+        @Override
+        public int hashCode() {
+            return colliding ? value % 7 : Integer.hashCode(value);
+        }
+    }
+}
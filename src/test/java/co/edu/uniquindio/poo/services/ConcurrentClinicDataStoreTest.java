@@ -0,0 +1,189 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Prueba de estrés del almacén con varios hilos reservando a la vez.
+ */
+public class ConcurrentClinicDataStoreTest {
+    private static final Logger LOG = Logger.getLogger(ConcurrentClinicDataStoreTest.class.getName());
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+    private static final int THREADS = Math.max(8, CORES);
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+
+    private static Patient patient(String id) {
+        return (Patient) new PatientFactory().createPerson(id, "Paciente " + id, "555-0000", "H" + id);
+    }
+
+    private static Doctor doctor(String id) {
+        return (Doctor) new DoctorFactory().createPerson(id, "Médico " + id, "555-1111", "General", "L" + id);
+    }
+
+    private static void runConcurrently(int threads, Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(task));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldNotLoseConcurrentUpdates() throws Exception {
+        LOG.info("Iniciado test shouldNotLoseConcurrentUpdates");
+        ClinicDataStore store = new ClinicDataStore();
+        store.addDoctor(doctor("D0"));
+        AtomicInteger threadIds = new AtomicInteger();
+        AtomicInteger sharedWins = new AtomicInteger();
+
+        runConcurrently(THREADS, () -> {
+            int t = threadIds.getAndIncrement();
+            Doctor d0 = store.findDoctor("D0").orElseThrow();
+            LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                Patient p = patient("P" + t + "-" + i);
+                store.addPatient(p);
+                LocalDateTime slot = base.plusMinutes((long) (t * OPERATIONS_PER_THREAD + i) * Appointment.DEFAULT_DURATION_MINUTES);
+                store.addAppointment(new Appointment(p, d0, slot, 10.0, new StandardPriceStrategy()));
+                try {
+                    store.addPatient(patient("SHARED-" + i));
+                    sharedWins.incrementAndGet();
+                } catch (IllegalArgumentException duplicated) {
+                    // Otro hilo lo registró primero
+                }
+            }
+            return null;
+        });
+
+        int expected = THREADS * OPERATIONS_PER_THREAD;
+        assertEquals(OPERATIONS_PER_THREAD, sharedWins.get());
+        assertEquals(expected + OPERATIONS_PER_THREAD, store.getPatients().size());
+        assertEquals(expected, store.getAppointments().size());
+        for (Patient p : store.getPatients()) {
+            assertSame(p, store.findPatient(p.getId()).orElseThrow());
+        }
+        for (Appointment a : store.getAppointments()) {
+            assertSame(a, store.findAppointment(a.getId()).orElseThrow());
+        }
+        assertEquals(expected, store.getDoctorAppointments("D0", LocalDateTime.MIN, LocalDateTime.MAX).size());
+        LOG.info("Finalizando test shouldNotLoseConcurrentUpdates");
+    }
+
+    @Test
+    public void shouldKeepIndexesConsistentWithConcurrentCascades() throws Exception {
+        LOG.info("Iniciado test shouldKeepIndexesConsistentWithConcurrentCascades");
+        ClinicDataStore store = new ClinicDataStore();
+        int doctorCount = 16;
+        for (int i = 0; i < doctorCount; i++) {
+            store.addDoctor(doctor("D" + i));
+        }
+        for (int i = 0; i < 64; i++) {
+            store.addPatient(patient("P" + i));
+        }
+
+        runConcurrently(THREADS, () -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+            for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+                if (i % 500 == 499) {
+                    store.removeDoctor("D" + random.nextInt(doctorCount));
+                    continue;
+                }
+                Patient p = store.findPatient("P" + random.nextInt(64)).orElseThrow();
+                store.findDoctor("D" + random.nextInt(doctorCount)).ifPresent(d -> {
+                    try {
+                        store.addAppointment(new Appointment(p, d, base.plusMinutes(random.nextInt(100_000)), 10.0,
+                                new StandardPriceStrategy()));
+                    } catch (IllegalArgumentException rejected) {
+                        // El médico fue dado de baja entre la búsqueda y la reserva, o la
+                        // hora elegida al azar se cruza con otra cita suya
+                    }
+                });
+            }
+            return null;
+        });
+
+        int indexed = 0;
+        for (Doctor d : store.getDoctors()) {
+            indexed += store.getDoctorAppointments(d.getId(), LocalDateTime.MIN, LocalDateTime.MAX).size();
+        }
+        assertEquals(store.getAppointments().size(), indexed);
+        for (Appointment a : store.getAppointments()) {
+            assertTrue(store.findDoctor(a.getDoctor().getId()).isPresent());
+        }
+        LOG.info("Finalizando test shouldKeepIndexesConsistentWithConcurrentCascades");
+    }
+
+    /**
+     * Mide lecturas y altas con 1, 2, 4... hilos, siempre incluyendo
+     * {@link #THREADS}, y registra las operaciones por segundo. Solo informa:
+     * el escalado depende de la máquina y no se exige aquí.
+     */
+    @Test
+    public void shouldReportThroughputPerThreadCount() throws Exception {
+        LOG.info("Iniciado test shouldReportThroughputPerThreadCount");
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < THREADS; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(THREADS);
+        // Una vuelta descartada para que la compilación JIT no penalice a la primera medida
+        operationsPerSecond(THREADS);
+        for (int threads : threadCounts) {
+            LOG.info(String.format("%d hilos: %.0f ops/s", threads, operationsPerSecond(threads)));
+        }
+        LOG.info("Finalizando test shouldReportThroughputPerThreadCount");
+    }
+
+    private static double operationsPerSecond(int threads) throws Exception {
+        ClinicDataStore store = new ClinicDataStore();
+        for (int i = 0; i < 32; i++) {
+            store.addDoctor(doctor("D" + i));
+            store.addPatient(patient("P" + i));
+        }
+        AtomicInteger threadIds = new AtomicInteger();
+        long start = System.nanoTime();
+        runConcurrently(threads, () -> {
+            int t = threadIds.getAndIncrement();
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+            for (int i = 0; i < OPERATIONS_PER_THREAD * 10; i++) {
+                String doctorId = "D" + random.nextInt(32);
+                if (i % 10 == 0) {
+                    store.addPatient(patient("T" + t + "-" + i));
+                } else {
+                    store.findPatient("P" + random.nextInt(32));
+                    store.getDoctorAppointments(doctorId, base, base.plusHours(8));
+                }
+            }
+            return null;
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        return threads * OPERATIONS_PER_THREAD * 10 / seconds;
+    }
+}
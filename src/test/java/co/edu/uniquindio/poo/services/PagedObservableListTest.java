@@ -0,0 +1,88 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Pruebas de la lista paginada de citas sobre el índice temporal del almacén.
+ */
+public class PagedObservableListTest {
+    private static final Logger LOG = Logger.getLogger(PagedObservableListTest.class.getName());
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    private ClinicDataStore store;
+    private Patient patient;
+
+    @BeforeEach
+    public void setUp() {
+        store = new ClinicDataStore();
+        patient = (Patient) new PatientFactory().createPerson("P1", "Paciente", "555-0000", "H1");
+        store.addPatient(patient);
+        store.batch(() -> {
+            for (int i = 0; i < 50; i++) {
+                Doctor doctor = (Doctor) new DoctorFactory().createPerson("D" + i, "Médico " + i, "555-1111",
+                        "General", "L" + i);
+                store.addDoctor(doctor);
+                for (int j = 0; j < 20; j++) {
+                    store.addAppointment(new Appointment(patient, doctor, BASE.plusHours(j), 50.0,
+                            new StandardPriceStrategy()));
+                }
+            }
+        });
+    }
+
+    @Test
+    public void shouldReadRowsInOrderWithBoundedCache() {
+        LOG.info("Iniciado test shouldReadRowsInOrderWithBoundedCache");
+        PagedObservableList<Appointment> rows = new PagedObservableList<>(store.appointmentsByDate(false), 10, 3);
+
+        assertEquals(1000, rows.size());
+        Appointment previous = null;
+        for (int i = 0; i < rows.size(); i++) {
+            Appointment current = rows.get(i);
+            if (previous != null) {
+                assertTrue(AppointmentTimeline.CHRONOLOGICAL.compare(previous, current) < 0);
+            }
+            previous = current;
+        }
+        assertEquals(3, rows.getCachedPages());
+        assertSame(previous, rows.get(999));
+        assertEquals(100, rows.getMisses());
+        LOG.info("Finalizando test shouldReadRowsInOrderWithBoundedCache");
+    }
+
+    @Test
+    public void shouldJumpToDistantPageAndFollowChanges() {
+        LOG.info("Iniciado test shouldJumpToDistantPageAndFollowChanges");
+        PagedObservableList<Appointment> rows = new PagedObservableList<>(store.appointmentsByDate(true), 10, 2);
+        List<Appointment> expected = store.scanAppointments().stream()
+                .sorted(AppointmentTimeline.CHRONOLOGICAL.reversed()).toList();
+
+        assertSame(expected.get(537), rows.get(537));
+        assertSame(expected.get(0), rows.get(0));
+
+        Appointment removed = rows.get(300);
+        store.removeAppointment(removed);
+        rows.invalidate(List.of(removed));
+
+        assertEquals(999, rows.size());
+        expected = store.scanAppointments().stream()
+                .sorted(AppointmentTimeline.CHRONOLOGICAL.reversed()).toList();
+        assertSame(expected.get(299), rows.get(299));
+        assertSame(expected.get(300), rows.get(300));
+        assertSame(expected.get(998), rows.get(998));
+        LOG.info("Finalizando test shouldJumpToDistantPageAndFollowChanges");
+    }
+}
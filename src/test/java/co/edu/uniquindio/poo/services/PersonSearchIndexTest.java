@@ -0,0 +1,76 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.model.Person;
+
+/**
+ * Pruebas de la búsqueda incremental de pacientes y médicos.
+ */
+public class PersonSearchIndexTest {
+    private static final Logger LOG = Logger.getLogger(PersonSearchIndexTest.class.getName());
+
+    private ClinicDataStore store;
+    private PersonSearchIndex<Patient> patients;
+    private PersonSearchIndex<Doctor> doctors;
+
+    @BeforeEach
+    public void setUp() {
+        store = new ClinicDataStore();
+        store.addPatient(patient("P001", "Ana García", "555-1234", "H1001"));
+        patients = PersonSearchIndex.patients(store);
+        doctors = PersonSearchIndex.doctors(store);
+    }
+
+    private static Patient patient(String id, String name, String phone, String history) {
+        return (Patient) new PatientFactory().createPerson(id, name, phone, history);
+    }
+
+    @Test
+    public void shouldFindByPrefixOfAnyField() {
+        LOG.info("Iniciado test shouldFindByPrefixOfAnyField");
+        store.addPatient(patient("P002", "Luis Pérez", "555-5678", "H1002"));
+        store.addDoctor((Doctor) new DoctorFactory().createPerson("D001", "Dra. María Gómez", "555-4321",
+                "Medicina General", "L1"));
+
+        assertEquals(List.of("P001"), ids(patients.search("gar", 10)));
+        assertEquals(List.of("P002"), ids(patients.search("PEREZ", 10)));
+        assertEquals(List.of("P002"), ids(patients.search("5555678", 10)));
+        assertEquals(List.of("P001"), ids(patients.search("h1001", 10)));
+        assertEquals(List.of("P001"), ids(patients.search("ana 555", 10)));
+        assertTrue(patients.search("ana luis", 10).isEmpty());
+        assertEquals(2, patients.search("", 10).size());
+        assertEquals(1, patients.search("", 1).size());
+        assertEquals("D001", doctors.search("medic gen", 10).get(0).getId());
+        LOG.info("Finalizando test shouldFindByPrefixOfAnyField");
+    }
+
+    @Test
+    public void shouldFollowEditsAndRemovals() {
+        LOG.info("Iniciado test shouldFollowEditsAndRemovals");
+        store.editPatient("P001", patient("P001", "Ana Torres", "555-1234", "H1001"));
+
+        assertTrue(patients.search("garcia", 10).isEmpty());
+        assertEquals(List.of("P001"), ids(patients.search("torres", 10)));
+
+        store.removePatient("P001");
+
+        assertTrue(patients.search("ana", 10).isEmpty());
+        assertEquals(0, patients.getTokenCount());
+        assertEquals(0, patients.getPostingCount());
+        LOG.info("Finalizando test shouldFollowEditsAndRemovals");
+    }
+
+    private static List<String> ids(List<? extends Person> people) {
+        return people.stream().map(Person::getId).toList();
+    }
+}
@@ -0,0 +1,54 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Pruebas del registro de estrategias y del precio final en caché.
+ */
+public class PriceStrategyRegistryTest {
+    private static final Logger LOG = Logger.getLogger(PriceStrategyRegistryTest.class.getName());
+
+    private static Appointment appointment(double basePrice, PriceStrategy strategy) {
+        Patient patient = (Patient) new PatientFactory().createPerson("P1", "Ana", "555-0000", "H1");
+        Doctor doctor = (Doctor) new DoctorFactory().createPerson("D1", "Luis", "555-1111", "General", "L1");
+        return new Appointment(patient, doctor, LocalDateTime.of(2030, 1, 1, 8, 0), basePrice, strategy);
+    }
+
+    @Test
+    public void shouldShareOneInstancePerStrategy() {
+        LOG.info("Iniciado test shouldShareOneInstancePerStrategy");
+        assertSame(PriceStrategyRegistry.SPECIALIST, appointment(10.0, new SpecialistPriceStrategy()).getPriceStrategy());
+        assertSame(PriceStrategyRegistry.STANDARD, PriceStrategyRegistry.byCode(StandardPriceStrategy.CODE));
+        assertSame(PriceStrategyRegistry.SPECIALIST, PriceStrategyRegistry.byName(" Especialista "));
+        assertThrows(IllegalArgumentException.class, () -> PriceStrategyRegistry.byCode((byte) 99));
+        assertThrows(IllegalArgumentException.class, () -> PriceStrategyRegistry.register(new StandardPriceStrategy()));
+        LOG.info("Finalizando test shouldShareOneInstancePerStrategy");
+    }
+
+    @Test
+    public void shouldKeepExactFinalPriceUntilStrategyChanges() {
+        LOG.info("Iniciado test shouldKeepExactFinalPriceUntilStrategyChanges");
+        Appointment appointment = appointment(0.1 + 0.2, PriceStrategyRegistry.STANDARD);
+
+        assertEquals(new BigDecimal("0.30"), appointment.getBasePrice());
+        assertEquals(new BigDecimal("0.30"), appointment.getFinalPrice());
+
+        appointment.setPriceStrategy(PriceStrategyRegistry.SPECIALIST);
+
+        assertEquals(new BigDecimal("0.38"), appointment.getFinalPrice());
+        assertEquals(appointment.calculateFinalPrice(), appointment.getFinalPrice());
+        LOG.info("Finalizando test shouldKeepExactFinalPriceUntilStrategyChanges");
+    }
+}
@@ -0,0 +1,203 @@
+package co.edu.uniquindio.poo.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Patient;
+
+/**
+ * Pruebas del almacén repartido: enrutado, réplicas de pacientes, consultas
+ * unidas entre particiones y escalado de las reservas con el número de particiones.
+ */
+public class ShardedClinicStoreTest {
+    private static final Logger LOG = Logger.getLogger(ShardedClinicStoreTest.class.getName());
+    private static final int CORES = Runtime.getRuntime().availableProcessors();
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 3, 4, 8, 0);
+
+    private static Patient patient(String id, String name) {
+        return (Patient) new PatientFactory().createPerson(id, name, "555-0000", "H" + id);
+    }
+
+    private static Doctor doctor(String id) {
+        return (Doctor) new DoctorFactory().createPerson(id, "Médico " + id, "555-1111", "General", "L" + id);
+    }
+
+    /** Sedes según el prefijo del id: "N-" norte y "S-" sur. */
+    private static ShardedClinicStore bySite() {
+        return new ShardedClinicStore(List.of(new ClinicDataStore(), new ClinicDataStore()),
+                id -> id.startsWith("N-") ? 0 : 1);
+    }
+
+    @Test
+    public void shouldRouteBySiteAndReplicateVisitingPatients() {
+        LOG.info("Iniciado test shouldRouteBySiteAndReplicateVisitingPatients");
+        ShardedClinicStore store = bySite();
+        Patient ana = patient("N-P1", "Ana Gómez");
+        Patient luis = patient("S-P2", "Luis Gómez");
+        Doctor north = doctor("N-D1");
+        Doctor south = doctor("S-D1");
+        store.addPatient(ana);
+        store.addPatient(luis);
+        store.addDoctor(north);
+        store.addDoctor(south);
+
+        Appointment visit = new Appointment(ana, south, BASE.plusHours(2), 80.0, new StandardPriceStrategy());
+        store.addAppointment(new Appointment(ana, north, BASE, 80.0, new StandardPriceStrategy()));
+        store.addAppointment(visit);
+        store.addAppointment(new Appointment(luis, south, BASE, 80.0, new StandardPriceStrategy()));
+
+        assertTrue(store.getShard(1).findPatient("N-P1").isPresent());
+        assertEquals(2, store.scanPatients().size());
+        assertEquals(2, store.scanDoctors().size());
+        assertEquals(3, store.scanAppointments().size());
+        assertEquals(1, store.getShard(0).scanAppointments().size());
+
+        List<Appointment> agenda = store.getPatientAppointments("N-P1");
+        assertEquals(List.of(BASE, BASE.plusHours(2)), agenda.stream().map(Appointment::getDateTime).toList());
+        assertEquals(BASE.plusHours(2),
+                store.getNextPatientAppointment("N-P1", BASE.plusMinutes(1)).orElseThrow().getDateTime());
+        List<Appointment> day = store.scanAppointments(BASE, BASE.plusDays(1));
+        assertEquals(3, day.size());
+        assertFalse(day.get(2).getDateTime().isBefore(day.get(1).getDateTime()));
+        assertTrue(store.findDoctorConflict("S-D1", BASE.plusHours(2), 30).isPresent());
+        assertEquals(visit.getId(), store.findAppointment(visit.getId()).orElseThrow().getId());
+
+        List<Patient> found = store.searchPatients("gomez", 10);
+        assertEquals(List.of("N-P1", "S-P2"), found.stream().map(Patient::getId).sorted().toList());
+
+        store.editPatient("N-P1", new Patient.Builder("N-P1", "Ana Ruiz", "555-2222", "HN-P1").build());
+        assertEquals("Ana Ruiz", store.getShard(1).findPatient("N-P1").orElseThrow().getName());
+
+        store.removePatient("N-P1");
+        assertFalse(store.getShard(1).findPatient("N-P1").isPresent());
+        assertEquals(1, store.scanAppointments().size());
+        assertThrows(IllegalArgumentException.class, () -> store.addAppointment(
+                new Appointment(ana, south, BASE.plusHours(5), 80.0, new StandardPriceStrategy())));
+        LOG.info("Finalizando test shouldRouteBySiteAndReplicateVisitingPatients");
+    }
+
+    /**
+     * Reproduce sin hilos las dos carreras entre una reserva y la baja del
+     * paciente: la baja llega justo después de crear la réplica, y la reserva
+     * encuentra una réplica de un paciente ya dado de baja en su partición.
+     */
+    @Test
+    public void shouldRollBackBookingsForPatientsRemovedMeanwhile() {
+        LOG.info("Iniciado test shouldRollBackBookingsForPatientsRemovedMeanwhile");
+        ShardedClinicStore store = bySite();
+        Patient ana = patient("N-P1", "Ana Gómez");
+        Doctor south = doctor("S-D1");
+        store.addPatient(ana);
+        store.addDoctor(south);
+        // La baja empieza por la partición del paciente en cuanto aparece la réplica
+        store.getShard(1).registerObserver(event -> {
+            if (event.getAdded(EntityType.PATIENT).contains("N-P1")) {
+                store.getShard(0).removePatient("N-P1");
+            }
+        });
+
+        assertThrows(IllegalArgumentException.class, () -> store.addAppointment(
+                new Appointment(ana, south, BASE, 80.0, new StandardPriceStrategy())));
+        assertFalse(store.getShard(1).findPatient("N-P1").isPresent());
+        assertEquals(0, store.scanAppointments().size());
+
+        store.addPatient(ana);
+        store.getShard(1).addPatient(ana);
+        store.getShard(0).removePatient("N-P1");
+        assertThrows(IllegalArgumentException.class, () -> store.addAppointment(
+                new Appointment(ana, south, BASE.plusHours(1), 80.0, new StandardPriceStrategy())));
+        assertFalse(store.getShard(1).findPatient("N-P1").isPresent());
+        assertEquals(0, store.scanAppointments().size());
+        LOG.info("Finalizando test shouldRollBackBookingsForPatientsRemovedMeanwhile");
+    }
+
+    @Test
+    public void shouldMergeRepricingAcrossShards() {
+        LOG.info("Iniciado test shouldMergeRepricingAcrossShards");
+        ShardedClinicStore store = ShardedClinicStore.byIdHash(4);
+        Patient patient = patient("P0", "Paciente");
+        store.addPatient(patient);
+        for (int d = 0; d < 20; d++) {
+            Doctor doctor = doctor("D" + d);
+            store.addDoctor(doctor);
+            store.addAppointment(new Appointment(patient, doctor, BASE.plusMinutes(30L * d), 100.0,
+                    new StandardPriceStrategy()));
+        }
+        RepricingReport report = store.reprice(d -> true, BASE, BASE.plusDays(1), new SpecialistPriceStrategy());
+        assertEquals(20, report.matched());
+        assertEquals(20, report.repriced());
+        assertTrue(report.revenueDelta().signum() > 0);
+        assertEquals(20, store.getPatientAppointments("P0").size());
+        assertEquals(20, store.getStats().appointments());
+        LOG.info("Finalizando test shouldMergeRepricingAcrossShards");
+    }
+
+    /**
+     * Cada hilo reserva con sus propios médicos. Con una partición todas las
+     * reservas se turnan en el mismo cerrojo de citas; con cuatro, las de
+     * particiones distintas avanzan a la vez. Solo se registra la mejora: el
+     * escalado depende de la máquina y no se exige aquí.
+     */
+    @Test
+    public void shouldScaleBookingsWithShardCount() throws Exception {
+        LOG.info("Iniciado test shouldScaleBookingsWithShardCount");
+        double single = bookingsPerSecond(1);
+        double four = bookingsPerSecond(4);
+        LOG.info(String.format("Reservas por segundo con %d núcleos: 1 partición %.0f, 4 particiones %.0f (x%.2f)",
+                CORES, single, four, four / single));
+        LOG.info("Finalizando test shouldScaleBookingsWithShardCount");
+    }
+
+    private static double bookingsPerSecond(int shardCount) throws Exception {
+        int threads = 8;
+        int perThread = 5_000;
+        ShardedClinicStore store = ShardedClinicStore.byIdHash(shardCount);
+        List<Patient> patients = new ArrayList<>();
+        List<Doctor> doctors = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Patient p = patient("P" + t, "Paciente " + t);
+            Doctor d = doctor("D" + t);
+            store.addPatient(p);
+            store.addDoctor(d);
+            patients.add(p);
+            doctors.add(d);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                Patient p = patients.get(t);
+                Doctor d = doctors.get(t);
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        store.addAppointment(new Appointment(p, d, BASE.plusMinutes(30L * i), 50.0,
+                                new StandardPriceStrategy()));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            assertEquals(threads * perThread, store.scanAppointments().size());
+            return threads * perThread / seconds;
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package co.edu.uniquindio.poo.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Doctor;
+import co.edu.uniquindio.poo.model.Money;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.SpecialistPriceStrategy;
+import co.edu.uniquindio.poo.services.StandardPriceStrategy;
+
+/**
+ * Pruebas de la exportación del libro de citas.
+ */
+public class AppointmentExporterTest {
+    private static final Logger LOG = Logger.getLogger(AppointmentExporterTest.class.getName());
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+    private static ClinicDataStore storeWith(int appointments) {
+        ClinicDataStore store = new ClinicDataStore();
+        Patient patient = new Patient.Builder("P1", "García, \"Ana\"", "555", "H1").build();
+        Doctor doctor = new Doctor("D1", "Dr. López", "556", "Cardiología", "L1");
+        store.addPatient(patient);
+        store.addDoctor(doctor);
+        store.batch(() -> {
+            for (int i = 0; i < appointments; i++) {
+                store.addAppointment(new Appointment(patient, doctor, BASE.plusMinutes(30L * i), 100.0,
+                        i % 2 == 0 ? new StandardPriceStrategy() : new SpecialistPriceStrategy()));
+            }
+        });
+        return store;
+    }
+
+    @Test
+    public void shouldExportDateRangeAsCsv() throws IOException {
+        LOG.info("Iniciado test shouldExportDateRangeAsCsv");
+        ClinicDataStore store = storeWith(10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportReport report = new AppointmentExporter(store).export(Channels.newChannel(out), ExportFormat.CSV,
+                BASE.plusMinutes(60), BASE.plusMinutes(150));
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, report.rows());
+        assertEquals(4, lines.length);
+        assertEquals("id,patientId,patientName,doctorId,doctorName,dateTime,basePrice,finalPrice", lines[0]);
+        assertEquals("P1,\"García, \"\"Ana\"\"\",D1,Dr. López,2030-01-01T09:00,100.00,100.00",
+                lines[1].substring(lines[1].indexOf(',') + 1));
+        assertEquals(out.size(), report.bytes());
+        LOG.info("Finalizando test shouldExportDateRangeAsCsv");
+    }
+
+    @Test
+    public void shouldExportBinaryLedger() throws IOException {
+        LOG.info("Iniciado test shouldExportBinaryLedger");
+        ClinicDataStore store = storeWith(5);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        new AppointmentExporter(store).export(Channels.newChannel(out), ExportFormat.BINARY);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(AppointmentExporter.MAGIC, in.readInt());
+        assertEquals(AppointmentExporter.FORMAT_VERSION, in.readInt());
+        BigDecimal revenue = Money.ZERO;
+        long rows = 0;
+        while (in.readByte() == AppointmentExporter.ENTRY) {
+            in.readLong();
+            for (int i = 0; i < 4; i++) {
+                in.skipBytes(in.readShort());
+            }
+            in.readLong();
+            in.readInt();
+            in.readLong();
+            revenue = revenue.add(Money.ofCents(in.readLong()));
+            rows++;
+        }
+        assertEquals(rows, in.readLong());
+        assertEquals(5, rows);
+        assertEquals(new BigDecimal("550.00"), revenue);
+        LOG.info("Finalizando test shouldExportBinaryLedger");
+    }
+
+    @Test
+    public void shouldStreamLargeLedgerWhileBooking() throws Exception {
+        LOG.info("Iniciado test shouldStreamLargeLedgerWhileBooking");
+        int rows = 300_000;
+        ClinicDataStore store = storeWith(rows);
+        Patient patient = store.findPatient("P1").orElseThrow();
+        Doctor other = new Doctor("D2", "Dra. Gómez", "557", "General", "L2");
+        store.addDoctor(other);
+        Thread booking = new Thread(() -> {
+            for (int i = 0; i < 5_000; i++) {
+                store.addAppointment(new Appointment(patient, other, BASE.minusDays(1).minusMinutes(30L * i), 50.0,
+                        new StandardPriceStrategy()));
+            }
+        });
+        AtomicLong discarded = new AtomicLong();
+        OutputStream sink = new OutputStream() {
+            @Override
+            public void write(int b) {
+                discarded.incrementAndGet();
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                discarded.addAndGet(len);
+            }
+        };
+
+        booking.start();
+        ExportReport csv = new AppointmentExporter(store).export(Channels.newChannel(sink), ExportFormat.CSV,
+                BASE, LocalDateTime.MAX);
+        ExportReport binary = new AppointmentExporter(store).export(Channels.newChannel(sink), ExportFormat.BINARY,
+                BASE, LocalDateTime.MAX);
+        booking.join();
+
+        assertEquals(rows, csv.rows());
+        assertEquals(rows, binary.rows());
+        assertEquals(csv.bytes() + binary.bytes(), discarded.get());
+        LOG.info("CSV: " + csv);
+        LOG.info("Binario: " + binary);
+        LOG.info("Finalizando test shouldStreamLargeLedgerWhileBooking");
+    }
+}
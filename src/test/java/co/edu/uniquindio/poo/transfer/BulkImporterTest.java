@@ -0,0 +1,143 @@
+package co.edu.uniquindio.poo.transfer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import co.edu.uniquindio.poo.model.Appointment;
+import co.edu.uniquindio.poo.model.Patient;
+import co.edu.uniquindio.poo.services.ClinicDataStore;
+import co.edu.uniquindio.poo.services.DataChangeEvent;
+import co.edu.uniquindio.poo.services.EntityType;
+import co.edu.uniquindio.poo.services.SpecialistPriceStrategy;
+
+/**
+ * Pruebas de la importación masiva en CSV y JSON.
+ */
+public class BulkImporterTest {
+    private static final Logger LOG = Logger.getLogger(BulkImporterTest.class.getName());
+
+    @Test
+    public void shouldImportCsvPatientsAndReportRejectedRows() throws IOException {
+        LOG.info("Iniciado test shouldImportCsvPatientsAndReportRejectedRows");
+        ClinicDataStore store = new ClinicDataStore();
+        List<DataChangeEvent> events = new ArrayList<>();
+        store.registerObserver(events::add);
+        String csv = """
+                id,name,phone,historyNumber,address
+                P1,"Garcia, Ana",555-1234,H1,"Calle ""Falsa"" 123"
+                P2,Luis Perez,555-5678,H2,
+                P1,Duplicado,555-0000,H9,X
+                P3,,555-0000,H3,X
+                P4,Sin columnas
+                P5,"Varias
+                líneas",555-9999,H5,Y
+                """;
+
+        ImportReport report = new BulkImporter(store, 2).importPatients(new StringReader(csv), ImportFormat.CSV);
+
+        assertEquals(3, report.accepted());
+        assertEquals(3, report.rejected());
+        assertEquals(List.of(4L, 5L, 6L), report.rejections().stream().map(ImportReport.RejectedRow::line).toList());
+        assertEquals(3, report.batches());
+        // El segundo lote solo tiene filas rechazadas y no genera notificación
+        assertEquals(2, events.size());
+
+        Patient ana = store.findPatient("P1").orElseThrow();
+        assertEquals("Garcia, Ana", ana.getName());
+        assertEquals("Calle \"Falsa\" 123", ana.getAddress());
+        assertEquals("N/A", store.findPatient("P2").orElseThrow().getAddress());
+        assertEquals("Varias\nlíneas", store.findPatient("P5").orElseThrow().getName());
+        LOG.info("Finalizando test shouldImportCsvPatientsAndReportRejectedRows");
+    }
+
+    @Test
+    public void shouldImportJsonAppointmentsReferencingStoredPeople() throws IOException {
+        LOG.info("Iniciado test shouldImportJsonAppointmentsReferencingStoredPeople");
+        ClinicDataStore store = new ClinicDataStore();
+        BulkImporter importer = new BulkImporter(store);
+        importer.importPatients(new StringReader("""
+                {"id": "P1", "name": "Ana", "phone": "555", "historyNumber": "H1", "address": null}
+                {"id": "P2", "name": "Luis \\u00d1u\\u00f1ez", "phone": "556"}
+                """), ImportFormat.JSON);
+        importer.importDoctors(new StringReader("""
+                [{"id": "D1", "name": "Dr. Lopez", "phone": "557", "specialty": "Cardiología", "licenseNumber": "L1"}]
+                """), ImportFormat.JSON);
+
+        ImportReport report = importer.importAppointments(new StringReader("""
+                [
+                  {"patientId": "P1", "doctorId": "D1", "dateTime": "2030-01-01T08:00", "durationMinutes": 60,
+                   "basePrice": 100, "strategy": "specialist"},
+                  {"patientId": "P2", "doctorId": "D1", "dateTime": "2030-01-01T08:30", "basePrice": 50},
+                  {"patientId": "P9", "doctorId": "D1", "dateTime": "2030-01-01T10:00", "basePrice": 50},
+                  {"patientId": "P2", "doctorId": "D1", "dateTime": "mañana", "basePrice": 50}
+                ]
+                """), ImportFormat.JSON);
+
+        assertEquals(1, report.accepted());
+        assertEquals(3, report.rejected());
+        assertEquals("Luis Ñuñez", store.findPatient("P2").orElseThrow().getName());
+        Appointment imported = store.getDoctorAppointments("D1", LocalDateTime.of(2030, 1, 1, 0, 0),
+                LocalDateTime.of(2030, 1, 2, 0, 0)).get(0);
+        assertEquals(60, imported.getDurationMinutes());
+        assertTrue(imported.getPriceStrategy() instanceof SpecialistPriceStrategy);
+        assertTrue(report.rejections().get(0).reason().startsWith("El médico ya tiene la cita"));
+        LOG.info("Finalizando test shouldImportJsonAppointmentsReferencingStoredPeople");
+    }
+
+    @Test
+    public void shouldStreamLargeImportsInBatches() throws IOException {
+        LOG.info("Iniciado test shouldStreamLargeImportsInBatches");
+        int rows = 200_000;
+        ClinicDataStore store = new ClinicDataStore();
+        int[] notifications = new int[1];
+        store.registerObserver(event -> notifications[0]++);
+
+        ImportReport report = new BulkImporter(store).importRecords(generatedCsv(rows), ImportFormat.CSV,
+                EntityType.PATIENT);
+
+        assertEquals(rows, report.accepted());
+        assertEquals(rows / BulkImporter.DEFAULT_BATCH_SIZE, notifications[0]);
+        assertEquals(rows, store.scanPatients().size());
+        LOG.info("Importación de " + rows + " pacientes: " + report);
+        LOG.info("Finalizando test shouldStreamLargeImportsInBatches");
+    }
+
+    /** CSV generado bajo demanda, sin materializar el archivo completo. */
+    private static Reader generatedCsv(int rows) {
+        return new Reader() {
+            private final StringBuilder pending = new StringBuilder("id,name,phone,historyNumber,address\n");
+            private int next;
+
+            @Override
+            public int read(char[] buffer, int offset, int length) {
+                while (pending.length() < length && next < rows) {
+                    pending.append('P').append(next).append(",Paciente ").append(next)
+                            .append(",555-").append(next % 10_000).append(",H").append(next).append(",Calle ")
+                            .append(next % 100).append('\n');
+                    next++;
+                }
+                if (pending.length() == 0) {
+                    return -1;
+                }
+                int count = Math.min(length, pending.length());
+                pending.getChars(0, count, buffer, offset);
+                pending.delete(0, count);
+                return count;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}